@@ -21,6 +21,7 @@ package org.apache.stratos.autoscaler.applications.topic;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.autoscaler.applications.ApplicationHolder;
+import org.apache.stratos.messaging.broker.publish.EventPublishCallback;
 import org.apache.stratos.messaging.broker.publish.EventPublisher;
 import org.apache.stratos.messaging.broker.publish.EventPublisherPool;
 import org.apache.stratos.messaging.domain.application.Application;
@@ -40,6 +41,21 @@ import java.util.Set;
 public class ApplicationsEventPublisher {
     private static final Log log = LogFactory.getLog(ApplicationsEventPublisher.class);
 
+    /**
+     * Logs events which could not be published asynchronously.
+     */
+    private static final EventPublishCallback PUBLISH_CALLBACK = new EventPublishCallback() {
+        @Override
+        public void onSuccess(Event event) {
+        }
+
+        @Override
+        public void onFailure(Event event, Throwable cause) {
+            log.error(String.format("Could not publish application event: [event] %s",
+                    event.getClass().getName()), cause);
+        }
+    };
+
     public static void sendCompleteApplicationsEvent(Applications completeApplications) {
         ApplicationHolder.acquireReadLock();
         try{
@@ -187,6 +203,10 @@ public class ApplicationsEventPublisher {
         //publishing events to application status topic
         String applicationTopic = MessagingUtil.getMessageTopicName(event);
         EventPublisher eventPublisher = EventPublisherPool.getPublisher(applicationTopic);
-        eventPublisher.publish(event);
+        if (EventPublisher.isAsyncPublishingEnabled()) {
+            eventPublisher.publishAsync(event, PUBLISH_CALLBACK);
+        } else {
+            eventPublisher.publish(event);
+        }
     }
 }
@@ -38,50 +38,138 @@ import org.apache.stratos.common.Properties;
 import org.apache.stratos.common.Property;
 import org.apache.stratos.common.constants.StratosConstants;
 import org.apache.stratos.common.partition.PartitionRef;
+import org.apache.stratos.common.threading.StratosThreadPool;
 
 import java.rmi.RemoteException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.*;
 
 /**
- * This class will call cloud controller web service to take the action decided by Autoscaler
+ * This class will call cloud controller web service to take the action decided by Autoscaler.
+ * <p/>
+ * Service calls are made concurrently through a pool of stubs, each with its own connection. The
+ * number of instances being started concurrently in a network partition, and hence in the IaaS it
+ * belongs to, is limited.
  */
 public class AutoscalerCloudControllerClient {
 
     private static final Log log = LogFactory.getLog(AutoscalerCloudControllerClient.class);
 
-    private static CloudControllerServiceStub stub;
+    private final ServiceStubPool<CloudControllerServiceStub> stubPool;
+    private final int maxConcurrentStarts;
+    private final long clientTimeout;
+    // key=network partition id, value=permits of the instances being started in the network partition
+    private final ConcurrentMap<String, Semaphore> networkPartitionStartPermits =
+            new ConcurrentHashMap<String, Semaphore>();
+    private final ExecutorService executorService;
 
     private AutoscalerCloudControllerClient() {
+        XMLConfiguration conf = ConfUtil.getInstance(null).getConfiguration();
+        int clientPoolSize = Math.max(1, conf.getInt(AutoscalerConstants.CLOUD_CONTROLLER_CLIENT_POOL_SIZE, 10));
+        maxConcurrentStarts = Math.max(1, conf.getInt(AutoscalerConstants.CLOUD_CONTROLLER_MAX_CONCURRENT_STARTS, 5));
+        clientTimeout = conf.getInt("autoscaler.cloudController.clientTimeout", 180000);
+        executorService = StratosThreadPool.getExecutorService(
+                AutoscalerConstants.CLOUD_CONTROLLER_CLIENT_THREAD_POOL_ID, clientPoolSize);
+        List<CloudControllerServiceStub> stubs = new ArrayList<CloudControllerServiceStub>();
         try {
-            XMLConfiguration conf = ConfUtil.getInstance(null).getConfiguration();
             int port = conf.getInt("autoscaler.cloudController.port", AutoscalerConstants.CLOUD_CONTROLLER_DEFAULT_PORT);
             String hostname = conf.getString("autoscaler.cloudController.hostname", "localhost");
             String epr = "https://" + hostname + ":" + port + "/" + AutoscalerConstants.CLOUD_CONTROLLER_SERVICE_SFX;
-            int cloudControllerClientTimeout = conf.getInt("autoscaler.cloudController.clientTimeout", 180000);
 
-            stub = new CloudControllerServiceStub(epr);
-            stub._getServiceClient().getOptions().setProperty(HTTPConstants.SO_TIMEOUT, cloudControllerClientTimeout);
-            stub._getServiceClient().getOptions().setProperty(HTTPConstants.CONNECTION_TIMEOUT,
-                    cloudControllerClientTimeout);
+            for (int i = 0; i < clientPoolSize; i++) {
+                CloudControllerServiceStub stub = new CloudControllerServiceStub(epr);
+                stub._getServiceClient().getOptions().setProperty(HTTPConstants.SO_TIMEOUT, (int) clientTimeout);
+                stub._getServiceClient().getOptions().setProperty(HTTPConstants.CONNECTION_TIMEOUT,
+                        (int) clientTimeout);
+                stubs.add(stub);
+            }
+            if (log.isInfoEnabled()) {
+                log.info(String.format("Cloud controller client initialized: [client-pool-size] %d " +
+                        "[max-concurrent-starts] %d", clientPoolSize, maxConcurrentStarts));
+            }
         } catch (Exception e) {
             log.error("Could not initialize cloud controller client", e);
         }
+        stubPool = new ServiceStubPool<CloudControllerServiceStub>(stubs, clientTimeout);
     }
 
     public static AutoscalerCloudControllerClient getInstance() {
         return InstanceHolder.INSTANCE;
     }
 
-    public synchronized MemberContext startInstance(PartitionRef partition,
-                                                    String clusterId, String clusterInstanceId,
-                                                    String networkPartitionId, int minMemberCount,
-                                                    String scalingDecisionId) throws SpawningException {
+    /**
+     * Starts an instance in a thread of the client and returns without waiting for the instance.
+     *
+     * @return future of the member context of the instance, failing with a spawning exception
+     */
+    public Future<MemberContext> startInstanceAsync(final PartitionRef partition, final String clusterId,
+                                                    final String clusterInstanceId,
+                                                    final String networkPartitionId, final int minMemberCount,
+                                                    final String scalingDecisionId) {
+        return executorService.submit(new Callable<MemberContext>() {
+            @Override
+            public MemberContext call() throws SpawningException {
+                return startInstance(partition, clusterId, clusterInstanceId, networkPartitionId, minMemberCount,
+                        scalingDecisionId);
+            }
+        });
+    }
+
+    /**
+     * Starts the given number of instances in a thread of the client and returns without waiting
+     * for the instances.
+     *
+     * @return future of the member contexts of the instances, failing with a spawning exception
+     */
+    public Future<MemberContext[]> startInstancesAsync(final PartitionRef partition, final String clusterId,
+                                                       final String clusterInstanceId,
+                                                       final String networkPartitionId, final int minMemberCount,
+                                                       final String scalingDecisionId, final int count) {
+        return executorService.submit(new Callable<MemberContext[]>() {
+            @Override
+            public MemberContext[] call() throws SpawningException {
+                return startInstances(partition, clusterId, clusterInstanceId, networkPartitionId, minMemberCount,
+                        scalingDecisionId, count);
+            }
+        });
+    }
+
+    public MemberContext startInstance(PartitionRef partition,
+                                       String clusterId, String clusterInstanceId,
+                                       String networkPartitionId, int minMemberCount,
+                                       String scalingDecisionId) throws SpawningException {
+        MemberContext[] memberContexts = startInstances(partition, clusterId, clusterInstanceId,
+                networkPartitionId, minMemberCount, scalingDecisionId, 1);
+        return (memberContexts.length > 0) ? memberContexts[0] : null;
+    }
+
+    /**
+     * Starts the given number of instances in a partition with a single cloud controller service call.
+     *
+     * @return member contexts of the instances
+     */
+    public MemberContext[] startInstances(PartitionRef partition,
+                                          String clusterId, String clusterInstanceId,
+                                          String networkPartitionId, int minMemberCount,
+                                          String scalingDecisionId, int count) throws SpawningException {
+        Semaphore startPermits = getStartPermits(networkPartitionId);
+        // a batch larger than the limit takes all the permits of the network partition
+        int permits = Math.min(count, maxConcurrentStarts);
+        CloudControllerServiceStub stub = null;
+        boolean permitAcquired = false;
         try {
+            permitAcquired = startPermits.tryAcquire(permits, clientTimeout, TimeUnit.MILLISECONDS);
+            if (!permitAcquired) {
+                String message = String.format("Timed out waiting for other instances being started in the " +
+                        "network partition: [cluster] %s [network-partition-id] %s", clusterId, networkPartitionId);
+                log.error(message);
+                throw new SpawningException(message, null);
+            }
             if (log.isInfoEnabled()) {
-                log.info(String.format("Trying to spawn an instance via cloud controller: " +
-                                "[cluster] %s [partition] %s [network-partition-id] %s",
-                        clusterId, partition.getId(), networkPartitionId));
+                log.info(String.format("Trying to spawn instances via cloud controller: " +
+                                "[cluster] %s [partition] %s [network-partition-id] %s [count] %d",
+                        clusterId, partition.getId(), networkPartitionId, count));
             }
 
             XMLConfiguration conf = ConfUtil.getInstance(null).getConfiguration();
@@ -90,33 +178,44 @@ public class AutoscalerCloudControllerClient {
                 log.debug("Member obsolete expiry time is set to: " + expiryTime);
             }
 
-            InstanceContext instanceContext = new InstanceContext();
-            instanceContext.setClusterId(clusterId);
-            instanceContext.setClusterInstanceId(clusterInstanceId);
-            instanceContext.setPartition(AutoscalerObjectConverter.convertPartitionToCCPartition(partition));
-            instanceContext.setInitTime(System.currentTimeMillis());
-            instanceContext.setObsoleteExpiryTime(expiryTime);
-            instanceContext.setNetworkPartitionId(networkPartitionId);
-
-            Properties memberContextProps = new Properties();
-            Property minCountProp = new Property();
-            minCountProp.setName(StratosConstants.MIN_COUNT);
-            minCountProp.setValue(String.valueOf(minMemberCount));
-            memberContextProps.addProperty(minCountProp);
-            Property scalingDecisionIdProp = new Property();
-            scalingDecisionIdProp.setName(StratosConstants.SCALING_DECISION_ID);
-            scalingDecisionIdProp.setValue(String.valueOf(scalingDecisionId));
-            memberContextProps.addProperty(scalingDecisionIdProp);
-            instanceContext.setProperties(AutoscalerUtil.toStubProperties(memberContextProps));
+            InstanceContext[] instanceContexts = new InstanceContext[count];
+            for (int i = 0; i < count; i++) {
+                InstanceContext instanceContext = new InstanceContext();
+                instanceContext.setClusterId(clusterId);
+                instanceContext.setClusterInstanceId(clusterInstanceId);
+                instanceContext.setPartition(AutoscalerObjectConverter.convertPartitionToCCPartition(partition));
+                instanceContext.setInitTime(System.currentTimeMillis());
+                instanceContext.setObsoleteExpiryTime(expiryTime);
+                instanceContext.setNetworkPartitionId(networkPartitionId);
 
+                Properties memberContextProps = new Properties();
+                Property minCountProp = new Property();
+                minCountProp.setName(StratosConstants.MIN_COUNT);
+                minCountProp.setValue(String.valueOf(minMemberCount));
+                memberContextProps.addProperty(minCountProp);
+                Property scalingDecisionIdProp = new Property();
+                scalingDecisionIdProp.setName(StratosConstants.SCALING_DECISION_ID);
+                scalingDecisionIdProp.setValue(String.valueOf(scalingDecisionId));
+                memberContextProps.addProperty(scalingDecisionIdProp);
+                instanceContext.setProperties(AutoscalerUtil.toStubProperties(memberContextProps));
+                instanceContexts[i] = instanceContext;
+            }
+
+            stub = stubPool.borrow();
             long startTime = System.currentTimeMillis();
-            MemberContext memberContext = stub.startInstance(instanceContext);
+            MemberContext[] memberContexts;
+            if (count == 1) {
+                memberContexts = new MemberContext[]{stub.startInstance(instanceContexts[0])};
+            } else {
+                memberContexts = stub.startInstances(instanceContexts);
+            }
 
             if (log.isDebugEnabled()) {
                 long endTime = System.currentTimeMillis();
-                log.debug(String.format("Service call startInstance() returned in %dms", (endTime - startTime)));
+                log.debug(String.format("Service call startInstances() returned in %dms: [count] %d",
+                        (endTime - startTime), count));
             }
-            return memberContext;
+            return (memberContexts == null) ? new MemberContext[0] : memberContexts;
         } catch (CloudControllerServiceCartridgeNotFoundExceptionException e) {
             String message = e.getFaultMessage().getCartridgeNotFoundException().getMessage();
             log.error(message, e);
@@ -132,11 +231,20 @@ public class AutoscalerCloudControllerClient {
             String message = e.getMessage();
             log.error(message, e);
             throw new SpawningException(message, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            String message = String.format("Interrupted while starting instances: [cluster] %s", clusterId);
+            log.error(message, e);
+            throw new SpawningException(message, e);
+        } finally {
+            stubPool.release(stub);
+            if (permitAcquired) {
+                startPermits.release(permits);
+            }
         }
     }
 
-    public synchronized void createApplicationClusters(String appId,
-                                                       ApplicationClusterContext[] applicationClusterContexts) {
+    public void createApplicationClusters(String appId, ApplicationClusterContext[] applicationClusterContexts) {
         List<org.apache.stratos.cloud.controller.stub.domain.ApplicationClusterContext> contextDTOs =
                 new ArrayList<org.apache.stratos.cloud.controller.stub.domain.ApplicationClusterContext>();
         if (applicationClusterContexts != null) {
@@ -166,7 +274,9 @@ public class AutoscalerCloudControllerClient {
         org.apache.stratos.cloud.controller.stub.domain.ApplicationClusterContext[] applicationClusterContextDTOs =
                 new org.apache.stratos.cloud.controller.stub.domain.ApplicationClusterContext[contextDTOs.size()];
         contextDTOs.toArray(applicationClusterContextDTOs);
+        CloudControllerServiceStub stub = null;
         try {
+            stub = stubPool.borrow();
             stub.createApplicationClusters(appId, applicationClusterContextDTOs);
         } catch (RemoteException e) {
             String msg = e.getMessage();
@@ -174,6 +284,11 @@ public class AutoscalerCloudControllerClient {
         } catch (CloudControllerServiceApplicationClusterRegistrationExceptionException e) {
             String msg = e.getMessage();
             log.error(msg, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error(String.format("Interrupted while creating application clusters: [application] %s", appId), e);
+        } finally {
+            stubPool.release(stub);
         }
     }
 
@@ -200,7 +315,12 @@ public class AutoscalerCloudControllerClient {
             log.info(String.format("Terminating instance via cloud controller: [member] %s", memberId));
         }
         long startTime = System.currentTimeMillis();
-        stub.terminateInstance(memberId);
+        CloudControllerServiceStub stub = stubPool.borrow();
+        try {
+            stub.terminateInstance(memberId);
+        } finally {
+            stubPool.release(stub);
+        }
         if (log.isDebugEnabled()) {
             long endTime = System.currentTimeMillis();
             log.debug(String.format("Service call terminateInstance() returned in %dms", (endTime - startTime)));
@@ -211,16 +331,26 @@ public class AutoscalerCloudControllerClient {
         if (log.isDebugEnabled()) {
             log.debug(String.format("Terminating instance forcefully via cloud controller: [member] %s", memberId));
         }
-        stub.terminateInstanceForcefully(memberId);
+        CloudControllerServiceStub stub = stubPool.borrow();
+        try {
+            stub.terminateInstanceForcefully(memberId);
+        } finally {
+            stubPool.release(stub);
+        }
     }
 
     public void terminateAllInstances(String clusterId) throws RemoteException,
-            CloudControllerServiceInvalidClusterExceptionException {
+            CloudControllerServiceInvalidClusterExceptionException, InterruptedException {
         if (log.isInfoEnabled()) {
             log.info(String.format("Terminating all instances of cluster via cloud controller: [cluster] %s", clusterId));
         }
         long startTime = System.currentTimeMillis();
-        stub.terminateInstances(clusterId);
+        CloudControllerServiceStub stub = stubPool.borrow();
+        try {
+            stub.terminateInstances(clusterId);
+        } finally {
+            stubPool.release(stub);
+        }
 
         if (log.isDebugEnabled()) {
             long endTime = System.currentTimeMillis();
@@ -228,6 +358,19 @@ public class AutoscalerCloudControllerClient {
         }
     }
 
+    private Semaphore getStartPermits(String networkPartitionId) {
+        Semaphore startPermits = networkPartitionStartPermits.get(networkPartitionId);
+        if (startPermits == null) {
+            startPermits = new Semaphore(maxConcurrentStarts);
+            Semaphore existingStartPermits = networkPartitionStartPermits.putIfAbsent(networkPartitionId,
+                    startPermits);
+            if (existingStartPermits != null) {
+                startPermits = existingStartPermits;
+            }
+        }
+        return startPermits;
+    }
+
     /* An instance of a CloudControllerClient is created when the class is loaded.
      * Since the class is loaded only once, it is guaranteed that an object of
      * CloudControllerClient is created only once. Hence it is singleton.
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one 
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY 
+ * KIND, either express or implied.  TcSee the License for the 
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.client;
+
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of service stubs. A stub is used by one service call at a time, hence concurrent calls
+ * borrow a stub each and return it when the call is done.
+ */
+public class ServiceStubPool<T> {
+
+    private final BlockingQueue<T> stubs;
+    private final int poolSize;
+    private final long timeout;
+
+    /**
+     * @param stubs   stubs of the pool
+     * @param timeout milliseconds to wait for a stub to be returned when none is available
+     */
+    public ServiceStubPool(List<T> stubs, long timeout) {
+        this.poolSize = stubs.size();
+        this.stubs = new ArrayBlockingQueue<T>(Math.max(1, poolSize), false, stubs);
+        this.timeout = timeout;
+    }
+
+    /**
+     * Takes a stub from the pool, waiting up to the timeout for a stub to be returned.
+     */
+    public T borrow() throws InterruptedException, RemoteException {
+        T stub = stubs.poll(timeout, TimeUnit.MILLISECONDS);
+        if (stub == null) {
+            throw new RemoteException(String.format("No service stub available: [pool-size] %d", poolSize));
+        }
+        return stub;
+    }
+
+    /**
+     * Returns a borrowed stub to the pool, null is ignored.
+     */
+    public void release(T stub) {
+        if (stub != null) {
+            stubs.offer(stub);
+        }
+    }
+
+    public int getAvailableCount() {
+        return stubs.size();
+    }
+}
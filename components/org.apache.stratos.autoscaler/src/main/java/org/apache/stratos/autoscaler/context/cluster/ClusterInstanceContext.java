@@ -35,6 +35,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /*
  * It holds the runtime data of a VM cluster
@@ -78,12 +79,14 @@ public class ClusterInstanceContext extends InstanceContext {
     private StatefulKnowledgeSession obsoleteCheckKnowledgeSession;
     private StatefulKnowledgeSession scaleCheckKnowledgeSession;
     private StatefulKnowledgeSession dependentScaleCheckKnowledgeSession;
-    private AutoscalerRuleEvaluator autoscalerRuleEvaluator;
     private FactHandle minCheckFactHandle;
     private FactHandle maxCheckFactHandle;
     private FactHandle obsoleteCheckFactHandle;
     private FactHandle scaleCheckFactHandle;
     private FactHandle dependentScaleCheckFactHandle;
+    // whether a stat triggered evaluation is waiting to run
+    private final AtomicBoolean evaluationScheduled = new AtomicBoolean(false);
+    private volatile long lastEvaluationTime;
 
     public ClusterInstanceContext(String clusterInstanceId, String partitionAlgo,
                                   int min, int max, String networkPartitionId, String clusterId,
@@ -104,18 +107,7 @@ public class ClusterInstanceContext extends InstanceContext {
         this.hasScalingDependants = hasScalingDependants;
         this.groupScalingEnabledSubtree = groupScalingEnabledSubtree;
 
-        autoscalerRuleEvaluator = AutoscalerRuleEvaluator.getInstance();
-
-        this.obsoleteCheckKnowledgeSession = autoscalerRuleEvaluator.getStatefulSession(
-                StratosConstants.OBSOLETE_CHECK_DROOL_FILE);
-        this.scaleCheckKnowledgeSession = autoscalerRuleEvaluator.getStatefulSession(
-                StratosConstants.SCALE_CHECK_DROOL_FILE);
-        this.minCheckKnowledgeSession = autoscalerRuleEvaluator.getStatefulSession(
-                StratosConstants.MIN_CHECK_DROOL_FILE);
-        this.maxCheckKnowledgeSession = autoscalerRuleEvaluator.getStatefulSession(
-                StratosConstants.MAX_CHECK_DROOL_FILE);
-        this.dependentScaleCheckKnowledgeSession = autoscalerRuleEvaluator.getStatefulSession(
-                StratosConstants.DEPENDENT_SCALE_CHECK_DROOL_FILE);
+        // Knowledge sessions are created on first use, only the drools scaling engine uses them
     }
 
     public List<ClusterLevelPartitionContext> getPartitionCtxts() {
@@ -459,6 +451,27 @@ public class ClusterInstanceContext extends InstanceContext {
         this.scaleDownRequestsCount += 1;
     }
 
+    /**
+     * Marks a stat triggered evaluation as scheduled.
+     *
+     * @return false if an evaluation has already been scheduled and not run yet
+     */
+    public boolean markEvaluationScheduled() {
+        return evaluationScheduled.compareAndSet(false, true);
+    }
+
+    public void clearEvaluationScheduled() {
+        evaluationScheduled.set(false);
+    }
+
+    public long getLastEvaluationTime() {
+        return lastEvaluationTime;
+    }
+
+    public void setLastEvaluationTime(long lastEvaluationTime) {
+        this.lastEvaluationTime = lastEvaluationTime;
+    }
+
     public float getRequiredInstanceCountBasedOnStats() {
         return requiredInstanceCountBasedOnStats;
     }
@@ -503,7 +516,11 @@ public class ClusterInstanceContext extends InstanceContext {
         return groupScalingEnabledSubtree;
     }
 
-    public StatefulKnowledgeSession getMinCheckKnowledgeSession() {
+    public synchronized StatefulKnowledgeSession getMinCheckKnowledgeSession() {
+        if (minCheckKnowledgeSession == null) {
+            minCheckKnowledgeSession = AutoscalerRuleEvaluator.getInstance().getStatefulSession(
+                    StratosConstants.MIN_CHECK_DROOL_FILE);
+        }
         return minCheckKnowledgeSession;
     }
 
@@ -512,11 +529,19 @@ public class ClusterInstanceContext extends InstanceContext {
         this.minCheckKnowledgeSession = minCheckKnowledgeSession;
     }
 
-    public StatefulKnowledgeSession getMaxCheckKnowledgeSession() {
+    public synchronized StatefulKnowledgeSession getMaxCheckKnowledgeSession() {
+        if (maxCheckKnowledgeSession == null) {
+            maxCheckKnowledgeSession = AutoscalerRuleEvaluator.getInstance().getStatefulSession(
+                    StratosConstants.MAX_CHECK_DROOL_FILE);
+        }
         return maxCheckKnowledgeSession;
     }
 
-    public StatefulKnowledgeSession getObsoleteCheckKnowledgeSession() {
+    public synchronized StatefulKnowledgeSession getObsoleteCheckKnowledgeSession() {
+        if (obsoleteCheckKnowledgeSession == null) {
+            obsoleteCheckKnowledgeSession = AutoscalerRuleEvaluator.getInstance().getStatefulSession(
+                    StratosConstants.OBSOLETE_CHECK_DROOL_FILE);
+        }
         return obsoleteCheckKnowledgeSession;
     }
 
@@ -525,7 +550,11 @@ public class ClusterInstanceContext extends InstanceContext {
         this.obsoleteCheckKnowledgeSession = obsoleteCheckKnowledgeSession;
     }
 
-    public StatefulKnowledgeSession getScaleCheckKnowledgeSession() {
+    public synchronized StatefulKnowledgeSession getScaleCheckKnowledgeSession() {
+        if (scaleCheckKnowledgeSession == null) {
+            scaleCheckKnowledgeSession = AutoscalerRuleEvaluator.getInstance().getStatefulSession(
+                    StratosConstants.SCALE_CHECK_DROOL_FILE);
+        }
         return scaleCheckKnowledgeSession;
     }
 
@@ -534,7 +563,11 @@ public class ClusterInstanceContext extends InstanceContext {
         this.scaleCheckKnowledgeSession = scaleCheckKnowledgeSession;
     }
 
-    public StatefulKnowledgeSession getDependentScaleCheckKnowledgeSession() {
+    public synchronized StatefulKnowledgeSession getDependentScaleCheckKnowledgeSession() {
+        if (dependentScaleCheckKnowledgeSession == null) {
+            dependentScaleCheckKnowledgeSession = AutoscalerRuleEvaluator.getInstance().getStatefulSession(
+                    StratosConstants.DEPENDENT_SCALE_CHECK_DROOL_FILE);
+        }
         return dependentScaleCheckKnowledgeSession;
     }
 
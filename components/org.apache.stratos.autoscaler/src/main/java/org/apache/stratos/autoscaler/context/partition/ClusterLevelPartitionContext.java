@@ -37,6 +37,7 @@ import java.io.Serializable;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This is an object that inserted to the rules engine.
@@ -60,6 +61,8 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
     private boolean spinTerminateParallel;
     // pending members
     private List<MemberContext> pendingMembers;
+    // members decided to be spawned in a batch, but not yet started
+    private final AtomicInteger requestedMemberCount = new AtomicInteger();
 
     // 1 day as default
     private long obsoltedMemberExpiryTime = 1 * 24 * 60 * 60 * 1000;
@@ -89,6 +92,9 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
         this.activeMembers = new ArrayList<MemberContext>();
         this.terminationPendingMembers = new ArrayList<MemberContext>();
         this.pendingMembers = new ArrayList<MemberContext>();
+        this.obsoletedMembers = new ConcurrentHashMap<String, MemberContext>();
+        this.memberStatsContexts = new ConcurrentHashMap<String, MemberStatsContext>();
+        this.terminationPendingStartedTime = new HashMap<String, Long>();
     }
 
     public ClusterLevelPartitionContext(PartitionRef partition, String networkPartitionId, String deploymentPolicyId) {
@@ -498,7 +504,28 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
         } else {
             nonTerminatedMemberCount = activeMembers.size() + pendingMembers.size();
         }
-        return nonTerminatedMemberCount;
+        return nonTerminatedMemberCount + requestedMemberCount.get();
+    }
+
+    /**
+     * Counts a member to be spawned in a batch as a non terminated member, so that the partition
+     * algorithm takes it into account when selecting the partition of the next member.
+     */
+    public void addRequestedMember() {
+        requestedMemberCount.incrementAndGet();
+    }
+
+    public int getRequestedMemberCount() {
+        return requestedMemberCount.get();
+    }
+
+    /**
+     * Removes the members requested so far, to spawn them.
+     *
+     * @return number of requested members removed
+     */
+    public int takeRequestedMembers() {
+        return requestedMemberCount.getAndSet(0);
     }
 
     public List<MemberContext> getActiveMembers() {
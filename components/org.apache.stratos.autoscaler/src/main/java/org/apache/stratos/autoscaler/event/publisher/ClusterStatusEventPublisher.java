@@ -20,6 +20,7 @@ package org.apache.stratos.autoscaler.event.publisher;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.broker.publish.EventPublishCallback;
 import org.apache.stratos.messaging.broker.publish.EventPublisher;
 import org.apache.stratos.messaging.broker.publish.EventPublisherPool;
 import org.apache.stratos.messaging.domain.instance.ClusterInstance;
@@ -37,6 +38,21 @@ import org.apache.stratos.messaging.util.MessagingUtil;
 public class ClusterStatusEventPublisher {
     private static final Log log = LogFactory.getLog(ClusterStatusEventPublisher.class);
 
+    /**
+     * Logs events which could not be published asynchronously.
+     */
+    private static final EventPublishCallback PUBLISH_CALLBACK = new EventPublishCallback() {
+        @Override
+        public void onSuccess(Event event) {
+        }
+
+        @Override
+        public void onFailure(Event event, Throwable cause) {
+            log.error(String.format("Could not publish cluster status event: [event] %s",
+                    event.getClass().getName()), cause);
+        }
+    };
+
 
     public static void sendClusterCreatedEvent(String appId, String serviceName, String clusterId) {
         try {
@@ -238,6 +254,10 @@ public class ClusterStatusEventPublisher {
         //publishing events to application status topic
         String topic = MessagingUtil.getMessageTopicName(event);
         EventPublisher eventPublisher = EventPublisherPool.getPublisher(topic);
-        eventPublisher.publish(event);
+        if (EventPublisher.isAsyncPublishingEnabled()) {
+            eventPublisher.publishAsync(event, PUBLISH_CALLBACK);
+        } else {
+            eventPublisher.publish(event);
+        }
     }
 }
@@ -0,0 +1,423 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.monitor;
+
+import org.apache.commons.configuration.XMLConfiguration;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.autoscaler.util.AutoscalerConstants;
+import org.apache.stratos.autoscaler.util.ConfUtil;
+import org.apache.stratos.common.threading.StratosThreadPool;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Schedules the application, group and cluster monitors on a hashed timing wheel. A single ticker
+ * thread advances the wheel and hands the monitors due in each tick to a bounded worker pool, so
+ * thousands of monitors do not need a scheduled executor task and thread each.
+ * <p/>
+ * The first run of a monitor is jittered within the start delay, after that the runs of the
+ * monitors sharing an interval are spread evenly across the interval. A run is skipped if the
+ * previous run of the same monitor has not completed, instead of queuing behind it.
+ */
+public class MonitorScheduler implements MonitorSchedulerMBean {
+
+    private static final Log log = LogFactory.getLog(MonitorScheduler.class);
+
+    private static final String OBJECT_NAME_PREFIX = "org.apache.stratos.autoscaler:type=MonitorScheduler,name=";
+    // Multiples of the golden ratio conjugate modulo 1 are evenly spread over [0, 1) for any count
+    private static final double PHASE_STEP = 0.6180339887498949;
+
+    private static volatile MonitorScheduler instance;
+
+    private final String name;
+    private final long tickDurationMillis;
+    private final int wheelSize;
+    private final int workerPoolSize;
+    private final long startDelayMillis;
+    private final String workerPoolId;
+    private final ExecutorService workerPool;
+    private final List<LinkedList<ScheduledMonitorTask>> wheel;
+    // tasks scheduled or rescheduled since the last tick, placed on the wheel by the ticker thread
+    private final Queue<ScheduledMonitorTask> newTasks = new ConcurrentLinkedQueue<ScheduledMonitorTask>();
+    private final Set<ScheduledMonitorTask> tasks =
+            Collections.newSetFromMap(new ConcurrentHashMap<ScheduledMonitorTask, Boolean>());
+    private final AtomicLong phaseSequence = new AtomicLong();
+    private final long startTimeNanos;
+    private final Thread tickerThread;
+    private volatile boolean running = true;
+    // accessed by the ticker thread only
+    private long tick;
+
+    private final AtomicLong executedCount = new AtomicLong();
+    private final AtomicLong skippedCount = new AtomicLong();
+    private final AtomicLong totalLatenessMillis = new AtomicLong();
+    private final AtomicLong maxLatenessMillis = new AtomicLong();
+    private final AtomicLong totalExecutionTimeMillis = new AtomicLong();
+    private final AtomicLong maxExecutionTimeMillis = new AtomicLong();
+
+    public MonitorScheduler(String name, long tickDurationMillis, int wheelSize, int workerPoolSize,
+                            long startDelayMillis) {
+        if (tickDurationMillis <= 0) {
+            throw new IllegalArgumentException("Tick duration should be greater than zero: " + tickDurationMillis);
+        }
+        if ((wheelSize <= 0) || (workerPoolSize <= 0)) {
+            throw new IllegalArgumentException(String.format("Wheel size and worker pool size should be greater " +
+                    "than zero: [wheel-size] %d [worker-pool-size] %d", wheelSize, workerPoolSize));
+        }
+        this.name = name;
+        this.tickDurationMillis = tickDurationMillis;
+        // A power of two so that the bucket of a tick is found with a mask
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.wheelSize = size;
+        this.workerPoolSize = workerPoolSize;
+        this.startDelayMillis = Math.max(0, startDelayMillis);
+        this.wheel = new ArrayList<LinkedList<ScheduledMonitorTask>>(this.wheelSize);
+        for (int i = 0; i < this.wheelSize; i++) {
+            wheel.add(new LinkedList<ScheduledMonitorTask>());
+        }
+        this.workerPoolId = AutoscalerConstants.MONITOR_SCHEDULER_WORKER_POOL_ID + "." + name;
+        this.workerPool = StratosThreadPool.getExecutorService(workerPoolId, workerPoolSize);
+        this.startTimeNanos = System.nanoTime();
+
+        tickerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runTicker();
+            }
+        }, "monitor-scheduler-" + name);
+        tickerThread.setDaemon(true);
+        tickerThread.start();
+        registerMBean();
+
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Monitor scheduler started: [name] %s [tick-duration] %d ms [wheel-size] %d " +
+                    "[worker-pool-size] %d", name, tickDurationMillis, this.wheelSize, workerPoolSize));
+        }
+    }
+
+    /**
+     * Returns the monitor scheduler configured in autoscaler.xml.
+     */
+    public static MonitorScheduler getInstance() {
+        if (instance == null) {
+            synchronized (MonitorScheduler.class) {
+                if (instance == null) {
+                    XMLConfiguration conf = ConfUtil.getInstance(null).getConfiguration();
+                    instance = new MonitorScheduler("monitors",
+                            conf.getLong(AutoscalerConstants.MONITOR_SCHEDULER_TICK_DURATION, 100),
+                            conf.getInt(AutoscalerConstants.MONITOR_SCHEDULER_WHEEL_SIZE, 512),
+                            conf.getInt(AutoscalerConstants.MONITOR_SCHEDULER_WORKER_POOL_SIZE, 50),
+                            conf.getLong(AutoscalerConstants.MONITOR_SCHEDULER_START_DELAY, 5000));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Runs the task periodically until the returned task is cancelled.
+     *
+     * @param id             identifier of the task in the statistics, the monitor id
+     * @param task           the monitor
+     * @param intervalMillis time between two runs
+     * @return the scheduled task
+     */
+    public ScheduledMonitorTask schedule(String id, Runnable task, long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Monitor interval should be greater than zero: " + intervalMillis);
+        }
+        double fraction = (phaseSequence.getAndIncrement() * PHASE_STEP) % 1;
+        long phaseMillis = (long) (fraction * intervalMillis);
+        long startDelay = Math.min(intervalMillis, startDelayMillis);
+        long jitter = (startDelay > 0) ? ThreadLocalRandom.current().nextLong(startDelay) : 0;
+        ScheduledMonitorTask scheduledTask = new ScheduledMonitorTask(id, task, intervalMillis, phaseMillis,
+                currentTimeMillis() + jitter);
+        return add(scheduledTask);
+    }
+
+    /**
+     * Runs the task once after the delay unless the returned task is cancelled before.
+     *
+     * @param id          identifier of the task
+     * @param task        the task
+     * @param delayMillis time to wait before running the task
+     * @return the scheduled task
+     */
+    public ScheduledMonitorTask scheduleOnce(String id, Runnable task, long delayMillis) {
+        ScheduledMonitorTask scheduledTask = new ScheduledMonitorTask(id, task, 0, 0,
+                currentTimeMillis() + Math.max(0, delayMillis));
+        return add(scheduledTask);
+    }
+
+    private ScheduledMonitorTask add(ScheduledMonitorTask scheduledTask) {
+        if (!running) {
+            throw new RejectedExecutionException("Monitor scheduler has been shut down: " + name);
+        }
+        tasks.add(scheduledTask);
+        newTasks.add(scheduledTask);
+        return scheduledTask;
+    }
+
+    public void shutdown() {
+        running = false;
+        tickerThread.interrupt();
+        StratosThreadPool.shutdown(workerPoolId);
+        unregisterMBean();
+    }
+
+    private long currentTimeMillis() {
+        return (System.nanoTime() - startTimeNanos) / 1000000L;
+    }
+
+    private void runTicker() {
+        while (running) {
+            long sleepTime = (tick + 1) * tickDurationMillis - currentTimeMillis();
+            if (sleepTime > 0) {
+                try {
+                    Thread.sleep(sleepTime);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        break;
+                    }
+                }
+            }
+            try {
+                placeNewTasks();
+                expireTasks(wheel.get((int) (tick & (wheelSize - 1))));
+            } catch (Exception e) {
+                log.error(String.format("Monitor scheduler tick failed: [name] %s [tick] %d", name, tick), e);
+            }
+            tick++;
+        }
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Monitor scheduler stopped: [name] %s", name));
+        }
+    }
+
+    private void placeNewTasks() {
+        ScheduledMonitorTask scheduledTask;
+        while ((scheduledTask = newTasks.poll()) != null) {
+            if (scheduledTask.isCancelled()) {
+                tasks.remove(scheduledTask);
+                continue;
+            }
+            long targetTick = Math.max(scheduledTask.deadlineMillis / tickDurationMillis, tick);
+            scheduledTask.remainingRounds = (targetTick - tick) / wheelSize;
+            wheel.get((int) (targetTick & (wheelSize - 1))).add(scheduledTask);
+        }
+    }
+
+    private void expireTasks(LinkedList<ScheduledMonitorTask> bucket) {
+        Iterator<ScheduledMonitorTask> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            ScheduledMonitorTask scheduledTask = iterator.next();
+            if (scheduledTask.isCancelled()) {
+                iterator.remove();
+                tasks.remove(scheduledTask);
+            } else if (scheduledTask.remainingRounds > 0) {
+                scheduledTask.remainingRounds--;
+            } else {
+                iterator.remove();
+                dispatch(scheduledTask);
+            }
+        }
+    }
+
+    private void dispatch(final ScheduledMonitorTask scheduledTask) {
+        final long deadline = scheduledTask.deadlineMillis;
+        if (scheduledTask.isPeriodic()) {
+            scheduledTask.deadlineMillis = nextDeadline(scheduledTask, deadline);
+            newTasks.add(scheduledTask);
+        } else {
+            tasks.remove(scheduledTask);
+        }
+
+        if (!scheduledTask.markRunning()) {
+            scheduledTask.skipped();
+            skippedCount.incrementAndGet();
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Monitor run skipped, previous run has not completed: [id] %s",
+                        scheduledTask.getId()));
+            }
+            return;
+        }
+        try {
+            workerPool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    long startTime = currentTimeMillis();
+                    try {
+                        if (!scheduledTask.isCancelled()) {
+                            scheduledTask.getTask().run();
+                        }
+                    } catch (Throwable e) {
+                        log.error(String.format("Monitor run failed: [id] %s", scheduledTask.getId()), e);
+                    } finally {
+                        completed(scheduledTask, startTime - deadline, currentTimeMillis() - startTime);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            scheduledTask.rejected();
+            log.warn(String.format("Monitor run rejected: [id] %s", scheduledTask.getId()));
+        }
+    }
+
+    /**
+     * The next deadline of a periodic task is the first time at its phase of the interval after half
+     * an interval from the previous deadline. Runs missed while the scheduler was behind are not
+     * caught up.
+     */
+    private long nextDeadline(ScheduledMonitorTask scheduledTask, long previousDeadline) {
+        long interval = scheduledTask.getIntervalMillis();
+        long phase = scheduledTask.getPhaseMillis();
+        long earliest = Math.max(previousDeadline + interval / 2, currentTimeMillis());
+        if (earliest <= phase) {
+            return phase;
+        }
+        return phase + ((earliest - phase + interval - 1) / interval) * interval;
+    }
+
+    private void completed(ScheduledMonitorTask scheduledTask, long latenessMillis, long executionTimeMillis) {
+        latenessMillis = Math.max(0, latenessMillis);
+        scheduledTask.completed(latenessMillis, executionTimeMillis);
+        executedCount.incrementAndGet();
+        totalLatenessMillis.addAndGet(latenessMillis);
+        updateMax(maxLatenessMillis, latenessMillis);
+        totalExecutionTimeMillis.addAndGet(executionTimeMillis);
+        updateMax(maxExecutionTimeMillis, executionTimeMillis);
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Monitor run completed: [id] %s [lateness] %d ms [execution-time] %d ms",
+                    scheduledTask.getId(), latenessMillis, executionTimeMillis));
+        }
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value)) {
+                return;
+            }
+        }
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name));
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(new StandardMBean(this, MonitorSchedulerMBean.class), objectName);
+        } catch (Exception e) {
+            log.warn(String.format("Could not register monitor scheduler MBean: [name] %s", name), e);
+        }
+    }
+
+    private void unregisterMBean() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name));
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            log.warn(String.format("Could not unregister monitor scheduler MBean: [name] %s", name), e);
+        }
+    }
+
+    @Override
+    public long getTickDurationMillis() {
+        return tickDurationMillis;
+    }
+
+    @Override
+    public int getWheelSize() {
+        return wheelSize;
+    }
+
+    @Override
+    public int getWorkerPoolSize() {
+        return workerPoolSize;
+    }
+
+    @Override
+    public int getScheduledTaskCount() {
+        return tasks.size();
+    }
+
+    @Override
+    public long getExecutedCount() {
+        return executedCount.get();
+    }
+
+    @Override
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    @Override
+    public long getMaxLatenessMillis() {
+        return maxLatenessMillis.get();
+    }
+
+    @Override
+    public long getAverageLatenessMillis() {
+        long count = executedCount.get();
+        return (count == 0) ? 0 : totalLatenessMillis.get() / count;
+    }
+
+    @Override
+    public long getMaxExecutionTimeMillis() {
+        return maxExecutionTimeMillis.get();
+    }
+
+    @Override
+    public long getAverageExecutionTimeMillis() {
+        long count = executedCount.get();
+        return (count == 0) ? 0 : totalExecutionTimeMillis.get() / count;
+    }
+
+    @Override
+    public String[] getMonitorStatistics() {
+        List<String> statistics = new ArrayList<String>();
+        for (ScheduledMonitorTask scheduledTask : tasks) {
+            if (scheduledTask.isPeriodic()) {
+                statistics.add(scheduledTask.toString());
+            }
+        }
+        Collections.sort(statistics);
+        return statistics.toArray(new String[statistics.size()]);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.monitor;
+
+/**
+ * JMX management interface of the monitor scheduler.
+ */
+public interface MonitorSchedulerMBean {
+
+    long getTickDurationMillis();
+
+    int getWheelSize();
+
+    int getWorkerPoolSize();
+
+    /**
+     * @return number of monitors and one-off tasks scheduled
+     */
+    int getScheduledTaskCount();
+
+    long getExecutedCount();
+
+    /**
+     * @return number of runs skipped since the previous run of the monitor had not completed
+     */
+    long getSkippedCount();
+
+    /**
+     * @return maximum time in milliseconds between the deadline and the start of a run
+     */
+    long getMaxLatenessMillis();
+
+    long getAverageLatenessMillis();
+
+    long getMaxExecutionTimeMillis();
+
+    long getAverageExecutionTimeMillis();
+
+    /**
+     * @return lateness and execution time of each scheduled monitor
+     */
+    String[] getMonitorStatistics();
+}
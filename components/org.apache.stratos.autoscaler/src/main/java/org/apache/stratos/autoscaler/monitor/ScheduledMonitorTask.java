@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.monitor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A task scheduled in the monitor scheduler, either a monitor run periodically or a one-off task.
+ * Keeps the lateness and execution time of its runs.
+ */
+public class ScheduledMonitorTask {
+
+    private final String id;
+    private final Runnable task;
+    // 0 for one-off tasks
+    private final long intervalMillis;
+    // offset of the periodic runs within the interval
+    private final long phaseMillis;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile boolean cancelled;
+
+    // accessed by the ticker thread only
+    long deadlineMillis;
+    long remainingRounds;
+
+    private volatile long runCount;
+    private volatile long skippedCount;
+    private volatile long lastLatenessMillis;
+    private volatile long maxLatenessMillis;
+    private volatile long totalLatenessMillis;
+    private volatile long lastExecutionTimeMillis;
+    private volatile long maxExecutionTimeMillis;
+    private volatile long totalExecutionTimeMillis;
+
+    ScheduledMonitorTask(String id, Runnable task, long intervalMillis, long phaseMillis, long deadlineMillis) {
+        this.id = id;
+        this.task = task;
+        this.intervalMillis = intervalMillis;
+        this.phaseMillis = phaseMillis;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    /**
+     * Cancels the task, a run in progress is not interrupted.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isPeriodic() {
+        return intervalMillis > 0;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    public long getPhaseMillis() {
+        return phaseMillis;
+    }
+
+    public long getRunCount() {
+        return runCount;
+    }
+
+    /**
+     * @return number of runs skipped since the previous run had not completed at the deadline
+     */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * @return time in milliseconds between the deadline and the start of the last run
+     */
+    public long getLastLatenessMillis() {
+        return lastLatenessMillis;
+    }
+
+    public long getMaxLatenessMillis() {
+        return maxLatenessMillis;
+    }
+
+    public long getAverageLatenessMillis() {
+        long count = runCount;
+        return (count == 0) ? 0 : totalLatenessMillis / count;
+    }
+
+    public long getLastExecutionTimeMillis() {
+        return lastExecutionTimeMillis;
+    }
+
+    public long getMaxExecutionTimeMillis() {
+        return maxExecutionTimeMillis;
+    }
+
+    public long getAverageExecutionTimeMillis() {
+        long count = runCount;
+        return (count == 0) ? 0 : totalExecutionTimeMillis / count;
+    }
+
+    Runnable getTask() {
+        return task;
+    }
+
+    boolean markRunning() {
+        return running.compareAndSet(false, true);
+    }
+
+    void skipped() {
+        skippedCount++;
+    }
+
+    /**
+     * Records a completed run, only one run of a task is in progress at a time.
+     */
+    void completed(long latenessMillis, long executionTimeMillis) {
+        lastLatenessMillis = latenessMillis;
+        maxLatenessMillis = Math.max(maxLatenessMillis, latenessMillis);
+        totalLatenessMillis += latenessMillis;
+        lastExecutionTimeMillis = executionTimeMillis;
+        maxExecutionTimeMillis = Math.max(maxExecutionTimeMillis, executionTimeMillis);
+        totalExecutionTimeMillis += executionTimeMillis;
+        runCount++;
+        running.set(false);
+    }
+
+    void rejected() {
+        running.set(false);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[id] %s [interval] %d ms [runs] %d [skipped] %d [lateness] %d ms " +
+                        "[max-lateness] %d ms [avg-lateness] %d ms [execution-time] %d ms " +
+                        "[max-execution-time] %d ms [avg-execution-time] %d ms", id, intervalMillis, runCount,
+                skippedCount, lastLatenessMillis, maxLatenessMillis, getAverageLatenessMillis(),
+                lastExecutionTimeMillis, maxExecutionTimeMillis, getAverageExecutionTimeMillis());
+    }
+}
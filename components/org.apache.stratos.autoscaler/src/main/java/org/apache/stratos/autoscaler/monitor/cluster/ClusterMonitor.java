@@ -36,11 +36,18 @@ import org.apache.stratos.autoscaler.exception.InvalidArgumentException;
 import org.apache.stratos.autoscaler.exception.partition.PartitionValidationException;
 import org.apache.stratos.autoscaler.exception.policy.PolicyValidationException;
 import org.apache.stratos.autoscaler.monitor.Monitor;
+import org.apache.stratos.autoscaler.monitor.MonitorScheduler;
+import org.apache.stratos.autoscaler.monitor.ScheduledMonitorTask;
 import org.apache.stratos.autoscaler.monitor.events.MonitorStatusEvent;
 import org.apache.stratos.autoscaler.monitor.events.ScalingEvent;
 import org.apache.stratos.autoscaler.monitor.events.ScalingUpBeyondMaxEvent;
 import org.apache.stratos.autoscaler.monitor.events.builder.MonitorStatusEventBuilder;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.AutoscalePolicy;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.LoadThresholds;
 import org.apache.stratos.autoscaler.rule.RuleTasksDelegator;
+import org.apache.stratos.autoscaler.rule.ScalingEngine;
+import org.apache.stratos.autoscaler.rule.ScalingEngineFactory;
+import org.apache.stratos.autoscaler.rule.ScalingRuleContext;
 import org.apache.stratos.autoscaler.statistics.publisher.AutoscalerPublisherFactory;
 import org.apache.stratos.autoscaler.statistics.publisher.ScalingDecisionPublisher;
 import org.apache.stratos.autoscaler.status.processor.cluster.ClusterStatusActiveProcessor;
@@ -70,8 +77,6 @@ import org.apache.stratos.messaging.event.topology.MemberMaintenanceModeEvent;
 import org.apache.stratos.messaging.event.topology.MemberReadyToShutdownEvent;
 import org.apache.stratos.messaging.event.topology.MemberTerminatedEvent;
 import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
-import org.drools.runtime.StatefulKnowledgeSession;
-import org.drools.runtime.rule.FactHandle;
 
 import java.rmi.RemoteException;
 import java.util.*;
@@ -81,33 +86,38 @@ import java.util.concurrent.atomic.AtomicBoolean;
 /**
  * Is responsible for monitoring a service cluster. This runs periodically
  * and perform minimum instance check and scaling check using the underlying
- * rules engine.
+ * rules engine. Cluster instances whose stats require a scale up are also
+ * evaluated as soon as the stats are received.
  */
 public class ClusterMonitor extends Monitor {
 
     private static final Log log = LogFactory.getLog(ClusterMonitor.class);
-    private final ScheduledExecutorService scheduler;
     private final ExecutorService executorService;
     protected boolean hasFaultyMember = false;
     protected ClusterContext clusterContext;
     protected String serviceType;
     protected String clusterId;
-    // future to cancel it when destroying monitors
-    private ScheduledFuture<?> schedulerFuture;
+    // task to cancel it when destroying monitors
+    private ScheduledMonitorTask scheduledTask;
     private AtomicBoolean monitoringStarted;
     private Cluster cluster;
     private int monitoringIntervalMilliseconds;
+    // evaluates instances when their stats require a scale up, the periodic cycle remains a safety net
+    private boolean eventDrivenScalingEnabled;
+    private int eventDrivenScalingDelayMilliseconds;
+    private int eventDrivenScalingMinIntervalMilliseconds;
+    private final RuleTasksDelegator ruleTasksDelegator = new RuleTasksDelegator();
     //has scaling dependents
     private boolean hasScalingDependents;
     private boolean groupScalingEnabledSubtree;
     private String deploymentPolicyId;
     private ScalingDecisionPublisher scalingDecisionPublisher =
             AutoscalerPublisherFactory.createScalingDecisionPublisher(StatisticsPublisherType.WSO2DAS);
+    private final ScalingEngine scalingEngine = ScalingEngineFactory.getScalingEngine();
 
     public ClusterMonitor(Cluster cluster, boolean hasScalingDependents, boolean groupScalingEnabledSubtree,
                           String deploymentPolicyId) {
 
-        scheduler = StratosThreadPool.getScheduledExecutorService(AutoscalerConstants.CLUSTER_MONITOR_SCHEDULER_ID, 50);
         int threadPoolSize = Integer.getInteger(AutoscalerConstants.MONITOR_THREAD_POOL_SIZE, 100);
         executorService = StratosThreadPool.getExecutorService(
                 AutoscalerConstants.MONITOR_THREAD_POOL_ID, threadPoolSize);
@@ -148,8 +158,8 @@ public class ClusterMonitor extends Monitor {
     }
 
     public void startScheduler() {
-        schedulerFuture = scheduler.scheduleAtFixedRate(this, 0,
-                getMonitorIntervalMilliseconds(), TimeUnit.MILLISECONDS);
+        scheduledTask = MonitorScheduler.getInstance().schedule(getClusterId(), this,
+                getMonitorIntervalMilliseconds());
     }
 
     @Override
@@ -284,6 +294,7 @@ public class ClusterMonitor extends Monitor {
                 clusterInstanceId);
         if (null != clusterInstanceContext) {
             clusterInstanceContext.setAverageLoadAverage(value);
+            onClusterInstanceStatsUpdated(clusterInstanceContext);
         } else {
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Network partition context is not available for :" +
@@ -302,10 +313,6 @@ public class ClusterMonitor extends Monitor {
         } catch (Exception e) {
             log.error("Cluster monitor: Monitor failed." + this.toString(), e);
         }
-        try {
-            Thread.sleep(getMonitorIntervalMilliseconds());
-        } catch (InterruptedException ignore) {
-        }
     }
 
     public synchronized void monitor() {
@@ -321,90 +328,12 @@ public class ClusterMonitor extends Monitor {
                     final ClusterInstance instance = (ClusterInstance) this.instanceIdToInstanceMap.
                             get(instanceContext.getId());
 
-                    if ((instance.getStatus().getCode() <= ClusterStatus.Active.getCode()) ||
-                            (instance.getStatus() == ClusterStatus.Inactive && !hasStartupDependents)
-                                    && !this.hasFaultyMember) {
+                    if (isEvaluationAllowed(instance)) {
 
                         Runnable monitoringRunnable = new Runnable() {
                             @Override
                             public void run() {
-
-                                if (log.isDebugEnabled()) {
-                                    log.debug(String.format("Cluster monitor is running: [application-id] " +
-                                            "%s [cluster-id]: %s", getAppId(), getClusterId()));
-                                }
-
-                                instanceContext.getMinCheckKnowledgeSession().setGlobal("clusterId", getClusterId());
-                                //FIXME when parent chosen the partition
-                                String paritionAlgo = instanceContext.getPartitionAlgorithm();
-
-                                instanceContext.getMinCheckKnowledgeSession().setGlobal("algorithmName",
-                                        paritionAlgo);
-
-                                instanceContext.getMinCheckKnowledgeSession().setGlobal("scalingDecisionPublisher",
-                                        scalingDecisionPublisher);
-
-                                if (log.isDebugEnabled()) {
-                                    log.debug(String.format("Running minimum check for [cluster instance] %s, " +
-                                                    "[cluster id] %s",
-                                            instanceContext.getId(), clusterId));
-                                }
-
-                                instanceContext.setMinCheckFactHandle(evaluate(instanceContext.
-                                                getMinCheckKnowledgeSession(),
-                                        instanceContext.getMinCheckFactHandle(), instanceContext));
-                                instanceContext.getMaxCheckKnowledgeSession().setGlobal("clusterId", getClusterId());
-
-                                if (log.isDebugEnabled()) {
-                                    log.debug(String.format("Running maximum check for [cluster instance] %s, " +
-                                            "[cluster id] %s", instanceContext.getId(), clusterId));
-                                }
-                                instanceContext.setMaxCheckFactHandle(evaluate(instanceContext.
-                                                getMaxCheckKnowledgeSession(),
-                                        instanceContext.getMaxCheckFactHandle(), instanceContext));
-
-
-                                //checking the status of the cluster
-                                boolean rifReset = instanceContext.isRifReset();
-                                boolean memoryConsumptionReset = instanceContext.isMemoryConsumptionReset();
-                                boolean loadAverageReset = instanceContext.isLoadAverageReset();
-                                boolean averageRequestServedPerInstanceReset
-                                        = instanceContext.isAverageRequestServedPerInstanceReset();
-
-                                if (rifReset || memoryConsumptionReset || loadAverageReset) {
-                                    ClusterContext clusterContext = ClusterMonitor.this.clusterContext;
-                                    instanceContext.getScaleCheckKnowledgeSession().setGlobal("applicationId", getAppId());
-                                    instanceContext.getScaleCheckKnowledgeSession().setGlobal("clusterId", getClusterId());
-                                    instanceContext.getScaleCheckKnowledgeSession().setGlobal("rifReset", rifReset);
-                                    instanceContext.getScaleCheckKnowledgeSession().setGlobal("mcReset", memoryConsumptionReset);
-                                    instanceContext.getScaleCheckKnowledgeSession().setGlobal("laReset", loadAverageReset);
-                                    instanceContext.getScaleCheckKnowledgeSession().setGlobal("algorithmName", paritionAlgo);
-                                    instanceContext.getScaleCheckKnowledgeSession().setGlobal("autoscalePolicy",
-                                            clusterContext.getAutoscalePolicy());
-                                    instanceContext.getScaleCheckKnowledgeSession().setGlobal("arspiReset",
-                                            averageRequestServedPerInstanceReset);
-                                    instanceContext.getScaleCheckKnowledgeSession().setGlobal("scalingDecisionPublisher",
-                                            scalingDecisionPublisher);
-                                    if (log.isDebugEnabled()) {
-                                        log.debug("Running scale check, [Is rif Reset] " + rifReset + ", " +
-                                                "[Is memoryConsumption Reset] " + memoryConsumptionReset + ", " +
-                                                "[Is loadAverage Reset] " + loadAverageReset + ", " +
-                                                "[cluster] " + clusterId + ", " +
-                                                "[cluster instance] " + instanceContext.getId());
-                                    }
-                                    instanceContext.setScaleCheckFactHandle(evaluate(
-                                            instanceContext.getScaleCheckKnowledgeSession()
-                                            , instanceContext.getScaleCheckFactHandle(), instanceContext));
-
-                                    instanceContext.setRifReset(false);
-                                    instanceContext.setMemoryConsumptionReset(false);
-                                    instanceContext.setLoadAverageReset(false);
-                                } else if (log.isDebugEnabled()) {
-                                    log.debug(String.format("Scale rule will not run since any type of statistics have not " +
-                                                    "received before this cycle for [cluster instance context] %s [cluster] %s",
-                                            instanceContext.getId(), clusterId));
-                                }
-
+                                evaluateClusterInstance(instanceContext);
                             }
                         };
                         executorService.execute(monitoringRunnable);
@@ -433,17 +362,15 @@ public class ClusterMonitor extends Monitor {
                         Runnable monitoringRunnable = new Runnable() {
                             @Override
                             public void run() {
-                                instanceContext.getObsoleteCheckKnowledgeSession().setGlobal("clusterId", clusterId);
-
                                 if (log.isDebugEnabled()) {
                                     log.debug(String.format("Running obsolete check for [partition id] %s, " +
                                                     "[cluster instance] %s, [cluster id] %s",
                                             partitionContext.getPartitionId(), instanceContext.getId(), clusterId));
                                 }
 
-                                instanceContext.setObsoleteCheckFactHandle(evaluate(
-                                        instanceContext.getObsoleteCheckKnowledgeSession(),
-                                        instanceContext.getObsoleteCheckFactHandle(), partitionContext));
+                                scalingEngine.evaluateObsoleteCheck(instanceContext, partitionContext,
+                                        new ScalingRuleContext(getAppId(), clusterId,
+                                                instanceContext.getPartitionAlgorithm(), scalingDecisionPublisher));
 
                                 if (partitionContext.isObsoletePartition()
                                         && partitionContext.getTerminationPendingMembers().size() == 0
@@ -462,36 +389,231 @@ public class ClusterMonitor extends Monitor {
         }
     }
 
-    private FactHandle evaluate(StatefulKnowledgeSession ksession, FactHandle handle, Object obj) {
-        if (handle == null) {
-            ksession.setGlobal("delegator", new RuleTasksDelegator());
-            handle = ksession.insert(obj);
-        } else {
-            ksession.update(handle, obj);
+    private boolean isEvaluationAllowed(ClusterInstance instance) {
+        return (instance.getStatus().getCode() <= ClusterStatus.Active.getCode()) ||
+                (instance.getStatus() == ClusterStatus.Inactive && !hasStartupDependents)
+                        && !this.hasFaultyMember;
+    }
+
+    /**
+     * Runs the minimum, maximum and scale checks of a cluster instance and consumes the reset flags of
+     * the stats. The periodic and the stat triggered evaluations of an instance are serialized on its
+     * instance context.
+     *
+     * @param instanceContext cluster instance context to be evaluated
+     */
+    private void evaluateClusterInstance(ClusterInstanceContext instanceContext) {
+        synchronized (instanceContext) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Cluster monitor is running: [application-id] " +
+                        "%s [cluster-id]: %s", getAppId(), getClusterId()));
+            }
+
+            //FIXME when parent chosen the partition
+            String paritionAlgo = instanceContext.getPartitionAlgorithm();
+            ScalingRuleContext ruleContext = new ScalingRuleContext(getAppId(), getClusterId(),
+                    paritionAlgo, scalingDecisionPublisher);
+
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Running minimum check for [cluster instance] %s, " +
+                                "[cluster id] %s",
+                        instanceContext.getId(), clusterId));
+            }
+            scalingEngine.evaluateMinCheck(instanceContext, ruleContext);
+
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Running maximum check for [cluster instance] %s, " +
+                        "[cluster id] %s", instanceContext.getId(), clusterId));
+            }
+            scalingEngine.evaluateMaxCheck(instanceContext, ruleContext);
+
+            //checking the status of the cluster
+            boolean rifReset = instanceContext.isRifReset();
+            boolean memoryConsumptionReset = instanceContext.isMemoryConsumptionReset();
+            boolean loadAverageReset = instanceContext.isLoadAverageReset();
+
+            if (rifReset || memoryConsumptionReset || loadAverageReset) {
+                setScaleCheckParameters(instanceContext, ruleContext);
+                if (log.isDebugEnabled()) {
+                    log.debug("Running scale check, [Is rif Reset] " + rifReset + ", " +
+                            "[Is memoryConsumption Reset] " + memoryConsumptionReset + ", " +
+                            "[Is loadAverage Reset] " + loadAverageReset + ", " +
+                            "[cluster] " + clusterId + ", " +
+                            "[cluster instance] " + instanceContext.getId());
+                }
+                scalingEngine.evaluateScaleCheck(instanceContext, ruleContext);
+
+                instanceContext.setRifReset(false);
+                instanceContext.setMemoryConsumptionReset(false);
+                instanceContext.setLoadAverageReset(false);
+            } else if (log.isDebugEnabled()) {
+                log.debug(String.format("Scale rule will not run since any type of statistics have not " +
+                                "received before this cycle for [cluster instance context] %s [cluster] %s",
+                        instanceContext.getId(), clusterId));
+            }
+            instanceContext.setLastEvaluationTime(System.currentTimeMillis());
         }
-        ksession.fireAllRules();
-        if (log.isDebugEnabled()) {
-            log.debug(String.format("Rule executed for: %s ", obj));
+    }
+
+    /**
+     * Runs the scale check of a cluster instance if its stats still require a scale up. The reset flags
+     * of the stats are left for the next monitoring cycle, which decides on scaling down over
+     * consecutive cycles.
+     *
+     * @param instanceContext cluster instance context to be evaluated
+     */
+    private void evaluateClusterInstanceScaleUp(ClusterInstanceContext instanceContext) {
+        synchronized (instanceContext) {
+            // the stats may have changed since the scale check was scheduled, or a periodic evaluation
+            // may have scaled up the instance in the meantime
+            if (!isScaleUpRequired(instanceContext)) {
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Stat triggered scale check skipped, scale up is no longer required: " +
+                            "[cluster] %s [cluster-instance] %s", clusterId, instanceContext.getId()));
+                }
+                return;
+            }
+
+            ScalingRuleContext ruleContext = new ScalingRuleContext(getAppId(), getClusterId(),
+                    instanceContext.getPartitionAlgorithm(), scalingDecisionPublisher);
+            setScaleCheckParameters(instanceContext, ruleContext);
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Running stat triggered scale check: [cluster] %s [cluster-instance] %s",
+                        clusterId, instanceContext.getId()));
+            }
+            scalingEngine.evaluateScaleCheck(instanceContext, ruleContext);
+            instanceContext.setLastEvaluationTime(System.currentTimeMillis());
+        }
+    }
+
+    private void setScaleCheckParameters(ClusterInstanceContext instanceContext, ScalingRuleContext ruleContext) {
+        ruleContext.setRifReset(instanceContext.isRifReset());
+        ruleContext.setMcReset(instanceContext.isMemoryConsumptionReset());
+        ruleContext.setLaReset(instanceContext.isLoadAverageReset());
+        ruleContext.setArspiReset(instanceContext.isAverageRequestServedPerInstanceReset());
+        ruleContext.setAutoscalePolicy(clusterContext.getAutoscalePolicy());
+    }
+
+    /**
+     * Schedules a scale check of the cluster instance if its latest stats require a scale up, instead
+     * of waiting for the next monitoring cycle. Scale checks are debounced per instance: at most one
+     * is pending at a time and it does not run earlier than the min interval after the last evaluation.
+     * Scaling down is left to the monitoring cycle, since it is decided over consecutive cycles.
+     *
+     * @param instanceContext cluster instance context whose stats have been updated
+     */
+    private void onClusterInstanceStatsUpdated(final ClusterInstanceContext instanceContext) {
+        if (!eventDrivenScalingEnabled || !isScaleUpRequired(instanceContext)) {
+            return;
+        }
+        if (!instanceContext.markEvaluationScheduled()) {
+            return;
+        }
+
+        final long triggeredTime = System.currentTimeMillis();
+        long delay = Math.max(eventDrivenScalingDelayMilliseconds, instanceContext.getLastEvaluationTime() +
+                eventDrivenScalingMinIntervalMilliseconds - triggeredTime);
+        Runnable evaluationRunnable = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    executorService.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            instanceContext.clearEvaluationScheduled();
+                            ClusterInstance instance = (ClusterInstance) instanceIdToInstanceMap.
+                                    get(instanceContext.getId());
+                            if ((instance == null) || !isEvaluationAllowed(instance) ||
+                                    ((scheduledTask != null) && scheduledTask.isCancelled())) {
+                                return;
+                            }
+                            evaluateClusterInstanceScaleUp(instanceContext);
+                            if (log.isInfoEnabled()) {
+                                log.info(String.format("Stat triggered scale check completed: [cluster] %s " +
+                                                "[cluster-instance] %s [reaction-time] %d ms", clusterId,
+                                        instanceContext.getId(), System.currentTimeMillis() - triggeredTime));
+                            }
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    instanceContext.clearEvaluationScheduled();
+                    log.warn("Stat triggered scale check rejected: [cluster-id] " + getClusterId());
+                }
+            }
+        };
+        try {
+            MonitorScheduler.getInstance().scheduleOnce(getClusterId(), evaluationRunnable, delay);
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Stat triggered scale check scheduled: [cluster] %s [cluster-instance] %s " +
+                        "[delay] %d ms", clusterId, instanceContext.getId(), delay));
+            }
+        } catch (RejectedExecutionException e) {
+            instanceContext.clearEvaluationScheduled();
+            log.warn("Stat triggered scale check rejected: [cluster-id] " + getClusterId());
         }
-        return handle;
+    }
+
+    /**
+     * Whether the scale rule would scale up the cluster instance with its current stats, using the
+     * same predictions and load thresholds as the rule.
+     */
+    private boolean isScaleUpRequired(ClusterInstanceContext instanceContext) {
+        boolean rifReset = instanceContext.isRifReset();
+        boolean memoryConsumptionReset = instanceContext.isMemoryConsumptionReset();
+        boolean loadAverageReset = instanceContext.isLoadAverageReset();
+        if (!(rifReset || memoryConsumptionReset || loadAverageReset) || (clusterContext == null)) {
+            return false;
+        }
+        AutoscalePolicy autoscalePolicy = clusterContext.getAutoscalePolicy();
+        if ((autoscalePolicy == null) || (autoscalePolicy.getLoadThresholds() == null)) {
+            return false;
+        }
+        int nonTerminatedMembers = instanceContext.getNonTerminatedMemberCount();
+        if (nonTerminatedMembers >= instanceContext.getMaxInstanceCount()) {
+            return false;
+        }
+
+        LoadThresholds loadThresholds = autoscalePolicy.getLoadThresholds();
+        double rifPredictedValue = ruleTasksDelegator.getPredictedValueForNextMinute(
+                instanceContext.getAverageRequestsInFlight(), instanceContext.getRequestsInFlightGradient(),
+                instanceContext.getRequestsInFlightSecondDerivative(), 1);
+        int numberOfInstancesRequiredBasedOnRif = ruleTasksDelegator.getNumberOfInstancesRequiredBasedOnRif(
+                (float) rifPredictedValue, loadThresholds.getRequestsInFlightThreshold());
+        int numberOfInstancesRequiredBasedOnMemoryConsumption = ruleTasksDelegator.
+                getNumberOfInstancesRequiredBasedOnMemoryConsumption(loadThresholds.getMemoryConsumptionThreshold(),
+                        ruleTasksDelegator.getMemoryConsumptionPredictedValue(instanceContext),
+                        instanceContext.getMinInstanceCount(), instanceContext.getMaxInstanceCount());
+        int numberOfInstancesRequiredBasedOnLoadAverage = ruleTasksDelegator.
+                getNumberOfInstancesRequiredBasedOnLoadAverage(loadThresholds.getLoadAverageThreshold(),
+                        ruleTasksDelegator.getLoadAveragePredictedValue(instanceContext),
+                        instanceContext.getMinInstanceCount());
+        int numberOfRequiredInstances = ruleTasksDelegator.getMaxNumberOfInstancesRequired(
+                numberOfInstancesRequiredBasedOnRif, numberOfInstancesRequiredBasedOnMemoryConsumption,
+                memoryConsumptionReset, numberOfInstancesRequiredBasedOnLoadAverage, loadAverageReset);
+        return (numberOfRequiredInstances > instanceContext.getActiveMemberCount()) &&
+                (numberOfRequiredInstances > nonTerminatedMembers);
     }
 
     private void readConfigurations() {
         XMLConfiguration conf = ConfUtil.getInstance(null).getConfiguration();
         int monitorInterval = conf.getInt(AutoscalerConstants.Cluster_MONITOR_INTERVAL, 90000);
         setMonitorIntervalMilliseconds(monitorInterval);
+        eventDrivenScalingEnabled = conf.getBoolean(AutoscalerConstants.CLUSTER_EVENT_DRIVEN_SCALING_ENABLED, true);
+        eventDrivenScalingDelayMilliseconds = conf.getInt(AutoscalerConstants.CLUSTER_EVENT_DRIVEN_SCALING_DELAY, 1000);
+        eventDrivenScalingMinIntervalMilliseconds = conf.getInt(
+                AutoscalerConstants.CLUSTER_EVENT_DRIVEN_SCALING_MIN_INTERVAL, 15000);
         if (log.isDebugEnabled()) {
             log.debug("ClusterMonitor task interval set to : [application-id] " + appId +
                     " [cluster] " + clusterId + " [monitor-interval] " +
-                    getMonitorIntervalMilliseconds());
+                    getMonitorIntervalMilliseconds() + " [event-driven-scaling] " + eventDrivenScalingEnabled);
         }
     }
 
     @Override
     public void destroy() {
         //shutting down the scheduler
-        if (schedulerFuture != null) {
-            schedulerFuture.cancel(true);
+        if (scheduledTask != null) {
+            scheduledTask.cancel();
         }
 
         if (log.isDebugEnabled()) {
@@ -560,13 +682,9 @@ public class ClusterMonitor extends Monitor {
                 vmClusterContext.getAutoscalePolicy().getInstanceRoundingFactor());
         clusterInstanceContext.setRequiredInstanceCountBasedOnDependencies(roundedRequiredInstanceCount);
 
-        clusterInstanceContext.getDependentScaleCheckKnowledgeSession().setGlobal("clusterId", getClusterId());
-        clusterInstanceContext.getDependentScaleCheckKnowledgeSession().setGlobal("roundedRequiredInstanceCount",
-                roundedRequiredInstanceCount);
-        clusterInstanceContext.getDependentScaleCheckKnowledgeSession().setGlobal("algorithmName",
-                clusterInstanceContext.getPartitionAlgorithm());
-        clusterInstanceContext.getDependentScaleCheckKnowledgeSession().setGlobal("scalingDecisionPublisher",
-                scalingDecisionPublisher);
+        ScalingRuleContext ruleContext = new ScalingRuleContext(getAppId(), getClusterId(),
+                clusterInstanceContext.getPartitionAlgorithm(), scalingDecisionPublisher);
+        ruleContext.setRoundedRequiredInstanceCount(roundedRequiredInstanceCount);
 
         if (log.isDebugEnabled()) {
             log.debug(String.format("Running dependent scale check for [cluster instance] %s, " +
@@ -574,9 +692,7 @@ public class ClusterMonitor extends Monitor {
                     clusterInstanceContext.getId(), clusterId));
         }
 
-        clusterInstanceContext.setDependentScaleCheckFactHandle(evaluate(
-                clusterInstanceContext.getDependentScaleCheckKnowledgeSession()
-                , clusterInstanceContext.getDependentScaleCheckFactHandle(), clusterInstanceContext));
+        scalingEngine.evaluateDependentScaleCheck(clusterInstanceContext, ruleContext);
 
     }
 
@@ -612,6 +728,7 @@ public class ClusterMonitor extends Monitor {
                 networkPartitionId, instanceId);
         if (null != clusterLevelNetworkPartitionContext) {
             clusterLevelNetworkPartitionContext.setLoadAverageGradient(value);
+            onClusterInstanceStatsUpdated(clusterLevelNetworkPartitionContext);
         } else {
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Network partition context is not available for :" +
@@ -635,6 +752,7 @@ public class ClusterMonitor extends Monitor {
                 networkPartitionId, clusterInstanceId);
         if (null != clusterLevelNetworkPartitionContext) {
             clusterLevelNetworkPartitionContext.setLoadAverageSecondDerivative(value);
+            onClusterInstanceStatsUpdated(clusterLevelNetworkPartitionContext);
         } else {
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Network partition context is not available for :" +
@@ -658,6 +776,7 @@ public class ClusterMonitor extends Monitor {
                 networkPartitionId, clusterInstanceId);
         if (null != clusterLevelNetworkPartitionContext) {
             clusterLevelNetworkPartitionContext.setAverageMemoryConsumption(value);
+            onClusterInstanceStatsUpdated(clusterLevelNetworkPartitionContext);
         } else {
             if (log.isDebugEnabled()) {
                 log.debug(String
@@ -682,6 +801,7 @@ public class ClusterMonitor extends Monitor {
                 networkPartitionId, clusterInstanceId);
         if (null != clusterLevelNetworkPartitionContext) {
             clusterLevelNetworkPartitionContext.setMemoryConsumptionGradient(value);
+            onClusterInstanceStatsUpdated(clusterLevelNetworkPartitionContext);
         } else {
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Network partition context is not available for :" +
@@ -705,6 +825,7 @@ public class ClusterMonitor extends Monitor {
                 networkPartitionId, clusterInstanceId);
         if (null != clusterLevelNetworkPartitionContext) {
             clusterLevelNetworkPartitionContext.setMemoryConsumptionSecondDerivative(value);
+            onClusterInstanceStatsUpdated(clusterLevelNetworkPartitionContext);
         } else {
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Network partition context is not available for :" +
@@ -768,6 +889,7 @@ public class ClusterMonitor extends Monitor {
                         float averageRequestsInFlight = value * clusterInstanceContext.getActiveMemberCount() /
                                 totalActiveMemberCount;
                         clusterInstanceContext.setAverageRequestsInFlight(averageRequestsInFlight);
+                        onClusterInstanceStatsUpdated(clusterInstanceContext);
                         if (log.isDebugEnabled()) {
                             log.debug(String.format("Calculated average RIF: [cluster] %s [cluster-instance] %s " +
                                             "[network-partition] %s [average-rif] %s", clusterId,
@@ -786,6 +908,7 @@ public class ClusterMonitor extends Monitor {
                     networkPartitionId, clusterInstanceId);
             if (null != clusterInstanceContext) {
                 clusterInstanceContext.setAverageRequestsInFlight(value);
+                onClusterInstanceStatsUpdated(clusterInstanceContext);
             } else {
                 if (log.isDebugEnabled()) {
                     log.debug(String.format("Cluster instance context is not available for:" +
@@ -825,6 +948,7 @@ public class ClusterMonitor extends Monitor {
                         ClusterInstanceContext clusterInstanceContext = ((ClusterInstanceContext) instanceContext);
                         float requestsInFlightGradient = value * clusterInstanceContext.getActiveMemberCount() / totalActiveMemberCount;
                         clusterInstanceContext.setRequestsInFlightGradient(requestsInFlightGradient);
+                        onClusterInstanceStatsUpdated(clusterInstanceContext);
                         log.debug(String.format("Calculated gradient RIF: [cluster] %s [cluster-instance] %s " +
                                         "[network-partition] %s [gradient-rif] %s", clusterId,
                                 clusterInstanceContext.getId(), networkPartitionId, requestsInFlightGradient));
@@ -841,6 +965,7 @@ public class ClusterMonitor extends Monitor {
                     networkPartitionId, clusterInstanceId);
             if (null != clusterLevelNetworkPartitionContext) {
                 clusterLevelNetworkPartitionContext.setRequestsInFlightGradient(value);
+                onClusterInstanceStatsUpdated(clusterLevelNetworkPartitionContext);
             } else {
                 if (log.isDebugEnabled()) {
                     log.debug(String.format("Network partition context is not available for:" +
@@ -879,6 +1004,7 @@ public class ClusterMonitor extends Monitor {
                         float requestsInFlightSecondDerivative = value * clusterInstanceContext.getActiveMemberCount() /
                                 totalActiveMemberCount;
                         clusterInstanceContext.setRequestsInFlightSecondDerivative(requestsInFlightSecondDerivative);
+                        onClusterInstanceStatsUpdated(clusterInstanceContext);
                         log.debug(String.format("Calculated second derivative RIF: [cluster] %s [cluster-instance] %s " +
                                         "[network-partition] %s [average-rif] %s", clusterId,
                                 clusterInstanceContext.getId(), networkPartitionId, requestsInFlightSecondDerivative));
@@ -895,6 +1021,7 @@ public class ClusterMonitor extends Monitor {
                     networkPartitionId, clusterInstanceId);
             if (null != clusterLevelNetworkPartitionContext) {
                 clusterLevelNetworkPartitionContext.setRequestsInFlightSecondDerivative(value);
+                onClusterInstanceStatsUpdated(clusterLevelNetworkPartitionContext);
             } else {
                 if (log.isDebugEnabled()) {
                     log.debug(String.format("Network partition context is not available for :" +
@@ -38,6 +38,8 @@ import org.apache.stratos.autoscaler.exception.partition.PartitionValidationExce
 import org.apache.stratos.autoscaler.exception.policy.PolicyValidationException;
 import org.apache.stratos.autoscaler.monitor.Monitor;
 import org.apache.stratos.autoscaler.monitor.MonitorFactory;
+import org.apache.stratos.autoscaler.monitor.MonitorScheduler;
+import org.apache.stratos.autoscaler.monitor.ScheduledMonitorTask;
 import org.apache.stratos.autoscaler.monitor.cluster.ClusterMonitor;
 import org.apache.stratos.autoscaler.monitor.events.ScalingDownBeyondMinEvent;
 import org.apache.stratos.autoscaler.monitor.events.ScalingEvent;
@@ -67,9 +69,6 @@ public abstract class ParentComponentMonitor extends Monitor {
 
     private static final Log log = LogFactory.getLog(ParentComponentMonitor.class);
 
-    //Scheduler executor service to execute this monitor in a thread
-    private final ScheduledExecutorService scheduler = StratosThreadPool.getScheduledExecutorService(
-            "autoscaler.monitor.scheduler.thread.pool", 100);
     //The monitors dependency tree with all the start-able/kill-able dependencies
     protected DependencyTree startupDependencyTree;
     //The monitors dependency tree with all the scaling dependencies
@@ -84,8 +83,8 @@ public abstract class ParentComponentMonitor extends Monitor {
     protected Map<String, List<String>> terminatingInstancesMap;
     //network partition contexts
     protected Map<String, NetworkPartitionContext> networkPartitionContextsMap;
-    // future to cancel it when destroying monitors
-    private ScheduledFuture<?> schedulerFuture;
+    // task to cancel it when destroying monitors
+    private ScheduledMonitorTask scheduledTask;
     //Executor service to maintain the thread pool
     private ExecutorService executorService;
 
@@ -127,15 +126,14 @@ public abstract class ParentComponentMonitor extends Monitor {
      */
     public void startScheduler() {
         int monitoringIntervalMilliseconds = 60000;
-        schedulerFuture = scheduler.scheduleAtFixedRate(this, 0,
-                monitoringIntervalMilliseconds, TimeUnit.MILLISECONDS);
+        scheduledTask = MonitorScheduler.getInstance().schedule(id, this, monitoringIntervalMilliseconds);
     }
 
     /**
      * This will stop the scheduler which is running for the monitor
      */
     protected void stopScheduler() {
-        schedulerFuture.cancel(true);
+        scheduledTask.cancel();
     }
 
     /**
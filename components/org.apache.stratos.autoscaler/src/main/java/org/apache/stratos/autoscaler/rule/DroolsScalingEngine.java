@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.rule;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.autoscaler.context.cluster.ClusterInstanceContext;
+import org.apache.stratos.autoscaler.context.partition.ClusterLevelPartitionContext;
+import org.drools.runtime.StatefulKnowledgeSession;
+import org.drools.runtime.rule.FactHandle;
+
+import java.util.Collections;
+
+/**
+ * Scaling engine evaluating the drools files in the drools directory of the configuration, using
+ * the knowledge sessions of the cluster instance context.
+ */
+public class DroolsScalingEngine implements ScalingEngine {
+
+    private static final Log log = LogFactory.getLog(DroolsScalingEngine.class);
+
+    public static final String NAME = "drools";
+
+    @Override
+    public void evaluateMinCheck(ClusterInstanceContext instanceContext, ScalingRuleContext ruleContext) {
+        StatefulKnowledgeSession ksession = instanceContext.getMinCheckKnowledgeSession();
+        ksession.setGlobal("clusterId", ruleContext.getClusterId());
+        ksession.setGlobal("algorithmName", ruleContext.getAlgorithmName());
+        ksession.setGlobal("scalingDecisionPublisher", ruleContext.getScalingDecisionPublisher());
+        instanceContext.setMinCheckFactHandle(evaluate(ksession, instanceContext.getMinCheckFactHandle(),
+                instanceContext, ruleContext));
+    }
+
+    @Override
+    public void evaluateMaxCheck(ClusterInstanceContext instanceContext, ScalingRuleContext ruleContext) {
+        StatefulKnowledgeSession ksession = instanceContext.getMaxCheckKnowledgeSession();
+        ksession.setGlobal("clusterId", ruleContext.getClusterId());
+        // Primary members are not used by clusters any more, none of the members is protected
+        ksession.setGlobal("primaryMembers", Collections.emptyList());
+        instanceContext.setMaxCheckFactHandle(evaluate(ksession, instanceContext.getMaxCheckFactHandle(),
+                instanceContext, ruleContext));
+    }
+
+    @Override
+    public void evaluateScaleCheck(ClusterInstanceContext instanceContext, ScalingRuleContext ruleContext) {
+        StatefulKnowledgeSession ksession = instanceContext.getScaleCheckKnowledgeSession();
+        ksession.setGlobal("applicationId", ruleContext.getApplicationId());
+        ksession.setGlobal("clusterId", ruleContext.getClusterId());
+        ksession.setGlobal("rifReset", ruleContext.isRifReset());
+        ksession.setGlobal("mcReset", ruleContext.isMcReset());
+        ksession.setGlobal("laReset", ruleContext.isLaReset());
+        ksession.setGlobal("algorithmName", ruleContext.getAlgorithmName());
+        ksession.setGlobal("autoscalePolicy", ruleContext.getAutoscalePolicy());
+        ksession.setGlobal("arspiReset", ruleContext.isArspiReset());
+        ksession.setGlobal("scalingDecisionPublisher", ruleContext.getScalingDecisionPublisher());
+        instanceContext.setScaleCheckFactHandle(evaluate(ksession, instanceContext.getScaleCheckFactHandle(),
+                instanceContext, ruleContext));
+    }
+
+    @Override
+    public void evaluateObsoleteCheck(ClusterInstanceContext instanceContext,
+                                      ClusterLevelPartitionContext partitionContext, ScalingRuleContext ruleContext) {
+        StatefulKnowledgeSession ksession = instanceContext.getObsoleteCheckKnowledgeSession();
+        ksession.setGlobal("clusterId", ruleContext.getClusterId());
+        instanceContext.setObsoleteCheckFactHandle(evaluate(ksession, instanceContext.getObsoleteCheckFactHandle(),
+                partitionContext, ruleContext));
+    }
+
+    @Override
+    public void evaluateDependentScaleCheck(ClusterInstanceContext instanceContext, ScalingRuleContext ruleContext) {
+        StatefulKnowledgeSession ksession = instanceContext.getDependentScaleCheckKnowledgeSession();
+        ksession.setGlobal("clusterId", ruleContext.getClusterId());
+        ksession.setGlobal("roundedRequiredInstanceCount", ruleContext.getRoundedRequiredInstanceCount());
+        ksession.setGlobal("algorithmName", ruleContext.getAlgorithmName());
+        ksession.setGlobal("scalingDecisionPublisher", ruleContext.getScalingDecisionPublisher());
+        instanceContext.setDependentScaleCheckFactHandle(evaluate(ksession,
+                instanceContext.getDependentScaleCheckFactHandle(), instanceContext, ruleContext));
+    }
+
+    private FactHandle evaluate(StatefulKnowledgeSession ksession, FactHandle handle, Object obj,
+                                ScalingRuleContext ruleContext) {
+        ksession.setGlobal("delegator", ruleContext.getDelegator());
+        if (handle == null) {
+            handle = ksession.insert(obj);
+        } else {
+            ksession.update(handle, obj);
+        }
+        ksession.fireAllRules();
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Rule executed for: %s ", obj));
+        }
+        return handle;
+    }
+}
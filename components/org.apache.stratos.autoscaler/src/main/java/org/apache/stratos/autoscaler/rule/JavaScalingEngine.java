@@ -0,0 +1,456 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.rule;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.autoscaler.algorithms.PartitionAlgorithm;
+import org.apache.stratos.autoscaler.context.cluster.ClusterInstanceContext;
+import org.apache.stratos.autoscaler.context.member.MemberStatsContext;
+import org.apache.stratos.autoscaler.context.partition.ClusterLevelPartitionContext;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.LoadAverage;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.LoadThresholds;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.MemoryConsumption;
+import org.apache.stratos.autoscaler.statistics.publisher.ScalingDecisionPublisher;
+import org.apache.stratos.cloud.controller.stub.domain.MemberContext;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+/**
+ * Scaling engine implementing the scaling rules shipped in the drools files in plain java.
+ * <p/>
+ * Decisions are the same as the ones made by the drools files, without the cost of inserting
+ * facts into knowledge sessions and of evaluating the rules with mvel. Changes made to the drools
+ * files are not picked up by this engine, hence it should only be used with the shipped rules.
+ */
+public class JavaScalingEngine implements ScalingEngine {
+
+    private static final Log log = LogFactory.getLog(JavaScalingEngine.class);
+
+    public static final String NAME = "java";
+
+    private static final String SCALING_REASON_MIN = "MIN";
+    private static final String SCALING_REASON_DEPENDENCY = "DEPENDENCY";
+    private static final String SCALING_REASON_RIF = "RIF";
+    private static final String SCALING_REASON_MC = "MC";
+    private static final String SCALING_REASON_LA = "LA";
+
+    /**
+     * mincheck.drl
+     */
+    @Override
+    public void evaluateMinCheck(ClusterInstanceContext instanceContext, ScalingRuleContext ruleContext) {
+        RuleTasksDelegator delegator = ruleContext.getDelegator();
+        PartitionAlgorithm partitionAlgorithm = delegator.getPartitionAlgorithm(ruleContext.getAlgorithmName());
+        if (partitionAlgorithm == null) {
+            return;
+        }
+        String clusterId = ruleContext.getClusterId();
+        int nonTerminatedMemberCount = instanceContext.getNonTerminatedMemberCount();
+        int minInstanceCount = instanceContext.getMinInstanceCount();
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("[min-check] [network-partition] %s [cluster-instance] %s [cluster] %s " +
+                            "[non-terminated-members] %d [min] %d", instanceContext.getNetworkPartitionId(),
+                    instanceContext.getId(), clusterId, nonTerminatedMemberCount, minInstanceCount));
+        }
+        if (nonTerminatedMemberCount >= minInstanceCount) {
+            return;
+        }
+
+        int additionalInstances = minInstanceCount - nonTerminatedMemberCount;
+        String scalingDecisionId = createScalingDecisionId(clusterId);
+        ScalingDecisionPublisher scalingDecisionPublisher = ruleContext.getScalingDecisionPublisher();
+        if (isPublisherEnabled(scalingDecisionPublisher)) {
+            scalingDecisionPublisher.publish(System.currentTimeMillis(), scalingDecisionId, clusterId,
+                    minInstanceCount, instanceContext.getMaxInstanceCount(),
+                    0, 0, 0, 0, 0, 0, 0, 0, 0,
+                    minInstanceCount, 0, additionalInstances, SCALING_REASON_MIN);
+        }
+
+        int count = 0;
+        while (count != additionalInstances) {
+            ClusterLevelPartitionContext partitionContext = (ClusterLevelPartitionContext) partitionAlgorithm.
+                    getNextScaleUpPartitionContext(instanceContext.getPartitionCtxtsAsAnArray());
+            if (partitionContext == null) {
+                log.warn("[min-check] Partition is not available to fulfil minimum count! [cluster] " + clusterId);
+                break;
+            }
+            log.info("[min-check] Partition available, hence trying to spawn an instance to fulfil minimum count! " +
+                    "[cluster] " + clusterId);
+            partitionContext.addRequestedMember();
+            count++;
+        }
+        delegator.delegateSpawnRequestedMembers(instanceContext, clusterId, scalingDecisionId);
+    }
+
+    /**
+     * maxcheck.drl
+     */
+    @Override
+    public void evaluateMaxCheck(ClusterInstanceContext instanceContext, ScalingRuleContext ruleContext) {
+        RuleTasksDelegator delegator = ruleContext.getDelegator();
+        for (ClusterLevelPartitionContext partitionContext : instanceContext.getPartitionCtxtsAsAnArray()) {
+            if (partitionContext.isObsoletePartition()) {
+                continue;
+            }
+            int membersToTerminate = partitionContext.getActiveInstanceCount() - partitionContext.getMax();
+            while (membersToTerminate > 0) {
+                MemberStatsContext selectedMemberStatsContext = null;
+                for (MemberStatsContext memberStatsContext : partitionContext.getMemberStatsContexts().values()) {
+                    selectedMemberStatsContext = memberStatsContext;
+                }
+                if (selectedMemberStatsContext == null) {
+                    // The drools rule spins here until statistics of a member are received
+                    break;
+                }
+                log.info("[max-check] Trying to terminating an instance to keep to max!");
+                membersToTerminate--;
+                delegator.delegateTerminate(partitionContext, selectedMemberStatsContext.getMemberId());
+            }
+        }
+    }
+
+    /**
+     * scaling.drl
+     */
+    @Override
+    public void evaluateScaleCheck(ClusterInstanceContext instanceContext, ScalingRuleContext ruleContext) {
+        RuleTasksDelegator delegator = ruleContext.getDelegator();
+        LoadThresholds loadThresholds = ruleContext.getAutoscalePolicy().getLoadThresholds();
+        PartitionAlgorithm partitionAlgorithm = delegator.getPartitionAlgorithm(ruleContext.getAlgorithmName());
+        if ((loadThresholds == null) || (partitionAlgorithm == null)) {
+            return;
+        }
+        String clusterId = ruleContext.getClusterId();
+
+        float rifThreshold = loadThresholds.getRequestsInFlightThreshold();
+        double rifPredictedValue = delegator.getPredictedValueForNextMinute(
+                instanceContext.getAverageRequestsInFlight(), instanceContext.getRequestsInFlightGradient(),
+                instanceContext.getRequestsInFlightSecondDerivative(), 1);
+        float mcThreshold = loadThresholds.getMemoryConsumptionThreshold();
+        double mcPredictedValue = delegator.getMemoryConsumptionPredictedValue(instanceContext);
+        float laThreshold = loadThresholds.getLoadAverageThreshold();
+        double laPredictedValue = delegator.getLoadAveragePredictedValue(instanceContext);
+
+        int activeInstancesCount = instanceContext.getActiveMemberCount();
+        int maxInstancesCount = instanceContext.getMaxInstanceCount();
+        int minInstancesCount = instanceContext.getMinInstanceCount();
+
+        int numberOfInstancesRequiredBasedOnRif = delegator.getNumberOfInstancesRequiredBasedOnRif(
+                (float) rifPredictedValue, rifThreshold);
+        int numberOfInstancesRequiredBasedOnMemoryConsumption = delegator.
+                getNumberOfInstancesRequiredBasedOnMemoryConsumption(mcThreshold, mcPredictedValue,
+                        minInstancesCount, maxInstancesCount);
+        int numberOfInstancesRequiredBasedOnLoadAverage = delegator.getNumberOfInstancesRequiredBasedOnLoadAverage(
+                laThreshold, laPredictedValue, minInstancesCount);
+        int numberOfRequiredInstances = delegator.getMaxNumberOfInstancesRequired(
+                numberOfInstancesRequiredBasedOnRif, numberOfInstancesRequiredBasedOnMemoryConsumption,
+                ruleContext.isMcReset(), numberOfInstancesRequiredBasedOnLoadAverage, ruleContext.isLaReset());
+
+        boolean scaleUp = activeInstancesCount < numberOfRequiredInstances;
+        boolean scaleDown = (activeInstancesCount > numberOfRequiredInstances) ||
+                ((numberOfRequiredInstances == 1) && (activeInstancesCount == 1));
+
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("[scaling] [network-partition] %s [cluster] %s [rif-predicted] %s " +
+                            "[rif-threshold] %s [mc-predicted] %s [mc-threshold] %s [la-predicted] %s " +
+                            "[la-threshold] %s [required-instances] %d [active-instances] %d [scale-up] %s " +
+                            "[scale-down] %s", instanceContext.getNetworkPartitionId(), clusterId,
+                    rifPredictedValue, rifThreshold, mcPredictedValue, mcThreshold, laPredictedValue, laThreshold,
+                    numberOfRequiredInstances, activeInstancesCount, scaleUp, scaleDown));
+        }
+
+        int nonTerminatedMembers = instanceContext.getNonTerminatedMemberCount();
+        if (scaleUp) {
+            int clusterMaxMembers = instanceContext.getMaxInstanceCount();
+            if (nonTerminatedMembers >= clusterMaxMembers) {
+                log.info("[scale-up] Trying to scale up over max, hence not scaling up cluster itself and " +
+                        "notifying to parent for possible group scaling or app bursting. [cluster] " + clusterId +
+                        " [instance id]" + instanceContext.getId() + " [max] " + clusterMaxMembers);
+                delegator.delegateScalingOverMaxNotification(clusterId, instanceContext.getNetworkPartitionId(),
+                        instanceContext.getId());
+                return;
+            }
+
+            int additionalInstances;
+            if (clusterMaxMembers < numberOfRequiredInstances) {
+                additionalInstances = clusterMaxMembers - nonTerminatedMembers;
+                log.info("[scale-up] Required member count based on stat based scaling is higher than max, hence"
+                        + " notifying to parent for possible group scaling or app bursting. [cluster] " + clusterId
+                        + " [instance id]" + instanceContext.getId() + " [max] " + clusterMaxMembers
+                        + " [number of required instances] " + numberOfRequiredInstances
+                        + " [additional instances to be created] " + additionalInstances);
+                delegator.delegateScalingOverMaxNotification(clusterId, instanceContext.getNetworkPartitionId(),
+                        instanceContext.getId());
+            } else {
+                additionalInstances = numberOfRequiredInstances - nonTerminatedMembers;
+            }
+
+            instanceContext.resetScaleDownRequestsCount();
+
+            if (instanceContext.hasScalingDependants()) {
+                delegator.delegateScalingDependencyNotification(clusterId, instanceContext.getNetworkPartitionId(),
+                        instanceContext.getId(), numberOfRequiredInstances, instanceContext.getMinInstanceCount());
+                return;
+            }
+
+            String scalingReason = (numberOfRequiredInstances == numberOfInstancesRequiredBasedOnRif) ?
+                    SCALING_REASON_RIF : (numberOfRequiredInstances == numberOfInstancesRequiredBasedOnMemoryConsumption) ?
+                    SCALING_REASON_MC : SCALING_REASON_LA;
+            String scalingDecisionId = createScalingDecisionId(clusterId);
+            ScalingDecisionPublisher scalingDecisionPublisher = ruleContext.getScalingDecisionPublisher();
+            if (isPublisherEnabled(scalingDecisionPublisher)) {
+                scalingDecisionPublisher.publish(System.currentTimeMillis(), scalingDecisionId, clusterId,
+                        minInstancesCount, maxInstancesCount,
+                        (int) rifPredictedValue, (int) rifThreshold, numberOfInstancesRequiredBasedOnRif,
+                        (int) mcPredictedValue, (int) mcThreshold, numberOfInstancesRequiredBasedOnMemoryConsumption,
+                        (int) laPredictedValue, (int) laThreshold, numberOfInstancesRequiredBasedOnLoadAverage,
+                        numberOfRequiredInstances, activeInstancesCount, additionalInstances, scalingReason);
+            }
+
+            int count = 0;
+            while (count != additionalInstances) {
+                ClusterLevelPartitionContext partitionContext = (ClusterLevelPartitionContext) partitionAlgorithm.
+                        getNextScaleUpPartitionContext(instanceContext.getPartitionCtxtsAsAnArray());
+                if (partitionContext == null) {
+                    log.warn("[scale-up] No more partition available even though cartridge-max is not reached!, " +
+                            "[cluster] " + clusterId + " Please update deployment-policy with new partitions or " +
+                            "with higher partition-max");
+                    break;
+                }
+                log.info("[scale-up] Partition available, hence trying to spawn an instance to scale up! " +
+                        " [application id] " + ruleContext.getApplicationId() +
+                        " [cluster] " + clusterId + " [instance id] " + instanceContext.getId() +
+                        " [network-partition] " + instanceContext.getNetworkPartitionId() +
+                        " [partition] " + partitionContext.getPartitionId() +
+                        " scaleup due to RIF: " + (ruleContext.isRifReset() && (rifPredictedValue > rifThreshold)) +
+                        " [rifPredictedValue] " + rifPredictedValue + " [rifThreshold] " + rifThreshold +
+                        " scaleup due to MC: " + (ruleContext.isMcReset() && (mcPredictedValue > mcThreshold)) +
+                        " [mcPredictedValue] " + mcPredictedValue + " [mcThreshold] " + mcThreshold +
+                        " scaleup due to LA: " + (ruleContext.isLaReset() && (laPredictedValue > laThreshold)) +
+                        " [laPredictedValue] " + laPredictedValue + " [laThreshold] " + laThreshold);
+                partitionContext.addRequestedMember();
+                count++;
+            }
+            delegator.delegateSpawnRequestedMembers(instanceContext, clusterId, scalingDecisionId);
+        } else if (scaleDown) {
+            if (nonTerminatedMembers <= instanceContext.getMinInstanceCount()) {
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("[scale-down] Min is reached, hence not scaling down [cluster] %s " +
+                            "[instance id] %s", clusterId, instanceContext.getId()));
+                }
+                delegator.delegateScalingDownBeyondMinNotification(clusterId, instanceContext.getNetworkPartitionId(),
+                        instanceContext.getId());
+                return;
+            }
+            if (instanceContext.getScaleDownRequestsCount() <= 2) {
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("[scale-down] Not reached scale down requests threshold. [cluster] %s " +
+                            "[count] %d", clusterId, instanceContext.getScaleDownRequestsCount()));
+                }
+                instanceContext.increaseScaleDownRequestsCount();
+                return;
+            }
+            if (instanceContext.hasScalingDependants()) {
+                delegator.delegateScalingDependencyNotification(clusterId, instanceContext.getNetworkPartitionId(),
+                        instanceContext.getId(), numberOfRequiredInstances, instanceContext.getMinInstanceCount());
+                return;
+            }
+
+            ClusterLevelPartitionContext partitionContext = (ClusterLevelPartitionContext) partitionAlgorithm.
+                    getNextScaleDownPartitionContext(instanceContext.getPartitionCtxtsAsAnArray());
+            if (partitionContext == null) {
+                return;
+            }
+            log.info("[scale-down] Partition available to scale down " +
+                    " [application id] " + ruleContext.getApplicationId() +
+                    " [cluster] " + clusterId + " [instance id] " + instanceContext.getId() +
+                    " [network-partition] " + instanceContext.getNetworkPartitionId() +
+                    " [partition] " + partitionContext.getPartitionId() +
+                    " scaledown due to RIF: " + (ruleContext.isRifReset() && (rifPredictedValue < rifThreshold)) +
+                    " [rifPredictedValue] " + rifPredictedValue + " [rifThreshold] " + rifThreshold +
+                    " scaledown due to MC: " + (ruleContext.isMcReset() && (mcPredictedValue < mcThreshold)) +
+                    " [mcPredictedValue] " + mcPredictedValue + " [mcThreshold] " + mcThreshold +
+                    " scaledown due to LA: " + (ruleContext.isLaReset() && (laPredictedValue < laThreshold)) +
+                    " [laPredictedValue] " + laPredictedValue + " [laThreshold] " + laThreshold);
+            MemberStatsContext selectedMemberStatsContext = selectMemberWithLowestLoad(partitionContext, delegator);
+            if (selectedMemberStatsContext != null) {
+                log.info("[scale-down] Trying to terminating an instace to scale down!");
+                delegator.delegateTerminate(partitionContext, selectedMemberStatsContext.getMemberId());
+            }
+        } else if (log.isDebugEnabled()) {
+            log.debug(String.format("[scaling] No decision made to either scale up or scale down ... [cluster] %s " +
+                    "[instance id] %s", clusterId, instanceContext.getId()));
+        }
+    }
+
+    /**
+     * obsoletecheck.drl
+     */
+    @Override
+    public void evaluateObsoleteCheck(ClusterInstanceContext instanceContext,
+                                      ClusterLevelPartitionContext partitionContext, ScalingRuleContext ruleContext) {
+        RuleTasksDelegator delegator = ruleContext.getDelegator();
+        // Members are iterated over copies, as the rules do, since the delegator may modify the collections
+        for (String memberId : new ArrayList<String>(partitionContext.getObsoletedMembers().keySet())) {
+            delegator.terminateObsoleteInstance(memberId);
+        }
+        for (MemberContext member : new ArrayList<MemberContext>(partitionContext.getTerminationPendingMembers())) {
+            delegator.delegateInstanceCleanup(member.getMemberId());
+        }
+    }
+
+    /**
+     * dependent-scaling.drl
+     */
+    @Override
+    public void evaluateDependentScaleCheck(ClusterInstanceContext instanceContext, ScalingRuleContext ruleContext) {
+        RuleTasksDelegator delegator = ruleContext.getDelegator();
+        PartitionAlgorithm partitionAlgorithm = delegator.getPartitionAlgorithm(ruleContext.getAlgorithmName());
+        if (partitionAlgorithm == null) {
+            return;
+        }
+        String clusterId = ruleContext.getClusterId();
+        int roundedRequiredInstanceCount = ruleContext.getRoundedRequiredInstanceCount();
+        int nonTerminatedMembers = instanceContext.getNonTerminatedMemberCount();
+
+        if (nonTerminatedMembers < roundedRequiredInstanceCount) {
+            int clusterMaxMembers = instanceContext.getMaxInstanceCount();
+            if (nonTerminatedMembers >= clusterMaxMembers) {
+                log.info("[dependency-scale] [scale-up] Trying to scale up over max, hence not scaling up cluster " +
+                        "itself and notifying to parent for possible group scaling or app bursting. [cluster] " +
+                        clusterId + " [instance id]" + instanceContext.getId() + " [max] " + clusterMaxMembers);
+                delegator.delegateScalingOverMaxNotification(clusterId, instanceContext.getNetworkPartitionId(),
+                        instanceContext.getId());
+                return;
+            }
+
+            int additionalInstances;
+            if (clusterMaxMembers < roundedRequiredInstanceCount) {
+                additionalInstances = clusterMaxMembers - nonTerminatedMembers;
+            } else {
+                // The rule notifies the parent when the required count is within max, kept as is
+                additionalInstances = roundedRequiredInstanceCount - nonTerminatedMembers;
+                log.info("[dependency-scaling] [scale-up] Required member count based on dependecy scaling is " +
+                        "higher than max, hence notifying to parent for possible group scaling or app bursting. " +
+                        "[cluster] " + clusterId + " [instance id]" + instanceContext.getId() +
+                        " [max] " + clusterMaxMembers);
+                delegator.delegateScalingOverMaxNotification(clusterId, instanceContext.getNetworkPartitionId(),
+                        instanceContext.getId());
+            }
+
+            String scalingDecisionId = createScalingDecisionId(clusterId);
+            ScalingDecisionPublisher scalingDecisionPublisher = ruleContext.getScalingDecisionPublisher();
+            if (isPublisherEnabled(scalingDecisionPublisher)) {
+                scalingDecisionPublisher.publish(System.currentTimeMillis(), scalingDecisionId, clusterId,
+                        instanceContext.getMinInstanceCount(), clusterMaxMembers,
+                        0, 0, 0, 0, 0, 0, 0, 0, 0,
+                        additionalInstances + nonTerminatedMembers, 0, additionalInstances,
+                        SCALING_REASON_DEPENDENCY);
+            }
+
+            int count = 0;
+            boolean partitionsAvailable = true;
+            while ((count != additionalInstances) && partitionsAvailable) {
+                ClusterLevelPartitionContext partitionContext = (ClusterLevelPartitionContext) partitionAlgorithm.
+                        getNextScaleUpPartitionContext(instanceContext.getPartitionCtxtsAsAnArray());
+                if (partitionContext != null) {
+                    log.info("[dependency-scale] [scale-up] Partition available, hence trying to spawn an instance " +
+                            "to scale up!");
+                    partitionContext.addRequestedMember();
+                    count++;
+                } else {
+                    partitionsAvailable = false;
+                }
+            }
+            delegator.delegateSpawnRequestedMembers(instanceContext, clusterId, scalingDecisionId);
+
+            if (!partitionsAvailable) {
+                if (instanceContext.isInGroupScalingEnabledSubtree()) {
+                    delegator.delegateScalingOverMaxNotification(clusterId, instanceContext.getNetworkPartitionId(),
+                            instanceContext.getId());
+                    log.info("[dependency-scale] [dependent-max-notification] partition is not available for " +
+                            "[scale-up]. Hence notifying the parent for group scaling");
+                } else {
+                    log.warn("[dependency-scale] [dependent-max-notification] partition is not available for " +
+                            "[scale-up]. All resources are exhausted. Please enable group-scaling for further scaleup");
+                }
+            }
+        } else if (nonTerminatedMembers > roundedRequiredInstanceCount) {
+            int redundantInstances = nonTerminatedMembers - roundedRequiredInstanceCount;
+            int count = 0;
+            while (count != redundantInstances) {
+                ClusterLevelPartitionContext partitionContext = (ClusterLevelPartitionContext) partitionAlgorithm.
+                        getNextScaleDownPartitionContext(instanceContext.getPartitionCtxtsAsAnArray());
+                if (partitionContext == null) {
+                    // The drools rule spins here until a partition becomes available
+                    break;
+                }
+                log.info("[dependency-scale] [scale-down] Partition available to scale down, hence trying to " +
+                        "terminate an instance to scale down!");
+                MemberStatsContext selectedMemberStatsContext = selectMemberWithLowestLoad(partitionContext, delegator);
+                if (selectedMemberStatsContext != null) {
+                    log.info("[dependency-scale] [scale-down] Trying to terminating an instace to scale down!");
+                    delegator.delegateTerminate(partitionContext, selectedMemberStatsContext.getMemberId());
+                }
+                count++;
+            }
+        }
+    }
+
+    /**
+     * Select the member of the partition with the lowest predicted overall load, the first one found
+     * if several members have the same load.
+     */
+    private static MemberStatsContext selectMemberWithLowestLoad(ClusterLevelPartitionContext partitionContext,
+                                                                 RuleTasksDelegator delegator) {
+        MemberStatsContext selectedMemberStatsContext = null;
+        double lowestOverallLoad = 0.0;
+        for (MemberStatsContext memberStatsContext : partitionContext.getMemberStatsContexts().values()) {
+            LoadAverage loadAverage = memberStatsContext.getLoadAverage();
+            MemoryConsumption memoryConsumption = memberStatsContext.getMemoryConsumption();
+            double predictedCpu = delegator.getPredictedValueForNextMinute(loadAverage.getAverage(),
+                    loadAverage.getGradient(), loadAverage.getSecondDerivative(), 1);
+            double predictedMemoryConsumption = delegator.getPredictedValueForNextMinute(
+                    memoryConsumption.getAverage(), memoryConsumption.getGradient(),
+                    memoryConsumption.getSecondDerivative(), 1);
+            double overallLoad = (predictedCpu + predictedMemoryConsumption) / 2;
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("[scale-down] [partition] %s [member] %s [predicted-cpu] %s " +
+                                "[predicted-memory-consumption] %s [overall-load] %s", partitionContext.getPartitionId(),
+                        memberStatsContext.getMemberId(), predictedCpu, predictedMemoryConsumption, overallLoad));
+            }
+            if ((selectedMemberStatsContext == null) || (overallLoad < lowestOverallLoad)) {
+                selectedMemberStatsContext = memberStatsContext;
+                lowestOverallLoad = overallLoad;
+            }
+        }
+        return selectedMemberStatsContext;
+    }
+
+    private static String createScalingDecisionId(String clusterId) {
+        return clusterId + "-" + UUID.randomUUID().toString();
+    }
+
+    private static boolean isPublisherEnabled(ScalingDecisionPublisher scalingDecisionPublisher) {
+        return (scalingDecisionPublisher != null) && scalingDecisionPublisher.isEnabled();
+    }
+}
@@ -175,6 +175,20 @@ public class RuleTasksDelegator {
      */
     public void delegateSpawn(ClusterLevelPartitionContext clusterMonitorPartitionContext, String clusterId,
                               String clusterInstanceId, String scalingDecisionId) {
+        delegateSpawn(clusterMonitorPartitionContext, clusterId, clusterInstanceId, scalingDecisionId, 1);
+    }
+
+    /**
+     * Starts a number of instances in a partition with a single cloud controller call.
+     *
+     * @param clusterMonitorPartitionContext Cluster monitor partition context
+     * @param clusterId                      Cluster id
+     * @param clusterInstanceId              Instance id
+     * @param scalingDecisionId              Scaling Decision id
+     * @param count                          Number of instances to be started
+     */
+    public void delegateSpawn(ClusterLevelPartitionContext clusterMonitorPartitionContext, String clusterId,
+                              String clusterInstanceId, String scalingDecisionId, int count) {
 
         try {
             String nwPartitionId = clusterMonitorPartitionContext.getNetworkPartitionId();
@@ -190,25 +204,33 @@ public class RuleTasksDelegator {
                             getInstanceContext(clusterInstanceId);
             minimumCountOfNetworkPartition = clusterInstanceContext.getMinInstanceCount();
 
-            MemberContext memberContext =
+            MemberContext[] memberContexts =
                     AutoscalerCloudControllerClient.getInstance()
-                            .startInstance(clusterMonitorPartitionContext.getPartition(),
+                            .startInstances(clusterMonitorPartitionContext.getPartition(),
                                     clusterId,
                                     clusterInstanceId, clusterMonitorPartitionContext.getNetworkPartitionId(),
-                                    minimumCountOfNetworkPartition, scalingDecisionId);
-            if (memberContext != null) {
-                ClusterLevelPartitionContext partitionContext = clusterInstanceContext.
-                        getPartitionCtxt(clusterMonitorPartitionContext.getPartitionId());
-                partitionContext.addPendingMember(memberContext);
-                partitionContext.addMemberStatsContext(new MemberStatsContext(memberContext.getMemberId()));
-                if (log.isDebugEnabled()) {
-                    log.debug(String.format("Pending member added, [member] %s [partition] %s", memberContext.getMemberId(),
-                            memberContext.getPartition().getId()));
+                                    minimumCountOfNetworkPartition, scalingDecisionId, count);
+            ClusterLevelPartitionContext partitionContext = clusterInstanceContext.
+                    getPartitionCtxt(clusterMonitorPartitionContext.getPartitionId());
+            for (MemberContext memberContext : memberContexts) {
+                if (memberContext != null) {
+                    partitionContext.addPendingMember(memberContext);
+                    partitionContext.addMemberStatsContext(new MemberStatsContext(memberContext.getMemberId()));
+                    if (log.isDebugEnabled()) {
+                        log.debug(String.format("Pending member added, [member] %s [partition] %s",
+                                memberContext.getMemberId(), memberContext.getPartition().getId()));
+                    }
+                } else {
+                    if (log.isErrorEnabled()) {
+                        log.error("Member context returned from cloud controller is null");
+                    }
                 }
-
-            } else {
+            }
+            if (memberContexts.length < count) {
                 if (log.isErrorEnabled()) {
-                    log.error("Member context returned from cloud controller is null");
+                    log.error(String.format("Cloud controller started fewer instances than requested: " +
+                                    "[cluster-id] %s [instance-id] %s [requested] %d [started] %d", clusterId,
+                            clusterInstanceId, count, memberContexts.length));
                 }
             }
         } catch (Exception e) {
@@ -219,6 +241,30 @@ public class RuleTasksDelegator {
         }
     }
 
+    /**
+     * Invoked from drools to start the members requested in the partitions of a cluster instance,
+     * with a single cloud controller call per partition.
+     *
+     * @param clusterInstanceContext Cluster instance context
+     * @param clusterId              Cluster id
+     * @param scalingDecisionId      Scaling Decision id
+     */
+    public void delegateSpawnRequestedMembers(ClusterInstanceContext clusterInstanceContext, String clusterId,
+                                              String scalingDecisionId) {
+        ClusterLevelPartitionContext[] partitionContexts = clusterInstanceContext.getPartitionCtxtsAsAnArray();
+        // take the requested members of all partitions first, they are counted as pending members once spawned
+        int[] requestedMemberCounts = new int[partitionContexts.length];
+        for (int i = 0; i < partitionContexts.length; i++) {
+            requestedMemberCounts[i] = partitionContexts[i].takeRequestedMembers();
+        }
+        for (int i = 0; i < partitionContexts.length; i++) {
+            if (requestedMemberCounts[i] > 0) {
+                delegateSpawn(partitionContexts[i], clusterId, clusterInstanceContext.getId(), scalingDecisionId,
+                        requestedMemberCounts[i]);
+            }
+        }
+    }
+
     public void delegateScalingDependencyNotification(String clusterId, String networkPartitionId, String instanceId,
                                                       int requiredInstanceCount, int minimumInstanceCount) {
 
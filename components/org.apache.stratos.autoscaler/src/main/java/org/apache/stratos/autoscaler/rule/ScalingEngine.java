@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.rule;
+
+import org.apache.stratos.autoscaler.context.cluster.ClusterInstanceContext;
+import org.apache.stratos.autoscaler.context.partition.ClusterLevelPartitionContext;
+
+/**
+ * Evaluates the scaling rules of a cluster instance and executes the resulting scaling decisions
+ * through the rule tasks delegator of the rule context.
+ * <p/>
+ * Each method corresponds to one of the scaling rule files: mincheck.drl, maxcheck.drl,
+ * scaling.drl, obsoletecheck.drl and dependent-scaling.drl. Implementations are shared by all
+ * cluster monitors and hence need to be thread safe.
+ */
+public interface ScalingEngine {
+
+    /**
+     * Spawn members if the cluster instance has less non terminated members than its minimum.
+     */
+    void evaluateMinCheck(ClusterInstanceContext instanceContext, ScalingRuleContext ruleContext);
+
+    /**
+     * Terminate members of partitions having more active members than their maximum.
+     */
+    void evaluateMaxCheck(ClusterInstanceContext instanceContext, ScalingRuleContext ruleContext);
+
+    /**
+     * Scale the cluster instance up or down based on the statistics received.
+     */
+    void evaluateScaleCheck(ClusterInstanceContext instanceContext, ScalingRuleContext ruleContext);
+
+    /**
+     * Terminate obsoleted members and clean up members pending termination of a partition.
+     */
+    void evaluateObsoleteCheck(ClusterInstanceContext instanceContext, ClusterLevelPartitionContext partitionContext,
+                               ScalingRuleContext ruleContext);
+
+    /**
+     * Scale the cluster instance to the instance count required by its scaling dependencies.
+     */
+    void evaluateDependentScaleCheck(ClusterInstanceContext instanceContext, ScalingRuleContext ruleContext);
+}
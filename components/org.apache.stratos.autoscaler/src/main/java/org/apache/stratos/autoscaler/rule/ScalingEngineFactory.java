@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.rule;
+
+import org.apache.commons.configuration.XMLConfiguration;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.autoscaler.util.AutoscalerConstants;
+import org.apache.stratos.autoscaler.util.ConfUtil;
+
+/**
+ * Creates the scaling engine configured in autoscaler.xml: drools (default), java or the class
+ * name of a scaling engine implementation.
+ */
+public class ScalingEngineFactory {
+
+    private static final Log log = LogFactory.getLog(ScalingEngineFactory.class);
+
+    private static volatile ScalingEngine scalingEngine;
+
+    public static ScalingEngine getScalingEngine() {
+        if (scalingEngine == null) {
+            synchronized (ScalingEngineFactory.class) {
+                if (scalingEngine == null) {
+                    XMLConfiguration conf = ConfUtil.getInstance(null).getConfiguration();
+                    scalingEngine = createScalingEngine(conf.getString(AutoscalerConstants.CLUSTER_SCALING_ENGINE,
+                            DroolsScalingEngine.NAME));
+                    if (log.isInfoEnabled()) {
+                        log.info(String.format("Scaling engine initialized: [scaling-engine] %s",
+                                scalingEngine.getClass().getName()));
+                    }
+                }
+            }
+        }
+        return scalingEngine;
+    }
+
+    public static ScalingEngine createScalingEngine(String name) {
+        if ((name == null) || DroolsScalingEngine.NAME.equalsIgnoreCase(name.trim())) {
+            return new DroolsScalingEngine();
+        }
+        if (JavaScalingEngine.NAME.equalsIgnoreCase(name.trim())) {
+            return new JavaScalingEngine();
+        }
+        try {
+            return (ScalingEngine) Class.forName(name.trim()).newInstance();
+        } catch (Exception e) {
+            log.error(String.format("Could not create scaling engine, using drools scaling engine: " +
+                    "[scaling-engine] %s", name), e);
+            return new DroolsScalingEngine();
+        }
+    }
+}
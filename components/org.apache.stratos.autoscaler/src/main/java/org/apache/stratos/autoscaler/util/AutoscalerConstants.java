@@ -58,6 +58,20 @@ public final class AutoscalerConstants {
      */
     public static final String Cluster_MONITOR_INTERVAL = "autoscaler.cluster.monitorInterval";
 
+    /**
+     * Scaling engine evaluating the scaling rules of clusters: drools, java or a class name
+     */
+    public static final String CLUSTER_SCALING_ENGINE = "autoscaler.cluster.scalingEngine";
+
+    /**
+     * Event driven scaling: evaluate a cluster instance as soon as its stats require a scale up,
+     * no earlier than the delay (ms) after the stat and the min interval (ms) after the last evaluation
+     */
+    public static final String CLUSTER_EVENT_DRIVEN_SCALING_ENABLED = "autoscaler.cluster.eventDrivenScaling.enabled";
+    public static final String CLUSTER_EVENT_DRIVEN_SCALING_DELAY = "autoscaler.cluster.eventDrivenScaling.delay";
+    public static final String CLUSTER_EVENT_DRIVEN_SCALING_MIN_INTERVAL =
+            "autoscaler.cluster.eventDrivenScaling.minInterval";
+
     public static final String SERVICE_GROUP = "/groups";
 
     /**
@@ -74,7 +88,15 @@ public final class AutoscalerConstants {
     public static final String MONITOR_THREAD_POOL_ID = "monitor.thread.pool";
     public static final String STATS_PUBLISHER_THREAD_POOL_ID = "autoscaler.stats.publisher.thread.pool";
     public static final String MONITOR_THREAD_POOL_SIZE = "monitor.thread.pool.size";
-    public static final String CLUSTER_MONITOR_SCHEDULER_ID = "cluster.monitor.scheduler";
+    public static final String MONITOR_SCHEDULER_WORKER_POOL_ID = "autoscaler.monitor.scheduler.worker.pool";
+    /**
+     * Monitor scheduler: tick duration (ms) and number of buckets of the timing wheel, size of the
+     * worker pool running the monitors and maximum delay (ms) of the first run of a monitor
+     */
+    public static final String MONITOR_SCHEDULER_TICK_DURATION = "autoscaler.monitorScheduler.tickDuration";
+    public static final String MONITOR_SCHEDULER_WHEEL_SIZE = "autoscaler.monitorScheduler.wheelSize";
+    public static final String MONITOR_SCHEDULER_WORKER_POOL_SIZE = "autoscaler.monitorScheduler.workerPoolSize";
+    public static final String MONITOR_SCHEDULER_START_DELAY = "autoscaler.monitorScheduler.startDelay";
     public static final String MEMBER_FAULT_EVENT_NAME = "member_fault";
     //scheduler
     public static final int SCHEDULE_DEFAULT_INITIAL_DELAY = 30;
@@ -85,6 +107,10 @@ public final class AutoscalerConstants {
     public static final String AUTOSCALER_CONFIG_FILE_NAME = "autoscaler.xml";
     public static final String CLOUD_CONTROLLER_SERVICE_SFX = "services/CloudControllerService";
     public static final int CLOUD_CONTROLLER_DEFAULT_PORT = 9444;
+    public static final String CLOUD_CONTROLLER_CLIENT_THREAD_POOL_ID = "autoscaler.cloud.controller.client.thread.pool";
+    public static final String CLOUD_CONTROLLER_CLIENT_POOL_SIZE = "autoscaler.cloudController.clientPoolSize";
+    public static final String CLOUD_CONTROLLER_MAX_CONCURRENT_STARTS =
+            "autoscaler.cloudController.maxConcurrentStarts";
     public static final String STRATOS_MANAGER_SERVICE_SFX = "services/InstanceCleanupNotificationService";
     public static final int STRATOS_MANAGER_DEFAULT_PORT = 9445;
     public static final String STRATOS_MANAGER_HOSTNAME_ELEMENT = "autoscaler.stratosManager.hostname";
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler;
+
+import org.apache.stratos.autoscaler.monitor.MonitorScheduler;
+import org.apache.stratos.autoscaler.monitor.ScheduledMonitorTask;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Monitor scheduler test.
+ */
+public class MonitorSchedulerTest {
+
+    private MonitorScheduler scheduler;
+
+    @After
+    public void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testPeriodicRunsAreSpreadAcrossInterval() throws Exception {
+        scheduler = new MonitorScheduler("spread-test", 10, 64, 4, 0);
+        final long interval = 1000;
+        int monitorCount = 100;
+        final List<Long> secondRunTimes = new CopyOnWriteArrayList<Long>();
+        final CountDownLatch latch = new CountDownLatch(monitorCount);
+        final long startTime = System.nanoTime();
+        for (int i = 0; i < monitorCount; i++) {
+            final AtomicInteger runs = new AtomicInteger();
+            scheduler.schedule("monitor-" + i, new Runnable() {
+                @Override
+                public void run() {
+                    if (runs.incrementAndGet() == 2) {
+                        secondRunTimes.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+                        latch.countDown();
+                    }
+                }
+            }, interval);
+        }
+        assertTrue("Monitors did not run twice", latch.await(5, TimeUnit.SECONDS));
+
+        // The second runs are at the phases of the monitors, a tenth of the interval gets a tenth of them
+        int[] bins = new int[10];
+        for (long runTime : secondRunTimes) {
+            bins[(int) ((runTime % interval) * bins.length / interval)]++;
+        }
+        for (int count : bins) {
+            assertTrue("Monitor runs are not spread evenly: " + Arrays.toString(bins),
+                    (count >= 5) && (count <= 15));
+        }
+        assertEquals(monitorCount, scheduler.getMonitorStatistics().length);
+        assertTrue(scheduler.getExecutedCount() >= 2 * monitorCount);
+    }
+
+    @Test
+    public void testRunIsSkippedWhilePreviousRunInProgress() throws Exception {
+        scheduler = new MonitorScheduler("skip-test", 10, 64, 4, 0);
+        final AtomicInteger concurrentRuns = new AtomicInteger();
+        final AtomicInteger maxConcurrentRuns = new AtomicInteger();
+        ScheduledMonitorTask task = scheduler.schedule("slow-monitor", new Runnable() {
+            @Override
+            public void run() {
+                int current = concurrentRuns.incrementAndGet();
+                maxConcurrentRuns.set(Math.max(maxConcurrentRuns.get(), current));
+                try {
+                    Thread.sleep(250);
+                } catch (InterruptedException ignore) {
+                }
+                concurrentRuns.decrementAndGet();
+            }
+        }, 100);
+        Thread.sleep(1200);
+        task.cancel();
+
+        assertEquals(1, maxConcurrentRuns.get());
+        assertTrue(task.getRunCount() >= 2);
+        assertTrue(task.getSkippedCount() >= 2);
+        assertTrue(task.getMaxExecutionTimeMillis() >= 250);
+    }
+
+    @Test
+    public void testCancelledTaskDoesNotRun() throws Exception {
+        scheduler = new MonitorScheduler("cancel-test", 10, 64, 2, 0);
+        final AtomicInteger runs = new AtomicInteger();
+        ScheduledMonitorTask task = scheduler.schedule("monitor", new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        }, 100);
+        Thread.sleep(350);
+        task.cancel();
+        int runsBeforeCancel = runs.get();
+        Thread.sleep(300);
+
+        assertTrue(runsBeforeCancel >= 2);
+        assertEquals(runsBeforeCancel, runs.get());
+        assertEquals(0, scheduler.getScheduledTaskCount());
+    }
+
+    @Test
+    public void testScheduleOnce() throws Exception {
+        scheduler = new MonitorScheduler("once-test", 10, 8, 2, 0);
+        final List<Long> runTimes = new ArrayList<Long>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long startTime = System.nanoTime();
+        // A delay over a turn of the wheel
+        ScheduledMonitorTask task = scheduler.scheduleOnce("task", new Runnable() {
+            @Override
+            public void run() {
+                runTimes.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+                latch.countDown();
+            }
+        }, 200);
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        Thread.sleep(100);
+
+        assertEquals(1, runTimes.size());
+        assertTrue("Task ran early: " + runTimes.get(0), runTimes.get(0) >= 200);
+        assertEquals(1, task.getRunCount());
+        assertTrue(task.getLastLatenessMillis() < 100);
+        assertEquals(0, scheduler.getScheduledTaskCount());
+    }
+}
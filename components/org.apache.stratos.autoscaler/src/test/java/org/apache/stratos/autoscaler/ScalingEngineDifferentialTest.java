@@ -0,0 +1,558 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.autoscaler.context.cluster.ClusterInstanceContext;
+import org.apache.stratos.autoscaler.context.member.MemberStatsContext;
+import org.apache.stratos.autoscaler.context.partition.ClusterLevelPartitionContext;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.AutoscalePolicy;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.LoadThresholds;
+import org.apache.stratos.autoscaler.rule.DroolsScalingEngine;
+import org.apache.stratos.autoscaler.rule.JavaScalingEngine;
+import org.apache.stratos.autoscaler.rule.RuleTasksDelegator;
+import org.apache.stratos.autoscaler.rule.ScalingEngine;
+import org.apache.stratos.autoscaler.rule.ScalingRuleContext;
+import org.apache.stratos.autoscaler.statistics.publisher.ScalingDecisionPublisher;
+import org.apache.stratos.cloud.controller.stub.domain.MemberContext;
+import org.apache.stratos.common.constants.StratosConstants;
+import org.apache.stratos.common.statistics.publisher.ThriftClientConfig;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Evaluates the scaling rules shipped in the distribution with the drools scaling engine and the
+ * java scaling engine on the same cluster states and verifies that both engines make the same
+ * scaling decisions. The cluster states are randomly generated, or read from a file together with
+ * the scaling decisions recorded for them. Also measures the evaluations per second of both engines.
+ */
+public class ScalingEngineDifferentialTest {
+
+    private static final Log log = LogFactory.getLog(ScalingEngineDifferentialTest.class);
+
+    private static final String CONF_DIR_PATH = "../../products/stratos/modules/distribution/src/main/conf";
+    // The scaling decision publisher reads the thrift client configuration when it is created, the
+    // configuration in the distribution enables publishing to DAS while this one disables it
+    private static final String THRIFT_CLIENT_CONFIG_FILE_PATH = "src/test/resources/thrift-client-config.xml";
+    private static final String CLUSTER_STATES_FILE_PATH = "src/test/resources/scaling-engine-cluster-states.json";
+    private static final String CLUSTER_ID = "cluster-1";
+    private static final String NETWORK_PARTITION_ID = "network-partition-1";
+    private static final String[] ALGORITHMS = {StratosConstants.PARTITION_ONE_AFTER_ANOTHER_ALGORITHM_ID,
+            StratosConstants.PARTITION_ROUND_ROBIN_ALGORITHM_ID};
+    private static final int SCENARIO_COUNT = 500;
+    private static final int EVALUATION_COUNT = 20000;
+
+    @BeforeClass
+    public static void setUp() {
+        System.setProperty("carbon.config.dir.path", new File(CONF_DIR_PATH).getAbsolutePath());
+        System.setProperty(ThriftClientConfig.THRIFT_CLIENT_CONFIG_FILE_PATH, THRIFT_CLIENT_CONFIG_FILE_PATH);
+    }
+
+    @Test(timeout = 300000)
+    public void testScalingDecisions() {
+        ScalingEngine droolsScalingEngine = new DroolsScalingEngine();
+        ScalingEngine javaScalingEngine = new JavaScalingEngine();
+        int decisionCount = 0;
+        for (int seed = 0; seed < SCENARIO_COUNT; seed++) {
+            ClusterState clusterState = generateClusterState(seed, (seed % 2 == 1));
+            Scenario droolsScenario = new Scenario(clusterState);
+            Scenario javaScenario = new Scenario(clusterState);
+            List<List<String>> droolsDecisions = droolsScenario.evaluate(droolsScalingEngine);
+            List<List<String>> javaDecisions = javaScenario.evaluate(javaScalingEngine);
+
+            assertEquals("Scaling decisions differ: [seed] " + seed, droolsDecisions, javaDecisions);
+            assertEquals("Cluster state differs: [seed] " + seed, droolsScenario.getState(), javaScenario.getState());
+            assertEquals("Spawn calls differ: [seed] " + seed, droolsScenario.getSpawnCalls(),
+                    javaScenario.getSpawnCalls());
+            for (List<String> decisions : javaDecisions) {
+                decisionCount += decisions.size();
+            }
+        }
+        assertTrue(decisionCount > 0);
+        log.info(String.format("Scaling decisions compared: [scenarios] %d [decisions] %d", SCENARIO_COUNT,
+                decisionCount));
+    }
+
+    @Test(timeout = 300000)
+    public void testRecordedClusterStates() throws IOException {
+        ScalingEngine droolsScalingEngine = new DroolsScalingEngine();
+        ScalingEngine javaScalingEngine = new JavaScalingEngine();
+        List<ClusterState> clusterStates = readClusterStates();
+        assertTrue(clusterStates.size() > 0);
+        for (ClusterState clusterState : clusterStates) {
+            Scenario droolsScenario = new Scenario(clusterState);
+            Scenario javaScenario = new Scenario(clusterState);
+            List<List<String>> droolsDecisions = droolsScenario.evaluate(droolsScalingEngine);
+            List<List<String>> javaDecisions = javaScenario.evaluate(javaScalingEngine);
+
+            assertEquals("Recorded scaling decisions differ: [cluster-state] " + clusterState.name,
+                    clusterState.decisions, droolsDecisions);
+            assertEquals("Scaling decisions differ: [cluster-state] " + clusterState.name, droolsDecisions,
+                    javaDecisions);
+            assertEquals("Cluster state differs: [cluster-state] " + clusterState.name, droolsScenario.getState(),
+                    javaScenario.getState());
+        }
+        log.info(String.format("Recorded scaling decisions compared: [cluster-states] %d", clusterStates.size()));
+    }
+
+    @Test(timeout = 300000)
+    public void testEvaluationPerformance() {
+        measureEvaluations(new DroolsScalingEngine());
+        measureEvaluations(new JavaScalingEngine());
+    }
+
+    private void measureEvaluations(ScalingEngine scalingEngine) {
+        // A cluster instance in steady state, no scaling decisions are made
+        RecordingDelegator delegator = new RecordingDelegator();
+        ClusterInstanceContext instanceContext = new ClusterInstanceContext("instance-1",
+                StratosConstants.PARTITION_ONE_AFTER_ANOTHER_ALGORITHM_ID, 1, 10, NETWORK_PARTITION_ID, CLUSTER_ID,
+                false, false);
+        TestPartitionContext partitionContext = new TestPartitionContext("partition-1", 5);
+        for (int i = 0; i < 3; i++) {
+            partitionContext.addActiveMember(createMember("member-" + i));
+            partitionContext.addMemberStatsContext(new MemberStatsContext("member-" + i));
+        }
+        instanceContext.addPartitionCtxt(partitionContext);
+        instanceContext.setAverageRequestsInFlight(250);
+
+        ScalingRuleContext ruleContext = new ScalingRuleContext("application-1", CLUSTER_ID,
+                StratosConstants.PARTITION_ONE_AFTER_ANOTHER_ALGORITHM_ID, new RecordingPublisher(delegator));
+        ruleContext.setDelegator(delegator);
+        ruleContext.setAutoscalePolicy(createAutoscalePolicy(100, 80, 80));
+        ruleContext.setRifReset(true);
+
+        // Warm up
+        for (int i = 0; i < EVALUATION_COUNT / 10; i++) {
+            evaluate(scalingEngine, instanceContext, ruleContext);
+        }
+        long startTime = System.nanoTime();
+        for (int i = 0; i < EVALUATION_COUNT; i++) {
+            evaluate(scalingEngine, instanceContext, ruleContext);
+        }
+        long time = System.nanoTime() - startTime;
+        assertEquals(Collections.<String>emptyList(), delegator.getDecisions());
+
+        log.info(String.format("Scaling rule evaluations: [scaling-engine] %s [evaluations] %d " +
+                        "[evaluations-per-second] %d", scalingEngine.getClass().getSimpleName(), EVALUATION_COUNT,
+                EVALUATION_COUNT * 1000000000L / Math.max(1, time)));
+    }
+
+    private static void evaluate(ScalingEngine scalingEngine, ClusterInstanceContext instanceContext,
+                                 ScalingRuleContext ruleContext) {
+        scalingEngine.evaluateMinCheck(instanceContext, ruleContext);
+        scalingEngine.evaluateMaxCheck(instanceContext, ruleContext);
+        scalingEngine.evaluateScaleCheck(instanceContext, ruleContext);
+    }
+
+    private static AutoscalePolicy createAutoscalePolicy(float rifThreshold, float mcThreshold, float laThreshold) {
+        LoadThresholds loadThresholds = new LoadThresholds();
+        loadThresholds.setRequestsInFlightThreshold(rifThreshold);
+        loadThresholds.setMemoryConsumptionThreshold(mcThreshold);
+        loadThresholds.setLoadAverageThreshold(laThreshold);
+        AutoscalePolicy autoscalePolicy = new AutoscalePolicy();
+        autoscalePolicy.setLoadThresholds(loadThresholds);
+        return autoscalePolicy;
+    }
+
+    private static MemberContext createMember(String memberId) {
+        MemberContext memberContext = new MemberContext();
+        memberContext.setMemberId(memberId);
+        return memberContext;
+    }
+
+    private static List<ClusterState> readClusterStates() throws IOException {
+        Reader reader = new InputStreamReader(new FileInputStream(CLUSTER_STATES_FILE_PATH), "UTF-8");
+        try {
+            return new Gson().fromJson(reader, new TypeToken<List<ClusterState>>() {
+            }.getType());
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Generate a cluster instance state from a seed.
+     */
+    private static ClusterState generateClusterState(long seed, boolean dependentScaling) {
+        Random random = new Random(seed);
+        ClusterState clusterState = new ClusterState();
+        clusterState.name = "seed-" + seed;
+        clusterState.dependentScaling = dependentScaling;
+        clusterState.min = 1 + random.nextInt(3);
+        clusterState.max = clusterState.min + random.nextInt(6);
+        clusterState.algorithm = ALGORITHMS[random.nextInt(ALGORITHMS.length)];
+        clusterState.hasScalingDependents = (random.nextInt(10) == 0);
+        clusterState.groupScalingEnabledSubtree = random.nextBoolean();
+
+        int partitionCount = 1 + random.nextInt(3);
+        for (int i = 0; i < partitionCount; i++) {
+            PartitionState partitionState = new PartitionState();
+            partitionState.id = "partition-" + i;
+            partitionState.max = 1 + random.nextInt(5);
+            // Obsolete partitions only have members being terminated. Partitions over max are only generated
+            // without dependent scaling, the dependent scaling rule does not terminate if no partition can be
+            // scaled down
+            partitionState.obsolete = (i > 0) && (random.nextInt(8) == 0);
+            int memberCount = partitionState.obsolete ? 0 :
+                    random.nextInt(dependentScaling ? partitionState.max + 1 : partitionState.max + 3);
+            for (int j = 0; j < memberCount; j++) {
+                MemberState memberState = new MemberState();
+                memberState.id = partitionState.id + "-member-" + j;
+                boolean pending = (random.nextInt(4) == 0);
+                memberState.loadAverage = random.nextInt(100);
+                memberState.loadAverageGradient = random.nextInt(10) - 5;
+                memberState.memoryConsumption = random.nextInt(100);
+                memberState.memoryConsumptionGradient = random.nextInt(10) - 5;
+                if (pending) {
+                    partitionState.pendingMembers.add(memberState);
+                } else {
+                    partitionState.activeMembers.add(memberState);
+                }
+            }
+            if (random.nextInt(4) == 0) {
+                partitionState.terminationPendingMembers.add(partitionState.id + "-terminating");
+            }
+            if (random.nextInt(4) == 0) {
+                partitionState.obsoleteMembers.add(partitionState.id + "-obsolete");
+            }
+            clusterState.partitions.add(partitionState);
+        }
+
+        clusterState.averageRequestsInFlight = random.nextInt(500);
+        clusterState.requestsInFlightGradient = random.nextInt(20) - 10;
+        clusterState.requestsInFlightSecondDerivative = random.nextInt(4) - 2;
+        clusterState.scaleDownRequests = random.nextInt(5);
+        clusterState.rifThreshold = 50 + random.nextInt(100);
+        clusterState.mcThreshold = 50 + random.nextInt(40);
+        clusterState.laThreshold = 50 + random.nextInt(40);
+        clusterState.rifReset = random.nextBoolean();
+        clusterState.mcReset = random.nextBoolean();
+        clusterState.laReset = random.nextBoolean();
+        clusterState.requiredInstanceCount = random.nextInt(10);
+        return clusterState;
+    }
+
+    /**
+     * State of a cluster instance and the scaling decisions recorded for it, if any.
+     */
+    private static class ClusterState {
+
+        private String name;
+        private String algorithm;
+        private int min;
+        private int max;
+        private boolean hasScalingDependents;
+        private boolean groupScalingEnabledSubtree;
+        private boolean dependentScaling;
+        private float averageRequestsInFlight;
+        private float requestsInFlightGradient;
+        private float requestsInFlightSecondDerivative;
+        private int scaleDownRequests;
+        private float rifThreshold;
+        private float mcThreshold;
+        private float laThreshold;
+        private boolean rifReset;
+        private boolean mcReset;
+        private boolean laReset;
+        private int requiredInstanceCount;
+        private List<PartitionState> partitions = new ArrayList<PartitionState>();
+        private List<List<String>> decisions;
+    }
+
+    private static class PartitionState {
+
+        private String id;
+        private int max;
+        private boolean obsolete;
+        private List<MemberState> activeMembers = new ArrayList<MemberState>();
+        private List<MemberState> pendingMembers = new ArrayList<MemberState>();
+        private List<String> terminationPendingMembers = new ArrayList<String>();
+        private List<String> obsoleteMembers = new ArrayList<String>();
+    }
+
+    private static class MemberState {
+
+        private String id;
+        private float loadAverage;
+        private float loadAverageGradient;
+        private float memoryConsumption;
+        private float memoryConsumptionGradient;
+    }
+
+    /**
+     * Cluster instance built from a cluster state, evaluated with all the scaling rules.
+     */
+    private static class Scenario {
+
+        private final boolean dependentScaling;
+        private final RecordingDelegator delegator = new RecordingDelegator();
+        private final ClusterInstanceContext instanceContext;
+        private final ScalingRuleContext ruleContext;
+
+        private Scenario(ClusterState clusterState) {
+            this.dependentScaling = clusterState.dependentScaling;
+            instanceContext = new ClusterInstanceContext("instance-1", clusterState.algorithm, clusterState.min,
+                    clusterState.max, NETWORK_PARTITION_ID, CLUSTER_ID, clusterState.hasScalingDependents,
+                    clusterState.groupScalingEnabledSubtree);
+
+            for (PartitionState partitionState : clusterState.partitions) {
+                TestPartitionContext partitionContext = new TestPartitionContext(partitionState.id, partitionState.max);
+                partitionContext.setIsObsoletePartition(partitionState.obsolete);
+                for (MemberState memberState : partitionState.activeMembers) {
+                    partitionContext.addActiveMember(createMember(memberState.id));
+                    partitionContext.addMemberStatsContext(createMemberStats(memberState));
+                }
+                for (MemberState memberState : partitionState.pendingMembers) {
+                    partitionContext.addPendingMember(createMember(memberState.id));
+                    partitionContext.addMemberStatsContext(createMemberStats(memberState));
+                }
+                for (String memberId : partitionState.terminationPendingMembers) {
+                    partitionContext.addTerminationPendingMember(createMember(memberId));
+                }
+                for (String memberId : partitionState.obsoleteMembers) {
+                    partitionContext.addObsoleteMember(createMember(memberId));
+                }
+                instanceContext.addPartitionCtxt(partitionContext);
+            }
+
+            instanceContext.setAverageRequestsInFlight(clusterState.averageRequestsInFlight);
+            instanceContext.setRequestsInFlightGradient(clusterState.requestsInFlightGradient);
+            instanceContext.setRequestsInFlightSecondDerivative(clusterState.requestsInFlightSecondDerivative);
+            for (int i = 0; i < clusterState.scaleDownRequests; i++) {
+                instanceContext.increaseScaleDownRequestsCount();
+            }
+
+            ruleContext = new ScalingRuleContext("application-1", CLUSTER_ID, clusterState.algorithm,
+                    new RecordingPublisher(delegator));
+            ruleContext.setDelegator(delegator);
+            ruleContext.setAutoscalePolicy(createAutoscalePolicy(clusterState.rifThreshold, clusterState.mcThreshold,
+                    clusterState.laThreshold));
+            ruleContext.setRifReset(clusterState.rifReset);
+            ruleContext.setMcReset(clusterState.mcReset);
+            ruleContext.setLaReset(clusterState.laReset);
+            ruleContext.setRoundedRequiredInstanceCount(clusterState.requiredInstanceCount);
+        }
+
+        private static MemberStatsContext createMemberStats(MemberState memberState) {
+            MemberStatsContext memberStatsContext = new MemberStatsContext(memberState.id);
+            memberStatsContext.setAverageLoadAverage(memberState.loadAverage);
+            memberStatsContext.setGradientOfLoadAverage(memberState.loadAverageGradient);
+            memberStatsContext.setAverageMemoryConsumption(memberState.memoryConsumption);
+            memberStatsContext.setGradientOfMemoryConsumption(memberState.memoryConsumptionGradient);
+            return memberStatsContext;
+        }
+
+        /**
+         * Evaluate the scaling rules and return the decisions made by each rule, sorted since rule
+         * activations of a rule file may be fired in any order.
+         */
+        private List<List<String>> evaluate(ScalingEngine scalingEngine) {
+            List<List<String>> decisions = new ArrayList<List<String>>();
+            if (dependentScaling) {
+                scalingEngine.evaluateDependentScaleCheck(instanceContext, ruleContext);
+                decisions.add(delegator.takeDecisions());
+                return decisions;
+            }
+            scalingEngine.evaluateMinCheck(instanceContext, ruleContext);
+            decisions.add(delegator.takeDecisions());
+            scalingEngine.evaluateMaxCheck(instanceContext, ruleContext);
+            decisions.add(delegator.takeDecisions());
+            scalingEngine.evaluateScaleCheck(instanceContext, ruleContext);
+            decisions.add(delegator.takeDecisions());
+            for (ClusterLevelPartitionContext partitionContext : instanceContext.getPartitionCtxtsAsAnArray()) {
+                scalingEngine.evaluateObsoleteCheck(instanceContext, partitionContext, ruleContext);
+                decisions.add(delegator.takeDecisions());
+            }
+            return decisions;
+        }
+
+        private List<String> getSpawnCalls() {
+            return delegator.spawnCalls;
+        }
+
+        private List<String> getState() {
+            List<String> state = new ArrayList<String>();
+            state.add("scale-down-requests " + instanceContext.getScaleDownRequestsCount());
+            for (ClusterLevelPartitionContext partitionContext : instanceContext.getPartitionCtxtsAsAnArray()) {
+                state.add(partitionContext.getPartitionId() + " active " + memberIds(partitionContext.getActiveMembers()) +
+                        " pending " + memberIds(partitionContext.getPendingMembers()) +
+                        " terminating " + memberIds(partitionContext.getTerminationPendingMembers()) +
+                        " obsolete " + new ArrayList<String>(partitionContext.getObsoletedMembers().keySet()));
+            }
+            Collections.sort(state);
+            return state;
+        }
+
+        private static List<String> memberIds(List<MemberContext> members) {
+            List<String> memberIds = new ArrayList<String>();
+            for (MemberContext member : members) {
+                memberIds.add(member.getMemberId());
+            }
+            Collections.sort(memberIds);
+            return memberIds;
+        }
+    }
+
+    /**
+     * Partition context with a fixed maximum, not looked up in the deployment policy.
+     */
+    private static class TestPartitionContext extends ClusterLevelPartitionContext {
+
+        private final int max;
+
+        private TestPartitionContext(String partitionId, int max) {
+            super(900000);
+            this.max = max;
+            setPartitionId(partitionId);
+            setNetworkPartitionId(NETWORK_PARTITION_ID);
+        }
+
+        @Override
+        public int getMax() {
+            return max;
+        }
+    }
+
+    /**
+     * Records the scaling decisions instead of calling the cloud controller and notifying parents.
+     */
+    private static class RecordingDelegator extends RuleTasksDelegator {
+
+        private List<String> decisions = new ArrayList<String>();
+        // Members are numbered per partition, as the members of a partition are started together
+        private final Map<String, Integer> spawnedMemberCounts = new HashMap<String, Integer>();
+        private final List<String> spawnCalls = new ArrayList<String>();
+
+        private void record(String decision) {
+            decisions.add(decision);
+        }
+
+        private List<String> getDecisions() {
+            return decisions;
+        }
+
+        private List<String> takeDecisions() {
+            List<String> takenDecisions = decisions;
+            Collections.sort(takenDecisions);
+            decisions = new ArrayList<String>();
+            return takenDecisions;
+        }
+
+        @Override
+        public void delegateSpawn(ClusterLevelPartitionContext partitionContext, String clusterId,
+                                  String clusterInstanceId, String scalingDecisionId) {
+            Integer spawnedMemberCount = spawnedMemberCounts.get(partitionContext.getPartitionId());
+            spawnedMemberCount = (spawnedMemberCount == null) ? 1 : spawnedMemberCount + 1;
+            spawnedMemberCounts.put(partitionContext.getPartitionId(), spawnedMemberCount);
+            String memberId = partitionContext.getPartitionId() + "-spawned-" + spawnedMemberCount;
+            record("spawn " + partitionContext.getPartitionId());
+            partitionContext.addPendingMember(createMember(memberId));
+            partitionContext.addMemberStatsContext(new MemberStatsContext(memberId));
+        }
+
+        @Override
+        public void delegateSpawn(ClusterLevelPartitionContext partitionContext, String clusterId,
+                                  String clusterInstanceId, String scalingDecisionId, int count) {
+            spawnCalls.add("spawn " + partitionContext.getPartitionId() + " " + count);
+            for (int i = 0; i < count; i++) {
+                delegateSpawn(partitionContext, clusterId, clusterInstanceId, scalingDecisionId);
+            }
+        }
+
+        @Override
+        public void delegateTerminate(ClusterLevelPartitionContext partitionContext, String memberId) {
+            record("terminate " + memberId);
+            super.delegateTerminate(partitionContext, memberId);
+        }
+
+        @Override
+        public void delegateScalingDependencyNotification(String clusterId, String networkPartitionId,
+                                                          String instanceId, int requiredInstanceCount,
+                                                          int minimumInstanceCount) {
+            record("dependency-notification " + requiredInstanceCount + " " + minimumInstanceCount);
+        }
+
+        @Override
+        public void delegateScalingOverMaxNotification(String clusterId, String networkPartitionId,
+                                                       String instanceId) {
+            record("over-max-notification");
+        }
+
+        @Override
+        public void delegateScalingDownBeyondMinNotification(String clusterId, String networkPartitionId,
+                                                             String instanceId) {
+            record("beyond-min-notification");
+        }
+
+        @Override
+        public void terminateObsoleteInstance(String memberId) {
+            record("terminate-obsolete " + memberId);
+        }
+
+        @Override
+        public void delegateInstanceCleanup(String memberId) {
+            record("cleanup " + memberId);
+        }
+    }
+
+    /**
+     * Records the scaling decisions published.
+     */
+    private static class RecordingPublisher extends ScalingDecisionPublisher {
+
+        private final RecordingDelegator delegator;
+
+        private RecordingPublisher(RecordingDelegator delegator) {
+            super(null, ThriftClientConfig.DAS_THRIFT_CLIENT_NAME);
+            this.delegator = delegator;
+            setEnabled(true);
+        }
+
+        @Override
+        public void publish(Long timestamp, String scalingDecisionId, String clusterId,
+                            int minInstanceCount, int maxInstanceCount,
+                            int rifPredicted, int rifThreshold, int rifRequiredInstances,
+                            int mcPredicted, int mcThreshold, int mcRequiredInstances,
+                            int laPredicted, int laThreshold, int laRequiredInstance,
+                            int requiredInstanceCount, int activeInstanceCount, int additionalInstanceCount,
+                            String scalingReason) {
+            delegator.record(String.format("publish %s [required] %d [active] %d [additional] %d", scalingReason,
+                    requiredInstanceCount, activeInstanceCount, additionalInstanceCount));
+        }
+    }
+}
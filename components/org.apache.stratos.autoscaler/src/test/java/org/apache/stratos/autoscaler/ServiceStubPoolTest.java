@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler;
+
+import org.apache.stratos.autoscaler.client.ServiceStubPool;
+import org.junit.Test;
+
+import java.rmi.RemoteException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Service stub pool test.
+ */
+public class ServiceStubPoolTest {
+
+    private static final long TIMEOUT = 200;
+
+    @Test(timeout = 10000)
+    public void testBorrowAndRelease() throws Exception {
+        ServiceStubPool<String> pool = new ServiceStubPool<String>(Arrays.asList("stub-1", "stub-2"), TIMEOUT);
+        assertEquals(2, pool.getAvailableCount());
+
+        // Each stub is borrowed by one caller at a time
+        Set<String> borrowedStubs = new HashSet<String>();
+        borrowedStubs.add(pool.borrow());
+        borrowedStubs.add(pool.borrow());
+        assertEquals(new HashSet<String>(Arrays.asList("stub-1", "stub-2")), borrowedStubs);
+        assertEquals(0, pool.getAvailableCount());
+
+        pool.release("stub-1");
+        assertEquals(1, pool.getAvailableCount());
+        assertSame("stub-1", pool.borrow());
+
+        pool.release(null);
+        assertEquals(0, pool.getAvailableCount());
+    }
+
+    @Test(timeout = 10000)
+    public void testBorrowTimesOut() throws Exception {
+        ServiceStubPool<String> pool = new ServiceStubPool<String>(Arrays.asList("stub-1"), TIMEOUT);
+        pool.borrow();
+
+        long startTime = System.currentTimeMillis();
+        try {
+            pool.borrow();
+            fail("Borrowed a stub from an exhausted pool");
+        } catch (RemoteException ignore) {
+        }
+        assertTrue(System.currentTimeMillis() - startTime >= TIMEOUT);
+    }
+
+    @Test(timeout = 10000)
+    public void testBorrowWaitsForRelease() throws Exception {
+        final ServiceStubPool<String> pool = new ServiceStubPool<String>(Arrays.asList("stub-1"), 5000);
+        String stub = pool.borrow();
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> future = executorService.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return pool.borrow();
+                }
+            });
+            Thread.sleep(TIMEOUT);
+            assertFalse(future.isDone());
+
+            pool.release(stub);
+            assertSame(stub, future.get(5, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
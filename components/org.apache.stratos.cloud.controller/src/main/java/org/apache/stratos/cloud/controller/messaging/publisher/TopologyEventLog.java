@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.cloud.controller.messaging.publisher;
+
+import org.apache.stratos.messaging.broker.publish.EventPublisher;
+import org.apache.stratos.messaging.event.topology.TopologyEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assigns consecutive topology versions to topology events and keeps the most recent
+ * events, so that subscribers that missed events can catch up without the complete topology.
+ * <p/>
+ * Events are kept encoded, as they were first published, so that they are published again
+ * with the same sequence numbers and subscribers can recognize the ones they already received.
+ * <p/>
+ * Versions start from the current time in microseconds, so that they keep increasing when
+ * the cloud controller is restarted or another cloud controller starts publishing.
+ */
+public class TopologyEventLog {
+
+    private final int capacity;
+    private final ArrayDeque<LoggedEvent> events;
+    private long version;
+
+    public TopologyEventLog(int capacity) {
+        this.capacity = capacity;
+        this.events = new ArrayDeque<LoggedEvent>(capacity);
+        this.version = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    }
+
+    /**
+     * Assign the next topology version to the given event, encode it and add it to the log.
+     *
+     * @param event          topology event
+     * @param eventPublisher publisher of the topic of the event
+     * @return encoded event
+     */
+    public synchronized String append(TopologyEvent event, EventPublisher eventPublisher) {
+        event.setTopologyVersion(++version);
+        String message = eventPublisher.encode(event);
+        if (capacity > 0) {
+            if (events.size() == capacity) {
+                events.removeFirst();
+            }
+            events.addLast(new LoggedEvent(version, eventPublisher.getTopicName(), message));
+        }
+        return message;
+    }
+
+    /**
+     * Return the version assigned to the latest topology event.
+     *
+     * @return topology version
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Return the topology events published after the given version, in version order.
+     *
+     * @param fromVersion topology version
+     * @return topology events or null if some of the events are no longer in the log
+     */
+    public synchronized List<LoggedEvent> getEventsAfter(long fromVersion) {
+        if ((fromVersion <= 0) || (fromVersion > version)) {
+            return null;
+        }
+        long oldestVersion = events.isEmpty() ? version + 1 : events.getFirst().getTopologyVersion();
+        if (oldestVersion > fromVersion + 1) {
+            return null;
+        }
+        List<LoggedEvent> eventList = new ArrayList<LoggedEvent>();
+        for (LoggedEvent event : events) {
+            if (event.getTopologyVersion() > fromVersion) {
+                eventList.add(event);
+            }
+        }
+        return eventList;
+    }
+
+    /**
+     * A topology event as it was published.
+     */
+    public static class LoggedEvent {
+
+        private final long topologyVersion;
+        private final String topicName;
+        private final String message;
+
+        private LoggedEvent(long topologyVersion, String topicName, String message) {
+            this.topologyVersion = topologyVersion;
+            this.topicName = topicName;
+            this.message = message;
+        }
+
+        public long getTopologyVersion() {
+            return topologyVersion;
+        }
+
+        public String getTopicName() {
+            return topicName;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
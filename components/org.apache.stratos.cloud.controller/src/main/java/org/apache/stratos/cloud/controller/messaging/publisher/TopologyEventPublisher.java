@@ -27,6 +27,7 @@ import org.apache.stratos.cloud.controller.domain.MemberContext;
 import org.apache.stratos.cloud.controller.domain.PortMapping;
 import org.apache.stratos.cloud.controller.messaging.topology.TopologyHolder;
 import org.apache.stratos.cloud.controller.util.CloudControllerUtil;
+import org.apache.stratos.messaging.broker.publish.EventPublishCallback;
 import org.apache.stratos.messaging.broker.publish.EventPublisher;
 import org.apache.stratos.messaging.broker.publish.EventPublisherPool;
 import org.apache.stratos.messaging.domain.application.ClusterDataHolder;
@@ -50,6 +51,11 @@ import java.util.Set;
 public class TopologyEventPublisher {
     private static final Log log = LogFactory.getLog(TopologyEventPublisher.class);
 
+    private static final String TOPOLOGY_EVENT_LOG_SIZE = "stratos.topology.event.log.size";
+
+    private static final TopologyEventLog topologyEventLog = new TopologyEventLog(
+            Integer.getInteger(TOPOLOGY_EVENT_LOG_SIZE, 1000));
+
     public static void sendServiceCreateEvent(List<Cartridge> cartridgeList) {
         ServiceCreatedEvent serviceCreatedEvent;
         for (Cartridge cartridge : cartridgeList) {
@@ -318,15 +324,41 @@ public class TopologyEventPublisher {
         TopologyHolder.acquireReadLock();
         try {
             CompleteTopologyEvent completeTopologyEvent = new CompleteTopologyEvent(topology);
+            completeTopologyEvent.setTopologyVersion(topologyEventLog.getVersion());
             if (log.isDebugEnabled()) {
-                log.debug("Publishing complete topology event...");
+                log.debug(String.format("Publishing complete topology event: [topology-version] %d",
+                        completeTopologyEvent.getTopologyVersion()));
             }
-            publishEvent(completeTopologyEvent);
+            doPublishEvent(completeTopologyEvent);
         } finally {
             TopologyHolder.releaseReadLock();
         }
     }
 
+    /**
+     * Publish the topology events published after the given topology version, or the complete
+     * topology if the given version is not known or those events are no longer available.
+     *
+     * @param topologyVersion topology version of the requester, zero if it does not have a topology
+     */
+    public static void sendTopologyCatchUpEvents(long topologyVersion) {
+        List<TopologyEventLog.LoggedEvent> topologyEvents = topologyEventLog.getEventsAfter(topologyVersion);
+        if (topologyEvents == null) {
+            sendCompleteTopologyEvent(TopologyHolder.getTopology());
+            return;
+        }
+
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Publishing topology catch-up events: [topology-version] %d [events] %d",
+                    topologyVersion, topologyEvents.size()));
+        }
+        for (TopologyEventLog.LoggedEvent topologyEvent : topologyEvents) {
+            // Publish the events as they were first published, with their original sequence numbers
+            doPublishMessage(EventPublisherPool.getPublisher(topologyEvent.getTopicName()),
+                    topologyEvent.getMessage());
+        }
+    }
+
     public static void sendClusterTerminatingEvent(ClusterInstanceTerminatingEvent clusterTerminatingEvent) {
 
         if (log.isInfoEnabled()) {
@@ -351,9 +383,59 @@ public class TopologyEventPublisher {
         publishEvent(clusterTerminatedEvent);
     }
 
+    /**
+     * Publish the given event. Topology events are assigned the next topology version, hence they
+     * need to be published while holding the topology write lock, so that the version of a complete
+     * topology event matches the changes it contains.
+     *
+     * @param event event to be published
+     */
     public static void publishEvent(Event event) {
+        if (event instanceof TopologyEvent) {
+            // Assign topology version and keep the encoded event for catch-up
+            EventPublisher eventPublisher = EventPublisherPool.getPublisher(MessagingUtil.getMessageTopicName(event));
+            doPublishMessage(eventPublisher, topologyEventLog.append((TopologyEvent) event, eventPublisher));
+        } else {
+            doPublishEvent(event);
+        }
+    }
+
+    private static void doPublishEvent(Event event) {
         String topic = MessagingUtil.getMessageTopicName(event);
         EventPublisher eventPublisher = EventPublisherPool.getPublisher(topic);
-        eventPublisher.publish(event);
+        if (EventPublisher.isAsyncPublishingEnabled()) {
+            eventPublisher.publishAsync(event, new PublishCallback(topic));
+        } else {
+            eventPublisher.publish(event);
+        }
+    }
+
+    private static void doPublishMessage(EventPublisher eventPublisher, String message) {
+        if (EventPublisher.isAsyncPublishingEnabled()) {
+            eventPublisher.publishMessageAsync(message, new PublishCallback(eventPublisher.getTopicName()));
+        } else {
+            eventPublisher.publishMessage(message);
+        }
+    }
+
+    /**
+     * Logs topology events which could not be published asynchronously.
+     */
+    private static class PublishCallback implements EventPublishCallback {
+
+        private final String topicName;
+
+        private PublishCallback(String topicName) {
+            this.topicName = topicName;
+        }
+
+        @Override
+        public void onSuccess(Event event) {
+        }
+
+        @Override
+        public void onFailure(Event event, Throwable cause) {
+            log.error(String.format("Could not publish topology event: [topic] %s", topicName), cause);
+        }
     }
 }
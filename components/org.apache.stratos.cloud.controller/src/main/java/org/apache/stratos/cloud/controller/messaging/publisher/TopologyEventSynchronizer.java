@@ -26,11 +26,24 @@ import org.apache.stratos.cloud.controller.messaging.topology.TopologyHolder;
 
 /**
  * Topology event synchronizer publishes complete topology event periodically.
+ * <p/>
+ * Subscribers detect missing topology events using topology versions and request
+ * the missing events, therefore the complete topology may be published only once in
+ * every few runs by setting stratos.topology.sync.complete.interval.
  */
 public class TopologyEventSynchronizer implements Runnable {
 
     private static final Log log = LogFactory.getLog(TopologyEventSynchronizer.class);
 
+    private static final String COMPLETE_TOPOLOGY_INTERVAL = "stratos.topology.sync.complete.interval";
+
+    private final int completeTopologyInterval;
+    private int runCount;
+
+    public TopologyEventSynchronizer() {
+        completeTopologyInterval = Math.max(1, Integer.getInteger(COMPLETE_TOPOLOGY_INTERVAL, 1));
+    }
+
     @Override
     public void run() {
         if (log.isDebugEnabled()) {
@@ -51,6 +64,13 @@ public class TopologyEventSynchronizer implements Runnable {
             return;
         }
 
+        if (runCount++ % completeTopologyInterval != 0) {
+            if (log.isDebugEnabled()) {
+                log.debug("Skipping complete topology event, subscribers synchronize using topology versions");
+            }
+            return;
+        }
+
         try {
             // Publish complete topology event
             CloudControllerContext.getInstance().setTopologySyncRunning(true);
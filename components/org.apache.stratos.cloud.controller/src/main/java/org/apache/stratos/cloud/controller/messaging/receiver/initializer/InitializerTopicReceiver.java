@@ -21,8 +21,8 @@ package org.apache.stratos.cloud.controller.messaging.receiver.initializer;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.cloud.controller.messaging.publisher.TopologyEventPublisher;
-import org.apache.stratos.cloud.controller.messaging.topology.TopologyHolder;
 import org.apache.stratos.messaging.event.Event;
+import org.apache.stratos.messaging.event.initializer.CompleteTopologyRequestEvent;
 import org.apache.stratos.messaging.listener.initializer.CompleteTopologyRequestEventListener;
 import org.apache.stratos.messaging.message.receiver.initializer.InitializerEventReceiver;
 
@@ -54,7 +54,9 @@ public class InitializerTopicReceiver {
                     log.debug("Handling CompleteTopologyRequestEvent");
                 }
                 try {
-                    TopologyEventPublisher.sendCompleteTopologyEvent(TopologyHolder.getTopology());
+                    // Send the missing topology events or the complete topology
+                    long topologyVersion = ((CompleteTopologyRequestEvent) event).getTopologyVersion();
+                    TopologyEventPublisher.sendTopologyCatchUpEvents(topologyVersion);
                 } catch (Exception e) {
                     log.error("Failed to process CompleteTopologyRequestEvent", e);
                 }
@@ -112,10 +112,10 @@ public class TopologyBuilder {
                     TopologyHolder.updateTopology(topology);
                 }
             }
+            TopologyEventPublisher.sendServiceCreateEvent(cartridgeList);
         } finally {
             TopologyHolder.releaseWriteLock();
         }
-        TopologyEventPublisher.sendServiceCreateEvent(cartridgeList);
     }
 
     public static void handleServiceRemoved(List<Cartridge> cartridgeList) throws RegistryException {
@@ -130,10 +130,10 @@ public class TopologyBuilder {
                 try {
                     topology.removeService(cartridge.getType());
                     TopologyHolder.updateTopology(topology);
+                    TopologyEventPublisher.sendServiceRemovedEvent(cartridgeList);
                 } finally {
                     TopologyHolder.releaseWriteLock();
                 }
-                TopologyEventPublisher.sendServiceRemovedEvent(cartridgeList);
             } else {
                 log.warn("Subscription already exists. Hence not removing the service:" + cartridge.getType()
                         + " from the topology");
@@ -156,35 +156,35 @@ public class TopologyBuilder {
                 log.info("Cluster created: [cluster] " + cluster.getClusterId());
             }
             TopologyHolder.updateTopology(topology);
-        } finally {
-            TopologyHolder.releaseWriteLock();
-        }
 
-        log.debug("Creating cluster port mappings: [application-id] " + appId);
-        for (Cluster cluster : appClusters) {
-            String cartridgeType = cluster.getServiceName();
-            Cartridge cartridge = CloudControllerContext.getInstance().getCartridge(cartridgeType);
-            if (cartridge == null) {
-                throw new CloudControllerException("Cartridge not found: [cartridge-type] " + cartridgeType);
-            }
+            log.debug("Creating cluster port mappings: [application-id] " + appId);
+            for (Cluster cluster : appClusters) {
+                String cartridgeType = cluster.getServiceName();
+                Cartridge cartridge = CloudControllerContext.getInstance().getCartridge(cartridgeType);
+                if (cartridge == null) {
+                    throw new CloudControllerException("Cartridge not found: [cartridge-type] " + cartridgeType);
+                }
 
-            for (PortMapping portMapping : cartridge.getPortMappings()) {
-                ClusterPortMapping clusterPortMapping = new ClusterPortMapping(appId, cluster.getClusterId(),
-                        portMapping.getName(), portMapping.getProtocol(), portMapping.getPort(),
-                        portMapping.getProxyPort());
-                if (portMapping.getKubernetesPortType() != null) {
-                    clusterPortMapping.setKubernetesPortType(portMapping.getKubernetesPortType());
+                for (PortMapping portMapping : cartridge.getPortMappings()) {
+                    ClusterPortMapping clusterPortMapping = new ClusterPortMapping(appId, cluster.getClusterId(),
+                            portMapping.getName(), portMapping.getProtocol(), portMapping.getPort(),
+                            portMapping.getProxyPort());
+                    if (portMapping.getKubernetesPortType() != null) {
+                        clusterPortMapping.setKubernetesPortType(portMapping.getKubernetesPortType());
+                    }
+                    CloudControllerContext.getInstance().addClusterPortMapping(clusterPortMapping);
+                    log.debug("Cluster port mapping created: " + clusterPortMapping.toString());
                 }
-                CloudControllerContext.getInstance().addClusterPortMapping(clusterPortMapping);
-                log.debug("Cluster port mapping created: " + clusterPortMapping.toString());
             }
-        }
 
-        // Persist cluster port mappings
-        CloudControllerContext.getInstance().persist();
+            // Persist cluster port mappings
+            CloudControllerContext.getInstance().persist();
 
-        // Send application clusters created event
-        TopologyEventPublisher.sendApplicationClustersCreated(appId, appClusters);
+            // Send application clusters created event
+            TopologyEventPublisher.sendApplicationClustersCreated(appId, appClusters);
+        } finally {
+            TopologyHolder.releaseWriteLock();
+        }
     }
 
     public static void handleApplicationClustersRemoved(String appId, Set<ClusterDataHolder> clusterData)
@@ -214,14 +214,14 @@ public class TopologyBuilder {
                 log.info("No cluster data found for application " + appId + " to remove");
             }
             TopologyHolder.updateTopology(topology);
+
+            // Remove cluster port mappings of application
+            CloudControllerContext.getInstance().removeClusterPortMappings(appId);
+            CloudControllerContext.getInstance().persist();
+            TopologyEventPublisher.sendApplicationClustersRemoved(appId, clusterData);
         } finally {
             TopologyHolder.releaseWriteLock();
         }
-
-        // Remove cluster port mappings of application
-        CloudControllerContext.getInstance().removeClusterPortMappings(appId);
-        CloudControllerContext.getInstance().persist();
-        TopologyEventPublisher.sendApplicationClustersRemoved(appId, clusterData);
     }
 
     public static void handleClusterReset(ClusterStatusClusterResetEvent event) throws RegistryException {
@@ -317,10 +317,10 @@ public class TopologyBuilder {
             Cluster cluster = service.removeCluster(ctxt.getClusterId());
             deploymentPolicy = cluster.getDeploymentPolicyName();
             TopologyHolder.updateTopology(topology);
+            TopologyEventPublisher.sendClusterRemovedEvent(ctxt, deploymentPolicy);
         } finally {
             TopologyHolder.releaseWriteLock();
         }
-        TopologyEventPublisher.sendClusterRemovedEvent(ctxt, deploymentPolicy);
     }
 
     /**
@@ -329,29 +329,41 @@ public class TopologyBuilder {
      * @param memberContext
      */
     public static void handleMemberCreatedEvent(MemberContext memberContext) throws RegistryException {
+        handleMembersCreatedEvent(Collections.singletonList(memberContext));
+    }
+
+    /**
+     * Add member objects to the topology, persist the topology once and publish member created events
+     *
+     * @param memberContexts
+     */
+    public static void handleMembersCreatedEvent(List<MemberContext> memberContexts) throws RegistryException {
+        if (memberContexts.isEmpty()) {
+            return;
+        }
         Topology topology = TopologyHolder.getTopology();
-        Service service = topology.getService(memberContext.getCartridgeType());
-        String clusterId = memberContext.getClusterId();
-        Cluster cluster = service.getCluster(clusterId);
-        String applicationId = service.getCluster(memberContext.getClusterId()).getAppId();
-        String memberId = memberContext.getMemberId();
-        String clusterInstanceId = memberContext.getClusterInstanceId();
-        String networkPartitionId = memberContext.getNetworkPartitionId();
-        String partitionId = memberContext.getPartition().getId();
-        String clusterAlias = CloudControllerUtil.getAliasFromClusterId(memberContext.getClusterId());
-        String lbClusterId = memberContext.getLbClusterId();
-        long initTime = memberContext.getInitTime();
-        if (cluster.memberExists(memberId)) {
-            throw new RuntimeException(String.format("Member %s already exists", memberId));
+        for (MemberContext memberContext : memberContexts) {
+            Cluster cluster = topology.getService(memberContext.getCartridgeType())
+                    .getCluster(memberContext.getClusterId());
+            if (cluster.memberExists(memberContext.getMemberId())) {
+                throw new RuntimeException(String.format("Member %s already exists", memberContext.getMemberId()));
+            }
         }
         TopologyHolder.acquireWriteLock();
         try {
-            Member member = new Member(service.getServiceName(), clusterId, memberId, clusterInstanceId,
-                    networkPartitionId, partitionId, memberContext.getLoadBalancingIPType(), initTime);
-            member.setStatus(MemberStatus.Created);
-            member.setLbClusterId(lbClusterId);
-            member.setProperties(CloudControllerUtil.toJavaUtilProperties(memberContext.getProperties()));
-            cluster.addMember(member);
+            for (MemberContext memberContext : memberContexts) {
+                Service service = topology.getService(memberContext.getCartridgeType());
+                String clusterId = memberContext.getClusterId();
+                Cluster cluster = service.getCluster(clusterId);
+                Member member = new Member(service.getServiceName(), clusterId, memberContext.getMemberId(),
+                        memberContext.getClusterInstanceId(), memberContext.getNetworkPartitionId(),
+                        memberContext.getPartition().getId(), memberContext.getLoadBalancingIPType(),
+                        memberContext.getInitTime());
+                member.setStatus(MemberStatus.Created);
+                member.setLbClusterId(memberContext.getLbClusterId());
+                member.setProperties(CloudControllerUtil.toJavaUtilProperties(memberContext.getProperties()));
+                cluster.addMember(member);
+            }
             TopologyHolder.updateTopology(topology);
 
             //member created time
@@ -361,16 +373,23 @@ public class TopologyBuilder {
                 if (log.isDebugEnabled()) {
                     log.debug("Publishing Member Status to DAS");
                 }
-                memStatusPublisher.publish(timestamp, applicationId, memberContext.getClusterId(), clusterAlias,
-                        memberContext.getClusterInstanceId(), memberContext.getCartridgeType(),
-                        memberContext.getNetworkPartitionId(), memberContext.getPartition().getId(),
-                        memberContext.getMemberId(), MemberStatus.Created.toString());
+                for (MemberContext memberContext : memberContexts) {
+                    String applicationId = topology.getService(memberContext.getCartridgeType())
+                            .getCluster(memberContext.getClusterId()).getAppId();
+                    String clusterAlias = CloudControllerUtil.getAliasFromClusterId(memberContext.getClusterId());
+                    memStatusPublisher.publish(timestamp, applicationId, memberContext.getClusterId(), clusterAlias,
+                            memberContext.getClusterInstanceId(), memberContext.getCartridgeType(),
+                            memberContext.getNetworkPartitionId(), memberContext.getPartition().getId(),
+                            memberContext.getMemberId(), MemberStatus.Created.toString());
+                }
             }
 
+            for (MemberContext memberContext : memberContexts) {
+                TopologyEventPublisher.sendMemberCreatedEvent(memberContext);
+            }
         } finally {
             TopologyHolder.releaseWriteLock();
         }
-        TopologyEventPublisher.sendMemberCreatedEvent(memberContext);
     }
 
     /**
@@ -673,10 +692,10 @@ public class TopologyBuilder {
 
             TopologyHolder.updateTopology(topology);
             timestamp = System.currentTimeMillis();
+            TopologyEventPublisher.sendMemberReadyToShutdownEvent(memberReadyToShutdownEvent);
         } finally {
             TopologyHolder.releaseWriteLock();
         }
-        TopologyEventPublisher.sendMemberReadyToShutdownEvent(memberReadyToShutdownEvent);
         //publishing member status to DAS.
         if (memStatusPublisher.isEnabled()) {
             if (log.isDebugEnabled()) {
@@ -730,11 +749,11 @@ public class TopologyBuilder {
             log.info("member maintenance mode event adding status started");
 
             TopologyHolder.updateTopology(topology);
+            //publishing data
+            TopologyEventPublisher.sendMemberMaintenanceModeEvent(memberMaintenanceModeEvent);
         } finally {
             TopologyHolder.releaseWriteLock();
         }
-        //publishing data
-        TopologyEventPublisher.sendMemberMaintenanceModeEvent(memberMaintenanceModeEvent);
 
     }
 
@@ -777,15 +796,15 @@ public class TopologyBuilder {
             properties = member.getProperties();
             cluster.removeMember(member);
             TopologyHolder.updateTopology(topology);
+            /* @TODO leftover from grouping_poc*/
+            String groupAlias = null;
+            TopologyEventPublisher
+                    .sendMemberTerminatedEvent(serviceName, clusterId, memberId, clusterInstanceId, networkPartitionId,
+                            partitionId, properties, groupAlias);
         } finally {
             TopologyHolder.releaseWriteLock();
             timestamp = System.currentTimeMillis();
         }
-        /* @TODO leftover from grouping_poc*/
-        String groupAlias = null;
-        TopologyEventPublisher
-                .sendMemberTerminatedEvent(serviceName, clusterId, memberId, clusterInstanceId, networkPartitionId,
-                        partitionId, properties, groupAlias);
 
         //publishing member status to DAS.
         if (memStatusPublisher.isEnabled()) {
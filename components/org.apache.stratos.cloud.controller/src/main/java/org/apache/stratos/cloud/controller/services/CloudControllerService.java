@@ -152,7 +152,8 @@ public interface CloudControllerService {
 
     /**
      * Start instances with the given instance contexts. Instances startup process will run in background and
-     * this method will return with the relevant member contexts.
+     * this method will return with the relevant member contexts. The members are added to the topology and
+     * persisted once for all the given instance contexts.
      *
      * @param instanceContexts An array of instance contexts
      * @return member contexts
@@ -64,8 +64,11 @@ public class CloudControllerServiceImpl implements CloudControllerService {
     private ExecutorService executorService;
 
     public CloudControllerServiceImpl() {
-        executorService = StratosThreadPool.getExecutorService("cloud.controller.instance.manager.thread.pool", 50);
+        this(StratosThreadPool.getExecutorService("cloud.controller.instance.manager.thread.pool", 50));
+    }
 
+    CloudControllerServiceImpl(ExecutorService executorService) {
+        this.executorService = executorService;
     }
 
     public boolean addCartridge(Cartridge cartridgeConfig)
@@ -336,12 +339,36 @@ public class CloudControllerServiceImpl implements CloudControllerService {
 
         handleNullObject(instanceContexts, "Instance start-up failed, member contexts is null");
 
-        List<MemberContext> memberContextList = new ArrayList<>();
+        List<InstanceCreator> instanceCreators = new ArrayList<>();
         for (InstanceContext instanceContext : instanceContexts) {
             if (instanceContext != null) {
-                MemberContext memberContext = startInstance(instanceContext);
-                memberContextList.add(memberContext);
+                instanceCreators.add(createInstanceCreator(instanceContext));
+            }
+        }
+        List<MemberContext> memberContextList = new ArrayList<>();
+        for (InstanceCreator instanceCreator : instanceCreators) {
+            memberContextList.add(instanceCreator.getMemberContext());
+        }
+
+        try {
+            // Update topology and persist member contexts once for the batch
+            addMembersToTopology(memberContextList);
+            for (MemberContext memberContext : memberContextList) {
+                CloudControllerContext.getInstance().addMemberContext(memberContext);
             }
+            persistCloudControllerContext();
+        } catch (Exception e) {
+            String msg = String.format("Could not start instances: [count] %d", memberContextList.size());
+            log.error(msg, e);
+            throw new CloudControllerException(msg, e);
+        }
+
+        // Start instances in new threads
+        for (InstanceCreator instanceCreator : instanceCreators) {
+            executorService.execute(instanceCreator);
+        }
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Instance creator threads started: [count] %d", instanceCreators.size()));
         }
         return memberContextList.toArray(new MemberContext[memberContextList.size()]);
     }
@@ -349,6 +376,55 @@ public class CloudControllerServiceImpl implements CloudControllerService {
     public MemberContext startInstance(InstanceContext instanceContext)
             throws CartridgeNotFoundException, InvalidIaasProviderException, CloudControllerException {
 
+        InstanceCreator instanceCreator = createInstanceCreator(instanceContext);
+        MemberContext memberContext = instanceCreator.getMemberContext();
+        try {
+            // Handle member created event
+            TopologyBuilder.handleMemberCreatedEvent(memberContext);
+
+            // Persist member context
+            CloudControllerContext.getInstance().addMemberContext(memberContext);
+            CloudControllerContext.getInstance().persist();
+
+            // Start instance in a new thread
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Starting instance creator thread: [cluster] %s [cluster-instance] %s "
+                                + "[member] %s [application-id] %s", instanceContext.getClusterId(),
+                        instanceContext.getClusterInstanceId(), memberContext.getMemberId(),
+                        memberContext.getApplicationId()));
+            }
+            executorService.execute(instanceCreator);
+
+            return memberContext;
+        } catch (Exception e) {
+            String msg = String.format("Could not start instance: [cluster] %s [cluster-instance] %s",
+                    instanceContext.getClusterId(), instanceContext.getClusterInstanceId());
+            log.error(msg, e);
+            throw new CloudControllerException(msg, e);
+        }
+    }
+
+    /**
+     * Adds the given members to the topology and publishes a member created event for each of them.
+     */
+    void addMembersToTopology(List<MemberContext> memberContexts) throws RegistryException {
+        TopologyBuilder.handleMembersCreatedEvent(memberContexts);
+    }
+
+    /**
+     * Persists the cloud controller context in the registry.
+     */
+    void persistCloudControllerContext() throws RegistryException {
+        CloudControllerContext.getInstance().persist();
+    }
+
+    /**
+     * Validates the instance context, creates the member context and prepares the payload of an
+     * instance. The member is neither added to the topology nor persisted.
+     */
+    InstanceCreator createInstanceCreator(InstanceContext instanceContext)
+            throws CloudControllerException {
+
         try {
             // Validate instance context
             handleNullObject(instanceContext, "Could not start instance, instance context is null");
@@ -484,22 +560,7 @@ public class CloudControllerServiceImpl implements CloudControllerService {
                 clusterContext.setVolumes(volumes);
             }
 
-            // Handle member created event
-            TopologyBuilder.handleMemberCreatedEvent(memberContext);
-
-            // Persist member context
-            CloudControllerContext.getInstance().addMemberContext(memberContext);
-            CloudControllerContext.getInstance().persist();
-
-            // Start instance in a new thread
-            if (log.isDebugEnabled()) {
-                log.debug(String.format("Starting instance creator thread: [cluster] %s [cluster-instance] %s "
-                                + "[member] %s [application-id] %s", instanceContext.getClusterId(),
-                        instanceContext.getClusterInstanceId(), memberId, applicationId));
-            }
-            executorService.execute(new InstanceCreator(memberContext, iaasProvider, payload.toString().getBytes()));
-
-            return memberContext;
+            return new InstanceCreator(memberContext, iaasProvider, payload.toString().getBytes());
         } catch (Exception e) {
             String msg = String.format("Could not start instance: [cluster] %s [cluster-instance] %s",
                     instanceContext.getClusterId(), instanceContext.getClusterInstanceId());
@@ -48,12 +48,17 @@ public class InstanceCreator implements Runnable {
         this.payload = payload;
     }
 
+    public MemberContext getMemberContext() {
+        return memberContext;
+    }
+
+    /**
+     * Starts the instance in the IaaS. The member context write lock is only held while the started
+     * member context is being persisted, so instances are launched in parallel.
+     */
     @Override
     public void run() {
-        Lock lock = null;
         try {
-            lock = CloudControllerContext.getInstance().acquireMemberContextWriteLock();
-
             String clusterId = memberContext.getClusterId();
             Partition partition = memberContext.getPartition();
             ClusterContext clusterContext = CloudControllerContext.getInstance().getClusterContext(clusterId);
@@ -87,10 +92,6 @@ public class InstanceCreator implements Runnable {
             String message = String.format("Could not start instance: [cartridge-type] %s [cluster-id] %s",
                     memberContext.getCartridgeType(), memberContext.getClusterId());
             log.error(message, e);
-        } finally {
-            if (lock != null) {
-                CloudControllerContext.getInstance().releaseWriteLock(lock);
-            }
         }
     }
 
@@ -107,8 +108,16 @@ public class InstanceCreator implements Runnable {
         }
 
         // Update member context and persist changes
-        CloudControllerContext.getInstance().updateMemberContext(memberContext);
-        CloudControllerContext.getInstance().persist();
+        Lock lock = null;
+        try {
+            lock = CloudControllerContext.getInstance().acquireMemberContextWriteLock();
+            CloudControllerContext.getInstance().updateMemberContext(memberContext);
+            CloudControllerContext.getInstance().persist();
+        } finally {
+            if (lock != null) {
+                CloudControllerContext.getInstance().releaseWriteLock(lock);
+            }
+        }
 
         if (log.isDebugEnabled()) {
             log.debug(String.format("Member context updated: [application] %s [cartridge] %s [member] %s",
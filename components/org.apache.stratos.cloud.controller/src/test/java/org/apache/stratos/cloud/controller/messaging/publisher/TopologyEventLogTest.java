@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.cloud.controller.messaging.publisher;
+
+import junit.framework.TestCase;
+import org.apache.stratos.messaging.broker.publish.EventPublisher;
+import org.apache.stratos.messaging.broker.publish.EventPublisherPool;
+import org.apache.stratos.messaging.event.topology.ServiceRemovedEvent;
+import org.apache.stratos.messaging.util.MessagingUtil;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Tests keeping published topology events for catch-up.
+ */
+public class TopologyEventLogTest extends TestCase {
+
+    private EventPublisher eventPublisher;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        System.setProperty("jndi.properties.dir", new File("src/test/resources").getAbsolutePath());
+        eventPublisher = EventPublisherPool.getPublisher(MessagingUtil.getMessageTopicName(
+                new ServiceRemovedEvent("service")));
+    }
+
+    public void testEventsKeptAsPublished() {
+        TopologyEventLog topologyEventLog = new TopologyEventLog(10);
+        ServiceRemovedEvent firstEvent = new ServiceRemovedEvent("service1");
+        String firstMessage = topologyEventLog.append(firstEvent, eventPublisher);
+        ServiceRemovedEvent secondEvent = new ServiceRemovedEvent("service2");
+        String secondMessage = topologyEventLog.append(secondEvent, eventPublisher);
+
+        assertEquals(firstEvent.getTopologyVersion() + 1, secondEvent.getTopologyVersion());
+        assertEquals(secondEvent.getTopologyVersion(), topologyEventLog.getVersion());
+        assertTrue(secondEvent.getSequenceNumber() > firstEvent.getSequenceNumber());
+
+        List<TopologyEventLog.LoggedEvent> events = topologyEventLog.getEventsAfter(firstEvent.getTopologyVersion());
+        assertEquals(1, events.size());
+        assertEquals(secondEvent.getTopologyVersion(), events.get(0).getTopologyVersion());
+        assertEquals(eventPublisher.getTopicName(), events.get(0).getTopicName());
+        assertEquals(secondMessage, events.get(0).getMessage());
+
+        // Catching up again returns the events as they were first published
+        events = topologyEventLog.getEventsAfter(firstEvent.getTopologyVersion() - 1);
+        assertEquals(2, events.size());
+        assertEquals(firstMessage, events.get(0).getMessage());
+        assertEquals(secondMessage, events.get(1).getMessage());
+    }
+
+    public void testEvictedEventsNotReturned() {
+        TopologyEventLog topologyEventLog = new TopologyEventLog(1);
+        ServiceRemovedEvent firstEvent = new ServiceRemovedEvent("service1");
+        topologyEventLog.append(firstEvent, eventPublisher);
+        topologyEventLog.append(new ServiceRemovedEvent("service2"), eventPublisher);
+
+        assertNull(topologyEventLog.getEventsAfter(firstEvent.getTopologyVersion() - 1));
+        assertEquals(1, topologyEventLog.getEventsAfter(firstEvent.getTopologyVersion()).size());
+        assertNull(topologyEventLog.getEventsAfter(topologyEventLog.getVersion() + 1));
+    }
+}
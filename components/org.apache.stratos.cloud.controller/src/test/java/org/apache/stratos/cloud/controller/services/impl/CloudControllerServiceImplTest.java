@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.cloud.controller.services.impl;
+
+import junit.framework.TestCase;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.stratos.cloud.controller.context.CloudControllerContext;
+import org.apache.stratos.cloud.controller.domain.InstanceContext;
+import org.apache.stratos.cloud.controller.domain.MemberContext;
+import org.apache.stratos.cloud.controller.exception.CloudControllerException;
+import org.apache.stratos.cloud.controller.internal.ServiceReferenceHolder;
+import org.apache.stratos.common.clustering.impl.HazelcastDistributedObjectProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests starting a batch of instances in one cloud controller call.
+ */
+public class CloudControllerServiceImplTest extends TestCase {
+
+    private static final String APPLICATION_ID = "app1";
+    private static final String CARTRIDGE_TYPE = "php";
+
+    private RecordingExecutorService executorService;
+    private TestCloudControllerService cloudControllerService;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        AxisConfiguration axisConfiguration = new AxisConfiguration();
+        axisConfiguration.setClusteringAgent(null);
+
+        ServiceReferenceHolder.getInstance().setDistributedObjectProvider(new HazelcastDistributedObjectProvider());
+        ServiceReferenceHolder.getInstance().setAxisConfiguration(axisConfiguration);
+
+        CloudControllerContext.unitTest = true;
+        executorService = new RecordingExecutorService();
+        cloudControllerService = new TestCloudControllerService(executorService);
+    }
+
+    public void testStartInstances() throws Exception {
+        String clusterId = "cluster1";
+        MemberContext[] memberContexts = cloudControllerService.startInstances(createInstanceContexts(clusterId, 3));
+
+        assertEquals(3, memberContexts.length);
+        assertEquals(1, cloudControllerService.topologyUpdates.size());
+        assertEquals(3, cloudControllerService.topologyUpdates.get(0).size());
+        for (MemberContext memberContext : memberContexts) {
+            assertTrue(cloudControllerService.topologyUpdates.get(0).contains(memberContext));
+            assertNotNull(CloudControllerContext.getInstance().getMemberContextOfMemberId(
+                    memberContext.getMemberId()));
+        }
+        assertEquals(1, cloudControllerService.persistCount);
+
+        assertEquals(3, executorService.executed.size());
+        for (int i = 0; i < memberContexts.length; i++) {
+            InstanceCreator instanceCreator = (InstanceCreator) executorService.executed.get(i);
+            assertSame(memberContexts[i], instanceCreator.getMemberContext());
+        }
+    }
+
+    public void testStartInstancesFailsBeforeTopologyUpdate() throws Exception {
+        String clusterId = "cluster2";
+        cloudControllerService.failingCreatorIndex = 1;
+        try {
+            cloudControllerService.startInstances(createInstanceContexts(clusterId, 3));
+            fail("Expected the instance creator failure to be thrown");
+        } catch (CloudControllerException expected) {
+            // Expected
+        }
+
+        assertEquals(2, cloudControllerService.creatorCount);
+        assertTrue(cloudControllerService.topologyUpdates.isEmpty());
+        assertEquals(0, cloudControllerService.persistCount);
+        assertTrue(executorService.executed.isEmpty());
+        assertNull(CloudControllerContext.getInstance().getMemberContextsOfClusterId(clusterId));
+    }
+
+    private InstanceContext[] createInstanceContexts(String clusterId, int count) {
+        InstanceContext[] instanceContexts = new InstanceContext[count];
+        for (int i = 0; i < count; i++) {
+            InstanceContext instanceContext = new InstanceContext();
+            instanceContext.setClusterId(clusterId);
+            instanceContext.setCartridgeType(CARTRIDGE_TYPE);
+            instanceContexts[i] = instanceContext;
+        }
+        return instanceContexts;
+    }
+
+    /**
+     * Replaces the IaaS, topology and registry steps of the service with recording stubs.
+     */
+    private static class TestCloudControllerService extends CloudControllerServiceImpl {
+
+        private final List<List<MemberContext>> topologyUpdates = new ArrayList<>();
+        private int persistCount;
+        private int creatorCount;
+        private int failingCreatorIndex = -1;
+
+        TestCloudControllerService(RecordingExecutorService executorService) {
+            super(executorService);
+        }
+
+        @Override
+        InstanceCreator createInstanceCreator(InstanceContext instanceContext) throws CloudControllerException {
+            int index = creatorCount++;
+            if (index == failingCreatorIndex) {
+                throw new CloudControllerException("Could not create instance creator: [index] " + index);
+            }
+            String memberId = String.format("%s.member-%d", instanceContext.getClusterId(), index);
+            MemberContext memberContext = new MemberContext(APPLICATION_ID, instanceContext.getCartridgeType(),
+                    instanceContext.getClusterId(), memberId);
+            return new InstanceCreator(memberContext, null, null);
+        }
+
+        @Override
+        void addMembersToTopology(List<MemberContext> memberContexts) {
+            topologyUpdates.add(new ArrayList<>(memberContexts));
+        }
+
+        @Override
+        void persistCloudControllerContext() {
+            persistCount++;
+        }
+    }
+
+    /**
+     * Records the tasks submitted to it without running them.
+     */
+    private static class RecordingExecutorService extends AbstractExecutorService {
+
+        private final List<Runnable> executed = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            executed.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
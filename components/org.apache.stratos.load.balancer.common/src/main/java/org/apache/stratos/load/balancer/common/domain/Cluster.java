@@ -19,9 +19,9 @@
 
 package org.apache.stratos.load.balancer.common.domain;
 
-import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.domain.topology.TenantRange;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -37,6 +37,7 @@ public class Cluster {
     private String clusterId;
     private Set<String> hostNames;
     private String tenantRange;
+    private TenantRange parsedTenantRange;
     private Map<String, Member> memberMap;
     private Map<String, String> hostNameToContextPathMap;
     private String loadBalanceAlgorithmName;
@@ -100,9 +101,19 @@ public class Cluster {
     }
 
     public void setTenantRange(String tenantRange) {
+        this.parsedTenantRange = TenantRange.parse(tenantRange);
         this.tenantRange = tenantRange;
     }
 
+    /**
+     * Return the tenant range of the cluster, parsed when the tenant range was set.
+     *
+     * @return tenant range, null if no tenant range has been defined
+     */
+    public TenantRange getParsedTenantRange() {
+        return parsedTenantRange;
+    }
+
     /**
      * Check whether a given tenant id is in tenant range of the cluster.
      *
@@ -110,28 +121,8 @@ public class Cluster {
      * @return
      */
     public boolean tenantIdInRange(int tenantId) {
-        if (StringUtils.isEmpty(getTenantRange())) {
-            return false;
-        }
-
-        if ("*".equals(getTenantRange())) {
-            return true;
-        } else {
-            String[] array = getTenantRange().split("-");
-            int tenantStart = Integer.parseInt(array[0]);
-            if (tenantStart <= tenantId) {
-                String tenantEndStr = array[1];
-                if ("*".equals(tenantEndStr)) {
-                    return true;
-                } else {
-                    int tenantEnd = Integer.parseInt(tenantEndStr);
-                    if (tenantId <= tenantEnd) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        TenantRange range = parsedTenantRange;
+        return (range != null) && range.contains(tenantId);
     }
 
     public void setLoadBalanceAlgorithmName(String loadBalanceAlgorithmName) {
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.common.topology;
+
+import org.apache.stratos.load.balancer.common.domain.Cluster;
+import org.apache.stratos.messaging.domain.topology.TenantRange;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * Immutable index of the tenant ranges of the clusters sharing a hostname.
+ * <p/>
+ * Tenant ranges are split into disjoint segments when the index is built, each segment mapped to
+ * the cluster with the narrowest tenant range covering it, so that a tenant id is resolved to its
+ * cluster with a binary search in O(log n). The index is rebuilt whenever a cluster is added to or
+ * removed from the hostname.
+ */
+class TenantRangeIndex {
+
+    private static final Comparator<Cluster> RANGE_START_COMPARATOR = new Comparator<Cluster>() {
+        @Override
+        public int compare(Cluster cluster1, Cluster cluster2) {
+            return Integer.compare(cluster1.getParsedTenantRange().getStart(),
+                    cluster2.getParsedTenantRange().getStart());
+        }
+    };
+
+    private static final Comparator<Cluster> RANGE_WIDTH_COMPARATOR = new Comparator<Cluster>() {
+        @Override
+        public int compare(Cluster cluster1, Cluster cluster2) {
+            int result = Long.compare(width(cluster1.getParsedTenantRange()), width(cluster2.getParsedTenantRange()));
+            return (result != 0) ? result : cluster1.getClusterId().compareTo(cluster2.getClusterId());
+        }
+    };
+
+    private final List<Cluster> clusters;
+    // Segment i covers tenant ids from segmentStarts[i] to segmentEnds[i] and is mapped to segmentClusters[i]
+    private final int[] segmentStarts;
+    private final int[] segmentEnds;
+    private final Cluster[] segmentClusters;
+
+    /**
+     * @param clusters clusters with a tenant range
+     */
+    TenantRangeIndex(Collection<Cluster> clusters) {
+        List<Cluster> sortedClusters = new ArrayList<Cluster>(clusters);
+        Collections.sort(sortedClusters, RANGE_START_COMPARATOR);
+        this.clusters = Collections.unmodifiableList(sortedClusters);
+
+        // Tenant ids at which the set of covering clusters may change
+        TreeSet<Integer> boundaries = new TreeSet<Integer>();
+        for (Cluster cluster : sortedClusters) {
+            TenantRange range = cluster.getParsedTenantRange();
+            boundaries.add(range.getStart());
+            if (range.getEnd() < Integer.MAX_VALUE) {
+                boundaries.add(range.getEnd() + 1);
+            }
+        }
+
+        int[] starts = new int[boundaries.size()];
+        int[] ends = new int[boundaries.size()];
+        Cluster[] segments = new Cluster[boundaries.size()];
+        int count = 0;
+        int next = 0;
+        PriorityQueue<Cluster> coveringClusters = new PriorityQueue<Cluster>(
+                Math.max(1, sortedClusters.size()), RANGE_WIDTH_COMPARATOR);
+        Integer boundary = boundaries.isEmpty() ? null : boundaries.first();
+        while (boundary != null) {
+            Integer nextBoundary = boundaries.higher(boundary);
+            while ((next < sortedClusters.size()) &&
+                    (sortedClusters.get(next).getParsedTenantRange().getStart() == boundary)) {
+                coveringClusters.add(sortedClusters.get(next++));
+            }
+            // Clusters ending before this segment are removed once they become the narrowest
+            while (!coveringClusters.isEmpty() && (coveringClusters.peek().getParsedTenantRange().getEnd() < boundary)) {
+                coveringClusters.poll();
+            }
+            if (!coveringClusters.isEmpty()) {
+                starts[count] = boundary;
+                ends[count] = (nextBoundary != null) ? nextBoundary - 1 : Integer.MAX_VALUE;
+                segments[count] = coveringClusters.peek();
+                count++;
+            }
+            boundary = nextBoundary;
+        }
+        this.segmentStarts = Arrays.copyOf(starts, count);
+        this.segmentEnds = Arrays.copyOf(ends, count);
+        this.segmentClusters = Arrays.copyOf(segments, count);
+    }
+
+    /**
+     * Find the cluster of a tenant.
+     *
+     * @param tenantId tenant id
+     * @return cluster with the narrowest tenant range containing the tenant id, null if none found
+     */
+    Cluster getCluster(int tenantId) {
+        int index = Arrays.binarySearch(segmentStarts, tenantId);
+        if (index < 0) {
+            // Segment starting before the tenant id
+            index = -index - 2;
+            if ((index < 0) || (tenantId > segmentEnds[index])) {
+                return null;
+            }
+        }
+        return segmentClusters[index];
+    }
+
+    /**
+     * Return the indexed clusters.
+     */
+    List<Cluster> getClusters() {
+        return clusters;
+    }
+
+    private static long width(TenantRange range) {
+        return (long) range.getEnd() - range.getStart();
+    }
+}
@@ -27,7 +27,9 @@ import org.apache.stratos.load.balancer.common.domain.Member;
 import org.apache.stratos.load.balancer.common.domain.Service;
 import org.apache.stratos.load.balancer.common.domain.Topology;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -42,6 +44,7 @@ public class TopologyProvider {
     private Map<String, Cluster> clusterIdToClusterMap;
     private Map<String, Cluster> hostNameToClusterMap;
     private Map<String, Map<Integer, Cluster>> hostNameToTenantIdToClusterMap;
+    private Map<String, TenantRangeIndex> hostNameToTenantRangeIndexMap;
     private Map<String, String> memberHostNameToClusterHostNameMap;
 
     public TopologyProvider() {
@@ -49,6 +52,7 @@ public class TopologyProvider {
         this.clusterIdToClusterMap = new ConcurrentHashMap<String, Cluster>();
         this.hostNameToClusterMap = new ConcurrentHashMap<String, Cluster>();
         this.hostNameToTenantIdToClusterMap = new ConcurrentHashMap<String, Map<Integer, Cluster>>();
+        this.hostNameToTenantRangeIndexMap = new ConcurrentHashMap<String, TenantRangeIndex>();
         this.memberHostNameToClusterHostNameMap = new ConcurrentHashMap<String, String>();
     }
 
@@ -93,6 +97,9 @@ public class TopologyProvider {
             for (String hostName : cluster.getHostNames()) {
                 hostNameToClusterMap.put(hostName, cluster);
             }
+            if (cluster.getParsedTenantRange() != null) {
+                updateTenantRangeIndexes(cluster, true);
+            }
 
             if ((cluster.getHostNames() != null) && (cluster.getHostNames().size() > 0)) {
                 log.info(String.format("Cluster added to service: [service] %s [cluster] %s [hostnames] %s",
@@ -151,6 +158,9 @@ public class TopologyProvider {
             hostNameToClusterMap.remove(hostName);
         }
         clusterIdToClusterMap.remove(cluster.getClusterId());
+        if (cluster.getParsedTenantRange() != null) {
+            updateTenantRangeIndexes(cluster, false);
+        }
 
         if ((cluster.getHostNames() != null) && (cluster.getHostNames().size() > 0)) {
             log.info(String.format("Cluster removed: [cluster] %s [hostnames] %s", cluster.getClusterId(),
@@ -175,7 +185,8 @@ public class TopologyProvider {
      * @return
      */
     public boolean clusterExistsByHostName(String hostName) {
-        return (hostNameToClusterMap.containsKey(hostName) || hostNameToTenantIdToClusterMap.containsKey(hostName));
+        return (hostNameToClusterMap.containsKey(hostName) || hostNameToTenantIdToClusterMap.containsKey(hostName) ||
+                hostNameToTenantRangeIndexMap.containsKey(hostName));
     }
 
     /**
@@ -250,7 +261,8 @@ public class TopologyProvider {
     }
 
     /**
-     * Get cluster by hostname for tenant.
+     * Get cluster by hostname for tenant. Clusters the tenant has signed up to take precedence,
+     * otherwise the cluster with the narrowest tenant range containing the tenant id is returned.
      *
      * @param hostName
      * @param tenantId
@@ -259,11 +271,51 @@ public class TopologyProvider {
     public Cluster getClusterByHostName(String hostName, int tenantId) {
         Map<Integer, Cluster> tenantIdToClusterMap = hostNameToTenantIdToClusterMap.get(hostName);
         if (tenantIdToClusterMap != null) {
-            return tenantIdToClusterMap.get(tenantId);
+            Cluster cluster = tenantIdToClusterMap.get(tenantId);
+            if (cluster != null) {
+                return cluster;
+            }
+        }
+        TenantRangeIndex tenantRangeIndex = hostNameToTenantRangeIndexMap.get(hostName);
+        if (tenantRangeIndex != null) {
+            return tenantRangeIndex.getCluster(tenantId);
         }
         return null;
     }
 
+    /**
+     * Rebuild the tenant range indexes of the hostnames of a cluster. Indexes are replaced rather
+     * than modified, therefore lookups do not need to be synchronized.
+     *
+     * @param cluster cluster with a tenant range
+     * @param add     true if the cluster has been added, false if it has been removed
+     */
+    private synchronized void updateTenantRangeIndexes(Cluster cluster, boolean add) {
+        for (String hostName : cluster.getHostNames()) {
+            List<Cluster> clusters = new ArrayList<Cluster>();
+            TenantRangeIndex tenantRangeIndex = hostNameToTenantRangeIndexMap.get(hostName);
+            if (tenantRangeIndex != null) {
+                for (Cluster indexedCluster : tenantRangeIndex.getClusters()) {
+                    if (!indexedCluster.getClusterId().equals(cluster.getClusterId())) {
+                        clusters.add(indexedCluster);
+                    }
+                }
+            }
+            if (add) {
+                clusters.add(cluster);
+            }
+            if (clusters.isEmpty()) {
+                hostNameToTenantRangeIndexMap.remove(hostName);
+            } else {
+                hostNameToTenantRangeIndexMap.put(hostName, new TenantRangeIndex(clusters));
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Tenant range index updated: [cluster] %s [tenant-range] %s [hostnames] %s",
+                    cluster.getClusterId(), cluster.getTenantRange(), cluster.getHostNames()));
+        }
+    }
+
     /**
      * Remove a member from its cluster.
      *
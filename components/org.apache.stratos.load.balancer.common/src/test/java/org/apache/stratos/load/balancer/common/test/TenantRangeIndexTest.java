@@ -0,0 +1,167 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.common.test;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.load.balancer.common.domain.Cluster;
+import org.apache.stratos.load.balancer.common.domain.Service;
+import org.apache.stratos.load.balancer.common.topology.TopologyProvider;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests resolving tenant ids to the tenant-partitioned clusters of a hostname and compares
+ * the tenant range index with scanning the clusters of the hostname.
+ */
+public class TenantRangeIndexTest {
+
+    private static final Log log = LogFactory.getLog(TenantRangeIndexTest.class);
+
+    private static final String SERVICE_NAME = "service1";
+    private static final String HOST_NAME = "service1.stratos.org";
+    private static final int TENANTS_PER_CLUSTER = 100;
+    private static final int LOOKUP_COUNT = 1000000;
+
+    @Test
+    public void testTenantPartitionedClusters() {
+        TopologyProvider topologyProvider = createTopologyProvider(500);
+
+        assertEquals("cluster0", topologyProvider.getClusterByHostName(HOST_NAME, 1).getClusterId());
+        assertEquals("cluster0", topologyProvider.getClusterByHostName(HOST_NAME, 100).getClusterId());
+        assertEquals("cluster1", topologyProvider.getClusterByHostName(HOST_NAME, 101).getClusterId());
+        assertEquals("cluster499", topologyProvider.getClusterByHostName(HOST_NAME, 50000).getClusterId());
+        assertNull(topologyProvider.getClusterByHostName(HOST_NAME, 0));
+        assertNull(topologyProvider.getClusterByHostName(HOST_NAME, 50001));
+        assertNull(topologyProvider.getClusterByHostName("unknown.stratos.org", 1));
+
+        // Open ended and overlapping tenant ranges, the narrowest range wins
+        addCluster(topologyProvider, "cluster-open", "50001-*");
+        addCluster(topologyProvider, "cluster-all", "*");
+        assertEquals("cluster-open", topologyProvider.getClusterByHostName(HOST_NAME, Integer.MAX_VALUE).getClusterId());
+        assertEquals("cluster-all", topologyProvider.getClusterByHostName(HOST_NAME, -1234).getClusterId());
+        assertEquals("cluster250", topologyProvider.getClusterByHostName(HOST_NAME, 25050).getClusterId());
+
+        topologyProvider.removeCluster("cluster250");
+        assertEquals("cluster-all", topologyProvider.getClusterByHostName(HOST_NAME, 25050).getClusterId());
+
+        // Tenant signups take precedence over tenant ranges
+        topologyProvider.addTenantSignUp("cluster1", 1);
+        assertEquals("cluster1", topologyProvider.getClusterByHostName(HOST_NAME, 1).getClusterId());
+        assertEquals("cluster0", topologyProvider.getClusterByHostName(HOST_NAME, 2).getClusterId());
+    }
+
+    @Test
+    public void testTenantIdInRange() {
+        Cluster cluster = new Cluster(SERVICE_NAME, "cluster1");
+        assertFalse(cluster.tenantIdInRange(1));
+        cluster.setTenantRange("10-20");
+        assertFalse(cluster.tenantIdInRange(9));
+        assertTrue(cluster.tenantIdInRange(10));
+        assertTrue(cluster.tenantIdInRange(20));
+        assertFalse(cluster.tenantIdInRange(21));
+        cluster.setTenantRange("10-*");
+        assertTrue(cluster.tenantIdInRange(Integer.MAX_VALUE));
+        cluster.setTenantRange("*");
+        assertTrue(cluster.tenantIdInRange(-1234));
+    }
+
+    @Test(timeout = 300000)
+    public void testLookupPerformance() {
+        for (int clusterCount : new int[]{100, 500, 1000}) {
+            measureLookups(clusterCount);
+        }
+    }
+
+    private void measureLookups(int clusterCount) {
+        TopologyProvider topologyProvider = createTopologyProvider(clusterCount);
+        List<Cluster> clusters = new ArrayList<Cluster>(
+                topologyProvider.getTopology().getService(SERVICE_NAME).getClusters());
+        int maxTenantId = clusterCount * TENANTS_PER_CLUSTER;
+        int[] tenantIds = new int[LOOKUP_COUNT];
+        Random random = new Random(clusterCount);
+        for (int i = 0; i < tenantIds.length; i++) {
+            tenantIds[i] = random.nextInt(maxTenantId) + 1;
+        }
+
+        // Warm up both code paths and verify they agree
+        for (int i = 0; i < 100000; i++) {
+            assertSame(findClusterByScan(clusters, tenantIds[i]),
+                    topologyProvider.getClusterByHostName(HOST_NAME, tenantIds[i]));
+        }
+
+        long startTime = System.nanoTime();
+        int found = 0;
+        for (int tenantId : tenantIds) {
+            if (findClusterByScan(clusters, tenantId) != null) {
+                found++;
+            }
+        }
+        long scanTime = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        for (int tenantId : tenantIds) {
+            if (topologyProvider.getClusterByHostName(HOST_NAME, tenantId) != null) {
+                found--;
+            }
+        }
+        long indexTime = System.nanoTime() - startTime;
+        assertEquals(0, found);
+
+        log.info(String.format("Tenant lookups: [clusters] %d [scan] %d ns/lookup [index] %d ns/lookup",
+                clusterCount, scanTime / LOOKUP_COUNT, indexTime / LOOKUP_COUNT));
+    }
+
+    private static Cluster findClusterByScan(List<Cluster> clusters, int tenantId) {
+        for (Cluster cluster : clusters) {
+            if (cluster.getHostNames().contains(HOST_NAME) && cluster.tenantIdInRange(tenantId)) {
+                return cluster;
+            }
+        }
+        return null;
+    }
+
+    private static TopologyProvider createTopologyProvider(int clusterCount) {
+        TopologyProvider topologyProvider = new TopologyProvider();
+        topologyProvider.addService(new Service(SERVICE_NAME));
+        for (int i = 0; i < clusterCount; i++) {
+            int tenantStart = i * TENANTS_PER_CLUSTER + 1;
+            addCluster(topologyProvider, "cluster" + i,
+                    String.format("%d-%d", tenantStart, tenantStart + TENANTS_PER_CLUSTER - 1));
+        }
+        return topologyProvider;
+    }
+
+    private static void addCluster(TopologyProvider topologyProvider, String clusterId, String tenantRange) {
+        Cluster cluster = new Cluster(SERVICE_NAME, clusterId);
+        cluster.addHostName(HOST_NAME);
+        cluster.setTenantRange(tenantRange);
+        topologyProvider.addCluster(cluster);
+    }
+}
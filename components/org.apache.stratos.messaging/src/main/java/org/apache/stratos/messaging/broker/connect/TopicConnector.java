@@ -45,4 +45,11 @@ public interface TopicConnector {
      * Disconnect from the message broker.
      */
     public abstract void disconnect();
+
+    /**
+     * Check whether the connection to the message broker is currently open.
+     *
+     * @return true if connected
+     */
+    public abstract boolean isConnected();
 }
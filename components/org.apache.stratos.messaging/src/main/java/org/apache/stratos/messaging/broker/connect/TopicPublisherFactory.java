@@ -20,15 +20,30 @@
 package org.apache.stratos.messaging.broker.connect;
 
 import org.apache.stratos.messaging.broker.connect.amqp.AmqpTopicPublisher;
+import org.apache.stratos.messaging.broker.connect.local.LocalTopicBroker;
+import org.apache.stratos.messaging.broker.connect.local.LocalTopicPublisher;
 import org.apache.stratos.messaging.broker.connect.mqtt.MqttTopicPublisher;
 import org.apache.stratos.messaging.util.MessagingConstants;
 
 /**
- * Topic publisher factory.
+ * Topic publisher factory. If local delivery is enabled, messages are delivered to the subscribers
+ * within the JVM directly and published to the message broker only for bridged topics.
  */
 public class TopicPublisherFactory {
 
     public static TopicPublisher createTopicPublisher(String protocol, String topicName) {
+        if (MessagingConstants.LOCAL.equals(protocol)) {
+            return new LocalTopicPublisher(topicName, null);
+        }
+        if (LocalTopicBroker.isLocalDeliveryEnabled()) {
+            TopicPublisher brokerTopicPublisher = LocalTopicBroker.getInstance().isBridged(topicName) ?
+                    createBrokerTopicPublisher(protocol, topicName) : null;
+            return new LocalTopicPublisher(topicName, brokerTopicPublisher);
+        }
+        return createBrokerTopicPublisher(protocol, topicName);
+    }
+
+    private static TopicPublisher createBrokerTopicPublisher(String protocol, String topicName) {
         if (MessagingConstants.AMQP.equals(protocol)) {
             return new AmqpTopicPublisher(topicName);
         } else if (MessagingConstants.MQTT.equals(protocol)) {
@@ -20,16 +20,36 @@
 package org.apache.stratos.messaging.broker.connect;
 
 import org.apache.stratos.messaging.broker.connect.amqp.AmqpTopicSubscriber;
+import org.apache.stratos.messaging.broker.connect.local.LocalTopicBroker;
+import org.apache.stratos.messaging.broker.connect.local.LocalTopicSubscriber;
 import org.apache.stratos.messaging.broker.connect.mqtt.MqttTopicSubscriber;
 import org.apache.stratos.messaging.broker.subscribe.MessageListener;
 import org.apache.stratos.messaging.util.MessagingConstants;
 
 /**
- * Topic subscriber factory.
+ * Topic subscriber factory. If local delivery is enabled, messages of local publishers are received
+ * within the JVM directly and messages of remote publishers are received from the message broker
+ * for bridged topics.
  */
 public class TopicSubscriberFactory {
 
     public static TopicSubscriber createTopicSubscriber(String protocol, MessageListener messageListener, String topicName) {
+        if (MessagingConstants.LOCAL.equals(protocol)) {
+            return new LocalTopicSubscriber(messageListener, topicName);
+        }
+        if (LocalTopicBroker.isLocalDeliveryEnabled()) {
+            LocalTopicSubscriber localTopicSubscriber = new LocalTopicSubscriber(messageListener, topicName);
+            if (LocalTopicBroker.getInstance().isBridged(topicName)) {
+                localTopicSubscriber.setBrokerTopicSubscriber(createBrokerTopicSubscriber(protocol,
+                        localTopicSubscriber.getBrokerMessageListener(), topicName));
+            }
+            return localTopicSubscriber;
+        }
+        return createBrokerTopicSubscriber(protocol, messageListener, topicName);
+    }
+
+    private static TopicSubscriber createBrokerTopicSubscriber(String protocol, MessageListener messageListener,
+                                                               String topicName) {
         if (MessagingConstants.AMQP.equals(protocol)) {
             return new AmqpTopicSubscriber(messageListener, topicName);
         } else if (MessagingConstants.MQTT.equals(protocol)) {
@@ -41,7 +41,7 @@ public abstract class AmqpTopicConnector implements TopicConnector {
     private static final Log log = LogFactory.getLog(AmqpTopicConnector.class);
 
     private TopicConnectionFactory connectionFactory;
-    private TopicConnection topicConnection;
+    private volatile TopicConnection topicConnection;
     private InitialContext initialContext;
 
     private String mbUsername = null;
@@ -107,10 +107,17 @@ public abstract class AmqpTopicConnector implements TopicConnector {
                 topicConnection.close();
             } catch (JMSException ignore) {
                 log.warn("Could not disconnect from message broker");
+            } finally {
+                topicConnection = null;
             }
         }
     }
 
+    @Override
+    public boolean isConnected() {
+        return (topicConnection != null);
+    }
+
     /**
      * Provides a new topic session.
      *
@@ -21,30 +21,69 @@ package org.apache.stratos.messaging.broker.connect.amqp;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.threading.StratosThreadPool;
 import org.apache.stratos.messaging.broker.connect.RetryTimer;
 import org.apache.stratos.messaging.broker.connect.TopicPublisher;
 import org.apache.stratos.messaging.domain.exception.MessagingException;
+import org.apache.stratos.messaging.util.MessagingUtil;
 
 import javax.jms.JMSException;
 import javax.jms.TextMessage;
 import javax.jms.Topic;
 import javax.jms.TopicSession;
+import java.util.ArrayDeque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * AMQP topic publisher.
+ * <p/>
+ * Topic sessions and their message producers are kept open for the lifetime of the connection and
+ * pooled, so that several threads may publish to the topic concurrently without creating a session
+ * per message. The number of idle sessions kept in the pool is defined by the
+ * stratos.messaging.publisher.amqp.sessionPoolSize system property.
+ * <p/>
+ * If the connection to the message broker fails, it is re-established in the background using the
+ * intervals of the retry timer. Messages published with retry enabled in the meantime are buffered,
+ * up to the number given by the stratos.messaging.publisher.amqp.bufferSize system property, and
+ * published in order once the connection has been re-established.
  */
 public class AmqpTopicPublisher extends AmqpTopicConnector implements TopicPublisher {
 
-    private static final Log log = LogFactory.getLog(AmqpTopicConnector.class);
+    private static final Log log = LogFactory.getLog(AmqpTopicPublisher.class);
 
-    private final String topicName;
+    private static final String SESSION_POOL_SIZE_PROPERTY = "stratos.messaging.publisher.amqp.sessionPoolSize";
+    private static final String BUFFER_SIZE_PROPERTY = "stratos.messaging.publisher.amqp.bufferSize";
+    private static final int DEFAULT_SESSION_POOL_SIZE = 4;
+    private static final int DEFAULT_BUFFER_SIZE = 1000;
+    private static final String RECONNECT_THREAD_POOL_ID = "stratos-amqp-publisher-reconnect-pool";
+    // Time given to subscribers to reconnect before buffered messages are published
+    private static final long RECONNECT_SETTLE_DELAY = 2000;
+
+    private enum ConnectionStatus {Disconnected, Connected, ReConnecting}
 
-    private enum ConnectionStatus {Connected, ReConnecting, ReConnected}
+    private final String topicName;
+    private final int bufferSize;
+    private final BlockingQueue<PublisherSession> sessionPool;
+    private final ScheduledExecutorService reconnectExecutor;
 
-    private ConnectionStatus connectionStatus;
+    // Connection status, connect requests and buffered messages are guarded by lock
+    private final Object lock = new Object();
+    private final ArrayDeque<String> messageBuffer = new ArrayDeque<String>();
+    private ConnectionStatus connectionStatus = ConnectionStatus.Disconnected;
+    private boolean connectRequested;
+    // Incremented whenever the connection is closed, sessions of a previous connection are not reused
+    private volatile int connectionGeneration;
+    private RetryTimer retryTimer;
 
     public AmqpTopicPublisher(String topicName) {
         this.topicName = topicName;
+        this.bufferSize = MessagingUtil.getNumericSystemProperty(DEFAULT_BUFFER_SIZE, BUFFER_SIZE_PROPERTY);
+        this.sessionPool = new LinkedBlockingQueue<PublisherSession>(
+                MessagingUtil.getNumericSystemProperty(DEFAULT_SESSION_POOL_SIZE, SESSION_POOL_SIZE_PROPERTY));
+        this.reconnectExecutor = StratosThreadPool.getScheduledExecutorService(RECONNECT_THREAD_POOL_ID, 1);
         create();
     }
 
@@ -52,91 +91,274 @@ public class AmqpTopicPublisher extends AmqpTopicConnector implements TopicPubli
      * Publish message to message broker.
      *
      * @param message Message to be published
-     * @param retry   Retry if message broker is not available
+     * @param retry   Buffer the message and reconnect if message broker is not available
      */
     @Override
     public void publish(String message, boolean retry) {
-        boolean published = false;
-        while (!published) {
-            TopicSession topicSession = null;
-            javax.jms.TopicPublisher topicPublisher = null;
-            try {
-                while (connectionStatus == ConnectionStatus.ReConnecting) {
-                    // Connection has been broken, wait until reconnected
-                    try {
-                        Thread.sleep(1000);
-                    } catch (InterruptedException ignore) {
-                    }
-                }
-
-                if (connectionStatus == ConnectionStatus.ReConnected) {
-                    // Publisher has reconnected, wait another 2 seconds to make sure all subscribers
-                    // have been reconnected to receive the message
-                    Thread.sleep(2000);
-                    connectionStatus = ConnectionStatus.Connected;
-                }
+        synchronized (lock) {
+            if (connectionStatus == ConnectionStatus.ReConnecting) {
+                bufferMessage(message, retry);
+                return;
+            }
+            if (connectionStatus == ConnectionStatus.Disconnected) {
+                throw new MessagingException(String.format("Topic publisher is not connected: [topic-name] %s",
+                        topicName));
+            }
+        }
 
-                topicSession = newSession();
-                Topic topic = lookupTopic(topicName);
-                if (topic == null) {
-                    // if the topic doesn't exist, create it.
-                    topic = topicSession.createTopic(topicName);
-                }
-                topicPublisher = topicSession.createPublisher(topic);
-                TextMessage textMessage = topicSession.createTextMessage(message);
-                topicPublisher.publish(textMessage);
-                published = true;
-            } catch (Exception e) {
-                String errorMessage = "Could not publish to topic: [topic-name] %s";
-                log.error(errorMessage, e);
-                if (!retry) {
-                    // Retry is disabled, throw exception
+        try {
+            send(message);
+        } catch (Exception e) {
+            String errorMessage = String.format("Could not publish to topic: [topic-name] %s", topicName);
+            log.error(errorMessage, e);
+            if (!retry) {
+                // Retry is disabled, throw exception
+                throw new MessagingException(errorMessage, e);
+            }
+            synchronized (lock) {
+                if (connectionStatus == ConnectionStatus.Disconnected) {
+                    // Publisher has been disconnected meanwhile
                     throw new MessagingException(errorMessage, e);
                 }
-                // Try to reconnect
-                reconnect();
-            } finally {
-
-                try {
-                    if (topicSession != null) {
-                        topicSession.close();
-                    }
-                    if (topicPublisher != null) {
-                        topicPublisher.close();
-                    }
+                startReconnecting();
+                bufferMessage(message, true);
+            }
+        }
+    }
 
-                } catch (JMSException e) {
-                    message = "Error cleaning up pubisher";
-                    log.error(message, e);
-                    throw new MessagingException(message, e);
-                }
+    @Override
+    public void connect() {
+        synchronized (lock) {
+            if (connectionStatus == ConnectionStatus.ReConnecting) {
+                // Connection will be kept open once re-established
+                connectRequested = true;
+                return;
+            }
+            if (connectionStatus == ConnectionStatus.Connected) {
+                return;
+            }
+            super.connect();
+            connectionStatus = ConnectionStatus.Connected;
+            connectRequested = true;
+        }
+    }
 
+    @Override
+    public void disconnect() {
+        synchronized (lock) {
+            connectRequested = false;
+            if ((connectionStatus == ConnectionStatus.ReConnecting) && !messageBuffer.isEmpty()) {
+                // Connection will be closed once buffered messages have been published
+                return;
             }
+            connectionStatus = ConnectionStatus.Disconnected;
+            closeConnection();
+        }
+    }
+
+    /**
+     * Return true if the publisher is connected, or if the connection is being re-established and
+     * messages are buffered in the meantime.
+     */
+    @Override
+    public boolean isConnected() {
+        synchronized (lock) {
+            return connectionStatus != ConnectionStatus.Disconnected;
         }
     }
 
+    /**
+     * Invoked by the connection exception listener, re-establish the connection in the background.
+     */
     @Override
     protected void reconnect() {
+        synchronized (lock) {
+            if (connectionStatus == ConnectionStatus.Connected) {
+                startReconnecting();
+            }
+        }
+    }
+
+    /**
+     * Publish a message using a pooled session.
+     */
+    private void send(String message) throws JMSException {
+        int generation = connectionGeneration;
+        PublisherSession publisherSession = sessionPool.poll();
+        if (publisherSession == null) {
+            publisherSession = createPublisherSession();
+        }
+        try {
+            TextMessage textMessage = publisherSession.topicSession.createTextMessage(message);
+            publisherSession.topicPublisher.publish(textMessage);
+        } catch (JMSException e) {
+            publisherSession.close();
+            throw e;
+        }
+        if ((generation != connectionGeneration) || !sessionPool.offer(publisherSession)) {
+            publisherSession.close();
+        }
+    }
+
+    private PublisherSession createPublisherSession() throws JMSException {
+        TopicSession topicSession;
+        try {
+            topicSession = newSession();
+        } catch (JMSException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new MessagingException(String.format("Could not create topic session: [topic-name] %s",
+                    topicName), e);
+        }
+        try {
+            Topic topic = lookupTopic(topicName);
+            if (topic == null) {
+                // if the topic doesn't exist, create it.
+                topic = topicSession.createTopic(topicName);
+            }
+            return new PublisherSession(topicSession, topicSession.createPublisher(topic));
+        } catch (JMSException e) {
+            topicSession.close();
+            throw e;
+        }
+    }
+
+    private void closeConnection() {
+        connectionGeneration++;
+        PublisherSession publisherSession;
+        while ((publisherSession = sessionPool.poll()) != null) {
+            publisherSession.close();
+        }
+        super.disconnect();
+    }
+
+    /**
+     * Must be called while holding the lock.
+     */
+    private void bufferMessage(String message, boolean retry) {
+        if (!retry) {
+            throw new MessagingException(String.format("Topic publisher is reconnecting to message broker: " +
+                    "[topic-name] %s", topicName));
+        }
+        if (messageBuffer.size() >= bufferSize) {
+            throw new MessagingException(String.format("Topic publisher buffer is full while reconnecting to " +
+                    "message broker: [topic-name] %s [buffer-size] %d", topicName, bufferSize));
+        }
+        messageBuffer.add(message);
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Message buffered until reconnected: [topic-name] %s [buffered] %d",
+                    topicName, messageBuffer.size()));
+        }
+    }
+
+    /**
+     * Must be called while holding the lock.
+     */
+    private void startReconnecting() {
+        if (connectionStatus == ConnectionStatus.ReConnecting) {
+            return;
+        }
         connectionStatus = ConnectionStatus.ReConnecting;
-        RetryTimer retryTimer = new RetryTimer();
-        while (connectionStatus == ConnectionStatus.ReConnecting) {
-            try {
-                long interval = retryTimer.getNextInterval();
-                log.info(String.format("Topic publisher will try to reconnect in %d seconds: [topic-name] %s",
-                        (interval / 1000), topicName));
-                Thread.sleep(interval);
-            } catch (InterruptedException ignore) {
+        retryTimer = new RetryTimer();
+        scheduleReconnect();
+    }
+
+    private void scheduleReconnect() {
+        long interval = retryTimer.getNextInterval();
+        log.info(String.format("Topic publisher will try to reconnect in %d seconds: [topic-name] %s",
+                (interval / 1000), topicName));
+        reconnectExecutor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                tryReconnect();
             }
+        }, interval, TimeUnit.MILLISECONDS);
+    }
 
+    private void tryReconnect() {
+        synchronized (lock) {
+            if (connectionStatus != ConnectionStatus.ReConnecting) {
+                return;
+            }
             try {
-                disconnect();
+                closeConnection();
                 create();
-                connect();
-                connectionStatus = ConnectionStatus.ReConnected;
+                super.connect();
                 log.info(String.format("Topic publisher reconnected: [topic-name] %s", topicName));
             } catch (Exception e) {
-                String message = "Could not reconnect to message broker";
-                log.warn(message, e);
+                log.warn(String.format("Could not reconnect to message broker: [topic-name] %s", topicName), e);
+                scheduleReconnect();
+                return;
+            }
+        }
+        reconnectExecutor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                publishBufferedMessages();
+            }
+        }, RECONNECT_SETTLE_DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publish buffered messages in order, messages published meanwhile are appended to the buffer.
+     */
+    private void publishBufferedMessages() {
+        int published = 0;
+        while (true) {
+            String message;
+            synchronized (lock) {
+                if (connectionStatus != ConnectionStatus.ReConnecting) {
+                    return;
+                }
+                message = messageBuffer.peek();
+                if (message == null) {
+                    if (connectRequested) {
+                        connectionStatus = ConnectionStatus.Connected;
+                    } else {
+                        connectionStatus = ConnectionStatus.Disconnected;
+                        closeConnection();
+                    }
+                    if (log.isDebugEnabled()) {
+                        log.debug(String.format("Buffered messages published: [topic-name] %s [count] %d",
+                                topicName, published));
+                    }
+                    return;
+                }
+            }
+            try {
+                send(message);
+            } catch (Exception e) {
+                log.error(String.format("Could not publish buffered message: [topic-name] %s", topicName), e);
+                synchronized (lock) {
+                    scheduleReconnect();
+                }
+                return;
+            }
+            synchronized (lock) {
+                messageBuffer.poll();
+            }
+            published++;
+        }
+    }
+
+    private static class PublisherSession {
+        private final TopicSession topicSession;
+        private final javax.jms.TopicPublisher topicPublisher;
+
+        private PublisherSession(TopicSession topicSession, javax.jms.TopicPublisher topicPublisher) {
+            this.topicSession = topicSession;
+            this.topicPublisher = topicPublisher;
+        }
+
+        private void close() {
+            try {
+                topicPublisher.close();
+                topicSession.close();
+            } catch (JMSException e) {
+                // Sessions of a failed connection can not be closed cleanly
+                if (log.isDebugEnabled()) {
+                    log.debug("Could not close topic session", e);
+                }
             }
         }
     }
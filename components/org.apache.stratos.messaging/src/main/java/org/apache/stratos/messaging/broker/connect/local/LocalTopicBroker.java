@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.broker.connect.local;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.util.MessagingConstants;
+import org.apache.stratos.messaging.util.MessagingUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * In-JVM message broker delivering messages published by local topic publishers to the local topic
+ * subscribers of matching topics, without going through the message broker.
+ * <p/>
+ * Local delivery is used if the messaging transport is set to local, in which case all messages stay
+ * within the JVM, or if the stratos.messaging.local.delivery.enabled system property is set to true
+ * for co-located components. In the latter case messages are also bridged to the message broker for
+ * remote subscribers, except for the topics listed in the stratos.messaging.local.topics system
+ * property, which are known to have neither remote publishers nor remote subscribers.
+ */
+public class LocalTopicBroker {
+
+    private static final Log log = LogFactory.getLog(LocalTopicBroker.class);
+
+    public static final String LOCAL_DELIVERY_ENABLED_PROPERTY = "stratos.messaging.local.delivery.enabled";
+    public static final String LOCAL_TOPICS_PROPERTY = "stratos.messaging.local.topics";
+
+    private static final Pattern TOPIC_SEPARATOR_PATTERN = Pattern.compile("[/.]");
+    private static final Pattern LIST_SEPARATOR_PATTERN = Pattern.compile("\\s*,\\s*");
+
+    private static volatile LocalTopicBroker instance;
+
+    private final List<LocalTopicSubscriber> subscribers = new CopyOnWriteArrayList<LocalTopicSubscriber>();
+    // Subscribers of each published topic name, cleared whenever subscribers change
+    private final Map<String, List<LocalTopicSubscriber>> topicSubscribersMap =
+            new ConcurrentHashMap<String, List<LocalTopicSubscriber>>();
+    private final List<String[]> localTopics;
+
+    private LocalTopicBroker() {
+        localTopics = new ArrayList<String[]>();
+        String value = System.getProperty(LOCAL_TOPICS_PROPERTY);
+        if (StringUtils.isNotBlank(value)) {
+            for (String topic : LIST_SEPARATOR_PATTERN.split(value.trim())) {
+                localTopics.add(TOPIC_SEPARATOR_PATTERN.split(topic));
+            }
+        }
+    }
+
+    public static LocalTopicBroker getInstance() {
+        if (instance == null) {
+            synchronized (LocalTopicBroker.class) {
+                if (instance == null) {
+                    instance = new LocalTopicBroker();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Return true if messages are delivered to local subscribers without going through the message broker.
+     *
+     * @return true if the messaging transport is local or local delivery has been enabled
+     */
+    public static boolean isLocalDeliveryEnabled() {
+        return MessagingConstants.LOCAL.equals(MessagingUtil.getMessagingProtocol()) ||
+                Boolean.getBoolean(LOCAL_DELIVERY_ENABLED_PROPERTY);
+    }
+
+    /**
+     * Return true if messages of the given topic, or messages matching the given topic filter,
+     * need to be exchanged with the message broker.
+     *
+     * @param topicName topic name, topic filter or comma separated list of topic filters
+     * @return false if all the topics have been configured as local
+     */
+    public boolean isBridged(String topicName) {
+        for (String[] segments : parseTopicFilters(topicName)) {
+            if (!matches(localTopics, segments)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized void subscribe(LocalTopicSubscriber subscriber) {
+        subscribers.add(subscriber);
+        topicSubscribersMap.clear();
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Local topic subscriber added: [topic] %s", subscriber.getTopicName()));
+        }
+    }
+
+    synchronized void unsubscribe(LocalTopicSubscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            topicSubscribersMap.clear();
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Local topic subscriber removed: [topic] %s", subscriber.getTopicName()));
+            }
+        }
+    }
+
+    /**
+     * Return the local subscribers of the given topic.
+     *
+     * @param topicName topic name
+     * @return local subscribers
+     */
+    List<LocalTopicSubscriber> getSubscribers(String topicName) {
+        List<LocalTopicSubscriber> topicSubscribers = topicSubscribersMap.get(topicName);
+        if (topicSubscribers == null) {
+            topicSubscribers = findSubscribers(topicName);
+        }
+        return topicSubscribers;
+    }
+
+    private synchronized List<LocalTopicSubscriber> findSubscribers(String topicName) {
+        String[] segments = TOPIC_SEPARATOR_PATTERN.split(topicName);
+        List<LocalTopicSubscriber> topicSubscribers = new ArrayList<LocalTopicSubscriber>();
+        for (LocalTopicSubscriber subscriber : subscribers) {
+            if (matches(subscriber.getTopicFilters(), segments)) {
+                topicSubscribers.add(subscriber);
+            }
+        }
+        topicSubscribers = Collections.unmodifiableList(topicSubscribers);
+        topicSubscribersMap.put(topicName, topicSubscribers);
+        return topicSubscribers;
+    }
+
+    /**
+     * Parse a topic filter or a comma separated list of topic filters into topic segments.
+     */
+    static List<String[]> parseTopicFilters(String topicName) {
+        List<String[]> topicFilters = new ArrayList<String[]>();
+        for (String topicFilter : LIST_SEPARATOR_PATTERN.split(topicName.trim())) {
+            topicFilters.add(TOPIC_SEPARATOR_PATTERN.split(topicFilter));
+        }
+        return topicFilters;
+    }
+
+    private static boolean matches(List<String[]> filters, String[] topic) {
+        for (String[] filter : filters) {
+            if (matches(filter, topic)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Match topic segments against a topic filter, supporting MQTT (+, #) and AMQP (*, >) wildcards.
+     */
+    static boolean matches(String[] filter, String[] topic) {
+        for (int i = 0; i < filter.length; i++) {
+            if ("#".equals(filter[i]) || ">".equals(filter[i])) {
+                return true;
+            }
+            if (i >= topic.length) {
+                return false;
+            }
+            if (!"+".equals(filter[i]) && !"*".equals(filter[i]) && !filter[i].equals(topic[i])) {
+                return false;
+            }
+        }
+        return filter.length == topic.length;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.broker.connect.local;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.broker.connect.TopicPublisher;
+
+import java.util.List;
+
+/**
+ * Local topic publisher delivering messages to the local subscribers of the topic in-JVM.
+ * <p/>
+ * If a broker topic publisher is given, messages are also published to the message broker for
+ * remote subscribers. Local subscribers only receive a message once it has been published to the
+ * message broker, so that a failed publish retried by the caller is not delivered twice. Messages are
+ * handed over to the delivery queue of each subscriber, the publisher is never blocked by slow
+ * subscribers.
+ */
+public class LocalTopicPublisher implements TopicPublisher {
+
+    private static final Log log = LogFactory.getLog(LocalTopicPublisher.class);
+
+    private static final String LOCAL_SERVER_URI = "local";
+
+    private final String topicName;
+    private final TopicPublisher brokerTopicPublisher;
+
+    /**
+     * @param topicName            topic name
+     * @param brokerTopicPublisher topic publisher of the message broker, null if messages are only delivered locally
+     */
+    public LocalTopicPublisher(String topicName, TopicPublisher brokerTopicPublisher) {
+        this.topicName = topicName;
+        this.brokerTopicPublisher = brokerTopicPublisher;
+    }
+
+    @Override
+    public void publish(String message, boolean retry) {
+        List<LocalTopicSubscriber> subscribers = LocalTopicBroker.getInstance().getSubscribers(topicName);
+        if (brokerTopicPublisher != null) {
+            String echoKey = subscribers.isEmpty() ? null : LocalTopicSubscriber.getEchoKey(topicName, message);
+            for (LocalTopicSubscriber subscriber : subscribers) {
+                subscriber.expectEcho(echoKey);
+            }
+            try {
+                brokerTopicPublisher.publish(message, retry);
+            } catch (RuntimeException e) {
+                for (LocalTopicSubscriber subscriber : subscribers) {
+                    subscriber.cancelEcho(echoKey);
+                }
+                throw e;
+            }
+        }
+        for (LocalTopicSubscriber subscriber : subscribers) {
+            subscriber.deliver(topicName, message);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Message delivered locally: [topic] %s [subscribers] %d [bridged] %s",
+                    topicName, subscribers.size(), (brokerTopicPublisher != null)));
+        }
+    }
+
+    @Override
+    public void create() {
+        if (brokerTopicPublisher != null) {
+            brokerTopicPublisher.create();
+        }
+    }
+
+    @Override
+    public String getServerURI() {
+        return (brokerTopicPublisher != null) ? brokerTopicPublisher.getServerURI() : LOCAL_SERVER_URI;
+    }
+
+    @Override
+    public void connect() {
+        if (brokerTopicPublisher != null) {
+            brokerTopicPublisher.connect();
+        }
+    }
+
+    @Override
+    public void disconnect() {
+        if (brokerTopicPublisher != null) {
+            brokerTopicPublisher.disconnect();
+        }
+    }
+
+    @Override
+    public boolean isConnected() {
+        return (brokerTopicPublisher == null) || brokerTopicPublisher.isConnected();
+    }
+}
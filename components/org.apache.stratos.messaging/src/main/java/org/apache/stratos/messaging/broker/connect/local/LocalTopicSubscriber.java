@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.broker.connect.local;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.threading.StratosThreadPool;
+import org.apache.stratos.messaging.broker.connect.TopicSubscriber;
+import org.apache.stratos.messaging.broker.subscribe.MessageListener;
+import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.message.processor.EventSequenceTracker;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local topic subscriber receiving the messages of local topic publishers in-JVM.
+ * <p/>
+ * If a broker topic subscriber is set, messages of remote publishers are received from the message
+ * broker as well. Messages published locally are also bridged to the message broker, therefore the
+ * copies received back from the message broker are discarded. They are recognized by the source id
+ * and sequence number of events, or by a digest of other messages.
+ * <p/>
+ * Messages published locally are delivered in order by a thread of the subscriber, so that local
+ * publishers are not blocked while the message listener processes them.
+ */
+public class LocalTopicSubscriber implements TopicSubscriber {
+
+    private static final Log log = LogFactory.getLog(LocalTopicSubscriber.class);
+
+    private static final String LOCAL_SERVER_URI = "local";
+    // Copies of local messages not received from the message broker within this time are no longer expected
+    private static final long ECHO_TIMEOUT = TimeUnit.MINUTES.toNanos(1);
+    private static final String DIGEST_ALGORITHM = "SHA-1";
+    private static final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final MessageListener messageListener;
+    private final String topicName;
+    private final List<String[]> topicFilters;
+    private final String threadPoolId;
+    private TopicSubscriber brokerTopicSubscriber;
+    private volatile ExecutorService deliveryExecutor;
+    private volatile boolean subscribed;
+
+    // Local messages expected to be received back from the message broker, guarded by echoLock
+    private final Object echoLock = new Object();
+    private final Map<String, Integer> expectedEchoes = new HashMap<String, Integer>();
+    private final ArrayDeque<ExpectedEcho> expectedEchoQueue = new ArrayDeque<ExpectedEcho>();
+
+    public LocalTopicSubscriber(MessageListener messageListener, String topicName) {
+        this.messageListener = messageListener;
+        this.topicName = topicName;
+        this.topicFilters = LocalTopicBroker.parseTopicFilters(topicName);
+        this.threadPoolId = "local.topic.subscriber." + topicName + "." + subscriberCount.incrementAndGet();
+    }
+
+    /**
+     * Set the topic subscriber used for receiving messages of remote publishers. The subscriber
+     * needs to notify the message listener returned by getBrokerMessageListener().
+     *
+     * @param brokerTopicSubscriber broker topic subscriber
+     */
+    public void setBrokerTopicSubscriber(TopicSubscriber brokerTopicSubscriber) {
+        this.brokerTopicSubscriber = brokerTopicSubscriber;
+    }
+
+    /**
+     * Return the message listener to be notified by the broker topic subscriber.
+     *
+     * @return message listener discarding messages published locally
+     */
+    public MessageListener getBrokerMessageListener() {
+        return new MessageListener() {
+            @Override
+            public void messageReceived(Message message) {
+                if (isEcho(message.getTopicName(), message.getText())) {
+                    if (log.isDebugEnabled()) {
+                        log.debug(String.format("Discarded local message received from message broker: [topic] %s",
+                                message.getTopicName()));
+                    }
+                    return;
+                }
+                messageListener.messageReceived(message);
+            }
+        };
+    }
+
+    @Override
+    public void create() {
+        if (brokerTopicSubscriber != null) {
+            brokerTopicSubscriber.create();
+        }
+    }
+
+    @Override
+    public String getServerURI() {
+        return (brokerTopicSubscriber != null) ? brokerTopicSubscriber.getServerURI() : LOCAL_SERVER_URI;
+    }
+
+    @Override
+    public void connect() {
+        if (brokerTopicSubscriber != null) {
+            brokerTopicSubscriber.connect();
+        }
+    }
+
+    @Override
+    public void subscribe() {
+        if (!subscribed) {
+            deliveryExecutor = StratosThreadPool.getExecutorService(threadPoolId, 1);
+            LocalTopicBroker.getInstance().subscribe(this);
+            subscribed = true;
+        }
+        if (brokerTopicSubscriber != null) {
+            brokerTopicSubscriber.subscribe();
+        }
+    }
+
+    @Override
+    public void disconnect() {
+        LocalTopicBroker.getInstance().unsubscribe(this);
+        if (subscribed) {
+            subscribed = false;
+            deliveryExecutor = null;
+            StratosThreadPool.shutdown(threadPoolId);
+        }
+        if (brokerTopicSubscriber != null) {
+            brokerTopicSubscriber.disconnect();
+        }
+    }
+
+    @Override
+    public boolean isConnected() {
+        return (brokerTopicSubscriber != null) ? brokerTopicSubscriber.isConnected() : subscribed;
+    }
+
+    /**
+     * Queue a message published locally for delivery to the message listener.
+     */
+    void deliver(String topicName, String message) {
+        ExecutorService executor = deliveryExecutor;
+        if (executor == null) {
+            return;
+        }
+        final Message localMessage = new Message(topicName, message);
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        messageListener.messageReceived(localMessage);
+                    } catch (Exception e) {
+                        log.error(String.format("Could not deliver local message: [topic] %s",
+                                localMessage.getTopicName()), e);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Local message not delivered, subscriber disconnected: [topic] %s",
+                        topicName));
+            }
+        }
+    }
+
+    /**
+     * Record that a message published locally will also be received from the message broker.
+     *
+     * @param key echo key of the message, see getEchoKey()
+     */
+    void expectEcho(String key) {
+        if (brokerTopicSubscriber == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (echoLock) {
+            // Forget copies which have not been received in time, for an example if nobody was subscribed
+            ExpectedEcho expectedEcho = expectedEchoQueue.peek();
+            while ((expectedEcho != null) && (now - expectedEcho.time > ECHO_TIMEOUT)) {
+                expectedEchoQueue.poll();
+                removeExpectedEcho(expectedEcho.key);
+                expectedEcho = expectedEchoQueue.peek();
+            }
+            Integer count = expectedEchoes.get(key);
+            expectedEchoes.put(key, (count == null) ? 1 : count + 1);
+            expectedEchoQueue.add(new ExpectedEcho(key, now));
+        }
+    }
+
+    /**
+     * Forget an expected copy of a message which could not be published to the message broker.
+     */
+    void cancelEcho(String key) {
+        if (brokerTopicSubscriber == null) {
+            return;
+        }
+        synchronized (echoLock) {
+            removeExpectedEcho(key);
+        }
+    }
+
+    private boolean isEcho(String topicName, String message) {
+        synchronized (echoLock) {
+            if (expectedEchoes.isEmpty()) {
+                return false;
+            }
+        }
+        String key = getEchoKey(topicName, message);
+        synchronized (echoLock) {
+            return removeExpectedEcho(key);
+        }
+    }
+
+    private boolean removeExpectedEcho(String key) {
+        Integer count = expectedEchoes.get(key);
+        if (count == null) {
+            return false;
+        }
+        if (count > 1) {
+            expectedEchoes.put(key, count - 1);
+        } else {
+            expectedEchoes.remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * Return the key identifying copies of a message received back from the message broker, the
+     * source id and sequence number of events or a digest of other messages.
+     */
+    static String getEchoKey(String topicName, String message) {
+        String eventId = EventSequenceTracker.readEventId(message);
+        return topicName + '\n' + ((eventId != null) ? eventId : digest(message));
+    }
+
+    private static String digest(String message) {
+        try {
+            byte[] digest = MessageDigest.getInstance(DIGEST_ALGORITHM).digest(message.getBytes("UTF-8"));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    String getTopicName() {
+        return topicName;
+    }
+
+    List<String[]> getTopicFilters() {
+        return topicFilters;
+    }
+
+    private static class ExpectedEcho {
+        private final String key;
+        private final long time;
+
+        private ExpectedEcho(String key, long time) {
+            this.key = key;
+            this.time = time;
+        }
+    }
+}
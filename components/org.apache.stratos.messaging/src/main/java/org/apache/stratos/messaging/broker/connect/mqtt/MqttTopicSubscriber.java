@@ -31,6 +31,8 @@ import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
 import org.eclipse.paho.client.mqttv3.MqttCallback;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
 
+import java.util.Arrays;
+
 /**
  * MQTT topic subscriber
  * Usage: Create an instance and invoke connect(), subscribe() to subscribe to a topic. When needed to disconnect
@@ -68,7 +70,11 @@ public class MqttTopicSubscriber extends MqttTopicConnector implements TopicSubs
             }
 
             mqttClient.setCallback(new MQTTSubscriberCallback());
-            mqttClient.subscribe(topicName, MessagingConstants.QOS);
+            // Composite topic names are subscribed to as a list of topic filters
+            String[] topicFilters = MessagingUtil.splitCompositeTopicName(topicName);
+            int[] qos = new int[topicFilters.length];
+            Arrays.fill(qos, MessagingConstants.QOS);
+            mqttClient.subscribe(topicFilters, qos);
             if (log.isDebugEnabled()) {
                 log.debug("Subscribed to topic " + topicName);
             }
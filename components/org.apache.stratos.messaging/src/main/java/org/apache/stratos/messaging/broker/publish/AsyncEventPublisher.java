@@ -0,0 +1,314 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.broker.publish;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.threading.StratosThreadPool;
+import org.apache.stratos.messaging.event.Event;
+import org.apache.stratos.messaging.util.MessagingUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Asynchronous event publishing pipeline.
+ * <p/>
+ * Events are serialized on the caller's thread and queued in a publishing lane. Lanes are drained
+ * in batches by a shared thread pool using the persistent broker connections of the event
+ * publisher pool. Events are assigned to lanes by the root of their topic (topology, application,
+ * cluster, etc.), therefore events received by the same event receiver are published in the order
+ * they were submitted while different event streams do not block each other.
+ * <p/>
+ * The number of events accepted but not yet published is limited by a per lane in-flight window.
+ * Once the window is full callers are blocked until events have been published, events are never
+ * dropped. A batch that could not be published is retried, before any later event of the lane,
+ * until it has been published. Events of a partially published batch may therefore be published
+ * twice, subscribers skip them using their sequence numbers.
+ */
+class AsyncEventPublisher {
+
+    private static final Log log = LogFactory.getLog(AsyncEventPublisher.class);
+
+    private static final String THREAD_POOL_ID = "stratos-event-publisher-pool";
+    private static final String THREAD_POOL_SIZE_PROPERTY = "stratos.messaging.publisher.async.poolSize";
+    private static final String MAX_IN_FLIGHT_PROPERTY = "stratos.messaging.publisher.async.maxInFlight";
+    private static final String BATCH_SIZE_PROPERTY = "stratos.messaging.publisher.async.batchSize";
+    private static final String OFFER_TIMEOUT_PROPERTY = "stratos.messaging.publisher.async.offerTimeout";
+    private static final String RETRY_INTERVAL_PROPERTY = "stratos.messaging.publisher.async.retryInterval";
+    private static final int DEFAULT_THREAD_POOL_SIZE = 5;
+    private static final int DEFAULT_MAX_IN_FLIGHT = 10000;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final int DEFAULT_OFFER_TIMEOUT = 5000;
+    private static final int DEFAULT_RETRY_INTERVAL = 1000;
+    private static final int MAX_RETRY_INTERVAL = 30000;
+
+    private static volatile AsyncEventPublisher instance;
+
+    private final Map<String, PublishingLane> laneMap = new ConcurrentHashMap<String, PublishingLane>();
+    private final ExecutorService executorService;
+    private final int maxInFlight;
+    private final int batchSize;
+    private final int offerTimeout;
+    private final int retryInterval;
+
+    private AsyncEventPublisher() {
+        int threadPoolSize = MessagingUtil.getNumericSystemProperty(DEFAULT_THREAD_POOL_SIZE,
+                THREAD_POOL_SIZE_PROPERTY);
+        this.maxInFlight = MessagingUtil.getNumericSystemProperty(DEFAULT_MAX_IN_FLIGHT, MAX_IN_FLIGHT_PROPERTY);
+        this.batchSize = MessagingUtil.getNumericSystemProperty(DEFAULT_BATCH_SIZE, BATCH_SIZE_PROPERTY);
+        this.offerTimeout = MessagingUtil.getNumericSystemProperty(DEFAULT_OFFER_TIMEOUT, OFFER_TIMEOUT_PROPERTY);
+        this.retryInterval = MessagingUtil.getNumericSystemProperty(DEFAULT_RETRY_INTERVAL, RETRY_INTERVAL_PROPERTY);
+        this.executorService = StratosThreadPool.getExecutorService(THREAD_POOL_ID, threadPoolSize);
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Asynchronous event publisher initialized: [max-in-flight] %d [batch-size] %d " +
+                    "[offer-timeout] %d ms [retry-interval] %d ms", maxInFlight, batchSize, offerTimeout,
+                    retryInterval));
+        }
+    }
+
+    public static AsyncEventPublisher getInstance() {
+        if (instance == null) {
+            synchronized (AsyncEventPublisher.class) {
+                if (instance == null) {
+                    instance = new AsyncEventPublisher();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Queue a serialized event for publishing.
+     *
+     * @param topicName topic to which the event is published
+     * @param event     event object, passed to the callback, null if only the encoded event is known
+     * @param message   serialized event
+     * @param callback  callback to be notified, may be null
+     * @return future completed once the event has been published
+     */
+    public EventPublishFuture publish(String topicName, Event event, String message, EventPublishCallback callback) {
+        EventPublishFuture future = new EventPublishFuture(event, callback);
+        PublishingLane lane = getLane(topicName);
+        boolean permitAcquired = acquireInFlightPermit(lane, topicName);
+        lane.queue.add(new QueuedEvent(topicName, message, future, permitAcquired));
+        lane.scheduleDrain();
+        return future;
+    }
+
+    /**
+     * Wait for a free slot in the in-flight window of the lane, so that publishers are slowed down to
+     * the rate at which events are published. If the waiting thread is interrupted the event is
+     * queued without a slot.
+     *
+     * @return true if a slot has been acquired
+     */
+    private boolean acquireInFlightPermit(PublishingLane lane, String topicName) {
+        try {
+            if (lane.inFlightPermits.tryAcquire(offerTimeout, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+            if (log.isWarnEnabled()) {
+                log.warn(String.format("In-flight window is full, waiting for events to be published: " +
+                        "[topic] %s [max-in-flight] %d", topicName, maxInFlight));
+            }
+            lane.inFlightPermits.acquire();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (log.isWarnEnabled()) {
+                log.warn(String.format("Interrupted while waiting for the in-flight window, queuing event: " +
+                        "[topic] %s", topicName));
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Return the number of events accepted but not yet published.
+     *
+     * @return number of in-flight events
+     */
+    public int getInFlightCount() {
+        int count = 0;
+        for (PublishingLane lane : laneMap.values()) {
+            count += maxInFlight - lane.inFlightPermits.availablePermits();
+        }
+        return count;
+    }
+
+    private PublishingLane getLane(String topicName) {
+        String laneId = getLaneId(topicName);
+        PublishingLane lane = laneMap.get(laneId);
+        if (lane == null) {
+            synchronized (laneMap) {
+                lane = laneMap.get(laneId);
+                if (lane == null) {
+                    lane = new PublishingLane(laneId);
+                    laneMap.put(laneId, lane);
+                }
+            }
+        }
+        return lane;
+    }
+
+    /**
+     * Events are partitioned by the root element of the topic, the same granularity at which
+     * event receivers subscribe, so that receivers observe events in publishing order.
+     */
+    private static String getLaneId(String topicName) {
+        for (int i = 0; i < topicName.length(); i++) {
+            char c = topicName.charAt(i);
+            if ((c == '/') || (c == '.')) {
+                return topicName.substring(0, i);
+            }
+        }
+        return topicName;
+    }
+
+    private static class QueuedEvent {
+        private final String topicName;
+        private final String message;
+        private final EventPublishFuture future;
+        private final boolean permitAcquired;
+
+        private QueuedEvent(String topicName, String message, EventPublishFuture future, boolean permitAcquired) {
+            this.topicName = topicName;
+            this.message = message;
+            this.future = future;
+            this.permitAcquired = permitAcquired;
+        }
+    }
+
+    /**
+     * A queue of events drained by at most one thread at a time.
+     */
+    private class PublishingLane implements Runnable {
+
+        private final String laneId;
+        private final Queue<QueuedEvent> queue = new ConcurrentLinkedQueue<QueuedEvent>();
+        private final Semaphore inFlightPermits = new Semaphore(maxInFlight);
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+
+        private PublishingLane(String laneId) {
+            this.laneId = laneId;
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                executorService.execute(this);
+            }
+        }
+
+        /**
+         * Publish one batch and hand the thread back to the pool, so that a busy lane
+         * does not starve the others.
+         */
+        @Override
+        public void run() {
+            List<QueuedEvent> batch = new ArrayList<QueuedEvent>(batchSize);
+            try {
+                QueuedEvent queuedEvent;
+                while ((batch.size() < batchSize) && ((queuedEvent = queue.poll()) != null)) {
+                    batch.add(queuedEvent);
+                }
+                publishBatch(batch);
+            } catch (Throwable e) {
+                log.error("Could not publish event batch: [lane] " + laneId, e);
+                for (QueuedEvent queuedEvent : batch) {
+                    if (!queuedEvent.future.isDone()) {
+                        release(queuedEvent);
+                        queuedEvent.future.fail(e);
+                    }
+                }
+            } finally {
+                draining.set(false);
+                if (!queue.isEmpty()) {
+                    scheduleDrain();
+                }
+            }
+        }
+
+        /**
+         * Publish consecutive events of the same topic together using a single publisher call.
+         */
+        private void publishBatch(List<QueuedEvent> batch) throws InterruptedException {
+            int start = 0;
+            while (start < batch.size()) {
+                String topicName = batch.get(start).topicName;
+                int end = start + 1;
+                while ((end < batch.size()) && topicName.equals(batch.get(end).topicName)) {
+                    end++;
+                }
+                List<QueuedEvent> topicBatch = batch.subList(start, end);
+                List<String> messages = new ArrayList<String>(topicBatch.size());
+                for (QueuedEvent queuedEvent : topicBatch) {
+                    messages.add(queuedEvent.message);
+                }
+
+                publishMessages(topicName, messages);
+                for (QueuedEvent queuedEvent : topicBatch) {
+                    release(queuedEvent);
+                    queuedEvent.future.complete();
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Event batch published: [topic] %s [count] %d", topicName,
+                            topicBatch.size()));
+                }
+                start = end;
+            }
+        }
+
+        /**
+         * Publish the messages, retrying with an increasing interval until they have been published,
+         * so that later events of the lane are not published before them.
+         */
+        private void publishMessages(String topicName, List<String> messages) throws InterruptedException {
+            long interval = retryInterval;
+            int attempt = 1;
+            while (true) {
+                try {
+                    EventPublisherPool.getPublisher(topicName).publishMessages(messages, true);
+                    return;
+                } catch (Exception e) {
+                    log.error(String.format("Could not publish events, retrying in %d ms: [topic] %s [count] %d " +
+                            "[attempt] %d", interval, topicName, messages.size(), attempt), e);
+                }
+                Thread.sleep(interval);
+                interval = Math.min(interval * 2, MAX_RETRY_INTERVAL);
+                attempt++;
+            }
+        }
+
+        private void release(QueuedEvent queuedEvent) {
+            if (queuedEvent.permitAcquired) {
+                inFlightPermits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.broker.publish;
+
+import org.apache.stratos.messaging.event.Event;
+
+/**
+ * Callback notified once an asynchronously published event has been handed over to the
+ * message broker, or publishing it has failed.
+ */
+public interface EventPublishCallback {
+
+    /**
+     * Triggered when the event has been published to the message broker.
+     *
+     * @param event published event
+     */
+    void onSuccess(Event event);
+
+    /**
+     * Triggered when the event could not be published.
+     *
+     * @param event event that could not be published
+     * @param cause reason for the failure
+     */
+    void onFailure(Event event, Throwable cause);
+}
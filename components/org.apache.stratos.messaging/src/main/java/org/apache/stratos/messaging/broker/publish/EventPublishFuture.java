@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.broker.publish;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.event.Event;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Result of an asynchronous event publish operation. The future completes once the event
+ * has been published to the message broker or publishing has failed.
+ */
+public class EventPublishFuture implements Future<Event> {
+
+    private static final Log log = LogFactory.getLog(EventPublishFuture.class);
+
+    private final Event event;
+    private final EventPublishCallback callback;
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private volatile Throwable failure;
+
+    EventPublishFuture(Event event, EventPublishCallback callback) {
+        this.event = event;
+        this.callback = callback;
+    }
+
+    void complete() {
+        if (latch.getCount() == 0) {
+            return;
+        }
+        latch.countDown();
+        if (callback != null) {
+            try {
+                callback.onSuccess(event);
+            } catch (Exception e) {
+                log.error("Event publish callback failed: [event] " + event.getClass().getName(), e);
+            }
+        }
+    }
+
+    void fail(Throwable cause) {
+        if (latch.getCount() == 0) {
+            return;
+        }
+        failure = cause;
+        latch.countDown();
+        if (callback != null) {
+            try {
+                callback.onFailure(event, cause);
+            } catch (Exception e) {
+                log.error("Event publish callback failed: [event] " + event.getClass().getName(), e);
+            }
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        // Events are handed over to the broker in order, hence they can not be withdrawn
+        return false;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return false;
+    }
+
+    @Override
+    public boolean isDone() {
+        return latch.getCount() == 0;
+    }
+
+    @Override
+    public Event get() throws InterruptedException, ExecutionException {
+        latch.await();
+        return getResult();
+    }
+
+    @Override
+    public Event get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+            TimeoutException {
+        if (!latch.await(timeout, unit)) {
+            throw new TimeoutException("Event has not been published within the given time");
+        }
+        return getResult();
+    }
+
+    private Event getResult() throws ExecutionException {
+        if (failure != null) {
+            throw new ExecutionException(failure);
+        }
+        return event;
+    }
+}
@@ -19,24 +19,53 @@
 
 package org.apache.stratos.messaging.broker.publish;
 
-import com.google.gson.Gson;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.messaging.broker.connect.TopicPublisher;
 import org.apache.stratos.messaging.broker.connect.TopicPublisherFactory;
+import org.apache.stratos.messaging.domain.exception.MessagingException;
 import org.apache.stratos.messaging.event.Event;
+import org.apache.stratos.messaging.message.codec.MessageCodecFactory;
 import org.apache.stratos.messaging.util.MessagingUtil;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * A topic publisher for publishing messages to a message broker topic.
- * Messages will be published in JSON format.
+ * Messages will be published in JSON format, unless a different message codec
+ * has been configured, see MessageCodecFactory.
+ * <p/>
+ * By default a connection is established and closed for each message. If the system property
+ * stratos.messaging.publisher.persistentConnection is set to true the connection to the message
+ * broker is kept open across messages and re-established transparently if it fails. Publishers of
+ * different topics never block each other, messages of the same topic are published sequentially.
+ * <p/>
+ * Events can also be published asynchronously using publishAsync(), which returns once the event
+ * has been serialized and queued. Callers may opt into it by checking isAsyncPublishingEnabled(),
+ * which is controlled by the stratos.messaging.publisher.async system property.
+ * <p/>
+ * Each event published is assigned the source id of this process and the next sequence number of
+ * the process, which subscribers use for skipping events delivered more than once. A single source
+ * id is shared by the publishers of all topics, so that subscribers track one sequence number
+ * window per publishing process.
  */
 public class EventPublisher {
 
     private static final Log log = LogFactory.getLog(EventPublisher.class);
 
+    public static final String PERSISTENT_CONNECTION_PROPERTY = "stratos.messaging.publisher.persistentConnection";
+    public static final String ASYNC_PUBLISHING_PROPERTY = "stratos.messaging.publisher.async";
+
+    // Source id and sequence numbers are shared by the publishers of all topics
+    private static final String SOURCE_ID = UUID.randomUUID().toString();
+    private static final AtomicLong SEQUENCE_NUMBER = new AtomicLong();
+
     private final String topicName;
     private final TopicPublisher topicPublisher;
+    private final boolean persistentConnection;
 
     /**
      * @param topicName topic name of this publisher instance.
@@ -45,8 +74,10 @@ public class EventPublisher {
         this.topicName = topicName;
         String protocol = MessagingUtil.getMessagingProtocol();
         this.topicPublisher = TopicPublisherFactory.createTopicPublisher(protocol, topicName);
+        this.persistentConnection = Boolean.getBoolean(PERSISTENT_CONNECTION_PROPERTY);
         if (log.isDebugEnabled()) {
-            log.debug(String.format("Topic publisher created: [protocol] %s [topic] %s", protocol, topicName));
+            log.debug(String.format("Topic publisher created: [protocol] %s [topic] %s [persistent-connection] %s",
+                    protocol, topicName, persistentConnection));
         }
     }
 
@@ -60,18 +91,172 @@ public class EventPublisher {
     }
 
     /**
-     * Convert the object to its JSON representation and publish to the given topic.
+     * Publish event asynchronously.
+     *
+     * @param event event to be published
+     * @return future completed once the event has been published
+     */
+    public EventPublishFuture publishAsync(Event event) {
+        return publishAsync(event, null);
+    }
+
+    /**
+     * Encode the event on the caller's thread and queue it for
+     * publishing. The given callback is notified once the event has been published or failed.
+     *
+     * @param event    event to be published
+     * @param callback callback to be notified, may be null
+     * @return future completed once the event has been published
+     */
+    public EventPublishFuture publishAsync(Event event, EventPublishCallback callback) {
+        String message = encode(event);
+        return AsyncEventPublisher.getInstance().publish(topicName, event, message, callback);
+    }
+
+    /**
+     * Assign the source id and the next sequence number to the event and encode it. The encoded
+     * event can be published, and published again, using publishMessage() or publishMessageAsync()
+     * without being assigned another sequence number.
+     *
+     * @param event event to be encoded
+     * @return encoded event
+     */
+    public String encode(Event event) {
+        assignSequenceNumber(event);
+        return MessageCodecFactory.encode(event);
+    }
+
+    /**
+     * Publish an encoded event as it is.
+     *
+     * @param message encoded event
+     */
+    public void publishMessage(String message) {
+        publishMessages(Collections.singletonList(message), true);
+    }
+
+    /**
+     * Queue an encoded event for publishing as it is.
+     *
+     * @param message encoded event
+     * @return future completed once the event has been published
+     */
+    public EventPublishFuture publishMessageAsync(String message) {
+        return publishMessageAsync(message, null);
+    }
+
+    /**
+     * Queue an encoded event for publishing as it is. The given callback is notified with a null
+     * event once the message has been published or failed.
+     *
+     * @param message  encoded event
+     * @param callback callback to be notified, may be null
+     * @return future completed once the event has been published
+     */
+    public EventPublishFuture publishMessageAsync(String message, EventPublishCallback callback) {
+        return AsyncEventPublisher.getInstance().publish(topicName, null, message, callback);
+    }
+
+    /**
+     * Return true if asynchronous publishing has been enabled for event publishers.
+     */
+    public static boolean isAsyncPublishingEnabled() {
+        return Boolean.getBoolean(ASYNC_PUBLISHING_PROPERTY);
+    }
+
+    /**
+     * Encode the object using the configured message codec and publish to the given topic.
      */
 
     public void publish(Object messageObj, boolean retry) {
-        synchronized (EventPublisher.class) {
-            Gson gson = new Gson();
-            String message = gson.toJson(messageObj);
+        String message = (messageObj instanceof Event) ? encode((Event) messageObj) :
+                MessageCodecFactory.encode(messageObj);
+        synchronized (this) {
+            if (persistentConnection) {
+                publishOnPersistentConnection(message, retry);
+            } else {
+                topicPublisher.connect();
+                try {
+                    topicPublisher.publish(message, retry);
+                } finally {
+                    topicPublisher.disconnect();
+                }
+            }
+        }
+    }
 
+    /**
+     * Publish a batch of encoded messages to the topic in the given order, acquiring
+     * the broker connection once for the whole batch.
+     *
+     * @param messages encoded messages
+     * @param retry    retry if message broker is not available
+     */
+    void publishMessages(List<String> messages, boolean retry) {
+        synchronized (this) {
+            if (persistentConnection) {
+                for (String message : messages) {
+                    publishOnPersistentConnection(message, retry);
+                }
+            } else {
+                topicPublisher.connect();
+                try {
+                    for (String message : messages) {
+                        topicPublisher.publish(message, retry);
+                    }
+                } finally {
+                    topicPublisher.disconnect();
+                }
+            }
+        }
+    }
+
+    /**
+     * Publish the message using the connection kept open by this publisher. If the connection
+     * has been lost it will be re-established and the message will be published once more.
+     */
+    private void publishOnPersistentConnection(String message, boolean retry) {
+        if (!topicPublisher.isConnected()) {
             topicPublisher.connect();
+        }
+        try {
             topicPublisher.publish(message, retry);
+        } catch (MessagingException e) {
+            if (log.isWarnEnabled()) {
+                log.warn(String.format("Could not publish message, reconnecting to message broker: [topic] %s",
+                        topicName), e);
+            }
             topicPublisher.disconnect();
+            topicPublisher.connect();
+            topicPublisher.publish(message, retry);
+        }
+    }
+
+    private void assignSequenceNumber(Event event) {
+        event.setSourceId(SOURCE_ID);
+        event.setSequenceNumber(SEQUENCE_NUMBER.incrementAndGet());
+    }
 
+    /**
+     * Close the connection to the message broker if it has been kept open.
+     */
+    public void close() {
+        synchronized (this) {
+            if (topicPublisher.isConnected()) {
+                topicPublisher.disconnect();
+            }
         }
     }
+
+    public String getTopicName() {
+        return topicName;
+    }
+
+    public boolean isConnected() {
+        return topicPublisher.isConnected();
+    }
+
+    public boolean isPersistentConnection() {
+        return persistentConnection;
+    }
 }
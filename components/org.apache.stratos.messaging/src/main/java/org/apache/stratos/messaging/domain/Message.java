@@ -28,6 +28,8 @@ public class Message {
     private final String topicName;
     private final String text;
     private final String eventClassName;
+    // Event decoded ahead of processing the message, if any
+    private volatile Object decodedObject;
 
     public Message(String topicName, String text) {
         this.topicName = topicName;
@@ -46,4 +48,18 @@ public class Message {
     public String getEventClassName() {
         return eventClassName;
     }
+
+    /**
+     * Return the event decoded from the message text ahead of processing it, for an example by the
+     * event message queue while the message was queued.
+     *
+     * @return decoded event or null if the message has not been decoded
+     */
+    public Object getDecodedObject() {
+        return decodedObject;
+    }
+
+    public void setDecodedObject(Object decodedObject) {
+        this.decodedObject = decodedObject;
+    }
 }
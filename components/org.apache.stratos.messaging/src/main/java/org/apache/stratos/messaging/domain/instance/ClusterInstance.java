@@ -33,6 +33,20 @@ public class ClusterInstance extends Instance<ClusterStatus> implements LifeCycl
                 clusterId + "_" + instanceId);
     }
 
+    /**
+     * Create a copy of the given cluster instance, having its own properties and state history.
+     *
+     * @param clusterInstance cluster instance to copy
+     */
+    public ClusterInstance(ClusterInstance clusterInstance) {
+        super(clusterInstance.getAlias(), clusterInstance.getInstanceId());
+        this.instanceProperties.putAll(clusterInstance.instanceProperties);
+        this.lifeCycleStateManager = new LifeCycleStateManager<ClusterStatus>(clusterInstance.lifeCycleStateManager);
+        this.partitionId = clusterInstance.getPartitionId();
+        setParentId(clusterInstance.getParentId());
+        setNetworkPartitionId(clusterInstance.getNetworkPartitionId());
+    }
+
     @Override
     public boolean isStateTransitionValid(ClusterStatus newState) {
         return lifeCycleStateManager.isStateTransitionValid(newState);
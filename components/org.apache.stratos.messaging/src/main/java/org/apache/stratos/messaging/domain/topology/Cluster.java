@@ -26,6 +26,7 @@ import org.apache.stratos.messaging.util.MessagingUtil;
 
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -46,6 +47,8 @@ public class Cluster implements Serializable {
 
     private List<String> hostNames;
     private String tenantRange;
+    // Parsed once from tenantRange on first use
+    private transient volatile TenantRange parsedTenantRange;
     private boolean isLbCluster;
     private boolean isKubernetesCluster;
     // Key: Member.memberId
@@ -66,10 +69,10 @@ public class Cluster implements Serializable {
     private List<String> loadBalancerIps;
 
     public Cluster(Cluster cluster) {
-        this.serviceName = cluster.getServiceName();
-        this.clusterId = cluster.getClusterId();
-        this.deploymentPolicyName = cluster.getDeploymentPolicyName();
-        this.autoscalePolicyName = cluster.getAutoscalePolicyName();
+        this.serviceName = CompactStorage.intern(cluster.getServiceName());
+        this.clusterId = CompactStorage.intern(cluster.getClusterId());
+        this.deploymentPolicyName = CompactStorage.intern(cluster.getDeploymentPolicyName());
+        this.autoscalePolicyName = CompactStorage.intern(cluster.getAutoscalePolicyName());
         this.appId = cluster.getAppId();
         this.setHostNames(cluster.getHostNames());
         this.memberMap = cluster.getMemberMap();
@@ -87,13 +90,13 @@ public class Cluster implements Serializable {
 
     public Cluster(String serviceName, String clusterId, String deploymentPolicyName,
                    String autoscalePolicyName, String appId) {
-        this.serviceName = serviceName;
-        this.clusterId = clusterId;
-        this.deploymentPolicyName = deploymentPolicyName;
-        this.autoscalePolicyName = autoscalePolicyName;
+        this.serviceName = CompactStorage.intern(serviceName);
+        this.clusterId = CompactStorage.intern(clusterId);
+        this.deploymentPolicyName = CompactStorage.intern(deploymentPolicyName);
+        this.autoscalePolicyName = CompactStorage.intern(autoscalePolicyName);
         this.setHostNames(new ArrayList<String>());
         this.memberMap = new ConcurrentHashMap<String, Member>();
-        this.appId = appId;
+        this.appId = CompactStorage.intern(appId);
         this.setInstanceIdToInstanceContextMap(new ConcurrentHashMap<String, ClusterInstance>());
         this.accessUrls = new HashMap<>();
         this.kubernetesServices = new ArrayList<KubernetesService>();
@@ -123,6 +126,21 @@ public class Cluster implements Serializable {
     public void setTenantRange(String tenantRange) {
         MessagingUtil.validateTenantRange(tenantRange);
         this.tenantRange = tenantRange;
+        this.parsedTenantRange = null;
+    }
+
+    /**
+     * Return the parsed tenant range of the cluster.
+     *
+     * @return tenant range, null if no tenant range has been defined
+     */
+    public TenantRange getParsedTenantRange() {
+        TenantRange range = parsedTenantRange;
+        if ((range == null) && StringUtils.isNotEmpty(tenantRange)) {
+            range = TenantRange.parse(tenantRange);
+            parsedTenantRange = range;
+        }
+        return range;
     }
 
     public Collection<Member> getMembers() {
@@ -171,7 +189,7 @@ public class Cluster implements Serializable {
     }
 
     public void setLoadBalanceAlgorithmName(String loadBalanceAlgorithmName) {
-        this.loadBalanceAlgorithmName = loadBalanceAlgorithmName;
+        this.loadBalanceAlgorithmName = CompactStorage.intern(loadBalanceAlgorithmName);
     }
 
     public boolean isLbCluster() {
@@ -197,28 +215,8 @@ public class Cluster implements Serializable {
      * @return
      */
     public boolean tenantIdInRange(int tenantId) {
-        if (StringUtils.isEmpty(getTenantRange())) {
-            return false;
-        }
-
-        if ("*".equals(getTenantRange())) {
-            return true;
-        } else {
-            String[] array = getTenantRange().split("-");
-            int tenantStart = Integer.parseInt(array[0]);
-            if (tenantStart <= tenantId) {
-                String tenantEndStr = array[1];
-                if ("*".equals(tenantEndStr)) {
-                    return true;
-                } else {
-                    int tenantEnd = Integer.parseInt(tenantEndStr);
-                    if (tenantId <= tenantEnd) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        TenantRange range = getParsedTenantRange();
+        return (range != null) && range.contains(tenantId);
     }
 
     /**
@@ -322,7 +320,7 @@ public class Cluster implements Serializable {
     }
 
     public void setParentId(String parentId) {
-        this.parentId = parentId;
+        this.parentId = CompactStorage.intern(parentId);
     }
 
     public Map<String, ClusterInstance> getInstanceIdToInstanceContextMap() {
@@ -376,6 +374,31 @@ public class Cluster implements Serializable {
         this.loadBalancerIps = loadBalancerIps;
     }
 
+    /**
+     * Return a compact copy of a cluster created by a deserializer, with shared identifiers. The
+     * member map is rebuilt as a concurrent map keyed by the member ids held by the members,
+     * instead of separate key copies.
+     */
+    Cluster compact() {
+        Cluster cluster = new Cluster(this);
+        cluster.appId = CompactStorage.intern(appId);
+        cluster.parentId = CompactStorage.intern(parentId);
+        cluster.loadBalanceAlgorithmName = CompactStorage.intern(loadBalanceAlgorithmName);
+        cluster.properties = CompactStorage.copyProperties(properties);
+        if ((memberMap != null) && !(memberMap instanceof ConcurrentHashMap)) {
+            Map<String, Member> members = new ConcurrentHashMap<String, Member>(memberMap.size());
+            for (Member member : memberMap.values()) {
+                members.put(member.getMemberId(), member);
+            }
+            cluster.memberMap = members;
+        }
+        return cluster;
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+        return compact();
+    }
+
     @Override
     public String toString() {
         return String.format("[serviceName=%s, clusterId=%s, autoscalePolicyName=%s, deploymentPolicyName=%s, " +
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.domain.topology;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+/**
+ * Helpers for reducing the heap footprint of the topology.
+ * <p/>
+ * Identifiers shared by many topology objects, such as service names and cluster ids, are interned
+ * so that a single copy is kept regardless of how many events or members carry them. Identifiers
+ * are interned in a weak map of bounded size rather than the JVM string pool, so that identifiers
+ * of topology objects no longer referenced are released, and property values are not interned. Port maps are
+ * stored as an empty or singleton map if they hold no more than one port, which is the common case,
+ * and as a tree map otherwise, avoiding the hash table of a hash map.
+ */
+final class CompactStorage {
+
+    // Identifiers are no longer interned once this number of identifiers is held
+    private static final int MAX_IDENTIFIERS = 100000;
+
+    private static final Map<String, WeakReference<String>> identifiers =
+            new WeakHashMap<String, WeakReference<String>>();
+
+    private CompactStorage() {
+    }
+
+    /**
+     * Return the shared instance of the given identifier.
+     *
+     * @return shared identifier, or the given identifier if it is not shared
+     */
+    static String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        synchronized (identifiers) {
+            WeakReference<String> reference = identifiers.get(value);
+            String identifier = (reference != null) ? reference.get() : null;
+            if (identifier != null) {
+                return identifier;
+            }
+            if (identifiers.size() < MAX_IDENTIFIERS) {
+                identifiers.put(value, new WeakReference<String>(value));
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Add a port to a compact port map.
+     *
+     * @return port map including the port, which may be a different instance
+     */
+    static Map<Integer, Port> putPort(Map<Integer, Port> portMap, Port port) {
+        port.setProtocol(intern(port.getProtocol()));
+        if ((portMap == null) || portMap.isEmpty() ||
+                ((portMap.size() == 1) && portMap.containsKey(port.getProxy()))) {
+            return Collections.singletonMap(port.getProxy(), port);
+        }
+        if (!(portMap instanceof TreeMap)) {
+            portMap = new TreeMap<Integer, Port>(portMap);
+        }
+        portMap.put(port.getProxy(), port);
+        return portMap;
+    }
+
+    /**
+     * Remove a port from a compact port map.
+     *
+     * @return port map excluding the port, which may be a different instance
+     */
+    static Map<Integer, Port> removePort(Map<Integer, Port> portMap, int proxy) {
+        if ((portMap == null) || !portMap.containsKey(proxy)) {
+            return portMap;
+        }
+        if (portMap.size() == 1) {
+            return Collections.emptyMap();
+        }
+        if (!(portMap instanceof TreeMap)) {
+            portMap = new TreeMap<Integer, Port>(portMap);
+        }
+        portMap.remove(proxy);
+        return portMap;
+    }
+
+    /**
+     * Convert a port map created by a deserializer to a compact port map.
+     */
+    static Map<Integer, Port> compactPortMap(Map<Integer, Port> portMap) {
+        Map<Integer, Port> compactPortMap = Collections.emptyMap();
+        if (portMap != null) {
+            for (Port port : portMap.values()) {
+                compactPortMap = putPort(compactPortMap, port);
+            }
+        }
+        return compactPortMap;
+    }
+
+    /**
+     * Copy the given properties, sharing the string keys with other properties.
+     *
+     * @return copy of the properties, null if no properties are given
+     */
+    static Properties copyProperties(Properties properties) {
+        if (properties == null) {
+            return null;
+        }
+        Properties copy = new Properties();
+        for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+            Object key = entry.getKey();
+            copy.put((key instanceof String) ? intern((String) key) : key, entry.getValue());
+        }
+        return copy;
+    }
+
+    /**
+     * Release the unused capacity of a list created by a deserializer.
+     */
+    static List<String> trimList(List<String> list) {
+        if (list instanceof ArrayList) {
+            ((ArrayList<String>) list).trimToSize();
+        }
+        return list;
+    }
+}
@@ -26,12 +26,17 @@ import org.apache.stratos.messaging.domain.topology.lifecycle.LifeCycleStateTran
 
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.*;
 
 /**
  * Defines a member node in a cluster.
  * Key: serviceName, clusterId, memberId
+ * <p/>
+ * Identifiers shared with other members are interned and ports are kept in a compact map, since
+ * members dominate the size of the topology. Members created by deserializers are replaced by
+ * compact copies by {@link TopologyTypeAdapterFactory} and readResolve().
  */
 @XmlRootElement
 public class Member implements Serializable, LifeCycleStateTransitionBehavior<MemberStatus> {
@@ -50,7 +55,7 @@ public class Member implements Serializable, LifeCycleStateTransitionBehavior<Me
     private final long initTime;
     // Key: Port.proxy
     @XmlJavaTypeAdapter(MapAdapter.class)
-    private final Map<Integer, Port> portMap;
+    private Map<Integer, Port> portMap;
     private List<String> memberPublicIPs;
     private String defaultPublicIP;
     //private MemberStatus status;
@@ -66,16 +71,57 @@ public class Member implements Serializable, LifeCycleStateTransitionBehavior<Me
     public Member(String serviceName, String clusterId, String memberId, String clusterInstanceId,
                   String networkPartitionId, String partitionId, LoadBalancingIPType loadBalancingIPType,
                   long initTime) {
-        this.serviceName = serviceName;
-        this.clusterId = clusterId;
-        this.clusterInstanceId = clusterInstanceId;
-        this.networkPartitionId = networkPartitionId;
-        this.partitionId = partitionId;
+        this(serviceName, clusterId, memberId, clusterInstanceId, networkPartitionId, partitionId,
+                loadBalancingIPType, initTime, new LifeCycleStateManager<MemberStatus>(MemberStatus.Created, memberId));
+    }
+
+    private Member(String serviceName, String clusterId, String memberId, String clusterInstanceId,
+                   String networkPartitionId, String partitionId, LoadBalancingIPType loadBalancingIPType,
+                   long initTime, LifeCycleStateManager<MemberStatus> memberStateManager) {
+        this.serviceName = CompactStorage.intern(serviceName);
+        this.clusterId = CompactStorage.intern(clusterId);
+        this.clusterInstanceId = CompactStorage.intern(clusterInstanceId);
+        this.networkPartitionId = CompactStorage.intern(networkPartitionId);
+        this.partitionId = CompactStorage.intern(partitionId);
         this.memberId = memberId;
-        this.portMap = new HashMap<Integer, Port>();
+        this.portMap = Collections.emptyMap();
         this.loadBalancingIPType = loadBalancingIPType;
         this.initTime = initTime;
-        this.memberStateManager = new LifeCycleStateManager<MemberStatus>(MemberStatus.Created, memberId);
+        this.memberStateManager = memberStateManager;
+    }
+
+    /**
+     * Create a copy of the given member, which does not share any mutable state with it.
+     *
+     * @param member member to copy
+     */
+    public Member(Member member) {
+        this.serviceName = member.serviceName;
+        this.clusterId = member.clusterId;
+        this.memberId = member.memberId;
+        this.clusterInstanceId = member.clusterInstanceId;
+        this.networkPartitionId = member.networkPartitionId;
+        this.partitionId = member.partitionId;
+        this.instanceId = member.instanceId;
+        this.initTime = member.initTime;
+        this.portMap = Collections.emptyMap();
+        for (Port port : member.portMap.values()) {
+            this.portMap = CompactStorage.putPort(portMap, new Port(port.getProtocol(), port.getValue(),
+                    port.getProxy()));
+        }
+        this.memberPublicIPs = (member.memberPublicIPs == null) ? null :
+                new ArrayList<String>(member.memberPublicIPs);
+        this.defaultPublicIP = member.defaultPublicIP;
+        this.memberPrivateIPs = (member.memberPrivateIPs == null) ? null :
+                new ArrayList<String>(member.memberPrivateIPs);
+        this.defaultPrivateIP = member.defaultPrivateIP;
+        if (member.properties != null) {
+            this.properties = new Properties();
+            this.properties.putAll(member.properties);
+        }
+        this.lbClusterId = member.lbClusterId;
+        this.memberStateManager = new LifeCycleStateManager<MemberStatus>(member.memberStateManager);
+        this.loadBalancingIPType = member.loadBalancingIPType;
     }
 
     public String getServiceName() {
@@ -130,7 +176,7 @@ public class Member implements Serializable, LifeCycleStateTransitionBehavior<Me
     }
 
     public void addPort(Port port) {
-        this.portMap.put(port.getProxy(), port);
+        this.portMap = CompactStorage.putPort(portMap, port);
     }
 
     public void addPorts(Collection<Port> ports) {
@@ -140,7 +186,7 @@ public class Member implements Serializable, LifeCycleStateTransitionBehavior<Me
     }
 
     public void removePort(Port port) {
-        this.portMap.remove(port.getProxy());
+        this.portMap = CompactStorage.removePort(portMap, port.getProxy());
     }
 
     public boolean portExists(Port port) {
@@ -152,7 +198,7 @@ public class Member implements Serializable, LifeCycleStateTransitionBehavior<Me
     }
 
     public void setProperties(Properties properties) {
-        this.properties = properties;
+        this.properties = CompactStorage.copyProperties(properties);
     }
 
     public String getDefaultPrivateIP() {
@@ -168,7 +214,7 @@ public class Member implements Serializable, LifeCycleStateTransitionBehavior<Me
     }
 
     public void setMemberPrivateIPs(List<String> memberPrivateIPs) {
-        this.memberPrivateIPs = memberPrivateIPs;
+        this.memberPrivateIPs = CompactStorage.trimList(memberPrivateIPs);
     }
 
     public String getPartitionId() {
@@ -180,7 +226,7 @@ public class Member implements Serializable, LifeCycleStateTransitionBehavior<Me
     }
 
     public void setLbClusterId(String lbClusterId) {
-        this.lbClusterId = lbClusterId;
+        this.lbClusterId = CompactStorage.intern(lbClusterId);
     }
 
     public String getNetworkPartitionId() {
@@ -200,7 +246,7 @@ public class Member implements Serializable, LifeCycleStateTransitionBehavior<Me
     }
 
     public void setMemberPublicIPs(List<String> memberPublicIPs) {
-        this.memberPublicIPs = memberPublicIPs;
+        this.memberPublicIPs = CompactStorage.trimList(memberPublicIPs);
     }
 
     public String getClusterInstanceId() {
@@ -219,6 +265,28 @@ public class Member implements Serializable, LifeCycleStateTransitionBehavior<Me
         this.instanceId = instanceId;
     }
 
+    /**
+     * Return a compact member taking over the state of a member created by a deserializer, with
+     * shared identifiers and compact ports, properties and IP lists.
+     */
+    Member compact() {
+        Member member = new Member(serviceName, clusterId, memberId, clusterInstanceId, networkPartitionId,
+                partitionId, loadBalancingIPType, initTime, memberStateManager);
+        member.instanceId = instanceId;
+        member.portMap = CompactStorage.compactPortMap(portMap);
+        member.memberPublicIPs = CompactStorage.trimList(memberPublicIPs);
+        member.defaultPublicIP = defaultPublicIP;
+        member.memberPrivateIPs = CompactStorage.trimList(memberPrivateIPs);
+        member.defaultPrivateIP = defaultPrivateIP;
+        member.properties = CompactStorage.copyProperties(properties);
+        member.lbClusterId = CompactStorage.intern(lbClusterId);
+        return member;
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+        return compact();
+    }
+
     @Override
     public String toString() {
         return "Member [serviceName=" + getServiceName()
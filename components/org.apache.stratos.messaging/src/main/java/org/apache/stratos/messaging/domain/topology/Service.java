@@ -21,6 +21,7 @@ package org.apache.stratos.messaging.domain.topology;
 
 import org.apache.stratos.messaging.domain.topology.locking.TopologyLockHierarchy;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.*;
 
@@ -41,7 +42,7 @@ public class Service implements Serializable {
     private Properties properties;
 
     public Service(String serviceName, ServiceType serviceType) {
-        this.serviceName = serviceName;
+        this.serviceName = CompactStorage.intern(serviceName);
         this.serviceType = serviceType;
         this.clusterIdClusterMap = new HashMap<String, Cluster>();
         this.portMap = new HashMap<Integer, Port>();
@@ -119,6 +120,28 @@ public class Service implements Serializable {
         this.properties = properties;
     }
 
+    /**
+     * Return a compact copy of a service created by a deserializer, with a shared service name and
+     * the clusters keyed by the cluster ids held by the clusters.
+     */
+    Service compact() {
+        Service service = new Service(serviceName, serviceType);
+        service.portMap = portMap;
+        service.properties = CompactStorage.copyProperties(properties);
+        if (clusterIdClusterMap instanceof HashMap) {
+            service.clusterIdClusterMap = clusterIdClusterMap;
+        } else if (clusterIdClusterMap != null) {
+            for (Cluster cluster : clusterIdClusterMap.values()) {
+                service.clusterIdClusterMap.put(cluster.getClusterId(), cluster);
+            }
+        }
+        return service;
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+        return compact();
+    }
+
     @Override
     public String toString() {
         return "Service [serviceName=" + serviceName + ", serviceType=" + serviceType +
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.domain.topology;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Parsed tenant range of a cluster, an inclusive interval of tenant ids.
+ * <p/>
+ * Tenant ranges are defined as "*" for all tenants, "start-end" or "start-*" for all tenants
+ * starting from the given tenant id.
+ */
+public class TenantRange {
+
+    private static final String ALL_TENANTS = "*";
+    private static final String TENANT_RANGE_DELIMITER = "-";
+
+    private final int start;
+    private final int end;
+
+    public TenantRange(int start, int end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Parse a tenant range definition.
+     *
+     * @param tenantRange tenant range definition
+     * @return tenant range, null if the tenant range is empty
+     */
+    public static TenantRange parse(String tenantRange) {
+        if (StringUtils.isEmpty(tenantRange)) {
+            return null;
+        }
+        if (ALL_TENANTS.equals(tenantRange)) {
+            return new TenantRange(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+        String[] array = tenantRange.split(TENANT_RANGE_DELIMITER);
+        int start = Integer.parseInt(array[0]);
+        int end = ALL_TENANTS.equals(array[1]) ? Integer.MAX_VALUE : Integer.parseInt(array[1]);
+        return new TenantRange(start, end);
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    public boolean contains(int tenantId) {
+        return (start <= tenantId) && (tenantId <= end);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[start=%d, end=%d]", start, end);
+    }
+}
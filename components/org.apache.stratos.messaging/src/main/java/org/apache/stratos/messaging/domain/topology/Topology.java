@@ -40,6 +40,16 @@ public class Topology implements Serializable {
         this.clusterMap = new HashMap<>();
     }
 
+    /**
+     * Create a topology sharing the services and clusters of the given topology.
+     *
+     * @param topology topology to copy
+     */
+    public Topology(Topology topology) {
+        this.serviceMap = new HashMap<>(topology.serviceMap);
+        this.clusterMap = new HashMap<>(topology.clusterMap);
+    }
+
     public Collection<Service> getServices() {
         return serviceMap.values();
     }
@@ -22,15 +22,35 @@ package org.apache.stratos.messaging.domain.topology.lifecycle;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.messaging.event.topology.TopologyEvent;
+import org.apache.stratos.messaging.util.MessagingUtil;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Stack;
 
+/**
+ * Tracks the lifecycle state of a topology element and the states it has recently gone through.
+ * <p/>
+ * Only the most recent states are kept, up to the depth given by the
+ * stratos.messaging.lifecycle.history.depth system property, so that elements changing state
+ * repeatedly do not accumulate an unbounded history in memory and in serialized topologies.
+ * The current state is always the top of the state stack.
+ */
 public class LifeCycleStateManager<T extends LifeCycleState> implements Serializable {
 
+    private static final long serialVersionUID = 1524115341757881199L;
+
     private static Log log = LogFactory.getLog(LifeCycleStateManager.class);
 
+    public static final String HISTORY_DEPTH_PROPERTY = "stratos.messaging.lifecycle.history.depth";
+    // At least the current and the previous state are kept
+    private static final int HISTORY_DEPTH = Math.max(2,
+            MessagingUtil.getNumericSystemProperty(10, HISTORY_DEPTH_PROPERTY));
+
     private Stack<T> stateStack;
+    // Top of the state stack, restored lazily if the manager has been deserialized
+    private transient volatile T currentState;
 
     // a unique id which points to the relevant topology member
     // ex.: member id in a Member
@@ -41,6 +61,7 @@ public class LifeCycleStateManager<T extends LifeCycleState> implements Serializ
         this.identifier = identifier;
         stateStack = new Stack<T>();
         stateStack.push(initialState);
+        currentState = initialState;
 
         if (log.isDebugEnabled()) {
             log.debug(String.format("Lifecycle state manager initialized: [identifier] %s [state] %s",
@@ -48,6 +69,20 @@ public class LifeCycleStateManager<T extends LifeCycleState> implements Serializ
         }
     }
 
+    /**
+     * Create a copy of the given state manager, having its own state history.
+     *
+     * @param stateManager state manager to copy
+     */
+    public LifeCycleStateManager(LifeCycleStateManager<T> stateManager) {
+        synchronized (stateManager) {
+            this.identifier = stateManager.identifier;
+            this.stateStack = new Stack<T>();
+            this.stateStack.addAll(stateManager.stateStack);
+            this.currentState = stateManager.getCurrentState();
+        }
+    }
+
     /**
      * checks if any conditions that should be met for the state transfer is valid
      *
@@ -69,7 +104,7 @@ public class LifeCycleStateManager<T extends LifeCycleState> implements Serializ
      */
     public boolean isStateTransitionValid(T nextState) {
 
-        return stateStack.peek().getNextStates().contains(nextState);
+        return getCurrentState().getNextStates().contains(nextState);
     }
 
     /**
@@ -85,6 +120,8 @@ public class LifeCycleStateManager<T extends LifeCycleState> implements Serializ
 
         if (getCurrentState() != nextState) {
             stateStack.push(nextState);
+            currentState = nextState;
+            trimHistory();
             stateChanged = true;
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Lifecycle state changed: [identifier] %s [prev-state] %s [current-state] %s ",
@@ -104,7 +141,7 @@ public class LifeCycleStateManager<T extends LifeCycleState> implements Serializ
     }
 
     /**
-     * Get all the states this element has gone through
+     * Get the states this element has recently gone through, the current state being the top
      *
      * @return Stack of states
      */
@@ -118,20 +155,39 @@ public class LifeCycleStateManager<T extends LifeCycleState> implements Serializ
      * @return the current state
      */
     public T getCurrentState() {
-        return stateStack.peek();
+        T state = currentState;
+        if (state == null) {
+            state = stateStack.peek();
+            currentState = state;
+        }
+        return state;
     }
 
     /**
-     * Retrieves the previous state
+     * Retrieves the previous state. Synchronized with changeState(), which trims the history
+     * between reading the stack size and the state.
      *
      * @return previous state
      */
-    public T getPreviousState() {
+    public synchronized T getPreviousState() {
         int index = stateStack.size() - 2;
-        if ((index >= 0) && (index < stateStack.size())) {
-            return stateStack.get(index);
+        return (index >= 0) ? stateStack.get(index) : null;
+    }
+
+    /**
+     * Drop the oldest states exceeding the history depth.
+     */
+    private void trimHistory() {
+        int excess = stateStack.size() - HISTORY_DEPTH;
+        if (excess > 0) {
+            stateStack.subList(0, excess).clear();
         }
-        return null;
+    }
+
+    private void readObject(ObjectInputStream inputStream) throws IOException, ClassNotFoundException {
+        inputStream.defaultReadObject();
+        // Histories persisted before the depth was bounded may be longer
+        trimHistory();
     }
 
     /**
@@ -23,6 +23,38 @@ import java.io.Serializable;
 
 /**
  * Represents all distributed events in Stratos.
+ * <p/>
+ * Events published through an event publisher carry the id of the publisher and a sequence
+ * number increasing with each event published, so that subscribers can detect events which
+ * have been delivered more than once.
  */
 public abstract class Event implements Serializable {
+
+    private static final long serialVersionUID = 8186572966675587402L;
+
+    /**
+     * Id of the event publisher, null if the event has not been published by an event publisher.
+     */
+    private String sourceId;
+
+    /**
+     * Sequence number of the event assigned by the event publisher, zero if not assigned.
+     */
+    private long sequenceNumber;
+
+    public String getSourceId() {
+        return sourceId;
+    }
+
+    public void setSourceId(String sourceId) {
+        this.sourceId = sourceId;
+    }
+
+    public long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public void setSequenceNumber(long sequenceNumber) {
+        this.sequenceNumber = sequenceNumber;
+    }
 }
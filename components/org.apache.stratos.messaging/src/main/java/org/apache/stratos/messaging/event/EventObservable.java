@@ -22,32 +22,56 @@ package org.apache.stratos.messaging.event;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.messaging.listener.EventListener;
+import org.apache.stratos.messaging.listener.EventListenerRegistry;
 
+import java.util.List;
 import java.util.Observable;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * Event observable definition.
+ * Event observable definition. Event listeners are notified without relying on the
+ * changed flag of {@link Observable}, so that events may be notified concurrently
+ * by multiple threads without losing notifications. Listeners registered by key in the
+ * {@link EventListenerRegistry} of the observable are notified after the other listeners.
  */
 public abstract class EventObservable extends Observable {
 
     private static final Log log = LogFactory.getLog(EventObservable.class);
 
-    public void addEventListener(EventListener eventListener) {
-        addObserver(eventListener);
+    private final List<EventListener> eventListeners = new CopyOnWriteArrayList<EventListener>();
+    private volatile EventListenerRegistry eventListenerRegistry;
+
+    public synchronized void addEventListener(EventListener eventListener) {
+        if (eventListener == null) {
+            throw new NullPointerException("Event listener is null");
+        }
+        if (!eventListeners.contains(eventListener)) {
+            // Latest listener is notified first, as done by Observable
+            eventListeners.add(0, eventListener);
+        }
     }
 
     public void removeEventListener(EventListener eventListener) {
         if (log.isDebugEnabled()) {
             log.debug(String.format("Removing event listeners: [event-listener] %s", eventListener.getClass().getName()));
         }
-        deleteObserver(eventListener);
+        eventListeners.remove(eventListener);
     }
 
     public void notifyEventListeners(Event event) {
         if (log.isDebugEnabled()) {
             log.debug(String.format("Notifying event listeners: [event] %s", event.getClass().getName()));
         }
-        setChanged();
-        notifyObservers(event);
+        for (EventListener eventListener : eventListeners) {
+            eventListener.update(this, event);
+        }
+        EventListenerRegistry registry = eventListenerRegistry;
+        if (registry != null) {
+            registry.notifyEventListeners(this, event);
+        }
+    }
+
+    public void setEventListenerRegistry(EventListenerRegistry eventListenerRegistry) {
+        this.eventListenerRegistry = eventListenerRegistry;
     }
 }
@@ -20,8 +20,28 @@ package org.apache.stratos.messaging.event.initializer;
 
 import java.io.Serializable;
 
+/**
+ * Requests the complete topology, or the topology events published after a given
+ * topology version if the requester already has that version of the topology.
+ */
 public class CompleteTopologyRequestEvent extends InitializerEvent implements Serializable {
+
+    private long topologyVersion;
+
     public CompleteTopologyRequestEvent() {
 
     }
+
+    public CompleteTopologyRequestEvent(long topologyVersion) {
+        this.topologyVersion = topologyVersion;
+    }
+
+    /**
+     * Return the topology version of the requester.
+     *
+     * @return topology version, zero if the requester does not have a topology
+     */
+    public long getTopologyVersion() {
+        return topologyVersion;
+    }
 }
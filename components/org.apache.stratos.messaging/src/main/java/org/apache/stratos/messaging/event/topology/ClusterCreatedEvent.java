@@ -44,4 +44,14 @@ public class ClusterCreatedEvent extends TopologyEvent implements Serializable {
     public Cluster getCluster() {
         return cluster;
     }
+
+    @Override
+    public String getServiceName() {
+        return cluster.getServiceName();
+    }
+
+    @Override
+    public String getClusterId() {
+        return cluster.getClusterId();
+    }
 }
@@ -19,7 +19,6 @@
 package org.apache.stratos.messaging.event.topology;
 
 import org.apache.stratos.messaging.domain.topology.KubernetesService;
-import org.apache.stratos.messaging.event.Event;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -27,7 +26,7 @@ import java.util.List;
 /**
  * Cluster activated event will be sent by Autoscaler
  */
-public class ClusterInstanceActivatedEvent extends Event {
+public class ClusterInstanceActivatedEvent extends TopologyEvent {
 
     private final String serviceName;
     private final String clusterId;
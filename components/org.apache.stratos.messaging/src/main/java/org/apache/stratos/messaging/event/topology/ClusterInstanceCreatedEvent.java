@@ -19,12 +19,11 @@
 package org.apache.stratos.messaging.event.topology;
 
 import org.apache.stratos.messaging.domain.instance.ClusterInstance;
-import org.apache.stratos.messaging.event.Event;
 
 /**
  * Cluster activated event will be sent by Autoscaler
  */
-public class ClusterInstanceCreatedEvent extends Event {
+public class ClusterInstanceCreatedEvent extends TopologyEvent {
 
     private final String serviceName;
     private final String clusterId;
@@ -18,12 +18,10 @@
  */
 package org.apache.stratos.messaging.event.topology;
 
-import org.apache.stratos.messaging.event.Event;
-
 /**
  * Cluster activated event will be sent by Autoscaler
  */
-public class ClusterInstanceInactivateEvent extends Event {
+public class ClusterInstanceInactivateEvent extends TopologyEvent {
 
     private final String serviceName;
     private final String clusterId;
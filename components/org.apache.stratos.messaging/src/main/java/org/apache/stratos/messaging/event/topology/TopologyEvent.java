@@ -28,4 +28,36 @@ import java.io.Serializable;
  */
 public abstract class TopologyEvent extends Event implements Serializable {
     private static final long serialVersionUID = -3279032168352271675L;
+
+    /**
+     * Version of the topology once this event is applied, assigned by the publisher.
+     * Versions are consecutive, a version of zero denotes an event without a version.
+     */
+    private long topologyVersion;
+
+    public long getTopologyVersion() {
+        return topologyVersion;
+    }
+
+    public void setTopologyVersion(long topologyVersion) {
+        this.topologyVersion = topologyVersion;
+    }
+
+    /**
+     * Service name used for publishing the event to a service specific topic.
+     *
+     * @return service name, null if the event is not specific to a service
+     */
+    public String getServiceName() {
+        return null;
+    }
+
+    /**
+     * Cluster id used for publishing the event to a cluster specific topic.
+     *
+     * @return cluster id, null if the event is not specific to a cluster
+     */
+    public String getClusterId() {
+        return null;
+    }
 }
@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.listener;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.event.Event;
+
+import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Observable;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Event listener registry which indexes event listeners by event type and key.
+ * <p/>
+ * A listener registered for a member id, cluster id or application id is only notified
+ * of events of the given type carrying that key, therefore notifying an event costs
+ * O(matching listeners) instead of O(registered listeners). All listeners registered
+ * for a key are removed at once, independently of the number of other keys.
+ */
+public class EventListenerRegistry {
+
+    private static final Log log = LogFactory.getLog(EventListenerRegistry.class);
+
+    /**
+     * Event properties which event listeners can be registered for.
+     */
+    public enum KeyType {
+        MemberId("getMemberId"),
+        ClusterId("getClusterId"),
+        ApplicationId("getApplicationId");
+
+        private final String getterName;
+
+        KeyType(String getterName) {
+            this.getterName = getterName;
+        }
+    }
+
+    private static final char SEPARATOR = '|';
+    // Key getters of each event type, resolved once per event type
+    private static final Map<Class<?>, Map<KeyType, Method>> keyGettersMap =
+            new ConcurrentHashMap<Class<?>, Map<KeyType, Method>>();
+
+    // Event listeners of each event type and key
+    private final Map<String, List<EventListener>> eventListenersMap =
+            new ConcurrentHashMap<String, List<EventListener>>();
+    // Key types registered for each event type
+    private final Map<String, Set<KeyType>> keyTypesMap = new ConcurrentHashMap<String, Set<KeyType>>();
+    // Event types registered for each key, guarded by this
+    private final Map<String, Set<String>> eventTypesMap = new HashMap<String, Set<String>>();
+
+    /**
+     * Register an event listener for events of the given type carrying the given key.
+     *
+     * @param eventClass    event type
+     * @param keyType       event property compared to the key
+     * @param key           member id, cluster id or application id
+     * @param eventListener event listener
+     */
+    public synchronized void addEventListener(Class<? extends Event> eventClass, KeyType keyType, String key,
+                                              EventListener eventListener) {
+        if (eventListener == null) {
+            throw new NullPointerException("Event listener is null");
+        }
+        if (key == null) {
+            throw new NullPointerException("Event listener key is null");
+        }
+        if (!getKeyGetters(eventClass).containsKey(keyType)) {
+            throw new IllegalArgumentException(String.format("Event does not define the key: [event] %s " +
+                    "[key-type] %s", eventClass.getName(), keyType));
+        }
+
+        String eventType = eventClass.getName();
+        String registryKey = getRegistryKey(keyType, key);
+        String listenerKey = getListenerKey(eventType, registryKey);
+        List<EventListener> eventListeners = eventListenersMap.get(listenerKey);
+        if (eventListeners == null) {
+            eventListeners = new CopyOnWriteArrayList<EventListener>();
+            eventListenersMap.put(listenerKey, eventListeners);
+        }
+        if (!eventListeners.contains(eventListener)) {
+            // Latest listener is notified first, as done by event observables
+            eventListeners.add(0, eventListener);
+        }
+
+        Set<String> eventTypes = eventTypesMap.get(registryKey);
+        if (eventTypes == null) {
+            eventTypes = new HashSet<String>();
+            eventTypesMap.put(registryKey, eventTypes);
+        }
+        eventTypes.add(eventType);
+
+        Set<KeyType> keyTypes = keyTypesMap.get(eventType);
+        if (keyTypes == null) {
+            keyTypes = new CopyOnWriteArraySet<KeyType>();
+            keyTypesMap.put(eventType, keyTypes);
+        }
+        keyTypes.add(keyType);
+
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Event listener added: [event] %s [key-type] %s [key] %s", eventType,
+                    keyType, key));
+        }
+    }
+
+    /**
+     * Remove an event listener registered for the given event type and key.
+     *
+     * @param eventClass    event type
+     * @param keyType       event property compared to the key
+     * @param key           member id, cluster id or application id
+     * @param eventListener event listener
+     */
+    public synchronized void removeEventListener(Class<? extends Event> eventClass, KeyType keyType, String key,
+                                                 EventListener eventListener) {
+        String eventType = eventClass.getName();
+        String registryKey = getRegistryKey(keyType, key);
+        String listenerKey = getListenerKey(eventType, registryKey);
+        List<EventListener> eventListeners = eventListenersMap.get(listenerKey);
+        if ((eventListeners == null) || !eventListeners.remove(eventListener)) {
+            return;
+        }
+        if (eventListeners.isEmpty()) {
+            eventListenersMap.remove(listenerKey);
+            Set<String> eventTypes = eventTypesMap.get(registryKey);
+            if (eventTypes != null) {
+                eventTypes.remove(eventType);
+                if (eventTypes.isEmpty()) {
+                    eventTypesMap.remove(registryKey);
+                }
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Event listener removed: [event] %s [key-type] %s [key] %s", eventType,
+                    keyType, key));
+        }
+    }
+
+    /**
+     * Remove all event listeners registered for the given key, such as all listeners of a
+     * member. Cost is proportional to the number of event types registered for the key.
+     *
+     * @param keyType event property compared to the key
+     * @param key     member id, cluster id or application id
+     */
+    public synchronized void removeEventListeners(KeyType keyType, String key) {
+        String registryKey = getRegistryKey(keyType, key);
+        Set<String> eventTypes = eventTypesMap.remove(registryKey);
+        if (eventTypes == null) {
+            return;
+        }
+        for (String eventType : eventTypes) {
+            eventListenersMap.remove(getListenerKey(eventType, registryKey));
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Event listeners removed: [key-type] %s [key] %s", keyType, key));
+        }
+    }
+
+    /**
+     * Notify the event listeners registered for the type and keys of the given event.
+     *
+     * @param observable observable notifying the event
+     * @param event      event
+     */
+    public void notifyEventListeners(Observable observable, Event event) {
+        if (eventListenersMap.isEmpty()) {
+            return;
+        }
+        String eventType = event.getClass().getName();
+        Set<KeyType> keyTypes = keyTypesMap.get(eventType);
+        if (keyTypes == null) {
+            return;
+        }
+        for (KeyType keyType : keyTypes) {
+            String key = getKey(event, keyType);
+            if (key == null) {
+                continue;
+            }
+            List<EventListener> eventListeners = eventListenersMap.get(
+                    getListenerKey(eventType, getRegistryKey(keyType, key)));
+            if (eventListeners != null) {
+                for (EventListener eventListener : eventListeners) {
+                    eventListener.update(observable, event);
+                }
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return eventListenersMap.isEmpty();
+    }
+
+    private static String getKey(Event event, KeyType keyType) {
+        Method getter = getKeyGetters(event.getClass()).get(keyType);
+        if (getter == null) {
+            return null;
+        }
+        try {
+            return (String) getter.invoke(event);
+        } catch (Exception e) {
+            log.error(String.format("Could not read event key: [event] %s [key-type] %s",
+                    event.getClass().getName(), keyType), e);
+            return null;
+        }
+    }
+
+    private static Map<KeyType, Method> getKeyGetters(Class<?> eventClass) {
+        Map<KeyType, Method> keyGetters = keyGettersMap.get(eventClass);
+        if (keyGetters == null) {
+            keyGetters = new EnumMap<KeyType, Method>(KeyType.class);
+            for (KeyType keyType : KeyType.values()) {
+                try {
+                    Method getter = eventClass.getMethod(keyType.getterName);
+                    if (String.class.equals(getter.getReturnType())) {
+                        keyGetters.put(keyType, getter);
+                    }
+                } catch (NoSuchMethodException ignore) {
+                    // Event does not define the key
+                }
+            }
+            keyGettersMap.put(eventClass, keyGetters);
+        }
+        return keyGetters;
+    }
+
+    private static String getRegistryKey(KeyType keyType, String key) {
+        return keyType.name() + SEPARATOR + key;
+    }
+
+    private static String getListenerKey(String eventType, String registryKey) {
+        return eventType + SEPARATOR + registryKey;
+    }
+}
@@ -0,0 +1,798 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.apache.stratos.messaging.domain.exception.MessagingException;
+import org.apache.stratos.messaging.domain.topology.TopologyTypeAdapterFactory;
+
+import javax.xml.bind.DatatypeConverter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Message codec for encoding objects in a compact binary format.
+ * <p/>
+ * Objects are written through Gson using a binary JSON writer, hence any event that can be sent
+ * as JSON can be sent with this codec. Values are written as a sequence of tagged values: integers
+ * are written as variable length integers and every distinct string, including field names, is
+ * written once and referred to by its index afterwards. This removes most of the size of large
+ * events such as the complete topology event, in which the same field names and identifiers are
+ * repeated for each member. The binary form is transmitted in base64, as message bodies are text.
+ * <p/>
+ * Messages are decoded by binding objects directly from a streaming reader over the binary form,
+ * without building JSON text or a JSON element tree. Gson binds maps, such as the port map of
+ * members, only from its own readers, hence maps are bound by a map type adapter of the codec.
+ */
+public class BinaryMessageCodec implements StreamingMessageCodec {
+
+    public static final String NAME = "binary";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final byte VERSION = 1;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_TRUE = 1;
+    private static final byte TAG_FALSE = 2;
+    private static final byte TAG_INTEGER = 3;
+    private static final byte TAG_DOUBLE = 4;
+    private static final byte TAG_NUMBER = 5;
+    private static final byte TAG_STRING = 6;
+    private static final byte TAG_STRING_REF = 7;
+    private static final byte TAG_ARRAY = 8;
+    private static final byte TAG_OBJECT = 9;
+    private static final byte TAG_END = 10;
+
+    // Gson instances are thread safe, topology objects are compacted once deserialized
+    private static final Gson gson = new GsonBuilder()
+            .registerTypeAdapterFactory(new TopologyTypeAdapterFactory())
+            .registerTypeAdapterFactory(new MapTypeAdapterFactory())
+            .registerTypeAdapterFactory(new EventHeaderTypeAdapterFactory()).create();
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String encode(Object object) {
+        BinaryJsonWriter writer = new BinaryJsonWriter();
+        writer.buffer.write(VERSION);
+        if (object == null) {
+            writer.nullValue();
+        } else {
+            gson.toJson(object, object.getClass(), writer);
+        }
+        return DatatypeConverter.printBase64Binary(writer.buffer.toByteArray());
+    }
+
+    @Override
+    public Object decode(String body, Class type) {
+        Decoder decoder = new Decoder(body);
+        if (JsonElement.class.isAssignableFrom(type)) {
+            return decoder.readElement(decoder.readByte());
+        }
+        return gson.fromJson(new BinaryJsonReader(decoder), type);
+    }
+
+    @Override
+    public JsonReader createReader(String body) {
+        return new BinaryJsonReader(new Decoder(body));
+    }
+
+    /**
+     * Map type adapter factory reading map keys with {@link JsonReader#nextName()}, the built-in
+     * map adapter of Gson reads keys through reader internals only available to Gson's own readers.
+     * Maps are written by the built-in adapter.
+     */
+    private static class MapTypeAdapterFactory implements TypeAdapterFactory {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            Class<? super T> rawType = type.getRawType();
+            if (!Map.class.isAssignableFrom(rawType)) {
+                return null;
+            }
+            Type keyType = String.class;
+            Type valueType = String.class;
+            if (!Properties.class.isAssignableFrom(rawType)) {
+                Type mapType = type.getType();
+                if (mapType instanceof ParameterizedType) {
+                    Type[] typeArguments = ((ParameterizedType) mapType).getActualTypeArguments();
+                    keyType = typeArguments[0];
+                    valueType = typeArguments[1];
+                } else {
+                    keyType = Object.class;
+                    valueType = Object.class;
+                }
+            }
+            TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+            return (TypeAdapter<T>) new MapTypeAdapter(delegate, (Class<? extends Map>) rawType,
+                    (keyType == String.class) ? null : gson.getAdapter(TypeToken.get(keyType)),
+                    gson.getAdapter(TypeToken.get(valueType)));
+        }
+    }
+
+    private static class MapTypeAdapter extends TypeAdapter<Map> {
+
+        private final TypeAdapter delegate;
+        private final Class<? extends Map> rawType;
+        private final TypeAdapter keyAdapter;
+        private final TypeAdapter valueAdapter;
+
+        private MapTypeAdapter(TypeAdapter delegate, Class<? extends Map> rawType, TypeAdapter keyAdapter,
+                               TypeAdapter valueAdapter) {
+            this.delegate = delegate;
+            this.rawType = rawType;
+            this.keyAdapter = keyAdapter;
+            this.valueAdapter = valueAdapter;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void write(JsonWriter out, Map value) throws IOException {
+            delegate.write(out, value);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map read(JsonReader in) throws IOException {
+            if (in.peek() != JsonToken.BEGIN_OBJECT) {
+                // Null values and maps written as arrays of entries
+                return (Map) delegate.read(in);
+            }
+            Map map = createMap();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                Object key = (keyAdapter == null) ? name : keyAdapter.fromJsonTree(new JsonPrimitive(name));
+                Object value = valueAdapter.read(in);
+                if (map.put(key, value) != null) {
+                    throw new JsonSyntaxException("Duplicate map key: " + key);
+                }
+            }
+            in.endObject();
+            return map;
+        }
+
+        private Map createMap() {
+            if (!rawType.isInterface() && !Modifier.isAbstract(rawType.getModifiers())) {
+                try {
+                    return rawType.newInstance();
+                } catch (Exception e) {
+                    throw new JsonParseException("Could not create map: " + rawType.getName(), e);
+                }
+            }
+            if (SortedMap.class.isAssignableFrom(rawType)) {
+                return new TreeMap();
+            }
+            if (ConcurrentMap.class.isAssignableFrom(rawType)) {
+                return new ConcurrentHashMap();
+            }
+            return new LinkedHashMap();
+        }
+    }
+
+    /**
+     * JSON writer writing the binary representation of the values given by Gson.
+     */
+    private static class BinaryJsonWriter extends JsonWriter {
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+        private final Map<String, Integer> stringTable = new HashMap<String, Integer>();
+        // Names are written together with their values, since null values are omitted
+        // together with their names unless nulls are serialized
+        private String deferredName;
+
+        private BinaryJsonWriter() {
+            super(new StringWriter(0));
+        }
+
+        @Override
+        public JsonWriter beginArray() {
+            writeDeferredName();
+            buffer.write(TAG_ARRAY);
+            return this;
+        }
+
+        @Override
+        public JsonWriter endArray() {
+            buffer.write(TAG_END);
+            return this;
+        }
+
+        @Override
+        public JsonWriter beginObject() {
+            writeDeferredName();
+            buffer.write(TAG_OBJECT);
+            return this;
+        }
+
+        @Override
+        public JsonWriter endObject() {
+            buffer.write(TAG_END);
+            return this;
+        }
+
+        @Override
+        public JsonWriter name(String name) {
+            if (name == null) {
+                throw new NullPointerException("name == null");
+            }
+            deferredName = name;
+            return this;
+        }
+
+        @Override
+        public JsonWriter value(String value) {
+            if (value == null) {
+                return nullValue();
+            }
+            writeDeferredName();
+            writeString(value);
+            return this;
+        }
+
+        @Override
+        public JsonWriter nullValue() {
+            if (deferredName != null) {
+                if (!getSerializeNulls()) {
+                    deferredName = null;
+                    return this;
+                }
+                writeDeferredName();
+            }
+            buffer.write(TAG_NULL);
+            return this;
+        }
+
+        @Override
+        public JsonWriter value(boolean value) {
+            writeDeferredName();
+            buffer.write(value ? TAG_TRUE : TAG_FALSE);
+            return this;
+        }
+
+        @Override
+        public JsonWriter value(double value) {
+            writeDeferredName();
+            buffer.write(TAG_DOUBLE);
+            long bits = Double.doubleToLongBits(value);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer.write((int) (bits >>> shift));
+            }
+            return this;
+        }
+
+        @Override
+        public JsonWriter value(long value) {
+            writeDeferredName();
+            buffer.write(TAG_INTEGER);
+            // Zig-zag encoding keeps small negative values short
+            writeVarLong((value << 1) ^ (value >> 63));
+            return this;
+        }
+
+        @Override
+        public JsonWriter value(Number value) {
+            if (value == null) {
+                return nullValue();
+            }
+            if ((value instanceof Integer) || (value instanceof Long) || (value instanceof Short) ||
+                    (value instanceof Byte)) {
+                return value(value.longValue());
+            }
+            if ((value instanceof Double) || (value instanceof Float)) {
+                return value(value.doubleValue());
+            }
+            // Arbitrary precision numbers are kept in their textual form
+            writeDeferredName();
+            buffer.write(TAG_NUMBER);
+            writeString(value.toString());
+            return this;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private void writeDeferredName() {
+            if (deferredName != null) {
+                writeString(deferredName);
+                deferredName = null;
+            }
+        }
+
+        private void writeString(String value) {
+            Integer index = stringTable.get(value);
+            if (index != null) {
+                buffer.write(TAG_STRING_REF);
+                writeVarLong(index);
+                return;
+            }
+            stringTable.put(value, stringTable.size());
+            byte[] bytes = value.getBytes(UTF_8);
+            buffer.write(TAG_STRING);
+            writeVarLong(bytes.length);
+            buffer.write(bytes, 0, bytes.length);
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.write((int) value);
+        }
+    }
+
+    /**
+     * Reader of the binary representation. Strings are kept as offsets in the string table and
+     * only built once read, hence values skipped are not built at all.
+     */
+    private static class Decoder {
+
+        private final byte[] bytes;
+        private int position;
+        private int[] stringOffsets = new int[64];
+        private int[] stringLengths = new int[64];
+        private String[] strings = new String[64];
+        private int stringCount;
+
+        private Decoder(String body) {
+            bytes = DatatypeConverter.parseBase64Binary(body);
+            if ((bytes.length == 0) || (bytes[0] != VERSION)) {
+                throw new MessagingException("Could not decode message, unsupported binary message version");
+            }
+            position = 1;
+        }
+
+        /**
+         * Read the value of the given tag as a JSON element.
+         */
+        private JsonElement readElement(byte tag) {
+            switch (tag) {
+                case TAG_NULL:
+                    return JsonNull.INSTANCE;
+                case TAG_TRUE:
+                    return new JsonPrimitive(Boolean.TRUE);
+                case TAG_FALSE:
+                    return new JsonPrimitive(Boolean.FALSE);
+                case TAG_INTEGER:
+                    return new JsonPrimitive(readInteger());
+                case TAG_DOUBLE:
+                    return new JsonPrimitive(readDouble());
+                case TAG_NUMBER:
+                    return new JsonPrimitive(new BigDecimal(readString(readByte())));
+                case TAG_STRING:
+                case TAG_STRING_REF:
+                    return new JsonPrimitive(readString(tag));
+                case TAG_ARRAY:
+                    JsonArray array = new JsonArray();
+                    byte itemTag;
+                    while ((itemTag = readByte()) != TAG_END) {
+                        array.add(readElement(itemTag));
+                    }
+                    return array;
+                case TAG_OBJECT:
+                    JsonObject object = new JsonObject();
+                    byte nameTag;
+                    while ((nameTag = readByte()) != TAG_END) {
+                        String name = readString(nameTag);
+                        object.add(name, readElement(readByte()));
+                    }
+                    return object;
+                default:
+                    throw unknownTag(tag);
+            }
+        }
+
+        /**
+         * Skip the value of the given tag, strings are added to the string table without being built.
+         */
+        private void skipValue(byte tag) {
+            switch (tag) {
+                case TAG_NULL:
+                case TAG_TRUE:
+                case TAG_FALSE:
+                    break;
+                case TAG_INTEGER:
+                    readVarLong();
+                    break;
+                case TAG_DOUBLE:
+                    position += 8;
+                    break;
+                case TAG_NUMBER:
+                case TAG_STRING:
+                case TAG_STRING_REF:
+                    skipString((tag == TAG_NUMBER) ? readByte() : tag);
+                    break;
+                case TAG_ARRAY:
+                    byte itemTag;
+                    while ((itemTag = readByte()) != TAG_END) {
+                        skipValue(itemTag);
+                    }
+                    break;
+                case TAG_OBJECT:
+                    byte nameTag;
+                    while ((nameTag = readByte()) != TAG_END) {
+                        skipString(nameTag);
+                        skipValue(readByte());
+                    }
+                    break;
+                default:
+                    throw unknownTag(tag);
+            }
+        }
+
+        private long readInteger() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private double readDouble() {
+            long bits = 0;
+            for (int i = 0; i < 8; i++) {
+                bits = (bits << 8) | (readByte() & 0xFF);
+            }
+            return Double.longBitsToDouble(bits);
+        }
+
+        private String readString(byte tag) {
+            int index = readStringIndex(tag);
+            String value = strings[index];
+            if (value == null) {
+                value = new String(bytes, stringOffsets[index], stringLengths[index], UTF_8);
+                strings[index] = value;
+            }
+            return value;
+        }
+
+        private void skipString(byte tag) {
+            readStringIndex(tag);
+        }
+
+        /**
+         * Read a string reference or a string, adding the latter to the string table.
+         *
+         * @return index of the string in the string table
+         */
+        private int readStringIndex(byte tag) {
+            if (tag == TAG_STRING_REF) {
+                int index = (int) readVarLong();
+                if ((index < 0) || (index >= stringCount)) {
+                    throw new MessagingException("Could not decode message, invalid string reference: " + index);
+                }
+                return index;
+            }
+            if (tag != TAG_STRING) {
+                throw new MessagingException("Could not decode message, string expected: " + tag);
+            }
+            int length = (int) readVarLong();
+            if ((length < 0) || (position + length > bytes.length)) {
+                throw new MessagingException("Could not decode message, invalid string length: " + length);
+            }
+            if (stringCount == stringOffsets.length) {
+                stringOffsets = Arrays.copyOf(stringOffsets, stringCount * 2);
+                stringLengths = Arrays.copyOf(stringLengths, stringCount * 2);
+                strings = Arrays.copyOf(strings, stringCount * 2);
+            }
+            stringOffsets[stringCount] = position;
+            stringLengths[stringCount] = length;
+            position += length;
+            return stringCount++;
+        }
+
+        private byte readByte() {
+            if (position >= bytes.length) {
+                throw new MessagingException("Could not decode message, unexpected end of message");
+            }
+            return bytes[position++];
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        private static MessagingException unknownTag(byte tag) {
+            return new MessagingException("Could not decode message, unknown binary tag: " + tag);
+        }
+    }
+
+    /**
+     * Streaming JSON reader of the binary representation, for reading a few fields of a message
+     * without decoding it. Nesting is not validated beyond what is needed for reading.
+     */
+    private static class BinaryJsonReader extends JsonReader {
+
+        private static final int SCOPE_DOCUMENT = 0;
+        private static final int SCOPE_ARRAY = 1;
+        private static final int SCOPE_OBJECT_NAME = 2;
+        private static final int SCOPE_OBJECT_VALUE = 3;
+        private static final int SCOPE_CLOSED = 4;
+
+        private final Decoder decoder;
+        private int[] scopes = new int[32];
+        private int depth = 1;
+        private int peekedTag = -1;
+
+        private BinaryJsonReader(Decoder decoder) {
+            super(new StringReader(""));
+            this.decoder = decoder;
+            scopes[0] = SCOPE_DOCUMENT;
+        }
+
+        @Override
+        public JsonToken peek() {
+            int scope = scopes[depth - 1];
+            if (scope == SCOPE_CLOSED) {
+                return JsonToken.END_DOCUMENT;
+            }
+            if (peekedTag < 0) {
+                peekedTag = decoder.readByte();
+            }
+            switch (peekedTag) {
+                case TAG_END:
+                    return (scope == SCOPE_OBJECT_NAME) ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+                case TAG_STRING:
+                case TAG_STRING_REF:
+                    return (scope == SCOPE_OBJECT_NAME) ? JsonToken.NAME : JsonToken.STRING;
+                case TAG_NULL:
+                    return JsonToken.NULL;
+                case TAG_TRUE:
+                case TAG_FALSE:
+                    return JsonToken.BOOLEAN;
+                case TAG_INTEGER:
+                case TAG_DOUBLE:
+                case TAG_NUMBER:
+                    return JsonToken.NUMBER;
+                case TAG_ARRAY:
+                    return JsonToken.BEGIN_ARRAY;
+                case TAG_OBJECT:
+                    return JsonToken.BEGIN_OBJECT;
+                default:
+                    throw unknownTagOf(peekedTag);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            JsonToken token = peek();
+            return (token != JsonToken.END_OBJECT) && (token != JsonToken.END_ARRAY) &&
+                    (token != JsonToken.END_DOCUMENT);
+        }
+
+        @Override
+        public void beginArray() {
+            expect(JsonToken.BEGIN_ARRAY);
+            valueRead();
+            push(SCOPE_ARRAY);
+        }
+
+        @Override
+        public void endArray() {
+            expect(JsonToken.END_ARRAY);
+            peekedTag = -1;
+            depth--;
+        }
+
+        @Override
+        public void beginObject() {
+            expect(JsonToken.BEGIN_OBJECT);
+            valueRead();
+            push(SCOPE_OBJECT_NAME);
+        }
+
+        @Override
+        public void endObject() {
+            expect(JsonToken.END_OBJECT);
+            peekedTag = -1;
+            depth--;
+        }
+
+        @Override
+        public String nextName() {
+            expect(JsonToken.NAME);
+            String name = decoder.readString((byte) peekedTag);
+            peekedTag = -1;
+            scopes[depth - 1] = SCOPE_OBJECT_VALUE;
+            return name;
+        }
+
+        @Override
+        public String nextString() {
+            JsonToken token = peek();
+            String value;
+            if (token == JsonToken.STRING) {
+                value = decoder.readString((byte) peekedTag);
+            } else if (token == JsonToken.NUMBER) {
+                value = readNumber().toString();
+            } else {
+                throw new IllegalStateException("Expected a string but was " + token);
+            }
+            valueRead();
+            return value;
+        }
+
+        @Override
+        public boolean nextBoolean() {
+            expect(JsonToken.BOOLEAN);
+            boolean value = (peekedTag == TAG_TRUE);
+            valueRead();
+            return value;
+        }
+
+        @Override
+        public void nextNull() {
+            expect(JsonToken.NULL);
+            valueRead();
+        }
+
+        @Override
+        public double nextDouble() {
+            return nextNumber().doubleValue();
+        }
+
+        @Override
+        public long nextLong() {
+            Number number = nextNumber();
+            if (number.doubleValue() != number.longValue()) {
+                throw new NumberFormatException("Expected a long but was " + number);
+            }
+            return number.longValue();
+        }
+
+        @Override
+        public int nextInt() {
+            long value = nextLong();
+            if ((int) value != value) {
+                throw new NumberFormatException("Expected an int but was " + value);
+            }
+            return (int) value;
+        }
+
+        @Override
+        public void skipValue() {
+            JsonToken token = peek();
+            if (token == JsonToken.NAME) {
+                decoder.skipString((byte) peekedTag);
+                peekedTag = -1;
+                scopes[depth - 1] = SCOPE_OBJECT_VALUE;
+                return;
+            }
+            if ((token == JsonToken.END_OBJECT) || (token == JsonToken.END_ARRAY) ||
+                    (token == JsonToken.END_DOCUMENT)) {
+                throw new IllegalStateException("Expected a value but was " + token);
+            }
+            decoder.skipValue((byte) peekedTag);
+            valueRead();
+        }
+
+        @Override
+        public void close() {
+            peekedTag = -1;
+            depth = 1;
+            scopes[0] = SCOPE_CLOSED;
+        }
+
+        @Override
+        public String getPath() {
+            return "$";
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName();
+        }
+
+        private Number nextNumber() {
+            expect(JsonToken.NUMBER);
+            Number number = readNumber();
+            valueRead();
+            return number;
+        }
+
+        private Number readNumber() {
+            switch (peekedTag) {
+                case TAG_INTEGER:
+                    return decoder.readInteger();
+                case TAG_DOUBLE:
+                    return decoder.readDouble();
+                default:
+                    return new BigDecimal(decoder.readString(decoder.readByte()));
+            }
+        }
+
+        private void expect(JsonToken expected) {
+            JsonToken token = peek();
+            if (token != expected) {
+                throw new IllegalStateException("Expected " + expected + " but was " + token);
+            }
+        }
+
+        /**
+         * Mark the peeked value as read, moving to the next name of an enclosing object.
+         */
+        private void valueRead() {
+            peekedTag = -1;
+            int scope = scopes[depth - 1];
+            if (scope == SCOPE_OBJECT_VALUE) {
+                scopes[depth - 1] = SCOPE_OBJECT_NAME;
+            } else if (scope == SCOPE_DOCUMENT) {
+                scopes[depth - 1] = SCOPE_CLOSED;
+            }
+        }
+
+        private void push(int scope) {
+            if (depth == scopes.length) {
+                scopes = Arrays.copyOf(scopes, depth * 2);
+            }
+            scopes[depth++] = scope;
+        }
+
+        private static MessagingException unknownTagOf(int tag) {
+            return new MessagingException("Could not decode message, unknown binary tag: " + tag);
+        }
+    }
+}
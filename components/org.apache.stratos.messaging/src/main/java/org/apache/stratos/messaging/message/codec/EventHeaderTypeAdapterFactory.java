@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.apache.stratos.messaging.event.Event;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Gson type adapter factory writing the source id and sequence number of events before their
+ * other fields. Gson writes the fields of a class before the fields of its super classes, which
+ * would place them at the end of the message, while subscribers read them before processing
+ * the message, see EventSequenceTracker.
+ */
+class EventHeaderTypeAdapterFactory implements TypeAdapterFactory {
+
+    static final String SOURCE_ID_FIELD = "sourceId";
+    static final String SEQUENCE_NUMBER_FIELD = "sequenceNumber";
+
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (!Event.class.isAssignableFrom(type.getRawType())) {
+            return null;
+        }
+        final TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+        return new TypeAdapter<T>() {
+            @Override
+            public void write(JsonWriter out, T value) throws IOException {
+                Event event = (Event) value;
+                if ((event == null) || (event.getSourceId() == null)) {
+                    delegate.write(out, value);
+                    return;
+                }
+                out.beginObject();
+                out.name(SOURCE_ID_FIELD).value(event.getSourceId());
+                out.name(SEQUENCE_NUMBER_FIELD).value(event.getSequenceNumber());
+                delegate.write(new HeaderSkippingJsonWriter(out), value);
+                out.endObject();
+            }
+
+            @Override
+            public T read(JsonReader in) throws IOException {
+                return delegate.read(in);
+            }
+        };
+    }
+
+    /**
+     * JSON writer forwarding the fields of an event to the given writer, except the header fields
+     * already written and the braces of the event object.
+     */
+    private static class HeaderSkippingJsonWriter extends JsonWriter {
+
+        private final JsonWriter out;
+        private int depth;
+        private boolean skipValue;
+
+        private HeaderSkippingJsonWriter(JsonWriter out) {
+            super(new StringWriter(0));
+            this.out = out;
+            setLenient(out.isLenient());
+            setHtmlSafe(out.isHtmlSafe());
+            setSerializeNulls(out.getSerializeNulls());
+        }
+
+        @Override
+        public JsonWriter beginArray() throws IOException {
+            depth++;
+            out.beginArray();
+            return this;
+        }
+
+        @Override
+        public JsonWriter endArray() throws IOException {
+            depth--;
+            out.endArray();
+            return this;
+        }
+
+        @Override
+        public JsonWriter beginObject() throws IOException {
+            if (depth++ > 0) {
+                out.beginObject();
+            }
+            return this;
+        }
+
+        @Override
+        public JsonWriter endObject() throws IOException {
+            if (--depth > 0) {
+                out.endObject();
+            }
+            return this;
+        }
+
+        @Override
+        public JsonWriter name(String name) throws IOException {
+            if ((depth == 1) && (SOURCE_ID_FIELD.equals(name) || SEQUENCE_NUMBER_FIELD.equals(name))) {
+                skipValue = true;
+            } else {
+                out.name(name);
+            }
+            return this;
+        }
+
+        @Override
+        public JsonWriter value(String value) throws IOException {
+            if (!skipValue()) {
+                out.value(value);
+            }
+            return this;
+        }
+
+        @Override
+        public JsonWriter nullValue() throws IOException {
+            if (!skipValue()) {
+                out.nullValue();
+            }
+            return this;
+        }
+
+        @Override
+        public JsonWriter value(boolean value) throws IOException {
+            if (!skipValue()) {
+                out.value(value);
+            }
+            return this;
+        }
+
+        @Override
+        public JsonWriter value(double value) throws IOException {
+            if (!skipValue()) {
+                out.value(value);
+            }
+            return this;
+        }
+
+        @Override
+        public JsonWriter value(long value) throws IOException {
+            if (!skipValue()) {
+                out.value(value);
+            }
+            return this;
+        }
+
+        @Override
+        public JsonWriter value(Number value) throws IOException {
+            if (!skipValue()) {
+                out.value(value);
+            }
+            return this;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+        }
+
+        private boolean skipValue() {
+            boolean skip = skipValue;
+            skipValue = false;
+            return skip;
+        }
+    }
+}
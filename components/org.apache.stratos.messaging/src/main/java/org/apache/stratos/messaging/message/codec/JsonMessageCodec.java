@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import org.apache.stratos.messaging.domain.topology.TopologyTypeAdapterFactory;
+
+import java.io.StringReader;
+
+/**
+ * Message codec for encoding objects in JSON format using Gson.
+ */
+public class JsonMessageCodec implements StreamingMessageCodec {
+
+    public static final String NAME = "json";
+
+    // Gson instances are thread safe, topology objects are compacted once deserialized
+    private static final Gson gson = new GsonBuilder()
+            .registerTypeAdapterFactory(new TopologyTypeAdapterFactory())
+            .registerTypeAdapterFactory(new EventHeaderTypeAdapterFactory()).create();
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String encode(Object object) {
+        return gson.toJson(object);
+    }
+
+    @Override
+    public Object decode(String body, Class type) {
+        return gson.fromJson(body, type);
+    }
+
+    @Override
+    public JsonReader createReader(String body) {
+        return new JsonReader(new StringReader(body));
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.codec;
+
+/**
+ * Message codec definition. A message codec converts event objects to the textual
+ * representation transmitted through the message broker and back.
+ * <p/>
+ * Messages encoded by codecs other than the JSON codec are prefixed with a header
+ * carrying the codec name, allowing subscribers to select the matching codec for each
+ * message. JSON messages carry no header so that they remain readable by any subscriber.
+ */
+public interface MessageCodec {
+
+    /**
+     * Return the unique name of the codec, used in message headers.
+     *
+     * @return codec name
+     */
+    String getName();
+
+    /**
+     * Encode the given object, excluding the message header.
+     *
+     * @param object object to be encoded
+     * @return encoded message body
+     */
+    String encode(Object object);
+
+    /**
+     * Decode an object of the given type from a message body, excluding the message header.
+     *
+     * @param body message body
+     * @param type type of the object
+     * @return decoded object
+     */
+    Object decode(String body, Class type);
+}
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.codec;
+
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.domain.exception.MessagingException;
+
+import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Message codec factory.
+ * <p/>
+ * Publishers encode messages with the codec configured by the stratos.messaging.codec system
+ * property, JSON by default. Messages encoded by any other codec are prefixed with a header of
+ * the form ~[codec-name]~ and subscribers select the codec for each message by its header, so
+ * that nodes using different codecs can interoperate as long as they know the codec in use.
+ */
+public class MessageCodecFactory {
+
+    private static final Log log = LogFactory.getLog(MessageCodecFactory.class);
+
+    public static final String MESSAGE_CODEC_PROPERTY = "stratos.messaging.codec";
+    private static final char HEADER_DELIMITER = '~';
+
+    private static final Map<String, MessageCodec> codecMap = new ConcurrentHashMap<String, MessageCodec>();
+    private static final MessageCodec jsonMessageCodec = new JsonMessageCodec();
+    private static volatile MessageCodec publisherCodec;
+    // Object decoded ahead of processing a message, set by the thread processing the message
+    private static final ThreadLocal<PreDecodedMessage> preDecodedMessage = new ThreadLocal<PreDecodedMessage>();
+
+    static {
+        registerCodec(jsonMessageCodec);
+        registerCodec(new BinaryMessageCodec());
+    }
+
+    /**
+     * Register a message codec. An existing codec with the same name is replaced.
+     *
+     * @param messageCodec message codec
+     */
+    public static void registerCodec(MessageCodec messageCodec) {
+        String name = messageCodec.getName();
+        if ((name == null) || name.isEmpty() || (name.indexOf(HEADER_DELIMITER) >= 0)) {
+            throw new MessagingException("Invalid message codec name: " + name);
+        }
+        codecMap.put(name, messageCodec);
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Message codec registered: [name] %s [class] %s", name,
+                    messageCodec.getClass().getName()));
+        }
+    }
+
+    public static MessageCodec getCodec(String name) {
+        return codecMap.get(name);
+    }
+
+    /**
+     * Return the codec used for publishing messages.
+     *
+     * @return message codec
+     */
+    public static MessageCodec getPublisherCodec() {
+        if (publisherCodec == null) {
+            String name = System.getProperty(MESSAGE_CODEC_PROPERTY, JsonMessageCodec.NAME);
+            MessageCodec messageCodec = codecMap.get(name);
+            if (messageCodec == null) {
+                log.warn(String.format("Message codec not found, using %s codec: [codec] %s",
+                        JsonMessageCodec.NAME, name));
+                messageCodec = jsonMessageCodec;
+            }
+            publisherCodec = messageCodec;
+        }
+        return publisherCodec;
+    }
+
+    /**
+     * Encode the given object using the publisher codec, including the message header.
+     *
+     * @param object object to be encoded
+     * @return encoded message
+     */
+    public static String encode(Object object) {
+        return encode(getPublisherCodec(), object);
+    }
+
+    /**
+     * Encode the given object using the given codec, including the message header.
+     *
+     * @param messageCodec message codec
+     * @param object       object to be encoded
+     * @return encoded message
+     */
+    public static String encode(MessageCodec messageCodec, Object object) {
+        String body = messageCodec.encode(object);
+        if (messageCodec == jsonMessageCodec) {
+            return body;
+        }
+        return HEADER_DELIMITER + messageCodec.getName() + HEADER_DELIMITER + body;
+    }
+
+    /**
+     * Decode an object of the given type from a message, using the codec referred in its header.
+     *
+     * @param message message including the header
+     * @param type    type of the object
+     * @return decoded object
+     */
+    public static Object decode(String message, Class type) {
+        PreDecodedMessage preDecoded = preDecodedMessage.get();
+        if ((preDecoded != null) && (preDecoded.message == message) && type.isInstance(preDecoded.object)) {
+            preDecodedMessage.remove();
+            return preDecoded.object;
+        }
+        if ((message == null) || message.isEmpty() || (message.charAt(0) != HEADER_DELIMITER)) {
+            return jsonMessageCodec.decode(message, type);
+        }
+        int headerEnd = getHeaderEnd(message);
+        return getCodecOfMessage(message, headerEnd).decode(message.substring(headerEnd + 1), type);
+    }
+
+    /**
+     * Create a streaming JSON reader of a message, using the codec referred in its header. Codecs
+     * which do not support streaming are read from the decoded message.
+     *
+     * @param message message including the header
+     * @return JSON reader
+     */
+    public static JsonReader createReader(String message) {
+        if ((message == null) || message.isEmpty() || (message.charAt(0) != HEADER_DELIMITER)) {
+            return new JsonReader(new StringReader(message));
+        }
+        int headerEnd = getHeaderEnd(message);
+        MessageCodec messageCodec = getCodecOfMessage(message, headerEnd);
+        String body = message.substring(headerEnd + 1);
+        if (messageCodec instanceof StreamingMessageCodec) {
+            return ((StreamingMessageCodec) messageCodec).createReader(body);
+        }
+        JsonElement element = (JsonElement) messageCodec.decode(body, JsonElement.class);
+        return new JsonReader(new StringReader(element.toString()));
+    }
+
+    private static int getHeaderEnd(String message) {
+        int headerEnd = message.indexOf(HEADER_DELIMITER, 1);
+        if (headerEnd < 0) {
+            throw new MessagingException("Could not decode message, invalid message header");
+        }
+        return headerEnd;
+    }
+
+    private static MessageCodec getCodecOfMessage(String message, int headerEnd) {
+        String name = message.substring(1, headerEnd);
+        MessageCodec messageCodec = codecMap.get(name);
+        if (messageCodec == null) {
+            throw new MessagingException("Could not decode message, unknown message codec: " + name);
+        }
+        return messageCodec;
+    }
+
+    /**
+     * Make the event decoded ahead of processing the given message, if any, available to the
+     * decode calls of the current thread, which processes the message. The next decode call for
+     * the text of the message and a compatible type returns the event instead of decoding the
+     * message again. Needs to be followed by clearPreDecoded() once the message is processed.
+     *
+     * @param message message to be processed by the current thread
+     */
+    public static void setPreDecoded(Message message) {
+        Object object = message.getDecodedObject();
+        if (object == null) {
+            preDecodedMessage.remove();
+        } else {
+            preDecodedMessage.set(new PreDecodedMessage(message.getText(), object));
+        }
+    }
+
+    public static void clearPreDecoded() {
+        preDecodedMessage.remove();
+    }
+
+    private static class PreDecodedMessage {
+        private final String message;
+        private final Object object;
+
+        private PreDecodedMessage(String message, Object object) {
+            this.message = message;
+            this.object = object;
+        }
+    }
+}
@@ -79,7 +79,7 @@ public class TopologyClusterFilter extends MessageFilter {
         return excluded(TOPOLOGY_CLUSTER_FILTER_CLUSTER_ID, value);
     }
 
-    private Collection<String> getIncludedClusterIds() {
+    public Collection<String> getIncludedClusterIds() {
         return getIncludedPropertyValues(TOPOLOGY_CLUSTER_FILTER_CLUSTER_ID);
     }
 
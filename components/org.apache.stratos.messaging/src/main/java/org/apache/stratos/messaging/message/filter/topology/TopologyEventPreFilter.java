@@ -0,0 +1,283 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.filter.topology;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.event.topology.ClusterCreatedEvent;
+import org.apache.stratos.messaging.event.topology.ClusterInstanceActivatedEvent;
+import org.apache.stratos.messaging.event.topology.ClusterInstanceCreatedEvent;
+import org.apache.stratos.messaging.event.topology.ClusterInstanceInactivateEvent;
+import org.apache.stratos.messaging.event.topology.ClusterInstanceTerminatedEvent;
+import org.apache.stratos.messaging.event.topology.ClusterInstanceTerminatingEvent;
+import org.apache.stratos.messaging.event.topology.ClusterRemovedEvent;
+import org.apache.stratos.messaging.event.topology.ClusterResetEvent;
+import org.apache.stratos.messaging.event.topology.MemberActivatedEvent;
+import org.apache.stratos.messaging.event.topology.MemberCreatedEvent;
+import org.apache.stratos.messaging.event.topology.MemberInitializedEvent;
+import org.apache.stratos.messaging.event.topology.MemberMaintenanceModeEvent;
+import org.apache.stratos.messaging.event.topology.MemberReadyToShutdownEvent;
+import org.apache.stratos.messaging.event.topology.MemberStartedEvent;
+import org.apache.stratos.messaging.event.topology.MemberSuspendedEvent;
+import org.apache.stratos.messaging.event.topology.MemberTerminatedEvent;
+import org.apache.stratos.messaging.event.topology.ServiceCreatedEvent;
+import org.apache.stratos.messaging.event.topology.ServiceRemovedEvent;
+import org.apache.stratos.messaging.message.codec.MessageCodecFactory;
+import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Discards topology events excluded by the application, service and cluster filters before
+ * the event is deserialized. Only the application id, service name, cluster id and topology
+ * version of the event are read using a streaming JSON reader, therefore the object graph of
+ * discarded events is never built.
+ * <p/>
+ * Only events of which the message processors apply the same filters are inspected, other
+ * events are passed to the message processors. The number of events inspected, discarded and
+ * passed are reported periodically and exposed as JMX metrics under
+ * org.apache.stratos.messaging:type=TopologyEventPreFilter.
+ */
+public class TopologyEventPreFilter implements TopologyEventPreFilterMBean {
+
+    private static final Log log = LogFactory.getLog(TopologyEventPreFilter.class);
+
+    public static final String PRE_FILTER_ENABLED_PROPERTY = "stratos.messaging.topology.prefilter.enabled";
+
+    private static final long REPORT_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    private static final String OBJECT_NAME = "org.apache.stratos.messaging:type=TopologyEventPreFilter";
+
+    private static final Set<String> filteredEventTypes = new HashSet<String>();
+
+    static {
+        filteredEventTypes.add(ServiceCreatedEvent.class.getName());
+        filteredEventTypes.add(ServiceRemovedEvent.class.getName());
+        filteredEventTypes.add(ClusterCreatedEvent.class.getName());
+        filteredEventTypes.add(ClusterRemovedEvent.class.getName());
+        filteredEventTypes.add(ClusterResetEvent.class.getName());
+        filteredEventTypes.add(ClusterInstanceCreatedEvent.class.getName());
+        filteredEventTypes.add(ClusterInstanceActivatedEvent.class.getName());
+        filteredEventTypes.add(ClusterInstanceInactivateEvent.class.getName());
+        filteredEventTypes.add(ClusterInstanceTerminatingEvent.class.getName());
+        filteredEventTypes.add(ClusterInstanceTerminatedEvent.class.getName());
+        filteredEventTypes.add(MemberCreatedEvent.class.getName());
+        filteredEventTypes.add(MemberInitializedEvent.class.getName());
+        filteredEventTypes.add(MemberStartedEvent.class.getName());
+        filteredEventTypes.add(MemberActivatedEvent.class.getName());
+        filteredEventTypes.add(MemberSuspendedEvent.class.getName());
+        filteredEventTypes.add(MemberReadyToShutdownEvent.class.getName());
+        filteredEventTypes.add(MemberMaintenanceModeEvent.class.getName());
+        filteredEventTypes.add(MemberTerminatedEvent.class.getName());
+    }
+
+    private static volatile TopologyEventPreFilter instance;
+
+    private final boolean enabled;
+    private final AtomicLong inspectedCount = new AtomicLong();
+    private final AtomicLong discardedCount = new AtomicLong();
+    private final AtomicLong passedCount = new AtomicLong();
+    private volatile long lastReportTime = System.currentTimeMillis();
+
+    private TopologyEventPreFilter() {
+        this.enabled = Boolean.parseBoolean(System.getProperty(PRE_FILTER_ENABLED_PROPERTY, "true"));
+        registerMBean();
+    }
+
+    public static TopologyEventPreFilter getInstance() {
+        if (instance == null) {
+            synchronized (TopologyEventPreFilter.class) {
+                if (instance == null) {
+                    instance = new TopologyEventPreFilter();
+                    if (log.isDebugEnabled()) {
+                        log.debug("Topology event pre-filter instance created");
+                    }
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Returns true if the event message is excluded by the topology filters and has been discarded.
+     * The topology version of a discarded event is recorded as the message processors would do.
+     *
+     * @param message topology event message
+     * @return true if the message has been discarded
+     */
+    public boolean discard(Message message) {
+        if (!enabled || !filteredEventTypes.contains(message.getEventClassName()) || !isFilterActive()) {
+            return false;
+        }
+
+        EventHeader header = readHeader(message);
+        boolean excluded = (header != null) && (TopologyApplicationFilter.apply(header.applicationId) ||
+                TopologyServiceFilter.apply(header.serviceName) || TopologyClusterFilter.apply(header.clusterId));
+        inspectedCount.incrementAndGet();
+
+        if (!excluded) {
+            passedCount.incrementAndGet();
+        } else {
+            discardedCount.incrementAndGet();
+            if (TopologyManager.isInitialized()) {
+                TopologyManager.getVersionTracker().accept(message.getEventClassName(), header.topologyVersion);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Topology event discarded by pre-filter: [type] %s [application-id] %s " +
+                                "[service-name] %s [cluster-id] %s", message.getEventClassName(),
+                        header.applicationId, header.serviceName, header.clusterId));
+            }
+        }
+        report();
+        return excluded;
+    }
+
+    @Override
+    public long getInspectedCount() {
+        return inspectedCount.get();
+    }
+
+    @Override
+    public long getDiscardedCount() {
+        return discardedCount.get();
+    }
+
+    @Override
+    public long getPassedCount() {
+        return passedCount.get();
+    }
+
+    /**
+     * Returns the fraction of the inspected events which have been discarded.
+     *
+     * @return discard rate between 0 and 1
+     */
+    @Override
+    public double getDiscardRate() {
+        long inspected = inspectedCount.get();
+        return (inspected == 0) ? 0 : (double) discardedCount.get() / inspected;
+    }
+
+    private boolean isFilterActive() {
+        return TopologyApplicationFilter.getInstance().isActive() || TopologyServiceFilter.getInstance().isActive() ||
+                TopologyClusterFilter.getInstance().isActive();
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(new StandardMBean(this, TopologyEventPreFilterMBean.class), objectName);
+            }
+        } catch (Exception e) {
+            log.warn("Could not register topology event pre-filter MBean", e);
+        }
+    }
+
+    private void report() {
+        long currentTime = System.currentTimeMillis();
+        if (currentTime - lastReportTime < REPORT_INTERVAL) {
+            return;
+        }
+        lastReportTime = currentTime;
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Topology event pre-filter: [inspected] %d [discarded] %d [passed] %d " +
+                    "[discard-rate] %.2f", getInspectedCount(), getDiscardedCount(), getPassedCount(),
+                    getDiscardRate()));
+        }
+    }
+
+    /**
+     * Read the filtered fields of the event without deserializing it, using the codec referred
+     * in the message header.
+     */
+    private EventHeader readHeader(Message message) {
+        String text = message.getText();
+        EventHeader header = new EventHeader();
+        try {
+            JsonReader reader = MessageCodecFactory.createReader(text);
+            try {
+                readHeader(reader, header, true);
+            } finally {
+                reader.close();
+            }
+            return header;
+        } catch (Exception e) {
+            if (log.isWarnEnabled()) {
+                log.warn(String.format("Could not pre-filter topology event: [type] %s",
+                        message.getEventClassName()), e);
+            }
+            return null;
+        }
+    }
+
+    private static void readHeader(JsonReader reader, EventHeader header, boolean event) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            JsonToken token = reader.peek();
+            if ((token == JsonToken.STRING) && isHeaderField(name)) {
+                String value = reader.nextString();
+                if ("serviceName".equals(name)) {
+                    header.serviceName = (header.serviceName == null) ? value : header.serviceName;
+                } else if ("clusterId".equals(name)) {
+                    header.clusterId = (header.clusterId == null) ? value : header.clusterId;
+                } else {
+                    header.applicationId = (header.applicationId == null) ? value : header.applicationId;
+                }
+                continue;
+            } else if (event && (token == JsonToken.NUMBER) && "topologyVersion".equals(name)) {
+                header.topologyVersion = reader.nextLong();
+                continue;
+            } else if (event && (token == JsonToken.BEGIN_OBJECT) && "cluster".equals(name)) {
+                readHeader(reader, header, false);
+                continue;
+            }
+            reader.skipValue();
+        }
+        reader.endObject();
+    }
+
+    private static boolean isHeaderField(String name) {
+        return "serviceName".equals(name) || "clusterId".equals(name) || "applicationId".equals(name) ||
+                "appId".equals(name);
+    }
+
+    /**
+     * Fields of an event used for filtering.
+     */
+    private static class EventHeader {
+        private String applicationId;
+        private String serviceName;
+        private String clusterId;
+        private long topologyVersion;
+    }
+}
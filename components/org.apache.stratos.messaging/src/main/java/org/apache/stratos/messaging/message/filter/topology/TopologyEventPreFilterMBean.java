@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.filter.topology;
+
+/**
+ * JMX management interface of the topology event pre-filter.
+ */
+public interface TopologyEventPreFilterMBean {
+
+    /**
+     * @return number of events inspected by the pre-filter
+     */
+    long getInspectedCount();
+
+    /**
+     * @return number of inspected events discarded without being deserialized
+     */
+    long getDiscardedCount();
+
+    /**
+     * @return number of inspected events passed to the message processors
+     */
+    long getPassedCount();
+
+    /**
+     * @return fraction of the inspected events which have been discarded
+     */
+    double getDiscardRate();
+}
@@ -0,0 +1,304 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.processor;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.message.codec.MessageCodecFactory;
+import org.apache.stratos.messaging.util.MessagingUtil;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Detects event messages which have already been processed, using the source id and sequence
+ * number assigned to events by the event publisher.
+ * <p/>
+ * Messages may be delivered more than once, for an example when the message broker redelivers
+ * messages not acknowledged in time, and events of a publisher may be received slightly out of
+ * order, since events are published by several threads. The sequence numbers received from each
+ * source are therefore tracked with a sliding window: a message is skipped if its sequence number
+ * has already been received, or if it is older than the window and hence considered stale.
+ * Messages without a source id, such as events published by cartridge agents, are never skipped.
+ * <p/>
+ * Only the source id and sequence number of a message are read, using a streaming JSON reader, so
+ * that skipped messages are never deserialized. Message codecs write them before the other fields
+ * of events, hence reading stops after the first fields of a message. The number of messages skipped is reported
+ * periodically.
+ */
+public class EventSequenceTracker {
+
+    private static final Log log = LogFactory.getLog(EventSequenceTracker.class);
+
+    public static final String DEDUPLICATION_ENABLED_PROPERTY = "stratos.messaging.event.deduplication.enabled";
+    public static final String WINDOW_SIZE_PROPERTY = "stratos.messaging.event.deduplication.window";
+
+    // Sequence numbers are shared by all topics of a publishing process, events of other topics
+    // received out of order need to fall within the window
+    private static final int DEFAULT_WINDOW_SIZE = 4096;
+    // Sources not heard of for the longest time are forgotten once this number of sources is tracked
+    private static final int MAX_SOURCES = 1024;
+    private static final long REPORT_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    private static final String SOURCE_ID_FIELD = "sourceId";
+    private static final String SEQUENCE_NUMBER_FIELD = "sequenceNumber";
+
+    private final String name;
+    private final boolean enabled;
+    private final int windowSize;
+    private final Map<String, SequenceWindow> sourceWindows;
+    private final AtomicLong duplicateCount = new AtomicLong();
+    private final AtomicLong staleCount = new AtomicLong();
+    private volatile long lastReportTime = System.currentTimeMillis();
+    private long lastReportedCount;
+
+    public EventSequenceTracker(String name) {
+        this(name, Boolean.parseBoolean(System.getProperty(DEDUPLICATION_ENABLED_PROPERTY, "true")),
+                MessagingUtil.getNumericSystemProperty(DEFAULT_WINDOW_SIZE, WINDOW_SIZE_PROPERTY));
+    }
+
+    public EventSequenceTracker(String name, boolean enabled, int windowSize) {
+        this.name = name;
+        this.enabled = enabled;
+        // Window is kept as a bitmap of whole words
+        this.windowSize = Math.max(64, (windowSize + 63) & ~63);
+        this.sourceWindows = new LinkedHashMap<String, SequenceWindow>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SequenceWindow> eldest) {
+                return size() > MAX_SOURCES;
+            }
+        };
+    }
+
+    /**
+     * Record an event message received and return whether it needs to be processed.
+     *
+     * @param type    class name of the event
+     * @param message event message
+     * @return false if the message has already been processed or is stale
+     */
+    public boolean accept(String type, String message) {
+        if (!enabled || (message == null)) {
+            return true;
+        }
+        SequenceHeader header = readHeader(type, message);
+        if ((header == null) || (header.sourceId == null) || (header.sequenceNumber <= 0)) {
+            return true;
+        }
+        return accept(type, header.sourceId, header.sequenceNumber);
+    }
+
+    /**
+     * Record an event received and return whether it needs to be processed.
+     *
+     * @param type           class name of the event
+     * @param sourceId       id of the event publisher
+     * @param sequenceNumber sequence number of the event
+     * @return false if the event has already been processed or is stale
+     */
+    public boolean accept(String type, String sourceId, long sequenceNumber) {
+        int result;
+        synchronized (sourceWindows) {
+            SequenceWindow window = sourceWindows.get(sourceId);
+            if (window == null) {
+                window = new SequenceWindow(windowSize);
+                sourceWindows.put(sourceId, window);
+            }
+            result = window.record(sequenceNumber);
+        }
+        if (result == SequenceWindow.ACCEPTED) {
+            report();
+            return true;
+        }
+
+        if (result == SequenceWindow.DUPLICATE) {
+            duplicateCount.incrementAndGet();
+        } else {
+            staleCount.incrementAndGet();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Skipping %s event: [type] %s [source-id] %s [sequence-number] %d",
+                    (result == SequenceWindow.DUPLICATE) ? "duplicate" : "stale", type, sourceId, sequenceNumber));
+        }
+        report();
+        return false;
+    }
+
+    /**
+     * Returns the number of messages skipped since they had already been processed.
+     */
+    public long getDuplicateCount() {
+        return duplicateCount.get();
+    }
+
+    /**
+     * Returns the number of messages skipped since they were older than the sequence number window.
+     */
+    public long getStaleCount() {
+        return staleCount.get();
+    }
+
+    public long getSkippedCount() {
+        return duplicateCount.get() + staleCount.get();
+    }
+
+    private void report() {
+        long currentTime = System.currentTimeMillis();
+        if (currentTime - lastReportTime < REPORT_INTERVAL) {
+            return;
+        }
+        lastReportTime = currentTime;
+        long skippedCount = getSkippedCount();
+        if ((skippedCount != lastReportedCount) && log.isInfoEnabled()) {
+            log.info(String.format("Event messages skipped: [processor-chain] %s [duplicate] %d [stale] %d",
+                    name, getDuplicateCount(), getStaleCount()));
+        }
+        lastReportedCount = skippedCount;
+    }
+
+    /**
+     * Returns an id identifying the event message among the messages of all publishers, built from
+     * the source id and sequence number of the event, or null if the event has none.
+     *
+     * @param message event message
+     * @return source id and sequence number of the event
+     */
+    public static String readEventId(String message) {
+        if (message == null) {
+            return null;
+        }
+        SequenceHeader header = readHeader(null, message);
+        if ((header == null) || (header.sourceId == null) || (header.sequenceNumber <= 0)) {
+            return null;
+        }
+        return header.sourceId + ':' + header.sequenceNumber;
+    }
+
+    /**
+     * Read the source id and sequence number of the event without deserializing it, using the
+     * codec referred in the message header.
+     */
+    private static SequenceHeader readHeader(String type, String message) {
+        try {
+            SequenceHeader header = new SequenceHeader();
+            JsonReader reader = MessageCodecFactory.createReader(message);
+            try {
+                readHeader(reader, header);
+            } finally {
+                reader.close();
+            }
+            return header;
+        } catch (Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Could not read sequence number of event: [type] %s", type), e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Read the leading fields of the event until both the source id and sequence number have been
+     * read. Events not published by an event publisher do not start with them and are not read
+     * any further.
+     */
+    private static void readHeader(JsonReader reader, SequenceHeader header) throws IOException {
+        reader.beginObject();
+        while (((header.sourceId == null) || (header.sequenceNumber <= 0)) && reader.hasNext()) {
+            String name = reader.nextName();
+            JsonToken token = reader.peek();
+            if ((token == JsonToken.STRING) && SOURCE_ID_FIELD.equals(name)) {
+                header.sourceId = reader.nextString();
+            } else if ((token == JsonToken.NUMBER) && SEQUENCE_NUMBER_FIELD.equals(name)) {
+                header.sequenceNumber = reader.nextLong();
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sequence numbers received from a source, the highest sequence number and a bitmap of
+     * the sequence numbers received within the window below it.
+     */
+    private static class SequenceWindow {
+
+        private static final int ACCEPTED = 0;
+        private static final int DUPLICATE = 1;
+        private static final int STALE = 2;
+
+        private final long[] bitmap;
+        private final int size;
+        private long highest;
+
+        private SequenceWindow(int size) {
+            this.size = size;
+            this.bitmap = new long[size / 64];
+        }
+
+        private int record(long sequenceNumber) {
+            if (sequenceNumber > highest) {
+                // Clear the bits of the sequence numbers between the previous highest and this one
+                if (sequenceNumber - highest >= size) {
+                    Arrays.fill(bitmap, 0L);
+                } else {
+                    for (long i = highest + 1; i < sequenceNumber; i++) {
+                        clear(i);
+                    }
+                }
+                highest = sequenceNumber;
+                set(sequenceNumber);
+                return ACCEPTED;
+            }
+            if (highest - sequenceNumber >= size) {
+                return STALE;
+            }
+            if (isSet(sequenceNumber)) {
+                return DUPLICATE;
+            }
+            set(sequenceNumber);
+            return ACCEPTED;
+        }
+
+        private boolean isSet(long sequenceNumber) {
+            int bit = (int) (sequenceNumber % size);
+            return (bitmap[bit >>> 6] & (1L << bit)) != 0;
+        }
+
+        private void set(long sequenceNumber) {
+            int bit = (int) (sequenceNumber % size);
+            bitmap[bit >>> 6] |= (1L << bit);
+        }
+
+        private void clear(long sequenceNumber) {
+            int bit = (int) (sequenceNumber % size);
+            bitmap[bit >>> 6] &= ~(1L << bit);
+        }
+    }
+
+    private static class SequenceHeader {
+        private String sourceId;
+        private long sequenceNumber;
+    }
+}
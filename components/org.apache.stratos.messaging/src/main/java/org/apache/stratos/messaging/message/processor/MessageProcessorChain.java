@@ -19,19 +19,35 @@
 
 package org.apache.stratos.messaging.message.processor;
 
+import org.apache.stratos.messaging.event.Event;
 import org.apache.stratos.messaging.listener.EventListener;
+import org.apache.stratos.messaging.listener.EventListenerRegistry;
 
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.Map;
 
 /**
- * Message processor chain definition.
+ * Message processor chain definition. Processors registered together with the event
+ * type they handle are dispatched with a single hash lookup on the message type;
+ * any other type falls back to walking the linked chain. Event listeners registered by
+ * event type and key are shared by all processors of the chain.
+ * <p/>
+ * Messages already processed, according to the source id and sequence number assigned by the
+ * event publisher, are skipped before they reach the message processors, see EventSequenceTracker.
  */
 public abstract class MessageProcessorChain {
 
     private LinkedList<MessageProcessor> list;
+    private final Map<String, MessageProcessor> processorMap;
+    private final EventListenerRegistry eventListenerRegistry;
+    private final EventSequenceTracker sequenceTracker;
 
     public MessageProcessorChain() {
         list = new LinkedList<MessageProcessor>();
+        processorMap = new HashMap<String, MessageProcessor>();
+        eventListenerRegistry = new EventListenerRegistry();
+        sequenceTracker = new EventSequenceTracker(getClass().getSimpleName());
         initialize();
     }
 
@@ -41,21 +57,77 @@ public abstract class MessageProcessorChain {
 
     public abstract void removeEventListener(EventListener eventListener);
 
+    /**
+     * Add an event listener notified only of events of the given type carrying the given key.
+     *
+     * @param eventClass    event type
+     * @param keyType       event property compared to the key
+     * @param key           member id, cluster id or application id
+     * @param eventListener event listener
+     */
+    public void addEventListener(Class<? extends Event> eventClass, EventListenerRegistry.KeyType keyType,
+                                 String key, EventListener eventListener) {
+        eventListenerRegistry.addEventListener(eventClass, keyType, key, eventListener);
+    }
+
+    public void removeEventListener(Class<? extends Event> eventClass, EventListenerRegistry.KeyType keyType,
+                                    String key, EventListener eventListener) {
+        eventListenerRegistry.removeEventListener(eventClass, keyType, key, eventListener);
+    }
+
+    /**
+     * Remove all event listeners added for the given key.
+     *
+     * @param keyType event property compared to the key
+     * @param key     member id, cluster id or application id
+     */
+    public void removeEventListeners(EventListenerRegistry.KeyType keyType, String key) {
+        eventListenerRegistry.removeEventListeners(keyType, key);
+    }
+
     public void add(MessageProcessor messageProcessor) {
+        messageProcessor.setEventListenerRegistry(eventListenerRegistry);
         if (list.size() > 0) {
             list.getLast().setNext(messageProcessor);
         }
         list.add(messageProcessor);
     }
 
+    /**
+     * Add a message processor to the chain and index it by the event type it handles,
+     * so that messages of that type are dispatched to it directly.
+     *
+     * @param eventClass       event type processed by the message processor
+     * @param messageProcessor message processor
+     */
+    public void add(Class<? extends Event> eventClass, MessageProcessor messageProcessor) {
+        add(messageProcessor);
+        processorMap.put(eventClass.getName(), messageProcessor);
+    }
+
+    /**
+     * Returns the tracker of the sequence numbers of the messages processed by this chain.
+     */
+    public EventSequenceTracker getSequenceTracker() {
+        return sequenceTracker;
+    }
+
     public void removeLast() {
-        list.removeLast();
+        MessageProcessor last = list.removeLast();
+        processorMap.values().remove(last);
         if (list.size() > 0) {
             list.getLast().setNext(null);
         }
     }
 
     public boolean process(String type, String message, Object object) {
+        if (!sequenceTracker.accept(type, message)) {
+            return false;
+        }
+        MessageProcessor messageProcessor = processorMap.get(type);
+        if (messageProcessor != null) {
+            return messageProcessor.process(type, message, object);
+        }
         MessageProcessor root = list.getFirst();
         if (root == null) {
             throw new RuntimeException("Message processor chain is not initialized");
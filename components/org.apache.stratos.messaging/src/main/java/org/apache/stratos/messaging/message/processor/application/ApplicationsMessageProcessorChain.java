@@ -20,6 +20,21 @@ package org.apache.stratos.messaging.message.processor.application;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.event.application.ApplicationCreatedEvent;
+import org.apache.stratos.messaging.event.application.ApplicationDeletedEvent;
+import org.apache.stratos.messaging.event.application.ApplicationInstanceActivatedEvent;
+import org.apache.stratos.messaging.event.application.ApplicationInstanceCreatedEvent;
+import org.apache.stratos.messaging.event.application.ApplicationInstanceInactivatedEvent;
+import org.apache.stratos.messaging.event.application.ApplicationInstanceTerminatedEvent;
+import org.apache.stratos.messaging.event.application.ApplicationInstanceTerminatingEvent;
+import org.apache.stratos.messaging.event.application.ApplicationUpdatedEvent;
+import org.apache.stratos.messaging.event.application.CompleteApplicationsEvent;
+import org.apache.stratos.messaging.event.application.GroupInstanceActivatedEvent;
+import org.apache.stratos.messaging.event.application.GroupInstanceCreatedEvent;
+import org.apache.stratos.messaging.event.application.GroupInstanceInactivatedEvent;
+import org.apache.stratos.messaging.event.application.GroupInstanceTerminatedEvent;
+import org.apache.stratos.messaging.event.application.GroupInstanceTerminatingEvent;
+import org.apache.stratos.messaging.event.application.GroupMaintenanceModeEvent;
 import org.apache.stratos.messaging.listener.EventListener;
 import org.apache.stratos.messaging.listener.application.*;
 import org.apache.stratos.messaging.message.processor.MessageProcessorChain;
@@ -51,49 +66,49 @@ public class ApplicationsMessageProcessorChain extends MessageProcessorChain {
         // Add instance notifier event processors
 
         groupCreatedMessageProcessor = new GroupInstanceCreatedProcessor();
-        add(groupCreatedMessageProcessor);
+        add(GroupInstanceCreatedEvent.class, groupCreatedMessageProcessor);
 
         groupActivatedMessageProcessor = new GroupInstanceActivatedProcessor();
-        add(groupActivatedMessageProcessor);
+        add(GroupInstanceActivatedEvent.class, groupActivatedMessageProcessor);
 
         groupInactivateMessageProcessor = new GroupInstanceInactivateProcessor();
-        add(groupInactivateMessageProcessor);
+        add(GroupInstanceInactivatedEvent.class, groupInactivateMessageProcessor);
 
         groupTerminatedProcessor = new GroupInstanceTerminatedProcessor();
-        add(groupTerminatedProcessor);
+        add(GroupInstanceTerminatedEvent.class, groupTerminatedProcessor);
 
         groupTerminatingProcessor = new GroupInstanceTerminatingProcessor();
-        add(groupTerminatingProcessor);
+        add(GroupInstanceTerminatingEvent.class, groupTerminatingProcessor);
 
         applicationInstanceCreatedMessageProcessor = new ApplicationInstanceCreatedMessageProcessor();
-        add(applicationInstanceCreatedMessageProcessor);
+        add(ApplicationInstanceCreatedEvent.class, applicationInstanceCreatedMessageProcessor);
 
         applicationUpdatedMessageProcessor = new ApplicationUpdatedMessageProcessor();
-        add(applicationUpdatedMessageProcessor);
+        add(ApplicationUpdatedEvent.class, applicationUpdatedMessageProcessor);
 
         applicationActivatedMessageProcessor = new ApplicationInstanceActivatedMessageProcessor();
-        add(applicationActivatedMessageProcessor);
+        add(ApplicationInstanceActivatedEvent.class, applicationActivatedMessageProcessor);
 
         applicationCreatedMessageProcessor = new ApplicationCreatedMessageProcessor();
-        add(applicationCreatedMessageProcessor);
+        add(ApplicationCreatedEvent.class, applicationCreatedMessageProcessor);
 
         applicationDeletedMessageProcessor = new ApplicationDeletedMessageProcessor();
-        add(applicationDeletedMessageProcessor);
+        add(ApplicationDeletedEvent.class, applicationDeletedMessageProcessor);
 
         applicationInactivatedMessageProcessor = new ApplicationInstanceInactivatedMessageProcessor();
-        add(applicationInactivatedMessageProcessor);
+        add(ApplicationInstanceInactivatedEvent.class, applicationInactivatedMessageProcessor);
 
         applicationTerminatingMessageProcessor = new ApplicationInstanceTerminatingMessageProcessor();
-        add(applicationTerminatingMessageProcessor);
+        add(ApplicationInstanceTerminatingEvent.class, applicationTerminatingMessageProcessor);
 
         completeApplicationsMessageProcessor = new CompleteApplicationsMessageProcessor();
-        add(completeApplicationsMessageProcessor);
+        add(CompleteApplicationsEvent.class, completeApplicationsMessageProcessor);
 
         applicationTerminatedMessageProcessor = new ApplicationInstanceTerminatedMessageProcessor();
-        add(applicationTerminatedMessageProcessor);
+        add(ApplicationInstanceTerminatedEvent.class, applicationTerminatedMessageProcessor);
 
         groupMaintenanceModeProcessor = new GroupMaintenanceModeProcessor();
-        add(groupMaintenanceModeProcessor);
+        add(GroupMaintenanceModeEvent.class, groupMaintenanceModeProcessor);
 
         if (log.isDebugEnabled()) {
             log.debug("Instance notifier message processor chain initialized");
@@ -20,6 +20,12 @@ package org.apache.stratos.messaging.message.processor.cluster.status;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.event.cluster.status.ClusterStatusClusterActivatedEvent;
+import org.apache.stratos.messaging.event.cluster.status.ClusterStatusClusterInactivateEvent;
+import org.apache.stratos.messaging.event.cluster.status.ClusterStatusClusterInstanceCreatedEvent;
+import org.apache.stratos.messaging.event.cluster.status.ClusterStatusClusterResetEvent;
+import org.apache.stratos.messaging.event.cluster.status.ClusterStatusClusterTerminatedEvent;
+import org.apache.stratos.messaging.event.cluster.status.ClusterStatusClusterTerminatingEvent;
 import org.apache.stratos.messaging.listener.EventListener;
 import org.apache.stratos.messaging.listener.cluster.status.*;
 import org.apache.stratos.messaging.message.processor.MessageProcessorChain;
@@ -40,22 +46,22 @@ public class ClusterStatusMessageProcessorChain extends MessageProcessorChain {
     @Override
     protected void initialize() {
         clusterResetMessageProcessor = new ClusterStatusClusterResetMessageProcessor();
-        add(clusterResetMessageProcessor);
+        add(ClusterStatusClusterResetEvent.class, clusterResetMessageProcessor);
 
         clusterActivatedMessageProcessor = new ClusterStatusClusterActivatedMessageProcessor();
-        add(clusterActivatedMessageProcessor);
+        add(ClusterStatusClusterActivatedEvent.class, clusterActivatedMessageProcessor);
 
         clusterInactivateMessageProcessor = new ClusterStatusClusterInactivateMessageProcessor();
-        add(clusterInactivateMessageProcessor);
+        add(ClusterStatusClusterInactivateEvent.class, clusterInactivateMessageProcessor);
 
         clusterTerminatedMessageProcessor = new ClusterStatusClusterTerminatedMessageProcessor();
-        add(clusterTerminatedMessageProcessor);
+        add(ClusterStatusClusterTerminatedEvent.class, clusterTerminatedMessageProcessor);
 
         clusterTerminatingMessageProcessor = new ClusterStatusClusterTerminatingMessageProcessor();
-        add(clusterTerminatingMessageProcessor);
+        add(ClusterStatusClusterTerminatingEvent.class, clusterTerminatingMessageProcessor);
 
         clusterInstanceCreatedMessageProcessor = new ClusterStatusClusterInstanceCreatedMessageProcessor();
-        add(clusterInstanceCreatedMessageProcessor);
+        add(ClusterStatusClusterInstanceCreatedEvent.class, clusterInstanceCreatedMessageProcessor);
 
         if (log.isDebugEnabled()) {
             log.debug("Cluster status  message processor chain initialized");
@@ -21,6 +21,8 @@ package org.apache.stratos.messaging.message.processor.domain.mapping;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.event.domain.mapping.DomainMappingAddedEvent;
+import org.apache.stratos.messaging.event.domain.mapping.DomainMappingRemovedEvent;
 import org.apache.stratos.messaging.listener.EventListener;
 import org.apache.stratos.messaging.listener.domain.mapping.DomainMappingAddedEventListener;
 import org.apache.stratos.messaging.listener.domain.mapping.DomainMappingRemovedEventListener;
@@ -39,10 +41,10 @@ public class DomainMappingMessageProcessorChain extends MessageProcessorChain {
     @Override
     protected void initialize() {
         domainNameAddedMessageProcessor = new DomainMappingAddedMessageProcessor();
-        add(domainNameAddedMessageProcessor);
+        add(DomainMappingAddedEvent.class, domainNameAddedMessageProcessor);
 
         domainNameRemovedMessageProcessor = new DomainMappingRemovedMessageProcessor();
-        add(domainNameRemovedMessageProcessor);
+        add(DomainMappingRemovedEvent.class, domainNameRemovedMessageProcessor);
     }
 
     @Override
@@ -20,6 +20,23 @@
  */
 package org.apache.stratos.messaging.message.processor.health.stat;
 
+import org.apache.stratos.messaging.event.health.stat.AverageLoadAverageEvent;
+import org.apache.stratos.messaging.event.health.stat.AverageMemoryConsumptionEvent;
+import org.apache.stratos.messaging.event.health.stat.AverageRequestsInFlightEvent;
+import org.apache.stratos.messaging.event.health.stat.AverageRequestsServingCapabilityEvent;
+import org.apache.stratos.messaging.event.health.stat.GradientOfLoadAverageEvent;
+import org.apache.stratos.messaging.event.health.stat.GradientOfMemoryConsumptionEvent;
+import org.apache.stratos.messaging.event.health.stat.GradientOfRequestsInFlightEvent;
+import org.apache.stratos.messaging.event.health.stat.MemberAverageLoadAverageEvent;
+import org.apache.stratos.messaging.event.health.stat.MemberAverageMemoryConsumptionEvent;
+import org.apache.stratos.messaging.event.health.stat.MemberFaultEvent;
+import org.apache.stratos.messaging.event.health.stat.MemberGradientOfLoadAverageEvent;
+import org.apache.stratos.messaging.event.health.stat.MemberGradientOfMemoryConsumptionEvent;
+import org.apache.stratos.messaging.event.health.stat.MemberSecondDerivativeOfLoadAverageEvent;
+import org.apache.stratos.messaging.event.health.stat.MemberSecondDerivativeOfMemoryConsumptionEvent;
+import org.apache.stratos.messaging.event.health.stat.SecondDerivativeOfLoadAverageEvent;
+import org.apache.stratos.messaging.event.health.stat.SecondDerivativeOfMemoryConsumptionEvent;
+import org.apache.stratos.messaging.event.health.stat.SecondDerivativeOfRequestsInFlightEvent;
 import org.apache.stratos.messaging.listener.EventListener;
 import org.apache.stratos.messaging.listener.health.stat.*;
 import org.apache.stratos.messaging.message.processor.MessageProcessorChain;
@@ -52,44 +69,44 @@ public class HealthStatMessageProcessorChain extends MessageProcessorChain {
 
         //Most frequent first order is defined in default
         memberAverageLoadAverageMessageProcessor = new MemberAverageLoadAverageMessageProcessor();
-        add(memberAverageLoadAverageMessageProcessor);
+        add(MemberAverageLoadAverageEvent.class, memberAverageLoadAverageMessageProcessor);
         memberGradientOfLoadAverageMessageProcessor = new MemberGradientOfLoadAverageMessageProcessor();
-        add(memberGradientOfLoadAverageMessageProcessor);
+        add(MemberGradientOfLoadAverageEvent.class, memberGradientOfLoadAverageMessageProcessor);
         memberSecondDerivativeOfLoadAverageMessageProcessor = new MemberSecondDerivativeOfLoadAverageMessageProcessor();
-        add(memberSecondDerivativeOfLoadAverageMessageProcessor);
+        add(MemberSecondDerivativeOfLoadAverageEvent.class, memberSecondDerivativeOfLoadAverageMessageProcessor);
 
         memberAverageMemoryConsumptionMessageProcessor = new MemberAverageMemoryConsumptionMessageProcessor();
-        add(memberAverageMemoryConsumptionMessageProcessor);
+        add(MemberAverageMemoryConsumptionEvent.class, memberAverageMemoryConsumptionMessageProcessor);
         memberGradientOfMemoryConsumptionMessageProcessor = new MemberGradientOfMemoryConsumptionMessageProcessor();
-        add(memberGradientOfMemoryConsumptionMessageProcessor);
+        add(MemberGradientOfMemoryConsumptionEvent.class, memberGradientOfMemoryConsumptionMessageProcessor);
         memberSecondDerivativeOfMemoryConsumptionMessageProcessor = new MemberSecondDerivativeOfMemoryConsumptionMessageProcessor();
-        add(memberSecondDerivativeOfMemoryConsumptionMessageProcessor);
+        add(MemberSecondDerivativeOfMemoryConsumptionEvent.class, memberSecondDerivativeOfMemoryConsumptionMessageProcessor);
 
         averageRequestsInFlightMessageProcessor = new AverageRequestsInFlightMessageProcessor();
-        add(averageRequestsInFlightMessageProcessor);
+        add(AverageRequestsInFlightEvent.class, averageRequestsInFlightMessageProcessor);
         averageRequestsServingCapabilityMessageProcessor = new AverageRequestsServingCapabilityMessageProcessor();
-        add(averageRequestsServingCapabilityMessageProcessor);
+        add(AverageRequestsServingCapabilityEvent.class, averageRequestsServingCapabilityMessageProcessor);
         gradientOfRequestsInFlightMessageProcessor = new GradientOfRequestsInFlightMessageProcessor();
-        add(gradientOfRequestsInFlightMessageProcessor);
+        add(GradientOfRequestsInFlightEvent.class, gradientOfRequestsInFlightMessageProcessor);
         secondDerivativeOfRequestsInFlightMessageProcessor = new SecondDerivativeOfRequestsInFlightMessageProcessor();
-        add(secondDerivativeOfRequestsInFlightMessageProcessor);
+        add(SecondDerivativeOfRequestsInFlightEvent.class, secondDerivativeOfRequestsInFlightMessageProcessor);
 
         averageLoadAverageMessageProcessor = new AverageLoadAverageMessageProcessor();
-        add(averageLoadAverageMessageProcessor);
+        add(AverageLoadAverageEvent.class, averageLoadAverageMessageProcessor);
         gradientOfLoadAverageMessageProcessor = new GradientOfLoadAverageMessageProcessor();
-        add(gradientOfLoadAverageMessageProcessor);
+        add(GradientOfLoadAverageEvent.class, gradientOfLoadAverageMessageProcessor);
         secondDerivativeOfLoadAverageMessageProcessor = new SecondDerivativeOfLoadAverageMessageProcessor();
-        add(secondDerivativeOfLoadAverageMessageProcessor);
+        add(SecondDerivativeOfLoadAverageEvent.class, secondDerivativeOfLoadAverageMessageProcessor);
 
         averageMemoryConsumptionMessageProcessor = new AverageMemoryConsumptionMessageProcessor();
-        add(averageMemoryConsumptionMessageProcessor);
+        add(AverageMemoryConsumptionEvent.class, averageMemoryConsumptionMessageProcessor);
         gradientOfMemoryConsumptionMessageProcessor = new GradientOfMemoryConsumptionMessageProcessor();
-        add(gradientOfMemoryConsumptionMessageProcessor);
+        add(GradientOfMemoryConsumptionEvent.class, gradientOfMemoryConsumptionMessageProcessor);
         secondDerivativeOfMemoryConsumptionMessageProcessor = new SecondDerivativeOfMemoryConsumptionMessageProcessor();
-        add(secondDerivativeOfMemoryConsumptionMessageProcessor);
+        add(SecondDerivativeOfMemoryConsumptionEvent.class, secondDerivativeOfMemoryConsumptionMessageProcessor);
 
         memberFaultMessageProcessor = new MemberFaultMessageProcessor();
-        add(memberFaultMessageProcessor);
+        add(MemberFaultEvent.class, memberFaultMessageProcessor);
     }
 
     public void addEventListener(EventListener eventListener) {
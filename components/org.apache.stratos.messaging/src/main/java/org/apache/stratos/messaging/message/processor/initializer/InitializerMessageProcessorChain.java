@@ -20,6 +20,10 @@ package org.apache.stratos.messaging.message.processor.initializer;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.event.initializer.CompleteApplicationSignUpsRequestEvent;
+import org.apache.stratos.messaging.event.initializer.CompleteApplicationsRequestEvent;
+import org.apache.stratos.messaging.event.initializer.CompleteTenantRequestEvent;
+import org.apache.stratos.messaging.event.initializer.CompleteTopologyRequestEvent;
 import org.apache.stratos.messaging.listener.EventListener;
 import org.apache.stratos.messaging.listener.initializer.CompleteApplicationSignUpsRequestEventListener;
 import org.apache.stratos.messaging.listener.initializer.CompleteApplicationsRequestEventListener;
@@ -37,16 +41,16 @@ public class InitializerMessageProcessorChain extends MessageProcessorChain {
     @Override
     protected void initialize() {
         completeTopologyRequestMessageProcessor = new CompleteTopologyRequestMessageProcessor();
-        add(completeTopologyRequestMessageProcessor);
+        add(CompleteTopologyRequestEvent.class, completeTopologyRequestMessageProcessor);
 
         completeApplicationsRequestMessageProcessor = new CompleteApplicationsRequestMessageProcessor();
-        add(completeApplicationsRequestMessageProcessor);
+        add(CompleteApplicationsRequestEvent.class, completeApplicationsRequestMessageProcessor);
 
         completeTenantRequestMessageProcessor = new CompleteTenantRequestMessageProcessor();
-        add(completeTenantRequestMessageProcessor);
+        add(CompleteTenantRequestEvent.class, completeTenantRequestMessageProcessor);
 
         completeApplicationSignUpsRequestMessageProcessor = new CompleteApplicationSignUpsRequestMessageProcessor();
-        add(completeApplicationSignUpsRequestMessageProcessor);
+        add(CompleteApplicationSignUpsRequestEvent.class, completeApplicationSignUpsRequestMessageProcessor);
 
         if (log.isDebugEnabled()) {
             log.debug("Initializer message processor chain initialized");
@@ -21,6 +21,10 @@ package org.apache.stratos.messaging.message.processor.instance.status;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.event.instance.status.InstanceActivatedEvent;
+import org.apache.stratos.messaging.event.instance.status.InstanceMaintenanceModeEvent;
+import org.apache.stratos.messaging.event.instance.status.InstanceReadyToShutdownEvent;
+import org.apache.stratos.messaging.event.instance.status.InstanceStartedEvent;
 import org.apache.stratos.messaging.listener.EventListener;
 import org.apache.stratos.messaging.listener.instance.status.InstanceActivatedEventListener;
 import org.apache.stratos.messaging.listener.instance.status.InstanceMaintenanceListener;
@@ -43,16 +47,16 @@ public class InstanceStatusMessageProcessorChain extends MessageProcessorChain {
     public void initialize() {
         // Add instance notifier event processors
         instanceStatusMemberActivatedMessageProcessor = new InstanceStatusMemberActivatedMessageProcessor();
-        add(instanceStatusMemberActivatedMessageProcessor);
+        add(InstanceActivatedEvent.class, instanceStatusMemberActivatedMessageProcessor);
 
         instanceStatusMemberStartedMessageProcessor = new InstanceStatusMemberStartedMessageProcessor();
-        add(instanceStatusMemberStartedMessageProcessor);
+        add(InstanceStartedEvent.class, instanceStatusMemberStartedMessageProcessor);
 
         instanceStatusMemberReadyToShutdownMessageProcessor = new InstanceStatusMemberReadyToShutdownMessageProcessor();
-        add(instanceStatusMemberReadyToShutdownMessageProcessor);
+        add(InstanceReadyToShutdownEvent.class, instanceStatusMemberReadyToShutdownMessageProcessor);
 
         instanceStatusMemberMaintenanceMessageProcessor = new InstanceStatusMemberMaintenanceMessageProcessor();
-        add(instanceStatusMemberMaintenanceMessageProcessor);
+        add(InstanceMaintenanceModeEvent.class, instanceStatusMemberMaintenanceMessageProcessor);
 
 
         if (log.isDebugEnabled()) {
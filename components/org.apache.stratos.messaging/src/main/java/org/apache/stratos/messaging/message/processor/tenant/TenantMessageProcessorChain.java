@@ -21,6 +21,10 @@ package org.apache.stratos.messaging.message.processor.tenant;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.event.tenant.CompleteTenantEvent;
+import org.apache.stratos.messaging.event.tenant.TenantCreatedEvent;
+import org.apache.stratos.messaging.event.tenant.TenantRemovedEvent;
+import org.apache.stratos.messaging.event.tenant.TenantUpdatedEvent;
 import org.apache.stratos.messaging.listener.EventListener;
 import org.apache.stratos.messaging.listener.tenant.CompleteTenantEventListener;
 import org.apache.stratos.messaging.listener.tenant.TenantCreatedEventListener;
@@ -42,16 +46,16 @@ public class TenantMessageProcessorChain extends MessageProcessorChain {
     public void initialize() {
         // Initialize tenant event processors
         completeTenantMessageProcessor = new CompleteTenantMessageProcessor();
-        add(completeTenantMessageProcessor);
+        add(CompleteTenantEvent.class, completeTenantMessageProcessor);
 
         tenantCreatedMessageProcessor = new TenantCreatedMessageProcessor();
-        add(tenantCreatedMessageProcessor);
+        add(TenantCreatedEvent.class, tenantCreatedMessageProcessor);
 
         tenantUpdatedMessageProcessor = new TenantUpdatedMessageProcessor();
-        add(tenantUpdatedMessageProcessor);
+        add(TenantUpdatedEvent.class, tenantUpdatedMessageProcessor);
 
         tenantRemovedMessageProcessor = new TenantRemovedMessageProcessor();
-        add(tenantRemovedMessageProcessor);
+        add(TenantRemovedEvent.class, tenantRemovedMessageProcessor);
 
         if (log.isDebugEnabled()) {
             log.debug("Tenant message processor chain initialized");
@@ -58,6 +58,12 @@ public class ApplicationClustersCreatedMessageProcessor extends MessageProcessor
             // Parse complete message and build event
             ApplicationClustersCreatedEvent event = (ApplicationClustersCreatedEvent) MessagingUtil.
                     jsonToObject(message, ApplicationClustersCreatedEvent.class);
+
+            // Skip events already reflected in the topology
+            if (!TopologyManager.getVersionTracker().accept(event)) {
+                return false;
+            }
+
             return doProcess(event, topology);
 
 
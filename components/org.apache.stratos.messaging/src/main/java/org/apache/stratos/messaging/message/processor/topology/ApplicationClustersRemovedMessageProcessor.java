@@ -56,6 +56,11 @@ public class ApplicationClustersRemovedMessageProcessor extends MessageProcessor
             ApplicationClustersRemovedEvent event = (ApplicationClustersRemovedEvent) MessagingUtil.
                     jsonToObject(message, ApplicationClustersRemovedEvent.class);
 
+            // Skip events already reflected in the topology
+            if (!TopologyManager.getVersionTracker().accept(event)) {
+                return false;
+            }
+
             return doProcess(event, topology);
 
         } else {
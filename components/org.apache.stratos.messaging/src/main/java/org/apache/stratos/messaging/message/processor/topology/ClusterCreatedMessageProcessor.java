@@ -54,6 +54,11 @@ public class ClusterCreatedMessageProcessor extends MessageProcessor {
 
             // Parse complete message and build event
             ClusterCreatedEvent event = (ClusterCreatedEvent) MessagingUtil.jsonToObject(message, ClusterCreatedEvent.class);
+
+            // Skip events already reflected in the topology
+            if (!TopologyManager.getVersionTracker().accept(event)) {
+                return false;
+            }
             String serviceName = event.getCluster().getServiceName();
             TopologyUpdater.acquireWriteLockForService(serviceName);
             try {
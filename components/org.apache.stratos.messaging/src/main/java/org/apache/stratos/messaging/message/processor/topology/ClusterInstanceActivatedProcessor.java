@@ -61,6 +61,11 @@ public class ClusterInstanceActivatedProcessor extends MessageProcessor {
             ClusterInstanceActivatedEvent event = (ClusterInstanceActivatedEvent) MessagingUtil.
                     jsonToObject(message, ClusterInstanceActivatedEvent.class);
 
+            // Skip events already reflected in the topology
+            if (!TopologyManager.getVersionTracker().accept(event)) {
+                return false;
+            }
+
             String clusterId = event.getClusterId();
             TopologyUpdater.acquireWriteLockForCluster(event.getServiceName(), clusterId);
             try {
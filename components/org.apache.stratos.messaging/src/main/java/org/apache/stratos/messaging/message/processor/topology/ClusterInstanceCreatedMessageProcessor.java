@@ -57,6 +57,11 @@ public class ClusterInstanceCreatedMessageProcessor extends MessageProcessor {
             ClusterInstanceCreatedEvent event = (ClusterInstanceCreatedEvent) MessagingUtil.
                     jsonToObject(message, ClusterInstanceCreatedEvent.class);
 
+            // Skip events already reflected in the topology
+            if (!TopologyManager.getVersionTracker().accept(event)) {
+                return false;
+            }
+
             TopologyUpdater.acquireWriteLockForService(event.getServiceName());
             try {
                 return doProcess(event, topology);
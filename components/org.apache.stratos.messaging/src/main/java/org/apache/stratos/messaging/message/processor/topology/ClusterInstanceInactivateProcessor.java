@@ -61,6 +61,11 @@ public class ClusterInstanceInactivateProcessor extends MessageProcessor {
             ClusterInstanceInactivateEvent event = (ClusterInstanceInactivateEvent) MessagingUtil.
                     jsonToObject(message, ClusterInstanceInactivateEvent.class);
 
+            // Skip events already reflected in the topology
+            if (!TopologyManager.getVersionTracker().accept(event)) {
+                return false;
+            }
+
             TopologyUpdater.acquireWriteLockForCluster(event.getServiceName(), event.getClusterId());
             try {
                 return doProcess(event, topology);
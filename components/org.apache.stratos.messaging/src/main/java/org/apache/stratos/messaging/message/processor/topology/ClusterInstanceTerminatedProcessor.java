@@ -61,6 +61,11 @@ public class ClusterInstanceTerminatedProcessor extends MessageProcessor {
             ClusterInstanceTerminatedEvent event = (ClusterInstanceTerminatedEvent) MessagingUtil.
                     jsonToObject(message, ClusterInstanceTerminatedEvent.class);
 
+            // Skip events already reflected in the topology
+            if (!TopologyManager.getVersionTracker().accept(event)) {
+                return false;
+            }
+
             TopologyUpdater.acquireWriteLockForCluster(event.getServiceName(), event.getClusterId());
             try {
                 return doProcess(event, topology);
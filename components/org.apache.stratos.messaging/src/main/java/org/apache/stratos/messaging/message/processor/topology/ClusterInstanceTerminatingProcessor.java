@@ -61,6 +61,11 @@ public class ClusterInstanceTerminatingProcessor extends MessageProcessor {
             ClusterInstanceTerminatingEvent event = (ClusterInstanceTerminatingEvent) MessagingUtil.
                     jsonToObject(message, ClusterInstanceTerminatingEvent.class);
 
+            // Skip events already reflected in the topology
+            if (!TopologyManager.getVersionTracker().accept(event)) {
+                return false;
+            }
+
             TopologyUpdater.acquireWriteLockForCluster(event.getServiceName(), event.getClusterId());
             try {
                 return doProcess(event, topology);
@@ -58,6 +58,11 @@ public class ClusterResetMessageProcessor extends MessageProcessor {
             ClusterResetEvent event = (ClusterResetEvent) MessagingUtil.
                     jsonToObject(message, ClusterResetEvent.class);
 
+            // Skip events already reflected in the topology
+            if (!TopologyManager.getVersionTracker().accept(event)) {
+                return false;
+            }
+
             TopologyUpdater.acquireWriteLockForService(event.getServiceName());
             try {
                 return doProcess(event, topology);
@@ -32,6 +32,7 @@ import org.apache.stratos.messaging.message.filter.topology.TopologyServiceFilte
 import org.apache.stratos.messaging.message.processor.MessageProcessor;
 import org.apache.stratos.messaging.message.processor.topology.updater.TopologyUpdater;
 import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
+import org.apache.stratos.messaging.message.receiver.topology.TopologyVersionTracker;
 import org.apache.stratos.messaging.util.MessagingUtil;
 
 import java.util.ArrayList;
@@ -55,11 +56,25 @@ public class CompleteTopologyMessageProcessor extends MessageProcessor {
             // Parse complete message and build event
             CompleteTopologyEvent event = (CompleteTopologyEvent) MessagingUtil.jsonToObject(message, CompleteTopologyEvent.class);
 
+            TopologyVersionTracker versionTracker = TopologyManager.getVersionTracker();
             if (!TopologyManager.isInitialized()) {
                 TopologyUpdater.acquireWriteLock();
 
                 try {
                     doProcess(event, topology);
+                    versionTracker.snapshotApplied(event.getTopologyVersion());
+
+                } finally {
+                    TopologyUpdater.releaseWriteLock();
+                }
+            } else if (versionTracker.isSnapshotRequired(event.getTopologyVersion())) {
+                // Topology events have been missed, rebuild the topology from the snapshot
+                TopologyUpdater.acquireWriteLock();
+
+                try {
+                    topology.clear();
+                    doProcess(event, topology);
+                    versionTracker.snapshotApplied(event.getTopologyVersion());
 
                 } finally {
                     TopologyUpdater.releaseWriteLock();
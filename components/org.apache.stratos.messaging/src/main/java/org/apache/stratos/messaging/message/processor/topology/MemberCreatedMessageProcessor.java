@@ -55,12 +55,18 @@ public class MemberCreatedMessageProcessor extends MessageProcessor {
             // Parse complete message and build event
             MemberCreatedEvent event = (MemberCreatedEvent) MessagingUtil.jsonToObject(message, MemberCreatedEvent.class);
 
+            // Skip events already reflected in the topology
+            if (!TopologyManager.getVersionTracker().accept(event)) {
+                return false;
+            }
+
             TopologyUpdater.acquireWriteLockForCluster(event.getServiceName(), event.getClusterId());
             try {
                 return doProcess(event, topology);
 
             } finally {
-                TopologyUpdater.releaseWriteLockForCluster(event.getServiceName(), event.getClusterId());
+                TopologyUpdater.releaseWriteLockForCluster(event.getServiceName(), event.getClusterId(),
+                        event.getMemberId());
             }
 
         } else {
@@ -53,11 +53,17 @@ public class MemberInitializedMessageProcessor extends MessageProcessor {
             // Parse complete message and build event
             MemberInitializedEvent event = (MemberInitializedEvent) MessagingUtil.jsonToObject(message, MemberInitializedEvent.class);
 
+            // Skip events already reflected in the topology
+            if (!TopologyManager.getVersionTracker().accept(event)) {
+                return false;
+            }
+
             TopologyUpdater.acquireWriteLockForCluster(event.getServiceName(), event.getClusterId());
             try {
                 return doProcess(event, topology);
             } finally {
-                TopologyUpdater.releaseWriteLockForCluster(event.getServiceName(), event.getClusterId());
+                TopologyUpdater.releaseWriteLockForCluster(event.getServiceName(), event.getClusterId(),
+                        event.getMemberId());
             }
         } else {
             if (nextProcessor != null) {
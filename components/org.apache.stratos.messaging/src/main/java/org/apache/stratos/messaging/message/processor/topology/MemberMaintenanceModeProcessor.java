@@ -54,12 +54,18 @@ public class MemberMaintenanceModeProcessor extends MessageProcessor {
             MemberMaintenanceModeEvent event = (MemberMaintenanceModeEvent) MessagingUtil.
                     jsonToObject(message, MemberMaintenanceModeEvent.class);
 
+            // Skip events already reflected in the topology
+            if (!TopologyManager.getVersionTracker().accept(event)) {
+                return false;
+            }
+
             TopologyUpdater.acquireWriteLockForCluster(event.getServiceName(), event.getClusterId());
             try {
                 return doProcess(event, topology);
 
             } finally {
-                TopologyUpdater.releaseWriteLockForCluster(event.getServiceName(), event.getClusterId());
+                TopologyUpdater.releaseWriteLockForCluster(event.getServiceName(), event.getClusterId(),
+                        event.getMemberId());
             }
 
         } else {
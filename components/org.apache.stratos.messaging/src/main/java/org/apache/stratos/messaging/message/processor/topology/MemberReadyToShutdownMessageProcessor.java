@@ -53,12 +53,18 @@ public class MemberReadyToShutdownMessageProcessor extends MessageProcessor {
             MemberReadyToShutdownEvent event = (MemberReadyToShutdownEvent) MessagingUtil.
                     jsonToObject(message, MemberReadyToShutdownEvent.class);
 
+            // Skip events already reflected in the topology
+            if (!TopologyManager.getVersionTracker().accept(event)) {
+                return false;
+            }
+
             TopologyUpdater.acquireWriteLockForCluster(event.getServiceName(), event.getClusterId());
             try {
                 return doProcess(event, topology);
 
             } finally {
-                TopologyUpdater.releaseWriteLockForCluster(event.getServiceName(), event.getClusterId());
+                TopologyUpdater.releaseWriteLockForCluster(event.getServiceName(), event.getClusterId(),
+                        event.getMemberId());
             }
 
         } else {
@@ -52,6 +52,11 @@ public class ServiceCreatedMessageProcessor extends MessageProcessor {
             // Parse complete message and build event
             ServiceCreatedEvent event = (ServiceCreatedEvent) MessagingUtil.jsonToObject(message, ServiceCreatedEvent.class);
 
+            // Skip events already reflected in the topology
+            if (!TopologyManager.getVersionTracker().accept(event)) {
+                return false;
+            }
+
             TopologyUpdater.acquireWriteLockForServices();
             try {
                 return doProcess(event, topology);
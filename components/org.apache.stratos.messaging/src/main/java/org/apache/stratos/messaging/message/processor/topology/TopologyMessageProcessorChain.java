@@ -21,6 +21,27 @@ package org.apache.stratos.messaging.message.processor.topology;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.event.topology.ApplicationClustersCreatedEvent;
+import org.apache.stratos.messaging.event.topology.ApplicationClustersRemovedEvent;
+import org.apache.stratos.messaging.event.topology.ClusterCreatedEvent;
+import org.apache.stratos.messaging.event.topology.ClusterInstanceActivatedEvent;
+import org.apache.stratos.messaging.event.topology.ClusterInstanceCreatedEvent;
+import org.apache.stratos.messaging.event.topology.ClusterInstanceInactivateEvent;
+import org.apache.stratos.messaging.event.topology.ClusterInstanceTerminatedEvent;
+import org.apache.stratos.messaging.event.topology.ClusterInstanceTerminatingEvent;
+import org.apache.stratos.messaging.event.topology.ClusterRemovedEvent;
+import org.apache.stratos.messaging.event.topology.ClusterResetEvent;
+import org.apache.stratos.messaging.event.topology.CompleteTopologyEvent;
+import org.apache.stratos.messaging.event.topology.MemberActivatedEvent;
+import org.apache.stratos.messaging.event.topology.MemberCreatedEvent;
+import org.apache.stratos.messaging.event.topology.MemberInitializedEvent;
+import org.apache.stratos.messaging.event.topology.MemberMaintenanceModeEvent;
+import org.apache.stratos.messaging.event.topology.MemberReadyToShutdownEvent;
+import org.apache.stratos.messaging.event.topology.MemberStartedEvent;
+import org.apache.stratos.messaging.event.topology.MemberSuspendedEvent;
+import org.apache.stratos.messaging.event.topology.MemberTerminatedEvent;
+import org.apache.stratos.messaging.event.topology.ServiceCreatedEvent;
+import org.apache.stratos.messaging.event.topology.ServiceRemovedEvent;
 import org.apache.stratos.messaging.listener.EventListener;
 import org.apache.stratos.messaging.listener.topology.*;
 import org.apache.stratos.messaging.message.processor.MessageProcessorChain;
@@ -57,67 +78,67 @@ public class TopologyMessageProcessorChain extends MessageProcessorChain {
     public void initialize() {
         // Add topology event processors
         completeTopologyMessageProcessor = new CompleteTopologyMessageProcessor();
-        add(completeTopologyMessageProcessor);
+        add(CompleteTopologyEvent.class, completeTopologyMessageProcessor);
 
         serviceCreatedMessageProcessor = new ServiceCreatedMessageProcessor();
-        add(serviceCreatedMessageProcessor);
+        add(ServiceCreatedEvent.class, serviceCreatedMessageProcessor);
 
         serviceRemovedMessageProcessor = new ServiceRemovedMessageProcessor();
-        add(serviceRemovedMessageProcessor);
+        add(ServiceRemovedEvent.class, serviceRemovedMessageProcessor);
 
         appClustersCreatedMessageProcessor = new ApplicationClustersCreatedMessageProcessor();
-        add(appClustersCreatedMessageProcessor);
+        add(ApplicationClustersCreatedEvent.class, appClustersCreatedMessageProcessor);
 
         appClustersRemovedMessageProcessor = new ApplicationClustersRemovedMessageProcessor();
-        add(appClustersRemovedMessageProcessor);
+        add(ApplicationClustersRemovedEvent.class, appClustersRemovedMessageProcessor);
 
         clusterCreatedMessageProcessor = new ClusterCreatedMessageProcessor();
-        add(clusterCreatedMessageProcessor);
+        add(ClusterCreatedEvent.class, clusterCreatedMessageProcessor);
 
         clusterActivatedProcessor = new ClusterInstanceActivatedProcessor();
-        add(clusterActivatedProcessor);
+        add(ClusterInstanceActivatedEvent.class, clusterActivatedProcessor);
 
         clusterInactivateProcessor = new ClusterInstanceInactivateProcessor();
-        add(clusterInactivateProcessor);
+        add(ClusterInstanceInactivateEvent.class, clusterInactivateProcessor);
 
         clusterRemovedMessageProcessor = new ClusterRemovedMessageProcessor();
-        add(clusterRemovedMessageProcessor);
+        add(ClusterRemovedEvent.class, clusterRemovedMessageProcessor);
 
         clusterTerminatedProcessor = new ClusterInstanceTerminatedProcessor();
-        add(clusterTerminatedProcessor);
+        add(ClusterInstanceTerminatedEvent.class, clusterTerminatedProcessor);
 
         clusterInstanceCreatedMessageProcessor = new ClusterInstanceCreatedMessageProcessor();
-        add(clusterInstanceCreatedMessageProcessor);
+        add(ClusterInstanceCreatedEvent.class, clusterInstanceCreatedMessageProcessor);
 
         clusterResetMessageProcessor = new ClusterResetMessageProcessor();
-        add(clusterResetMessageProcessor);
+        add(ClusterResetEvent.class, clusterResetMessageProcessor);
 
         clusterTerminatingProcessor = new ClusterInstanceTerminatingProcessor();
-        add(clusterTerminatingProcessor);
+        add(ClusterInstanceTerminatingEvent.class, clusterTerminatingProcessor);
 
         memberCreatedMessageProcessor = new MemberCreatedMessageProcessor();
-        add(memberCreatedMessageProcessor);
+        add(MemberCreatedEvent.class, memberCreatedMessageProcessor);
 
         memberInitializedMessageProcessor = new MemberInitializedMessageProcessor();
-        add(memberInitializedMessageProcessor);
+        add(MemberInitializedEvent.class, memberInitializedMessageProcessor);
 
         memberStartedMessageProcessor = new MemberStartedMessageProcessor();
-        add(memberStartedMessageProcessor);
+        add(MemberStartedEvent.class, memberStartedMessageProcessor);
 
         memberActivatedMessageProcessor = new MemberActivatedMessageProcessor();
-        add(memberActivatedMessageProcessor);
+        add(MemberActivatedEvent.class, memberActivatedMessageProcessor);
 
         memberReadyToShutdownProcessor = new MemberReadyToShutdownMessageProcessor();
-        add(memberReadyToShutdownProcessor);
+        add(MemberReadyToShutdownEvent.class, memberReadyToShutdownProcessor);
 
         memberMaintenanceModeProcessor = new MemberMaintenanceModeProcessor();
-        add(memberMaintenanceModeProcessor);
+        add(MemberMaintenanceModeEvent.class, memberMaintenanceModeProcessor);
 
         memberSuspendedMessageProcessor = new MemberSuspendedMessageProcessor();
-        add(memberSuspendedMessageProcessor);
+        add(MemberSuspendedEvent.class, memberSuspendedMessageProcessor);
 
         memberTerminatedMessageProcessor = new MemberTerminatedMessageProcessor();
-        add(memberTerminatedMessageProcessor);
+        add(MemberTerminatedEvent.class, memberTerminatedMessageProcessor);
 
         if (log.isDebugEnabled()) {
             log.debug("Topology message processor chain initialized X1");
@@ -24,6 +24,7 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.messaging.domain.topology.locking.TopologyLock;
 import org.apache.stratos.messaging.domain.topology.locking.TopologyLockHierarchy;
 import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
+import org.apache.stratos.messaging.message.receiver.topology.TopologySnapshotManager;
 
 /**
  * Used to lock the Topology for writes by messaging component
@@ -77,6 +78,11 @@ public class TopologyUpdater {
      * Releases write lock for the Complete Topology
      */
     public static void releaseWriteLock() {
+        if (TopologySnapshotManager.isEnabled()) {
+            // Wait for cluster and service updates and publish a snapshot of the complete topology
+            acquireWriteLockForServices();
+            releaseWriteLockForServices();
+        }
         if (log.isDebugEnabled()) {
             log.debug("Write lock released for Topology");
         }
@@ -99,6 +105,7 @@ public class TopologyUpdater {
      * Releases write lock for the all Services
      */
     public static void releaseWriteLockForServices() {
+        TopologySnapshotManager.topologyUpdated();
         if (log.isDebugEnabled()) {
             log.debug("Write lock released for Services");
         }
@@ -134,6 +141,8 @@ public class TopologyUpdater {
      */
     public static void releaseWriteLockForService(String serviceName) {
 
+        TopologySnapshotManager.serviceUpdated(serviceName);
+
         TopologyLock topologyServiceLock = topologyLockHierarchy.getTopologyLockForService(serviceName, false);
         if (topologyServiceLock == null) {
             handleLockNotFound("Topology lock not found for Service " + serviceName);
@@ -184,6 +193,25 @@ public class TopologyUpdater {
      */
     public static void releaseWriteLockForCluster(String serviceName, String clusterId) {
 
+        TopologySnapshotManager.clusterUpdated(serviceName, clusterId);
+        releaseClusterLock(serviceName, clusterId);
+    }
+
+    /**
+     * Releases write lock for a Cluster acquired for updating a single member of the cluster,
+     * only that member is copied to the topology snapshot.
+     *
+     * @param serviceName service name to release write lock
+     * @param clusterId   cluster id to release write lock
+     * @param memberId    member id of the member updated
+     */
+    public static void releaseWriteLockForCluster(String serviceName, String clusterId, String memberId) {
+
+        TopologySnapshotManager.memberUpdated(serviceName, clusterId, memberId);
+        releaseClusterLock(serviceName, clusterId);
+    }
+
+    private static void releaseClusterLock(String serviceName, String clusterId) {
         TopologyLock topologyClusterLock = topologyLockHierarchy.getTopologyLockForCluster(clusterId, false);
         if (topologyClusterLock == null) {
             handleLockNotFound("Topology lock not found for Cluster " + clusterId);
@@ -0,0 +1,966 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.receiver;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.threading.StratosThreadPool;
+import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.message.codec.MessageCodecFactory;
+import org.apache.stratos.messaging.util.MessagingUtil;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded blocking queue of the event messages received by an event receiver.
+ * <p/>
+ * The message listener of a receiver adds messages received from the message broker and the
+ * message delegator takes them for processing. Once the queue reaches its capacity, messages
+ * are handled according to the overflow policy of the queue:
+ * <ul>
+ * <li>Block: the message listener waits until the delegator has taken a message, which in turn
+ * blocks the message broker callback.</li>
+ * <li>DropOldest: the oldest queued normal message is dropped. Control and bulk messages are never
+ * dropped, if no normal message is queued the message listener waits as done by Block.</li>
+ * <li>Coalesce: a message replaces the queued message of the same coalescing key, if any,
+ * otherwise the message listener waits as done by Block. Coalescing is applied regardless of the
+ * queue size.</li>
+ * <li>SpillToDisk: messages are written to a temporary file and read back in order.</li>
+ * </ul>
+ * The capacity and overflow policy are configured using the stratos.messaging.queue.[name].capacity
+ * and stratos.messaging.queue.[name].overflow.policy system properties, falling back to
+ * stratos.messaging.queue.capacity and stratos.messaging.queue.overflow.policy. Queue depth,
+ * rates and latency are exposed as JMX metrics under org.apache.stratos.messaging:type=EventMessageQueue.
+ * <p/>
+ * Messages are queued in priority lanes so that small, latency sensitive events are not held up
+ * behind large synchronization events:
+ * <ul>
+ * <li>Control: events such as member terminated and member suspended, configured using the
+ * stratos.messaging.queue.control.events system property. A control message is taken before the
+ * normal messages queued earlier, unless one of them is about the same cluster or is not about any
+ * particular cluster, in which case the control message is queued in the normal lane to keep
+ * the order of the events of the cluster.</li>
+ * <li>Normal: all other events, taken in the order they were added.</li>
+ * <li>Bulk: complete topology, applications and tenant events. A bulk message is a barrier for
+ * the messages added after it, unless the receiver allows those to overtake it (see
+ * {@link #isBulkOvertakingAllowed()}). A bulk message which has been a barrier stays a barrier
+ * until it has been taken, the message delegator processes it before taking the next message.
+ * Bulk messages which may be overtaken when added are decoded in the background and taken once
+ * decoded, so that the delegator thread is not blocked while a large event is being parsed. The decoded event is carried by the message to the thread processing it,
+ * see {@link Message#getDecodedObject()}.</li>
+ * </ul>
+ * Lanes are disabled using the stratos.messaging.queue.lanes.enabled system property, in which
+ * case all messages are taken in the order they were added.
+ */
+public class EventMessageQueue implements EventMessageQueueMBean {
+
+    private static final Log log = LogFactory.getLog(EventMessageQueue.class);
+
+    public static final String QUEUE_PROPERTY_PREFIX = "stratos.messaging.queue.";
+    public static final String CAPACITY_PROPERTY = "capacity";
+    public static final String OVERFLOW_POLICY_PROPERTY = "overflow.policy";
+    public static final String SPILL_DIRECTORY_PROPERTY = "stratos.messaging.queue.spill.directory";
+    public static final String JMX_ENABLED_PROPERTY = "stratos.messaging.queue.jmx.enabled";
+    public static final String LANES_ENABLED_PROPERTY = "stratos.messaging.queue.lanes.enabled";
+    public static final String CONTROL_EVENTS_PROPERTY = "stratos.messaging.queue.control.events";
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    private static final String OBJECT_NAME_PREFIX = "org.apache.stratos.messaging:type=EventMessageQueue,name=";
+    private static final char KEY_SEPARATOR = '|';
+    // Event fields which identify the entity an event message is about
+    private static final String[] COALESCING_KEY_FIELDS = {"applicationId", "serviceName", "clusterId",
+            "clusterInstanceId", "networkPartitionId", "memberId"};
+    private static final String DEFAULT_CONTROL_EVENTS = "MemberTerminatedEvent,MemberSuspendedEvent," +
+            "MemberReadyToShutdownEvent,MemberMaintenanceModeEvent,ClusterRemovedEvent";
+    private static final Set<String> CONTROL_EVENTS = getConfiguredControlEvents();
+    private static final JsonFieldShardKeyResolver ORDERING_KEY_RESOLVER =
+            new JsonFieldShardKeyResolver(true, "clusterId", "cluster.clusterId");
+    private static final String DECODER_THREAD_POOL_ID = "messaging.event.queue.bulk.decoder";
+
+    /**
+     * Handling of messages added to a full queue.
+     */
+    public enum OverflowPolicy {
+        Block, DropOldest, Coalesce, SpillToDisk
+    }
+
+    /**
+     * Priority lanes of the queue.
+     */
+    public enum Lane {
+        Control, Normal, Bulk
+    }
+
+    private final String name;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final boolean lanesEnabled;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    // Following fields are guarded by the lock
+    private final ArrayDeque<QueueEntry> controlEntries = new ArrayDeque<QueueEntry>();
+    private final ArrayDeque<QueueEntry> normalEntries = new ArrayDeque<QueueEntry>();
+    private final ArrayDeque<QueueEntry> bulkEntries = new ArrayDeque<QueueEntry>();
+    private final Map<String, QueueEntry> coalescingEntries = new HashMap<String, QueueEntry>();
+    // Number of normal messages of each ordering key and without ordering key
+    private final Map<String, Integer> normalOrderingKeyCounts = new HashMap<String, Integer>();
+    private int normalUnkeyedCount;
+    private final RateMeter enqueueRateMeter = new RateMeter();
+    private final RateMeter dequeueRateMeter = new RateMeter();
+    private EventMessageSpillFile spillFile;
+    // Number of messages in the lanes, excluding spilled messages
+    private int entryCount;
+    private long nextSequence;
+    private long enqueuedCount;
+    private long dequeuedCount;
+    private long droppedCount;
+    private long coalescedCount;
+    private long spilledCount;
+    private long blockedCount;
+    private long maxLatency;
+    private long maxControlLatency;
+
+    /**
+     * Create a queue configured by the system properties of the given queue name, blocking on
+     * overflow unless configured otherwise.
+     *
+     * @param name queue name
+     */
+    public EventMessageQueue(String name) {
+        this(name, OverflowPolicy.Block);
+    }
+
+    /**
+     * Create a queue configured by the system properties of the given queue name.
+     *
+     * @param name                  queue name
+     * @param defaultOverflowPolicy overflow policy used if not configured
+     */
+    public EventMessageQueue(String name, OverflowPolicy defaultOverflowPolicy) {
+        this(name, getConfiguredCapacity(name), getConfiguredOverflowPolicy(name, defaultOverflowPolicy));
+    }
+
+    public EventMessageQueue(String name, int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Queue capacity should be greater than zero: " + capacity);
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.lanesEnabled = Boolean.parseBoolean(System.getProperty(LANES_ENABLED_PROPERTY, "true"));
+        registerMBean();
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Event message queue created: [name] %s [capacity] %d [overflow-policy] %s " +
+                    "[lanes-enabled] %b", name, capacity, overflowPolicy, lanesEnabled));
+        }
+    }
+
+    /**
+     * Return the capacity configured for the given queue name.
+     *
+     * @param name queue name
+     * @return queue capacity
+     */
+    public static int getConfiguredCapacity(String name) {
+        int capacity = MessagingUtil.getNumericSystemProperty(DEFAULT_CAPACITY,
+                QUEUE_PROPERTY_PREFIX + CAPACITY_PROPERTY);
+        return MessagingUtil.getNumericSystemProperty(capacity, QUEUE_PROPERTY_PREFIX + name + "." +
+                CAPACITY_PROPERTY);
+    }
+
+    private static OverflowPolicy getConfiguredOverflowPolicy(String name, OverflowPolicy defaultOverflowPolicy) {
+        String value = System.getProperty(QUEUE_PROPERTY_PREFIX + name + "." + OVERFLOW_POLICY_PROPERTY,
+                System.getProperty(QUEUE_PROPERTY_PREFIX + OVERFLOW_POLICY_PROPERTY));
+        if (value == null) {
+            return defaultOverflowPolicy;
+        }
+        for (OverflowPolicy overflowPolicy : OverflowPolicy.values()) {
+            if (overflowPolicy.name().equalsIgnoreCase(value.trim())) {
+                return overflowPolicy;
+            }
+        }
+        log.warn(String.format("Unknown event message queue overflow policy, using %s: [queue] %s [policy] %s",
+                defaultOverflowPolicy, name, value));
+        return defaultOverflowPolicy;
+    }
+
+    private static Set<String> getConfiguredControlEvents() {
+        Set<String> controlEvents = new HashSet<String>();
+        for (String event : System.getProperty(CONTROL_EVENTS_PROPERTY, DEFAULT_CONTROL_EVENTS).split(",")) {
+            if (!event.trim().isEmpty()) {
+                controlEvents.add(event.trim());
+            }
+        }
+        return Collections.unmodifiableSet(controlEvents);
+    }
+
+    /**
+     * Add a message to the queue, applying the overflow policy if the queue is full.
+     *
+     * @param message event message
+     */
+    public void add(Message message) {
+        Lane lane = getLane(message);
+        // Bulk messages are not scanned for keys on the thread receiving them, they are neither coalesced nor
+        // ordered by key
+        String key = ((overflowPolicy == OverflowPolicy.Coalesce) && (lane != Lane.Bulk)) ?
+                getCoalescingKey(message) : null;
+        // Ordering key is only compared when a control message is added
+        String orderingKey = (lanesEnabled && (lane != Lane.Bulk)) ? getOrderingKey(message) : null;
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            if (key != null) {
+                QueueEntry entry = coalescingEntries.get(key);
+                if (entry != null) {
+                    // Message takes the place of the queued message of the same key
+                    entry.message = message;
+                    coalescedCount++;
+                    if (log.isDebugEnabled()) {
+                        log.debug(String.format("Event message coalesced: [queue] %s [key] %s", name, key));
+                    }
+                    return;
+                }
+            }
+            // Once spilling started, messages are spilled until the spill file is drained to keep them in order
+            if ((spillFile != null) && spill(message, now)) {
+                return;
+            }
+            while (entryCount >= capacity) {
+                QueueEntry dropped = (overflowPolicy == OverflowPolicy.DropOldest) ? pollOldestDroppable() : null;
+                if (dropped != null) {
+                    droppedCount++;
+                    if (log.isDebugEnabled()) {
+                        log.debug(String.format("Event message dropped: [queue] %s [type] %s", name,
+                                dropped.message.getEventClassName()));
+                    }
+                } else if ((overflowPolicy == OverflowPolicy.SpillToDisk) && spill(message, now)) {
+                    return;
+                } else if (!awaitNotFull(message)) {
+                    return;
+                }
+            }
+            QueueEntry entry = enqueue(key, message, now, lane, orderingKey);
+            if (key != null) {
+                coalescingEntries.put(key, entry);
+            }
+            enqueued();
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieve the next message, waiting until a message is available.
+     *
+     * @return event message
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Message take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            QueueEntry entry;
+            while ((entry = pollNext()) == null) {
+                notEmpty.await();
+            }
+            if (entry.key != null) {
+                coalescingEntries.remove(entry.key);
+            }
+            if (spillFile != null) {
+                unspill();
+            }
+            long now = System.nanoTime();
+            long latency = now - entry.enqueueTime;
+            maxLatency = Math.max(maxLatency, latency);
+            if (entry.lane == Lane.Control) {
+                maxControlLatency = Math.max(maxControlLatency, latency);
+            }
+            dequeuedCount++;
+            dequeueRateMeter.mark(now);
+            notFull.signal();
+            // Hand over the event decoded in the background, if any, to the thread processing the message
+            if ((entry.decodedObject != null) && (entry.decodedMessage == entry.message.getText())) {
+                entry.message.setDecodedObject(entry.decodedObject);
+            }
+            return entry.message;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return the lane of a message. Events configured as control events are queued in the control
+     * lane and complete events, other than requests for complete events, in the bulk lane.
+     *
+     * @param message event message
+     * @return lane of the message
+     */
+    protected Lane getLane(Message message) {
+        String type = message.getEventClassName();
+        if (type == null) {
+            return Lane.Normal;
+        }
+        String simpleName = type.substring(type.lastIndexOf('.') + 1);
+        if (CONTROL_EVENTS.contains(simpleName)) {
+            return Lane.Control;
+        }
+        if (simpleName.startsWith("Complete") && simpleName.endsWith("Event") &&
+                !simpleName.endsWith("RequestEvent")) {
+            return Lane.Bulk;
+        }
+        return Lane.Normal;
+    }
+
+    /**
+     * Return the ordering key of a message, a control message is not taken before a normal message
+     * of the same ordering key queued earlier. The default key is the cluster id of the event, read
+     * from the leading fields of the event up to its first object or array field other than cluster.
+     *
+     * @param message event message
+     * @return ordering key or null if the message is not about any particular entity
+     */
+    protected String getOrderingKey(Message message) {
+        return ORDERING_KEY_RESOLVER.getShardKey(message);
+    }
+
+    /**
+     * Return whether messages added after a bulk message may be taken before it. Bulk messages
+     * are barriers by default, receivers allow overtaking once the bulk message no longer affects
+     * the state the following messages are applied to, for an example once the topology has been
+     * initialized.
+     *
+     * @return true if messages may be taken before queued bulk messages
+     */
+    protected boolean isBulkOvertakingAllowed() {
+        return false;
+    }
+
+    /**
+     * Add a message to its lane, or to the normal lane if lanes are disabled.
+     */
+    private QueueEntry enqueue(String key, Message message, long enqueueTime, Lane messageLane, String orderingKey) {
+        QueueEntry entry = new QueueEntry(key, message, enqueueTime, nextSequence++, orderingKey,
+                messageLane == Lane.Normal);
+        Lane lane = lanesEnabled ? messageLane : Lane.Normal;
+        if ((lane == Lane.Control) && isOrderedAfterNormalEntries(orderingKey)) {
+            lane = Lane.Normal;
+        }
+        entry.lane = lane;
+        getEntries(lane).add(entry);
+        entryCount++;
+        if (lane == Lane.Normal) {
+            countNormalEntry(orderingKey, 1);
+        }
+        if (lane == Lane.Bulk) {
+            if (isBulkOvertakingAllowed()) {
+                decode(entry);
+            } else {
+                entry.barrier = true;
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Return whether a control message needs to be taken after the normal messages queued, since
+     * one of them is about the same cluster or is not about any particular cluster.
+     */
+    private boolean isOrderedAfterNormalEntries(String orderingKey) {
+        if (normalEntries.isEmpty()) {
+            return false;
+        }
+        return (orderingKey == null) || (normalUnkeyedCount > 0) || normalOrderingKeyCounts.containsKey(orderingKey);
+    }
+
+    /**
+     * Update the number of normal messages queued of the given ordering key.
+     */
+    private void countNormalEntry(String orderingKey, int delta) {
+        if (orderingKey == null) {
+            normalUnkeyedCount += delta;
+            return;
+        }
+        Integer count = normalOrderingKeyCounts.get(orderingKey);
+        int newCount = ((count != null) ? count : 0) + delta;
+        if (newCount > 0) {
+            normalOrderingKeyCounts.put(orderingKey, newCount);
+        } else {
+            normalOrderingKeyCounts.remove(orderingKey);
+        }
+    }
+
+    /**
+     * Remove the first entry of the lane of the given entry.
+     */
+    private void pollEntry(QueueEntry entry) {
+        getEntries(entry.lane).poll();
+        entryCount--;
+        if (entry.lane == Lane.Normal) {
+            countNormalEntry(entry.orderingKey, -1);
+        }
+    }
+
+    /**
+     * Poll the next message to be taken: the oldest control or normal message added before
+     * the first bulk message, unless bulk messages may be overtaken, otherwise the first bulk
+     * message once decoded.
+     *
+     * @return queue entry or null if no message can be taken
+     */
+    private QueueEntry pollNext() {
+        QueueEntry bulkHead = bulkEntries.peek();
+        long barrier = getBarrier();
+        QueueEntry entry = controlEntries.peek();
+        if ((entry == null) || (entry.sequence > barrier)) {
+            entry = normalEntries.peek();
+            if ((entry == null) || (entry.sequence > barrier)) {
+                entry = ((bulkHead != null) && !bulkHead.decoding) ? bulkHead : null;
+            }
+        }
+        if (entry != null) {
+            pollEntry(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Return the sequence of the first bulk message which may not be overtaken. Bulk messages
+     * become barriers once overtaking is not allowed and stay barriers until taken, even if
+     * overtaking is allowed again meanwhile, for an example once a pending snapshot is no longer
+     * required while the complete topology event is being decoded.
+     *
+     * @return sequence of the barrier or Long.MAX_VALUE if all messages may be taken
+     */
+    private long getBarrier() {
+        if (bulkEntries.isEmpty()) {
+            return Long.MAX_VALUE;
+        }
+        boolean overtakingAllowed = isBulkOvertakingAllowed();
+        long barrier = Long.MAX_VALUE;
+        for (QueueEntry entry : bulkEntries) {
+            if (!overtakingAllowed) {
+                entry.barrier = true;
+            }
+            if (entry.barrier && (barrier == Long.MAX_VALUE)) {
+                barrier = entry.sequence;
+            }
+        }
+        return barrier;
+    }
+
+    /**
+     * Poll the oldest normal message to be dropped. Control messages queued in the normal lane to
+     * keep the order of the events of their cluster, and all messages if lanes are disabled, are
+     * found in the normal lane as well and are skipped.
+     *
+     * @return queue entry or null if no message can be dropped
+     */
+    private QueueEntry pollOldestDroppable() {
+        Iterator<QueueEntry> iterator = normalEntries.iterator();
+        while (iterator.hasNext()) {
+            QueueEntry entry = iterator.next();
+            if (entry.droppable) {
+                iterator.remove();
+                entryCount--;
+                countNormalEntry(entry.orderingKey, -1);
+                if (entry.key != null) {
+                    coalescingEntries.remove(entry.key);
+                }
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private QueueEntry peekOldest() {
+        QueueEntry oldest = controlEntries.peek();
+        QueueEntry entry = normalEntries.peek();
+        if ((oldest == null) || ((entry != null) && (entry.sequence < oldest.sequence))) {
+            oldest = entry;
+        }
+        entry = bulkEntries.peek();
+        if ((oldest == null) || ((entry != null) && (entry.sequence < oldest.sequence))) {
+            oldest = entry;
+        }
+        return oldest;
+    }
+
+    private ArrayDeque<QueueEntry> getEntries(Lane lane) {
+        switch (lane) {
+            case Control:
+                return controlEntries;
+            case Bulk:
+                return bulkEntries;
+            default:
+                return normalEntries;
+        }
+    }
+
+    /**
+     * Decode a bulk message in the background, the message is not taken until decoded.
+     */
+    private void decode(final QueueEntry entry) {
+        final Message message = entry.message;
+        entry.decoding = true;
+        try {
+            StratosThreadPool.getExecutorService(DECODER_THREAD_POOL_ID, 1).execute(new Runnable() {
+                @Override
+                public void run() {
+                    Object decodedObject = null;
+                    try {
+                        decodedObject = MessageCodecFactory.decode(message.getText(),
+                                Class.forName(message.getEventClassName()));
+                    } catch (Throwable e) {
+                        // Message is decoded again by its message processor, which reports the error
+                        if (log.isDebugEnabled()) {
+                            log.debug(String.format("Could not decode bulk event message: [queue] %s [type] %s",
+                                    name, message.getEventClassName()), e);
+                        }
+                    }
+                    lock.lock();
+                    try {
+                        entry.decodedMessage = message.getText();
+                        entry.decodedObject = decodedObject;
+                        entry.decoding = false;
+                        notEmpty.signal();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entry.decoding = false;
+        }
+    }
+
+    /**
+     * Return the coalescing key of a message, messages of the same coalescing key are coalesced
+     * by the Coalesce overflow policy. The default key consists of the event type and the
+     * application, service, cluster, cluster instance, network partition and member ids of the event,
+     * read from the leading fields of the event up to its first object or array field.
+     *
+     * @param message event message
+     * @return coalescing key or null if the message should not be coalesced
+     */
+    protected String getCoalescingKey(Message message) {
+        String text = message.getText();
+        if ((text == null) || text.isEmpty()) {
+            return null;
+        }
+        try {
+            String[] values = new String[COALESCING_KEY_FIELDS.length];
+            boolean found = false;
+            JsonReader reader = MessageCodecFactory.createReader(text);
+            try {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String field = reader.nextName();
+                    JsonToken token = reader.peek();
+                    if ((token == JsonToken.BEGIN_OBJECT) || (token == JsonToken.BEGIN_ARRAY)) {
+                        break;
+                    }
+                    int index = (token == JsonToken.STRING) ? indexOf(field) : -1;
+                    if (index >= 0) {
+                        values[index] = reader.nextString();
+                        found = true;
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+            if (!found) {
+                return null;
+            }
+            StringBuilder key = new StringBuilder(message.getEventClassName());
+            for (String value : values) {
+                key.append(KEY_SEPARATOR).append(value);
+            }
+            return key.toString();
+        } catch (Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Could not read coalescing key of event message: [queue] %s", name), e);
+            }
+            return null;
+        }
+    }
+
+    private static int indexOf(String field) {
+        for (int i = 0; i < COALESCING_KEY_FIELDS.length; i++) {
+            if (COALESCING_KEY_FIELDS[i].equals(field)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Wait until the queue has space for a message.
+     *
+     * @return false if interrupted while waiting, in which case the message is dropped
+     */
+    private boolean awaitNotFull(Message message) {
+        blockedCount++;
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Event message queue is full, waiting: [queue] %s [capacity] %d", name,
+                    capacity));
+        }
+        try {
+            notFull.await();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            droppedCount++;
+            log.warn(String.format("Interrupted while waiting for space in event message queue, message dropped: " +
+                    "[queue] %s [type] %s", name, message.getEventClassName()));
+            return false;
+        }
+    }
+
+    /**
+     * Write a message to the spill file.
+     *
+     * @return false if the message could not be written
+     */
+    private boolean spill(Message message, long enqueueTime) {
+        try {
+            if (spillFile == null) {
+                spillFile = new EventMessageSpillFile(name, getSpillDirectory());
+            }
+            spillFile.write(message, enqueueTime);
+            spilledCount++;
+            enqueued();
+            return true;
+        } catch (IOException e) {
+            log.error(String.format("Could not spill event message to disk: [queue] %s", name), e);
+            return false;
+        }
+    }
+
+    /**
+     * Move the next spilled message to the queue.
+     */
+    private void unspill() {
+        try {
+            EventMessageSpillFile.SpilledMessage spilledMessage = spillFile.read();
+            Lane lane = getLane(spilledMessage.message);
+            enqueue(null, spilledMessage.message, spilledMessage.enqueueTime, lane,
+                    (lanesEnabled && (lane != Lane.Bulk)) ? getOrderingKey(spilledMessage.message) : null);
+        } catch (IOException e) {
+            log.error(String.format("Could not read spilled event messages, %d messages lost: [queue] %s",
+                    spillFile.size(), name), e);
+            droppedCount += spillFile.size();
+            spillFile.delete();
+            spillFile = null;
+            return;
+        }
+        if (spillFile.size() == 0) {
+            spillFile.delete();
+            spillFile = null;
+        }
+    }
+
+    private static File getSpillDirectory() {
+        return new File(System.getProperty(SPILL_DIRECTORY_PROPERTY, System.getProperty("java.io.tmpdir")));
+    }
+
+    private void enqueued() {
+        enqueuedCount++;
+        enqueueRateMeter.mark(System.nanoTime());
+    }
+
+    private void registerMBean() {
+        if (!Boolean.parseBoolean(System.getProperty(JMX_ENABLED_PROPERTY, "true"))) {
+            return;
+        }
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name));
+            // A queue created later for the same name replaces the earlier one
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(new StandardMBean(this, EventMessageQueueMBean.class), objectName);
+        } catch (Exception e) {
+            log.warn(String.format("Could not register event message queue MBean: [queue] %s", name), e);
+        }
+    }
+
+    public int size() {
+        return getDepth();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public String getOverflowPolicy() {
+        return overflowPolicy.name();
+    }
+
+    @Override
+    public int getDepth() {
+        lock.lock();
+        try {
+            return entryCount + ((spillFile != null) ? spillFile.size() : 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getControlDepth() {
+        lock.lock();
+        try {
+            return controlEntries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getBulkDepth() {
+        lock.lock();
+        try {
+            return bulkEntries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getSpilledDepth() {
+        lock.lock();
+        try {
+            return (spillFile != null) ? spillFile.size() : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getEnqueuedCount() {
+        lock.lock();
+        try {
+            return enqueuedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getDequeuedCount() {
+        lock.lock();
+        try {
+            return dequeuedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getDroppedCount() {
+        lock.lock();
+        try {
+            return droppedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getCoalescedCount() {
+        lock.lock();
+        try {
+            return coalescedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getSpilledCount() {
+        lock.lock();
+        try {
+            return spilledCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getBlockedCount() {
+        lock.lock();
+        try {
+            return blockedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public double getEnqueueRate() {
+        lock.lock();
+        try {
+            return enqueueRateMeter.getRate(System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public double getDequeueRate() {
+        lock.lock();
+        try {
+            return dequeueRateMeter.getRate(System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getMaxLatency() {
+        lock.lock();
+        try {
+            long latency = maxLatency;
+            QueueEntry oldest = peekOldest();
+            if (oldest != null) {
+                latency = Math.max(latency, System.nanoTime() - oldest.enqueueTime);
+            }
+            return TimeUnit.NANOSECONDS.toMillis(latency);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getMaxControlLatency() {
+        lock.lock();
+        try {
+            long latency = maxControlLatency;
+            QueueEntry oldest = controlEntries.peek();
+            if (oldest != null) {
+                latency = Math.max(latency, System.nanoTime() - oldest.enqueueTime);
+            }
+            return TimeUnit.NANOSECONDS.toMillis(latency);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void resetMaxLatency() {
+        lock.lock();
+        try {
+            maxLatency = 0;
+            maxControlLatency = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class QueueEntry {
+        private final String key;
+        private final long enqueueTime;
+        // Order in which messages were added, across lanes
+        private final long sequence;
+        private final String orderingKey;
+        // Only normal messages are dropped by the DropOldest overflow policy
+        private final boolean droppable;
+        private Message message;
+        private Lane lane;
+        // Bulk message which may not be overtaken until taken
+        private boolean barrier;
+        // Following fields are set by the background decoding of bulk messages
+        private boolean decoding;
+        private String decodedMessage;
+        private Object decodedObject;
+
+        private QueueEntry(String key, Message message, long enqueueTime, long sequence, String orderingKey,
+                           boolean droppable) {
+            this.key = key;
+            this.message = message;
+            this.enqueueTime = enqueueTime;
+            this.sequence = sequence;
+            this.orderingKey = orderingKey;
+            this.droppable = droppable;
+        }
+    }
+
+    /**
+     * Counts events per second over the last minute. Not thread safe.
+     */
+    private static class RateMeter {
+        private static final int WINDOW = 60;
+
+        private final long[] seconds = new long[WINDOW];
+        private final long[] counts = new long[WINDOW];
+
+        private void mark(long nanoTime) {
+            long second = TimeUnit.NANOSECONDS.toSeconds(nanoTime);
+            int index = (int) (((second % WINDOW) + WINDOW) % WINDOW);
+            if (seconds[index] != second) {
+                seconds[index] = second;
+                counts[index] = 0;
+            }
+            counts[index]++;
+        }
+
+        private double getRate(long nanoTime) {
+            long second = TimeUnit.NANOSECONDS.toSeconds(nanoTime);
+            long total = 0;
+            for (int i = 0; i < WINDOW; i++) {
+                if (second - seconds[i] < WINDOW) {
+                    total += counts[i];
+                }
+            }
+            return (double) total / WINDOW;
+        }
+    }
+}
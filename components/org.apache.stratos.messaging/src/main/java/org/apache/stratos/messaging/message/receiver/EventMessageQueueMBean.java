@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.receiver;
+
+/**
+ * JMX management interface of event message queues.
+ */
+public interface EventMessageQueueMBean {
+
+    String getName();
+
+    int getCapacity();
+
+    String getOverflowPolicy();
+
+    /**
+     * @return number of messages in the queue, including spilled messages
+     */
+    int getDepth();
+
+    int getSpilledDepth();
+
+    /**
+     * @return number of messages in the control lane
+     */
+    int getControlDepth();
+
+    /**
+     * @return number of messages in the bulk lane
+     */
+    int getBulkDepth();
+
+    long getEnqueuedCount();
+
+    long getDequeuedCount();
+
+    long getDroppedCount();
+
+    long getCoalescedCount();
+
+    long getSpilledCount();
+
+    /**
+     * @return number of times a message had to wait for space in the queue
+     */
+    long getBlockedCount();
+
+    /**
+     * @return messages enqueued per second during the last minute
+     */
+    double getEnqueueRate();
+
+    /**
+     * @return messages dequeued per second during the last minute
+     */
+    double getDequeueRate();
+
+    /**
+     * @return maximum time in milliseconds a message spent in the queue since the last reset,
+     * including the time the oldest queued message has been waiting
+     */
+    long getMaxLatency();
+
+    /**
+     * @return maximum time in milliseconds a control message spent in the queue since the last reset
+     */
+    long getMaxControlLatency();
+
+    void resetMaxLatency();
+}
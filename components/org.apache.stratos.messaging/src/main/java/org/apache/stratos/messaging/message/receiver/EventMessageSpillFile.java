@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.receiver;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.domain.Message;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * Temporary file holding the event messages of an event message queue which did not fit
+ * into the queue. Messages are read back in the order written; the file is deleted once
+ * all messages have been read. Instances are not thread safe.
+ */
+class EventMessageSpillFile {
+
+    private static final Log log = LogFactory.getLog(EventMessageSpillFile.class);
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File file;
+    private final DataOutputStream outputStream;
+    private DataInputStream inputStream;
+    private int size;
+
+    EventMessageSpillFile(String queueName, File directory) throws IOException {
+        file = File.createTempFile("stratos-" + queueName + "-queue-", ".spill", directory);
+        file.deleteOnExit();
+        outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Event message spill file created: [queue] %s [file] %s", queueName,
+                    file.getAbsolutePath()));
+        }
+    }
+
+    void write(Message message, long enqueueTime) throws IOException {
+        outputStream.writeUTF(message.getTopicName());
+        byte[] text = (message.getText() != null) ? message.getText().getBytes(UTF_8) : null;
+        outputStream.writeInt((text != null) ? text.length : -1);
+        if (text != null) {
+            outputStream.write(text);
+        }
+        outputStream.writeLong(enqueueTime);
+        size++;
+    }
+
+    /**
+     * Read the next message of the file.
+     *
+     * @return next message and the time it was enqueued
+     * @throws IOException if the file could not be read
+     */
+    SpilledMessage read() throws IOException {
+        if (inputStream == null) {
+            inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        }
+        // Messages written after the last read need to be flushed before reading them
+        outputStream.flush();
+        String topicName = inputStream.readUTF();
+        int length = inputStream.readInt();
+        String text = null;
+        if (length >= 0) {
+            byte[] bytes = new byte[length];
+            inputStream.readFully(bytes);
+            text = new String(bytes, UTF_8);
+        }
+        long enqueueTime = inputStream.readLong();
+        size--;
+        return new SpilledMessage(new Message(topicName, text), enqueueTime);
+    }
+
+    int size() {
+        return size;
+    }
+
+    void delete() {
+        try {
+            outputStream.close();
+            if (inputStream != null) {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            log.warn(String.format("Could not close event message spill file: [file] %s", file.getAbsolutePath()), e);
+        }
+        if (!file.delete()) {
+            log.warn(String.format("Could not delete event message spill file: [file] %s", file.getAbsolutePath()));
+        }
+    }
+
+    static class SpilledMessage {
+        final Message message;
+        final long enqueueTime;
+
+        private SpilledMessage(Message message, long enqueueTime) {
+            this.message = message;
+            this.enqueueTime = enqueueTime;
+        }
+    }
+}
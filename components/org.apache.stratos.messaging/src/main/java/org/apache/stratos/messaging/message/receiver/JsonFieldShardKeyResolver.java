@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.receiver;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.message.codec.MessageCodecFactory;
+
+import java.io.IOException;
+
+/**
+ * Resolves the shard key of an event message from a string field of the event.
+ * <p/>
+ * Fields are given either as a field name of the event, for an example clusterId, or as
+ * a field name of an object field of the event, for an example cluster.clusterId. The value
+ * of the first field found is used as the shard key, and messages without any of the fields
+ * are processed as barriers. Messages are scanned without building the event, using the codec
+ * referred in their header. Scanning may be limited to the leading fields of the event, up to its
+ * first object or array field which is not one of the given fields, since the ids of an event are
+ * serialized ahead of its other fields.
+ */
+public class JsonFieldShardKeyResolver implements ShardedEventMessageDispatcher.ShardKeyResolver {
+
+    private static final Log log = LogFactory.getLog(JsonFieldShardKeyResolver.class);
+
+    private final String[][] fieldPaths;
+    private final boolean leadingFieldsOnly;
+
+    public JsonFieldShardKeyResolver(String... fields) {
+        this(false, fields);
+    }
+
+    public JsonFieldShardKeyResolver(boolean leadingFieldsOnly, String... fields) {
+        this.leadingFieldsOnly = leadingFieldsOnly;
+        fieldPaths = new String[fields.length][];
+        for (int i = 0; i < fields.length; i++) {
+            fieldPaths[i] = fields[i].split("\\.", 2);
+        }
+    }
+
+    @Override
+    public String getShardKey(Message message) {
+        String text = message.getText();
+        try {
+            JsonReader reader = MessageCodecFactory.createReader(text);
+            try {
+                return findShardKey(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (Exception e) {
+            if (log.isWarnEnabled()) {
+                log.warn(String.format("Could not resolve shard key of event message: [type] %s",
+                        message.getEventClassName()), e);
+            }
+            return null;
+        }
+    }
+
+    private String findShardKey(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            boolean consumed = false;
+            for (String[] fieldPath : fieldPaths) {
+                if (!fieldPath[0].equals(name)) {
+                    continue;
+                }
+                if ((fieldPath.length == 1) && (reader.peek() == JsonToken.STRING)) {
+                    return reader.nextString();
+                }
+                if ((fieldPath.length == 2) && (reader.peek() == JsonToken.BEGIN_OBJECT)) {
+                    String shardKey = findField(reader, fieldPath[1]);
+                    if (shardKey != null) {
+                        return shardKey;
+                    }
+                    consumed = true;
+                }
+                break;
+            }
+            if (!consumed) {
+                if (leadingFieldsOnly && isStructure(reader.peek())) {
+                    return null;
+                }
+                reader.skipValue();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isStructure(JsonToken token) {
+        return (token == JsonToken.BEGIN_OBJECT) || (token == JsonToken.BEGIN_ARRAY);
+    }
+
+    /**
+     * Read the given string field of the object at the reader position.
+     */
+    private static String findField(JsonReader reader, String field) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (field.equals(reader.nextName()) && (reader.peek() == JsonToken.STRING)) {
+                return reader.nextString();
+            }
+            reader.skipValue();
+        }
+        reader.endObject();
+        return null;
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.receiver;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.threading.StratosThreadPool;
+import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.util.MessagingUtil;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dispatches event messages of an event message delegator onto a fixed number of worker lanes.
+ * <p/>
+ * Each message is assigned to a lane by the hash of its shard key, so that messages having the
+ * same shard key (for an example the same cluster id) are processed in the order received while
+ * messages of other shard keys are processed in parallel. Messages without a shard key, such as
+ * complete topology events, act as barriers: they are processed once all messages dispatched
+ * before them have been processed and before any message dispatched after them.
+ * <p/>
+ * Each lane has a bounded queue, the delegator blocks when the queue of a lane is full so that
+ * a slow lane slows down the consumption of messages instead of buffering them without a limit.
+ * <p/>
+ * Sharded dispatching is enabled by setting the stratos.messaging.delegator.lanes system
+ * property to a value greater than one. The size of the lane queues can be set with the
+ * stratos.messaging.delegator.lane.queue.size system property, it defaults to 1000 messages.
+ */
+public class ShardedEventMessageDispatcher {
+
+    private static final Log log = LogFactory.getLog(ShardedEventMessageDispatcher.class);
+
+    public static final String DELEGATOR_LANES_PROPERTY = "stratos.messaging.delegator.lanes";
+    public static final String DELEGATOR_LANE_QUEUE_SIZE_PROPERTY = "stratos.messaging.delegator.lane.queue.size";
+
+    private static final int DEFAULT_LANE_QUEUE_SIZE = 1000;
+    private static final long LANE_POLL_INTERVAL = 1000;
+
+    /**
+     * Resolves the shard key of an event message.
+     */
+    public interface ShardKeyResolver {
+
+        /**
+         * Return the shard key of the given message.
+         *
+         * @param message event message
+         * @return shard key or null if the message needs to be processed as a barrier
+         */
+        String getShardKey(Message message);
+    }
+
+    /**
+     * Processes an event message.
+     */
+    public interface MessageHandler {
+
+        void handleMessage(Message message);
+    }
+
+    private final String name;
+    private final ShardKeyResolver shardKeyResolver;
+    private final MessageHandler messageHandler;
+    private final String[] laneThreadPoolIds;
+    private final Lane[] lanes;
+    // Messages dispatched to the lanes and not processed yet, barriers wait until it drops to zero
+    private final AtomicInteger pendingMessages;
+    private final Object barrierLock;
+    private volatile boolean terminated;
+
+    /**
+     * @param name             name of the dispatcher, used for naming the lane thread pools
+     * @param laneCount        number of lanes
+     * @param shardKeyResolver shard key resolver
+     * @param messageHandler   message handler invoked by the lanes
+     */
+    public ShardedEventMessageDispatcher(String name, int laneCount, ShardKeyResolver shardKeyResolver,
+                                         MessageHandler messageHandler) {
+        this(name, laneCount, getConfiguredLaneQueueSize(), shardKeyResolver, messageHandler);
+    }
+
+    /**
+     * @param name             name of the dispatcher, used for naming the lane thread pools
+     * @param laneCount        number of lanes
+     * @param laneQueueSize    maximum number of messages waiting in a lane
+     * @param shardKeyResolver shard key resolver
+     * @param messageHandler   message handler invoked by the lanes
+     */
+    public ShardedEventMessageDispatcher(String name, int laneCount, int laneQueueSize,
+                                         ShardKeyResolver shardKeyResolver, MessageHandler messageHandler) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("Lane count should be greater than zero: " + laneCount);
+        }
+        if (laneQueueSize < 1) {
+            throw new IllegalArgumentException("Lane queue size should be greater than zero: " + laneQueueSize);
+        }
+        this.name = name;
+        this.shardKeyResolver = shardKeyResolver;
+        this.messageHandler = messageHandler;
+        this.pendingMessages = new AtomicInteger();
+        this.barrierLock = new Object();
+        this.laneThreadPoolIds = new String[laneCount];
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            laneThreadPoolIds[i] = String.format("%s-delegator-lane-%d", name, i);
+            lanes[i] = new Lane(laneQueueSize);
+            // A single thread per lane keeps messages of a lane in order
+            StratosThreadPool.getExecutorService(laneThreadPoolIds[i], 1).execute(lanes[i]);
+        }
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Sharded event message dispatcher created: [name] %s [lanes] %d " +
+                    "[lane-queue-size] %d", name, laneCount, laneQueueSize));
+        }
+    }
+
+    /**
+     * Return the number of delegator lanes configured. A value of one or less disables sharded dispatching.
+     *
+     * @return number of delegator lanes
+     */
+    public static int getConfiguredLaneCount() {
+        return MessagingUtil.getNumericSystemProperty(1, DELEGATOR_LANES_PROPERTY);
+    }
+
+    /**
+     * Return the maximum number of messages waiting in a delegator lane.
+     *
+     * @return lane queue size
+     */
+    public static int getConfiguredLaneQueueSize() {
+        return MessagingUtil.getNumericSystemProperty(DEFAULT_LANE_QUEUE_SIZE, DELEGATOR_LANE_QUEUE_SIZE_PROPERTY);
+    }
+
+    /**
+     * Dispatch a message to its lane, or process it as a barrier if it does not have a shard key.
+     * Blocks while the queue of the lane is full.
+     *
+     * @param message event message
+     * @throws InterruptedException if interrupted while waiting for a barrier or a lane
+     */
+    public void dispatch(Message message) throws InterruptedException {
+        String shardKey = shardKeyResolver.getShardKey(message);
+        if (shardKey == null) {
+            awaitLanes();
+            handleMessage(message);
+            return;
+        }
+
+        int lane = (shardKey.hashCode() & Integer.MAX_VALUE) % lanes.length;
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Dispatching event message: [dispatcher] %s [type] %s [shard-key] %s " +
+                    "[lane] %d", name, message.getEventClassName(), shardKey, lane));
+        }
+        pendingMessages.incrementAndGet();
+        try {
+            lanes[lane].queue.put(message);
+        } catch (InterruptedException e) {
+            messageProcessed();
+            throw e;
+        }
+    }
+
+    /**
+     * Wait until all the messages dispatched so far have been processed.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitLanes() throws InterruptedException {
+        if (pendingMessages.get() == 0) {
+            return;
+        }
+        synchronized (barrierLock) {
+            while (pendingMessages.get() > 0) {
+                barrierLock.wait();
+            }
+        }
+    }
+
+    private void messageProcessed() {
+        if (pendingMessages.decrementAndGet() == 0) {
+            synchronized (barrierLock) {
+                barrierLock.notifyAll();
+            }
+        }
+    }
+
+    private void handleMessage(Message message) {
+        try {
+            messageHandler.handleMessage(message);
+        } catch (Exception e) {
+            log.error(String.format("Failed to process event message: [dispatcher] %s [type] %s", name,
+                    message.getEventClassName()), e);
+        }
+    }
+
+    /**
+     * Terminate the lanes of the dispatcher.
+     */
+    public void terminate() {
+        terminated = true;
+        for (String laneThreadPoolId : laneThreadPoolIds) {
+            StratosThreadPool.shutdown(laneThreadPoolId);
+        }
+    }
+
+    /**
+     * Processes the messages of a lane in the order dispatched.
+     */
+    private class Lane implements Runnable {
+
+        private final BlockingQueue<Message> queue;
+
+        private Lane(int queueSize) {
+            this.queue = new ArrayBlockingQueue<Message>(queueSize);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!terminated) {
+                    Message message = queue.poll(LANE_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                    if (message != null) {
+                        handleMessage(message);
+                        messageProcessed();
+                    }
+                }
+            } catch (InterruptedException ignore) {
+            }
+        }
+    }
+}
@@ -21,20 +21,39 @@ package org.apache.stratos.messaging.message.receiver.application;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.event.Event;
 import org.apache.stratos.messaging.listener.EventListener;
+import org.apache.stratos.messaging.listener.EventListenerRegistry;
+import org.apache.stratos.messaging.message.codec.MessageCodecFactory;
 import org.apache.stratos.messaging.message.processor.MessageProcessorChain;
 import org.apache.stratos.messaging.message.processor.application.ApplicationsMessageProcessorChain;
+import org.apache.stratos.messaging.message.receiver.JsonFieldShardKeyResolver;
+import org.apache.stratos.messaging.message.receiver.ShardedEventMessageDispatcher;
 
 public class ApplicationsEventMessageDelegator implements Runnable {
     private static final Log log = LogFactory.getLog(ApplicationsEventMessageDelegator.class);
 
     private ApplicationsEventMessageQueue messageQueue;
     private MessageProcessorChain processorChain;
+    private ShardedEventMessageDispatcher messageDispatcher;
     private boolean terminated;
 
     public ApplicationsEventMessageDelegator(ApplicationsEventMessageQueue messageQueue) {
         this.messageQueue = messageQueue;
         this.processorChain = new ApplicationsMessageProcessorChain();
+
+        // Process messages in parallel per application if delegator lanes are configured
+        int laneCount = ShardedEventMessageDispatcher.getConfiguredLaneCount();
+        if (laneCount > 1) {
+            this.messageDispatcher = new ShardedEventMessageDispatcher("application", laneCount,
+                    new JsonFieldShardKeyResolver("appId", "applicationId", "application.id"),
+                    new ShardedEventMessageDispatcher.MessageHandler() {
+                        @Override
+                        public void handleMessage(Message message) {
+                            processMessage(message);
+                        }
+                    });
+        }
     }
 
     public void addEventListener(EventListener eventListener) {
@@ -45,6 +64,20 @@ public class ApplicationsEventMessageDelegator implements Runnable {
         processorChain.removeEventListener(eventListener);
     }
 
+    public void addEventListener(Class<? extends Event> eventClass, EventListenerRegistry.KeyType keyType,
+                                 String key, EventListener eventListener) {
+        processorChain.addEventListener(eventClass, keyType, key, eventListener);
+    }
+
+    public void removeEventListener(Class<? extends Event> eventClass, EventListenerRegistry.KeyType keyType,
+                                    String key, EventListener eventListener) {
+        processorChain.removeEventListener(eventClass, keyType, key, eventListener);
+    }
+
+    public void removeEventListeners(EventListenerRegistry.KeyType keyType, String key) {
+        processorChain.removeEventListeners(keyType, key);
+    }
+
     @Override
     public void run() {
         try {
@@ -60,18 +93,15 @@ public class ApplicationsEventMessageDelegator implements Runnable {
                     // Skip application signup events
                     if (!type.startsWith("org.apache.stratos.messaging.event.application.signup")) {
 
-                        // Retrieve the actual message
-                        String json = message.getText();
-
                         if (log.isDebugEnabled()) {
                             log.debug(String.format("Application status event message received from queue: %s", type));
                         }
 
-                        // Delegate message to message processor chain
-                        if (log.isDebugEnabled()) {
-                            log.debug(String.format("Delegating application status event message: %s", type));
+                        if (messageDispatcher != null) {
+                            messageDispatcher.dispatch(message);
+                        } else {
+                            processMessage(message);
                         }
-                        processorChain.process(type, json, ApplicationManager.getApplications());
                     }
                 } catch (InterruptedException ignore) {
                     log.info("Shutting down application event message delegator...");
@@ -87,11 +117,33 @@ public class ApplicationsEventMessageDelegator implements Runnable {
         }
     }
 
+    private void processMessage(Message message) {
+        String type = message.getEventClassName();
+
+        // Retrieve the actual message
+        String json = message.getText();
+
+        // Delegate message to message processor chain
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Delegating application status event message: %s", type));
+        }
+        // Complete applications events decoded while queued are not decoded again
+        MessageCodecFactory.setPreDecoded(message);
+        try {
+            processorChain.process(type, json, ApplicationManager.getApplications());
+        } finally {
+            MessageCodecFactory.clearPreDecoded();
+        }
+    }
+
     /**
      * Terminate topology event message delegator thread.
      */
     public void terminate() {
         terminated = true;
+        if (messageDispatcher != null) {
+            messageDispatcher.terminate();
+        }
     }
 
 
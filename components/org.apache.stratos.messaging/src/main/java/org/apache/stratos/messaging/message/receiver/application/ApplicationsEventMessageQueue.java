@@ -18,10 +18,19 @@
  */
 package org.apache.stratos.messaging.message.receiver.application;
 
+import org.apache.stratos.messaging.message.receiver.EventMessageQueue;
 
-import org.apache.stratos.messaging.domain.Message;
+public class ApplicationsEventMessageQueue extends EventMessageQueue {
 
-import java.util.concurrent.LinkedBlockingQueue;
+    public ApplicationsEventMessageQueue() {
+        super("applications");
+    }
 
-public class ApplicationsEventMessageQueue extends LinkedBlockingQueue<Message> {
+    /**
+     * Complete applications events are applied only until the applications have been initialized.
+     */
+    @Override
+    protected boolean isBulkOvertakingAllowed() {
+        return ApplicationManager.getApplications().isInitialized();
+    }
 }
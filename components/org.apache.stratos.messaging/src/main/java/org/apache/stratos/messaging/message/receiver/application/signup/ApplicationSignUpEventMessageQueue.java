@@ -19,12 +19,14 @@
 
 package org.apache.stratos.messaging.message.receiver.application.signup;
 
-import org.apache.stratos.messaging.domain.Message;
-
-import java.util.concurrent.LinkedBlockingQueue;
+import org.apache.stratos.messaging.message.receiver.EventMessageQueue;
 
 /**
  * Application signup event message queue.
  */
-class ApplicationSignUpEventMessageQueue extends LinkedBlockingQueue<Message> {
+class ApplicationSignUpEventMessageQueue extends EventMessageQueue {
+
+    public ApplicationSignUpEventMessageQueue() {
+        super("application.signup");
+    }
 }
@@ -25,6 +25,8 @@ import org.apache.stratos.messaging.domain.Message;
 import org.apache.stratos.messaging.listener.EventListener;
 import org.apache.stratos.messaging.message.processor.MessageProcessorChain;
 import org.apache.stratos.messaging.message.processor.cluster.status.ClusterStatusMessageProcessorChain;
+import org.apache.stratos.messaging.message.receiver.JsonFieldShardKeyResolver;
+import org.apache.stratos.messaging.message.receiver.ShardedEventMessageDispatcher;
 
 /**
  * Implements logic for processing instance notifier event messages based on a given
@@ -35,11 +37,25 @@ class ClusterStatusEventMessageDelegator implements Runnable {
     private static final Log log = LogFactory.getLog(ClusterStatusEventMessageDelegator.class);
     private ClusterStatusEventMessageQueue messageQueue;
     private MessageProcessorChain processorChain;
+    private ShardedEventMessageDispatcher messageDispatcher;
     private boolean terminated;
 
     public ClusterStatusEventMessageDelegator(ClusterStatusEventMessageQueue messageQueue) {
         this.messageQueue = messageQueue;
         this.processorChain = new ClusterStatusMessageProcessorChain();
+
+        // Process messages in parallel per cluster if delegator lanes are configured
+        int laneCount = ShardedEventMessageDispatcher.getConfiguredLaneCount();
+        if (laneCount > 1) {
+            this.messageDispatcher = new ShardedEventMessageDispatcher("cluster-status", laneCount,
+                    new JsonFieldShardKeyResolver("clusterId"),
+                    new ShardedEventMessageDispatcher.MessageHandler() {
+                        @Override
+                        public void handleMessage(Message message) {
+                            processMessage(message);
+                        }
+                    });
+        }
     }
 
     public void addEventListener(EventListener eventListener) {
@@ -60,19 +76,16 @@ class ClusterStatusEventMessageDelegator implements Runnable {
             while (!terminated) {
                 try {
                     Message message = messageQueue.take();
-                    String type = message.getEventClassName();
-
-                    // Retrieve the actual message
-                    String json = message.getText();
                     if (log.isDebugEnabled()) {
-                        log.debug(String.format("Cluster status event message received from queue: %s", type));
+                        log.debug(String.format("Cluster status event message received from queue: %s",
+                                message.getEventClassName()));
                     }
 
-                    // Delegate message to message processor chain
-                    if (log.isDebugEnabled()) {
-                        log.debug(String.format("Delegating cluster status event message: %s", type));
+                    if (messageDispatcher != null) {
+                        messageDispatcher.dispatch(message);
+                    } else {
+                        processMessage(message);
                     }
-                    processorChain.process(type, json, null);
                 } catch (InterruptedException ignore) {
                     log.info("Shutting down cluster status event message delegator...");
                     terminate();
@@ -87,10 +100,26 @@ class ClusterStatusEventMessageDelegator implements Runnable {
         }
     }
 
+    private void processMessage(Message message) {
+        String type = message.getEventClassName();
+
+        // Retrieve the actual message
+        String json = message.getText();
+
+        // Delegate message to message processor chain
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Delegating cluster status event message: %s", type));
+        }
+        processorChain.process(type, json, null);
+    }
+
     /**
      * Terminate topology event message delegator thread.
      */
     public void terminate() {
         terminated = true;
+        if (messageDispatcher != null) {
+            messageDispatcher.terminate();
+        }
     }
 }
@@ -19,12 +19,14 @@
 
 package org.apache.stratos.messaging.message.receiver.cluster.status;
 
-import org.apache.stratos.messaging.domain.Message;
-
-import java.util.concurrent.LinkedBlockingQueue;
+import org.apache.stratos.messaging.message.receiver.EventMessageQueue;
 
 /**
- * Implements a blocking queue for managing instance notifier event messages.
+ * Implements a bounded blocking queue for managing instance notifier event messages.
  */
-class ClusterStatusEventMessageQueue extends LinkedBlockingQueue<Message> {
+class ClusterStatusEventMessageQueue extends EventMessageQueue {
+
+    public ClusterStatusEventMessageQueue() {
+        super("cluster.status");
+    }
 }
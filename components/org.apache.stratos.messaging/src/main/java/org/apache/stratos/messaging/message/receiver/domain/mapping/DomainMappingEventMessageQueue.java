@@ -19,12 +19,14 @@
 
 package org.apache.stratos.messaging.message.receiver.domain.mapping;
 
-import org.apache.stratos.messaging.domain.Message;
-
-import java.util.concurrent.LinkedBlockingQueue;
+import org.apache.stratos.messaging.message.receiver.EventMessageQueue;
 
 /**
  * Domain mapping event message queue.
  */
-class DomainMappingEventMessageQueue extends LinkedBlockingQueue<Message> {
+class DomainMappingEventMessageQueue extends EventMessageQueue {
+
+    public DomainMappingEventMessageQueue() {
+        super("domain.mapping");
+    }
 }
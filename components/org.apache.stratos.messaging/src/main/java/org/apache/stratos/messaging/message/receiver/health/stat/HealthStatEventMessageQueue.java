@@ -1,5 +1,4 @@
 /*
- *
  * Licensed to the Apache Software Foundation (ASF) under one
  * or more contributor license agreements.  See the NOTICE file
  * distributed with this work for additional information
@@ -8,7 +7,7 @@
  * "License"); you may not use this file except in compliance
  * with the License.  You may obtain a copy of the License at
  *
- *   http://www.apache.org/licenses/LICENSE-2.0
+ *  http://www.apache.org/licenses/LICENSE-2.0
  *
  * Unless required by applicable law or agreed to in writing,
  * software distributed under the License is distributed on an
@@ -16,16 +15,108 @@
  * KIND, either express or implied.  See the License for the
  * specific language governing permissions and limitations
  * under the License.
- *
  */
 package org.apache.stratos.messaging.message.receiver.health.stat;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.event.health.stat.MemberFaultEvent;
+import org.apache.stratos.messaging.message.receiver.EventMessageQueue;
 
-import java.util.concurrent.LinkedBlockingQueue;
+import java.io.StringReader;
 
 /**
- * Implements a blocking queue for managing instance notifier event messages.
+ * Implements a coalescing blocking queue for managing health stat event messages.
+ * <p/>
+ * Only the latest value of a health statistic is relevant, therefore a message queued for the
+ * same event type, cluster, cluster instance, network partition and member as a message which is
+ * still in the queue replaces the queued message instead of being added to the queue. The queue
+ * size is thereby bounded by the number of statistics of the members rather than the event rate.
+ * Member fault events and messages of which the key cannot be read are queued without coalescing.
+ * Coalescing can be disabled by setting the stratos.messaging.health.stat.coalescing.enabled
+ * system property to false, in which case the queue blocks once full unless another overflow
+ * policy is configured for the health.stat queue.
  */
-class HealthStatEventMessageQueue extends LinkedBlockingQueue<Message> {
+class HealthStatEventMessageQueue extends EventMessageQueue {
+
+    private static final Log log = LogFactory.getLog(HealthStatEventMessageQueue.class);
+
+    public static final String COALESCING_ENABLED_PROPERTY = "stratos.messaging.health.stat.coalescing.enabled";
+
+    private static final String QUEUE_NAME = "health.stat";
+    private static final char KEY_SEPARATOR = '|';
+
+    public HealthStatEventMessageQueue() {
+        super(QUEUE_NAME, Boolean.parseBoolean(System.getProperty(COALESCING_ENABLED_PROPERTY, "true")) ?
+                OverflowPolicy.Coalesce : OverflowPolicy.Block);
+    }
+
+    public HealthStatEventMessageQueue(boolean coalescingEnabled) {
+        super(QUEUE_NAME, getConfiguredCapacity(QUEUE_NAME),
+                coalescingEnabled ? OverflowPolicy.Coalesce : OverflowPolicy.Block);
+    }
+
+    @Override
+    protected String getCoalescingKey(Message message) {
+        return getKey(message.getText());
+    }
+
+    /**
+     * Read the coalescing key of a health stat event message without parsing the complete message.
+     * Messages are formatted as {"[event-class-name]":{"message":{[event]}}}.
+     *
+     * @param text message text
+     * @return coalescing key or null if the message should not be coalesced
+     */
+    static String getKey(String text) {
+        try {
+            JsonReader reader = new JsonReader(new StringReader(text));
+            try {
+                reader.beginObject();
+                String eventType = reader.nextName();
+                if (MemberFaultEvent.class.getName().equals(eventType)) {
+                    return null;
+                }
+                reader.beginObject();
+                if (!"message".equals(reader.nextName())) {
+                    return null;
+                }
+
+                String clusterId = null, clusterInstanceId = null, networkPartitionId = null, memberId = null;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if (reader.peek() != JsonToken.STRING) {
+                        reader.skipValue();
+                    } else if ("clusterId".equals(name)) {
+                        clusterId = reader.nextString();
+                    } else if ("clusterInstanceId".equals(name)) {
+                        clusterInstanceId = reader.nextString();
+                    } else if ("networkPartitionId".equals(name)) {
+                        networkPartitionId = reader.nextString();
+                    } else if ("memberId".equals(name)) {
+                        memberId = reader.nextString();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                if ((clusterId == null) && (memberId == null)) {
+                    return null;
+                }
+                return new StringBuilder(eventType).append(KEY_SEPARATOR).append(clusterId)
+                        .append(KEY_SEPARATOR).append(clusterInstanceId).append(KEY_SEPARATOR)
+                        .append(networkPartitionId).append(KEY_SEPARATOR).append(memberId).toString();
+            } finally {
+                reader.close();
+            }
+        } catch (Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Could not read coalescing key of health stat event message", e);
+            }
+            return null;
+        }
+    }
 }
@@ -18,9 +18,11 @@
  */
 package org.apache.stratos.messaging.message.receiver.initializer;
 
-import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.message.receiver.EventMessageQueue;
 
-import java.util.concurrent.LinkedBlockingQueue;
+public class InitializerEventMessageQueue extends EventMessageQueue {
 
-public class InitializerEventMessageQueue extends LinkedBlockingQueue<Message> {
+    public InitializerEventMessageQueue() {
+        super("initializer");
+    }
 }
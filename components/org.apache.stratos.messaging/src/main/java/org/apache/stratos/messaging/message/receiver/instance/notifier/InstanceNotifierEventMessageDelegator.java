@@ -22,7 +22,9 @@ package org.apache.stratos.messaging.message.receiver.instance.notifier;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.event.Event;
 import org.apache.stratos.messaging.listener.EventListener;
+import org.apache.stratos.messaging.listener.EventListenerRegistry;
 import org.apache.stratos.messaging.message.processor.MessageProcessorChain;
 import org.apache.stratos.messaging.message.processor.instance.notifier.InstanceNotifierMessageProcessorChain;
 
@@ -50,6 +52,20 @@ class InstanceNotifierEventMessageDelegator implements Runnable {
         processorChain.removeEventListener(eventListener);
     }
 
+    public void addEventListener(Class<? extends Event> eventClass, EventListenerRegistry.KeyType keyType,
+                                 String key, EventListener eventListener) {
+        processorChain.addEventListener(eventClass, keyType, key, eventListener);
+    }
+
+    public void removeEventListener(Class<? extends Event> eventClass, EventListenerRegistry.KeyType keyType,
+                                    String key, EventListener eventListener) {
+        processorChain.removeEventListener(eventClass, keyType, key, eventListener);
+    }
+
+    public void removeEventListeners(EventListenerRegistry.KeyType keyType, String key) {
+        processorChain.removeEventListeners(keyType, key);
+    }
+
     @Override
     public void run() {
         try {
@@ -23,7 +23,9 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.common.threading.StratosThreadPool;
 import org.apache.stratos.messaging.broker.subscribe.EventSubscriber;
+import org.apache.stratos.messaging.event.Event;
 import org.apache.stratos.messaging.listener.EventListener;
+import org.apache.stratos.messaging.listener.EventListenerRegistry;
 import org.apache.stratos.messaging.message.receiver.StratosEventReceiver;
 import org.apache.stratos.messaging.util.MessagingUtil;
 
@@ -65,6 +67,35 @@ public class InstanceNotifierEventReceiver extends StratosEventReceiver {
         messageDelegator.removeEventListener(eventListener);
     }
 
+    /**
+     * Add an event listener notified only of events of the given type carrying the given key,
+     * such as the events of a single member.
+     *
+     * @param eventClass    event type
+     * @param keyType       event property compared to the key
+     * @param key           member id, cluster id or application id
+     * @param eventListener event listener
+     */
+    public void addEventListener(Class<? extends Event> eventClass, EventListenerRegistry.KeyType keyType,
+                                 String key, EventListener eventListener) {
+        messageDelegator.addEventListener(eventClass, keyType, key, eventListener);
+    }
+
+    public void removeEventListener(Class<? extends Event> eventClass, EventListenerRegistry.KeyType keyType,
+                                    String key, EventListener eventListener) {
+        messageDelegator.removeEventListener(eventClass, keyType, key, eventListener);
+    }
+
+    /**
+     * Remove all event listeners added for the given key.
+     *
+     * @param keyType event property compared to the key
+     * @param key     member id, cluster id or application id
+     */
+    public void removeEventListeners(EventListenerRegistry.KeyType keyType, String key) {
+        messageDelegator.removeEventListeners(keyType, key);
+    }
+
     private void execute() {
         try {
             // Start topic subscriber thread
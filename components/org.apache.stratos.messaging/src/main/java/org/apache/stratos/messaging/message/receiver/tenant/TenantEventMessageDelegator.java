@@ -23,6 +23,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.messaging.domain.Message;
 import org.apache.stratos.messaging.listener.EventListener;
+import org.apache.stratos.messaging.message.codec.MessageCodecFactory;
 import org.apache.stratos.messaging.message.processor.MessageProcessorChain;
 import org.apache.stratos.messaging.message.processor.tenant.TenantMessageProcessorChain;
 
@@ -74,7 +75,13 @@ class TenantEventMessageDelegator implements Runnable {
                     if (log.isDebugEnabled()) {
                         log.debug(String.format("Delegating tenant event message: %s", type));
                     }
-                    processorChain.process(type, json, null);
+                    // Complete tenant events decoded while queued are not decoded again
+                    MessageCodecFactory.setPreDecoded(message);
+                    try {
+                        processorChain.process(type, json, null);
+                    } finally {
+                        MessageCodecFactory.clearPreDecoded();
+                    }
                 } catch (InterruptedException ignore) {
                     log.info("Shutting down tenant event message delegator...");
                     terminate();
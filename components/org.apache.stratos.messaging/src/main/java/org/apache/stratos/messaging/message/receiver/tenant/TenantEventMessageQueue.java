@@ -19,12 +19,22 @@
 
 package org.apache.stratos.messaging.message.receiver.tenant;
 
-import org.apache.stratos.messaging.domain.Message;
-
-import java.util.concurrent.LinkedBlockingQueue;
+import org.apache.stratos.messaging.message.receiver.EventMessageQueue;
 
 /**
- * Implements a blocking queue for managing tenant event messages.
+ * Implements a bounded blocking queue for managing tenant event messages.
  */
-class TenantEventMessageQueue extends LinkedBlockingQueue<Message> {
+class TenantEventMessageQueue extends EventMessageQueue {
+
+    public TenantEventMessageQueue() {
+        super("tenant");
+    }
+
+    /**
+     * Complete tenant events are applied only until the tenants have been initialized.
+     */
+    @Override
+    protected boolean isBulkOvertakingAllowed() {
+        return TenantManager.getInstance().isInitialized();
+    }
 }
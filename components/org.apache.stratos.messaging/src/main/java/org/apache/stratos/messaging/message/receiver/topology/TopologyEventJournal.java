@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.receiver.topology;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.event.topology.CompleteTopologyEvent;
+import org.apache.stratos.messaging.message.processor.MessageProcessorChain;
+import org.apache.stratos.messaging.message.processor.topology.updater.TopologyUpdater;
+import org.apache.stratos.messaging.util.MessagingUtil;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Local journal of the topology, allowing a subscriber to restore its topology at startup without
+ * waiting for the complete topology event.
+ * <p/>
+ * The journal consists of a snapshot file holding the local topology as a complete topology event,
+ * and a journal file to which the topology event messages applied since the snapshot are appended.
+ * The snapshot is rewritten and the journal file truncated whenever a complete topology event has
+ * been received or the number of journal entries exceeds the maximum. At startup the snapshot and
+ * the journal entries are replayed through the topology message processor chain; events missed
+ * while the subscriber was down are then caught up using the topology versions.
+ * <p/>
+ * The journal is enabled by setting the stratos.messaging.topology.journal.directory system property
+ * to the directory of the journal files.
+ */
+public class TopologyEventJournal {
+
+    private static final Log log = LogFactory.getLog(TopologyEventJournal.class);
+
+    public static final String JOURNAL_DIRECTORY_PROPERTY = "stratos.messaging.topology.journal.directory";
+    public static final String JOURNAL_MAX_ENTRIES_PROPERTY = "stratos.messaging.topology.journal.max.entries";
+
+    private static final String SNAPSHOT_FILE_NAME = "topology-snapshot.json";
+    private static final String JOURNAL_FILE_NAME = "topology-journal.dat";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    // Complete topology events are never appended, larger entries can only be corrupt
+    private static final int MAX_ENTRY_LENGTH = 64 * 1024 * 1024;
+
+    private final File snapshotFile;
+    private final File journalFile;
+    private final int maxEntries;
+    private DataOutputStream outputStream;
+    private int entries;
+    private boolean compactionRequired;
+    private boolean failed;
+
+    public TopologyEventJournal(File directory, int maxEntries) {
+        this.snapshotFile = new File(directory, SNAPSHOT_FILE_NAME);
+        this.journalFile = new File(directory, JOURNAL_FILE_NAME);
+        this.maxEntries = maxEntries;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            log.error(String.format("Could not create topology journal directory: [directory] %s",
+                    directory.getAbsolutePath()));
+            failed = true;
+        }
+    }
+
+    /**
+     * Return true if the topology journal has been enabled.
+     */
+    public static boolean isEnabled() {
+        return StringUtils.isNotBlank(System.getProperty(JOURNAL_DIRECTORY_PROPERTY));
+    }
+
+    /**
+     * Create the topology journal in the configured directory.
+     *
+     * @return topology journal
+     */
+    public static TopologyEventJournal createConfiguredJournal() {
+        return new TopologyEventJournal(new File(System.getProperty(JOURNAL_DIRECTORY_PROPERTY).trim()),
+                MessagingUtil.getNumericSystemProperty(10000, JOURNAL_MAX_ENTRIES_PROPERTY));
+    }
+
+    /**
+     * Restore the topology by applying the snapshot and the journal entries using the given
+     * processor chain. Journal entries partially written before a crash are discarded, the journal
+     * is truncated at the first entry which could not be read.
+     *
+     * @param processorChain topology message processor chain
+     * @return number of journal entries applied after the snapshot, -1 if there was no snapshot
+     */
+    public synchronized int replay(MessageProcessorChain processorChain) {
+        if (failed || !snapshotFile.isFile()) {
+            return -1;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            String snapshot = new String(Files.readAllBytes(snapshotFile.toPath()), UTF_8);
+            processorChain.process(CompleteTopologyEvent.class.getName(), snapshot, TopologyManager.getTopology());
+        } catch (Exception e) {
+            log.error(String.format("Could not restore topology snapshot: [file] %s",
+                    snapshotFile.getAbsolutePath()), e);
+            return -1;
+        }
+
+        int replayed = 0;
+        long validLength = 0;
+        if (journalFile.isFile()) {
+            long fileLength = journalFile.length();
+            DataInputStream inputStream = null;
+            try {
+                inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)));
+                while (true) {
+                    String type;
+                    String message;
+                    try {
+                        type = inputStream.readUTF();
+                        int length = inputStream.readInt();
+                        long headerLength = 2 + type.getBytes(UTF_8).length + 4;
+                        long remaining = fileLength - validLength - headerLength;
+                        if ((length < 0) || (length > remaining) || (length > MAX_ENTRY_LENGTH)) {
+                            log.warn(String.format("Invalid topology journal entry length, discarding the " +
+                                            "remaining entries: [file] %s [offset] %d [length] %d",
+                                    journalFile.getAbsolutePath(), validLength, length));
+                            break;
+                        }
+                        byte[] bytes = new byte[length];
+                        inputStream.readFully(bytes);
+                        message = new String(bytes, UTF_8);
+                        validLength += headerLength + length;
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    try {
+                        processorChain.process(type, message, TopologyManager.getTopology());
+                    } catch (Exception e) {
+                        log.error(String.format("Could not apply topology journal entry: [type] %s", type), e);
+                    }
+                    replayed++;
+                }
+            } catch (IOException e) {
+                log.error(String.format("Could not read topology journal: [file] %s",
+                        journalFile.getAbsolutePath()), e);
+            } finally {
+                closeQuietly(inputStream);
+            }
+            truncate(validLength);
+        }
+        entries = replayed;
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Topology restored from local journal: [topology-version] %d " +
+                            "[journal-entries] %d [duration] %d ms", TopologyManager.getVersionTracker().getVersion(),
+                    replayed, System.currentTimeMillis() - startTime));
+        }
+        return replayed;
+    }
+
+    /**
+     * Append a topology event message applied to the topology. A complete topology event
+     * makes a compaction required instead.
+     *
+     * @param type    event class name
+     * @param message event message
+     */
+    public synchronized void append(String type, String message) {
+        if (failed) {
+            return;
+        }
+        if (CompleteTopologyEvent.class.getName().equals(type)) {
+            compactionRequired = true;
+            return;
+        }
+        if (!snapshotFile.isFile()) {
+            // Entries are only useful on top of a snapshot
+            compactionRequired = true;
+            return;
+        }
+        try {
+            if (outputStream == null) {
+                outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile, true)));
+            }
+            byte[] bytes = message.getBytes(UTF_8);
+            outputStream.writeUTF(type);
+            outputStream.writeInt(bytes.length);
+            outputStream.write(bytes);
+            outputStream.flush();
+            if (++entries >= maxEntries) {
+                compactionRequired = true;
+            }
+        } catch (IOException e) {
+            handleFailure("Could not append to topology journal", e);
+        }
+    }
+
+    /**
+     * Return true if the snapshot needs to be rewritten by invoking compact().
+     */
+    public synchronized boolean isCompactionRequired() {
+        return compactionRequired && !failed;
+    }
+
+    /**
+     * Write the current topology to the snapshot file and truncate the journal file. This needs to
+     * be invoked while no topology events are being processed, so that the topology version
+     * matches the topology.
+     */
+    public synchronized void compact() {
+        if (failed || !TopologyManager.isInitialized()) {
+            return;
+        }
+        String snapshot;
+        TopologyUpdater.acquireWriteLock();
+        try {
+            CompleteTopologyEvent event = new CompleteTopologyEvent(TopologyManager.getTopology());
+            event.setTopologyVersion(TopologyManager.getVersionTracker().getVersion());
+            snapshot = MessagingUtil.ObjectToJson(event);
+        } finally {
+            TopologyUpdater.releaseWriteLock();
+        }
+
+        try {
+            File tempFile = new File(snapshotFile.getParentFile(), SNAPSHOT_FILE_NAME + ".tmp");
+            Files.write(tempFile.toPath(), snapshot.getBytes(UTF_8));
+            Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            if (outputStream != null) {
+                outputStream.close();
+                outputStream = null;
+            }
+            truncate(0);
+            entries = 0;
+            compactionRequired = false;
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Topology journal compacted: [topology-version] %d",
+                        TopologyManager.getVersionTracker().getVersion()));
+            }
+        } catch (IOException e) {
+            handleFailure("Could not write topology snapshot", e);
+        }
+    }
+
+    public synchronized void close() {
+        if (outputStream != null) {
+            closeQuietly(outputStream);
+            outputStream = null;
+        }
+    }
+
+    private void truncate(long length) {
+        RandomAccessFile file = null;
+        try {
+            file = new RandomAccessFile(journalFile, "rw");
+            if (file.length() != length) {
+                file.setLength(length);
+            }
+        } catch (IOException e) {
+            handleFailure("Could not truncate topology journal", e);
+        } finally {
+            closeQuietly(file);
+        }
+    }
+
+    private void handleFailure(String message, IOException e) {
+        // Topology keeps being updated from the message broker, only the journal is disabled
+        log.error(String.format("%s, topology journal disabled: [file] %s", message,
+                journalFile.getAbsolutePath()), e);
+        failed = true;
+        close();
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+}
@@ -21,14 +21,23 @@ package org.apache.stratos.messaging.message.receiver.topology;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.event.Event;
 import org.apache.stratos.messaging.listener.EventListener;
+import org.apache.stratos.messaging.listener.EventListenerRegistry;
+import org.apache.stratos.messaging.message.filter.topology.TopologyEventPreFilter;
+import org.apache.stratos.messaging.message.codec.MessageCodecFactory;
 import org.apache.stratos.messaging.message.processor.MessageProcessorChain;
 import org.apache.stratos.messaging.message.processor.topology.TopologyMessageProcessorChain;
+import org.apache.stratos.messaging.message.receiver.JsonFieldShardKeyResolver;
+import org.apache.stratos.messaging.message.receiver.ShardedEventMessageDispatcher;
 
+import java.util.concurrent.CountDownLatch;
 
 /**
  * Implements logic for processing topology event messages based on a given
- * topology process chain.
+ * topology process chain. If delegator lanes are configured, messages are processed
+ * in parallel per cluster, while service level and complete topology events are
+ * processed as barriers.
  */
 class TopologyEventMessageDelegator implements Runnable {
 
@@ -36,11 +45,31 @@ class TopologyEventMessageDelegator implements Runnable {
 
     private MessageProcessorChain processorChain;
     private TopologyEventMessageQueue messageQueue;
+    private ShardedEventMessageDispatcher messageDispatcher;
+    private TopologyEventPreFilter preFilter;
+    private TopologyEventJournal journal;
+    private final CountDownLatch journalReplayed = new CountDownLatch(1);
     private boolean terminated;
 
     public TopologyEventMessageDelegator(TopologyEventMessageQueue messageQueue) {
         this.messageQueue = messageQueue;
         this.processorChain = new TopologyMessageProcessorChain();
+        this.preFilter = TopologyEventPreFilter.getInstance();
+        if (TopologyEventJournal.isEnabled()) {
+            this.journal = TopologyEventJournal.createConfiguredJournal();
+        }
+
+        int laneCount = ShardedEventMessageDispatcher.getConfiguredLaneCount();
+        if (laneCount > 1) {
+            this.messageDispatcher = new ShardedEventMessageDispatcher("topology", laneCount,
+                    new JsonFieldShardKeyResolver("clusterId", "cluster.clusterId"),
+                    new ShardedEventMessageDispatcher.MessageHandler() {
+                        @Override
+                        public void handleMessage(Message message) {
+                            processMessage(message);
+                        }
+                    });
+        }
     }
 
     public void addEventListener(EventListener eventListener) {
@@ -51,30 +80,54 @@ class TopologyEventMessageDelegator implements Runnable {
         processorChain.removeEventListener(eventListener);
     }
 
+    public void addEventListener(Class<? extends Event> eventClass, EventListenerRegistry.KeyType keyType,
+                                 String key, EventListener eventListener) {
+        processorChain.addEventListener(eventClass, keyType, key, eventListener);
+    }
+
+    public void removeEventListener(Class<? extends Event> eventClass, EventListenerRegistry.KeyType keyType,
+                                    String key, EventListener eventListener) {
+        processorChain.removeEventListener(eventClass, keyType, key, eventListener);
+    }
+
+    public void removeEventListeners(EventListenerRegistry.KeyType keyType, String key) {
+        processorChain.removeEventListeners(keyType, key);
+    }
+
     @Override
     public void run() {
         try {
             if (log.isInfoEnabled()) {
                 log.info("Topology event message delegator started");
             }
+            replayJournal();
 
             while (!terminated) {
                 try {
                     Message message = messageQueue.take();
-                    String type = message.getEventClassName();
+                    if (log.isDebugEnabled()) {
+                        log.debug(String.format("Topology event message [%s] received from queue: %s",
+                                message.getEventClassName(), messageQueue.getClass()));
+                    }
 
-                    // Retrieve the actual message
-                    String json = message.getText();
+                    // Discard events excluded by the topology filters without deserializing them
+                    if (preFilter.discard(message)) {
+                        continue;
+                    }
 
-                    if (log.isDebugEnabled()) {
-                        log.debug(String.format("Topology event message [%s] received from queue: %s", type,
-                                messageQueue.getClass()));
+                    if (messageDispatcher != null) {
+                        messageDispatcher.dispatch(message);
+                    } else {
+                        processMessage(message);
                     }
 
-                    if (log.isDebugEnabled()) {
-                        log.debug(String.format("Delegating topology event message: %s", type));
+                    if ((journal != null) && journal.isCompactionRequired()) {
+                        // Topology version needs to match the topology written to the snapshot
+                        if (messageDispatcher != null) {
+                            messageDispatcher.awaitLanes();
+                        }
+                        journal.compact();
                     }
-                    processorChain.process(type, json, TopologyManager.getTopology());
                 } catch (InterruptedException ignore) {
                     log.info("Shutting down topology event message delegator...");
                     terminate();
@@ -89,10 +142,60 @@ class TopologyEventMessageDelegator implements Runnable {
         }
     }
 
+    private void processMessage(Message message) {
+        String type = message.getEventClassName();
+
+        // Retrieve the actual message
+        String json = message.getText();
+
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Delegating topology event message: %s", type));
+        }
+        // Complete topology events decoded while queued are not decoded again
+        MessageCodecFactory.setPreDecoded(message);
+        try {
+            if (processorChain.process(type, json, TopologyManager.getTopology()) && (journal != null)) {
+                journal.append(type, json);
+            }
+        } finally {
+            MessageCodecFactory.clearPreDecoded();
+        }
+    }
+
+    /**
+     * Restore the topology from the local journal before processing any event messages.
+     */
+    private void replayJournal() {
+        try {
+            if ((journal != null) && (journal.replay(processorChain) >= 0) && TopologyManager.isInitialized()) {
+                TopologyManager.getVersionTracker().topologyRestored();
+            }
+        } catch (Exception e) {
+            log.error("Could not restore topology from local journal", e);
+        } finally {
+            journalReplayed.countDown();
+        }
+    }
+
+    /**
+     * Wait until the topology has been restored from the local journal, if enabled.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitJournalReplayed() throws InterruptedException {
+        journalReplayed.await();
+    }
+
     /**
      * Terminate topology event message delegator thread.
      */
     public void terminate() {
         terminated = true;
+        if (messageDispatcher != null) {
+            messageDispatcher.terminate();
+        }
+        if (journal != null) {
+            journal.close();
+        }
     }
 }
@@ -19,12 +19,24 @@
 
 package org.apache.stratos.messaging.message.receiver.topology;
 
-import org.apache.stratos.messaging.domain.Message;
-
-import java.util.concurrent.LinkedBlockingQueue;
+import org.apache.stratos.messaging.message.receiver.EventMessageQueue;
 
 /**
- * Implements a blocking queue for managing topology event messages.
+ * Implements a bounded blocking queue for managing topology event messages.
  */
-class TopologyEventMessageQueue extends LinkedBlockingQueue<Message> {
+class TopologyEventMessageQueue extends EventMessageQueue {
+
+    public TopologyEventMessageQueue() {
+        super("topology");
+    }
+
+    /**
+     * Events may be applied before a queued complete topology event once the topology has been
+     * initialized, unless the version tracker may still apply the complete topology, which would
+     * replace the events applied before it.
+     */
+    @Override
+    protected boolean isBulkOvertakingAllowed() {
+        return TopologyManager.isInitialized() && !TopologyManager.getVersionTracker().isSnapshotPending();
+    }
 }
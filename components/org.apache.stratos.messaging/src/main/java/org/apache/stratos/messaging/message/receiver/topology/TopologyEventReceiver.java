@@ -26,10 +26,18 @@ import org.apache.stratos.messaging.broker.publish.EventPublisher;
 import org.apache.stratos.messaging.broker.publish.EventPublisherPool;
 import org.apache.stratos.messaging.broker.subscribe.EventSubscriber;
 import org.apache.stratos.messaging.event.initializer.CompleteTopologyRequestEvent;
+import org.apache.stratos.messaging.event.Event;
 import org.apache.stratos.messaging.listener.EventListener;
+import org.apache.stratos.messaging.listener.EventListenerRegistry;
+import org.apache.stratos.messaging.message.filter.topology.TopologyClusterFilter;
+import org.apache.stratos.messaging.message.filter.topology.TopologyServiceFilter;
 import org.apache.stratos.messaging.message.receiver.StratosEventReceiver;
 import org.apache.stratos.messaging.util.MessagingUtil;
 
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
 /**
  * A thread for receiving topology information from message broker and
  * build topology in topology manager.
@@ -38,15 +46,25 @@ public class TopologyEventReceiver extends StratosEventReceiver {
 
     private static final Log log = LogFactory.getLog(TopologyEventReceiver.class);
 
+    private static final String VERSION_TRACKER_THREAD_POOL_ID = "topology.version.tracker.thread.pool";
+
     private TopologyEventMessageDelegator messageDelegator;
     private TopologyEventMessageListener messageListener;
     private EventSubscriber eventSubscriber;
+    private ScheduledFuture<?> gapCheckTask;
     private static volatile TopologyEventReceiver instance;
 
     private TopologyEventReceiver() {
         TopologyEventMessageQueue messageQueue = new TopologyEventMessageQueue();
         this.messageDelegator = new TopologyEventMessageDelegator(messageQueue);
         this.messageListener = new TopologyEventMessageListener(messageQueue);
+        TopologyManager.getVersionTracker().setCatchUpRequestHandler(
+                new TopologyVersionTracker.CatchUpRequestHandler() {
+                    @Override
+                    public void requestCatchUp(long topologyVersion) {
+                        requestTopologyCatchUp(topologyVersion);
+                    }
+                });
         execute();
     }
 
@@ -70,11 +88,53 @@ public class TopologyEventReceiver extends StratosEventReceiver {
         messageDelegator.removeEventListener(eventListener);
     }
 
+    /**
+     * Add an event listener notified only of events of the given type carrying the given key,
+     * such as the events of a single member.
+     *
+     * @param eventClass    event type
+     * @param keyType       event property compared to the key
+     * @param key           member id, cluster id or application id
+     * @param eventListener event listener
+     */
+    public void addEventListener(Class<? extends Event> eventClass, EventListenerRegistry.KeyType keyType,
+                                 String key, EventListener eventListener) {
+        messageDelegator.addEventListener(eventClass, keyType, key, eventListener);
+    }
+
+    public void removeEventListener(Class<? extends Event> eventClass, EventListenerRegistry.KeyType keyType,
+                                    String key, EventListener eventListener) {
+        messageDelegator.removeEventListener(eventClass, keyType, key, eventListener);
+    }
+
+    /**
+     * Remove all event listeners added for the given key.
+     *
+     * @param keyType event property compared to the key
+     * @param key     member id, cluster id or application id
+     */
+    public void removeEventListeners(EventListenerRegistry.KeyType keyType, String key) {
+        messageDelegator.removeEventListeners(keyType, key);
+    }
+
     private void execute() {
         try {
-            // Start topic subscriber thread
-            eventSubscriber = new EventSubscriber(MessagingUtil.Topics.TOPOLOGY_TOPIC.getTopicName(), messageListener);
+            // Start topic subscriber thread, subscribing only to the topics of filtered services and clusters
+            // with a single connection
+            List<String> topicNames = MessagingUtil.getTopologyTopicNames(
+                    TopologyServiceFilter.getInstance().getIncludedServiceNames(),
+                    TopologyClusterFilter.getInstance().getIncludedClusterIds());
+            eventSubscriber = new EventSubscriber(MessagingUtil.getCompositeTopicName(topicNames), messageListener);
             executorService.execute(eventSubscriber);
+            if (!topicNames.contains(MessagingUtil.Topics.TOPOLOGY_TOPIC.getTopicName())) {
+                // Events of other services and clusters are not received, hence versions cannot be tracked
+                TopologyManager.getVersionTracker().setEnabled(false);
+                if (log.isInfoEnabled()) {
+                    log.info(String.format("Subscribing to topology topics: %s", topicNames));
+                }
+            } else {
+                scheduleGapCheck();
+            }
 
             if (log.isDebugEnabled()) {
                 log.debug("Topology event message receiver thread started");
@@ -94,7 +154,30 @@ public class TopologyEventReceiver extends StratosEventReceiver {
         }
     }
 
+    /**
+     * Check for missing topology events periodically, events are otherwise only checked when
+     * the next event is received, which does not happen if the last events were missed.
+     */
+    private void scheduleGapCheck() {
+        final TopologyVersionTracker versionTracker = TopologyManager.getVersionTracker();
+        long interval = Math.max(versionTracker.getGapTimeout() / 2, 100);
+        gapCheckTask = StratosThreadPool.getScheduledExecutorService(VERSION_TRACKER_THREAD_POOL_ID, 1)
+                .scheduleWithFixedDelay(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            versionTracker.checkGap();
+                        } catch (Exception e) {
+                            log.error("Could not check for missing topology events", e);
+                        }
+                    }
+                }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
     public void terminate() {
+        if (gapCheckTask != null) {
+            gapCheckTask.cancel(false);
+        }
         eventSubscriber.terminate();
         messageDelegator.terminate();
     }
@@ -110,11 +193,43 @@ public class TopologyEventReceiver extends StratosEventReceiver {
                     }
                 }
 
-                CompleteTopologyRequestEvent completeTopologyRequestEvent = new CompleteTopologyRequestEvent();
+                // Request only the events missed since the topology restored from the local journal, if any
+                long topologyVersion = 0;
+                try {
+                    messageDelegator.awaitJournalReplayed();
+                    topologyVersion = TopologyManager.getVersionTracker().getVersion();
+                } catch (InterruptedException ignore) {
+                }
+                CompleteTopologyRequestEvent completeTopologyRequestEvent = (topologyVersion > 0) ?
+                        new CompleteTopologyRequestEvent(topologyVersion) : new CompleteTopologyRequestEvent();
                 String topic = MessagingUtil.getMessageTopicName(completeTopologyRequestEvent);
                 EventPublisher eventPublisher = EventPublisherPool.getPublisher(topic);
                 eventPublisher.publish(completeTopologyRequestEvent);
             }
         });
     }
+
+    /**
+     * Request the topology events published after the given topology version, the publisher
+     * sends the complete topology if those events are no longer available.
+     *
+     * @param topologyVersion topology version of the local topology
+     */
+    private void requestTopologyCatchUp(final long topologyVersion) {
+        executorService.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    CompleteTopologyRequestEvent completeTopologyRequestEvent =
+                            new CompleteTopologyRequestEvent(topologyVersion);
+                    String topic = MessagingUtil.getMessageTopicName(completeTopologyRequestEvent);
+                    EventPublisher eventPublisher = EventPublisherPool.getPublisher(topic);
+                    eventPublisher.publish(completeTopologyRequestEvent);
+                } catch (Exception e) {
+                    log.error(String.format("Could not request topology catch-up: [topology-version] %d",
+                            topologyVersion), e);
+                }
+            }
+        });
+    }
 }
@@ -65,6 +65,8 @@ public class TopologyManager {
     private static volatile TopologyLockHierarchy topologyLockHierarchy =
             TopologyLockHierarchy.getInstance();
 
+    private static final TopologyVersionTracker versionTracker = new TopologyVersionTracker();
+
     private static boolean initialized = false;
 
     /**
@@ -231,4 +233,18 @@ public class TopologyManager {
     public static boolean isInitialized(){
         return TopologyManager.initialized;
     }
+
+    /**
+     * Return an immutable snapshot of the topology which can be read without acquiring locks.
+     *
+     * @return topology snapshot
+     * @see TopologySnapshotManager
+     */
+    public static Topology getTopologySnapshot() {
+        return TopologySnapshotManager.getSnapshot();
+    }
+
+    public static TopologyVersionTracker getVersionTracker() {
+        return versionTracker;
+    }
 }
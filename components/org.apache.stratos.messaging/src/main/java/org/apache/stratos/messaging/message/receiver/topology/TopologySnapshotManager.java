@@ -0,0 +1,339 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.receiver.topology;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.domain.instance.ClusterInstance;
+import org.apache.stratos.messaging.domain.topology.Cluster;
+import org.apache.stratos.messaging.domain.topology.Member;
+import org.apache.stratos.messaging.domain.topology.Port;
+import org.apache.stratos.messaging.domain.topology.Service;
+import org.apache.stratos.messaging.domain.topology.Topology;
+import org.apache.stratos.messaging.message.processor.topology.updater.TopologyUpdater;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Maintains immutable snapshots of the topology for readers that do not acquire topology locks.
+ * <p/>
+ * When snapshots are enabled, the topology updater publishes a new snapshot each time a write lock
+ * is released. A snapshot only copies the path from the topology to the member, cluster or service
+ * that was updated and shares all the other services, clusters and members with the previous
+ * snapshot, and is published by a single volatile write.
+ * Readers get a consistent view of the topology by a single volatile read, and must not modify it.
+ * <p/>
+ * Snapshots are enabled by setting the stratos.messaging.topology.snapshot.enabled system property
+ * to true or by invoking {@link #setEnabled(boolean)}.
+ */
+public class TopologySnapshotManager {
+
+    private static final Log log = LogFactory.getLog(TopologySnapshotManager.class);
+
+    public static final String TOPOLOGY_SNAPSHOT_ENABLED_PROPERTY = "stratos.messaging.topology.snapshot.enabled";
+
+    private static final Object snapshotLock = new Object();
+    private static volatile boolean enabled = Boolean.getBoolean(TOPOLOGY_SNAPSHOT_ENABLED_PROPERTY);
+    // Topology is empty until the complete topology event is processed
+    private static volatile Topology snapshot = enabled ? new Topology() : null;
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enable or disable topology snapshots. Enabling snapshots waits for ongoing topology
+     * updates and copies the current topology, therefore this should not be invoked while
+     * holding topology locks.
+     *
+     * @param enabled whether to enable topology snapshots
+     */
+    public static void setEnabled(boolean enabled) {
+        if (enabled) {
+            // Snapshot is published when the write lock is released, after ongoing updates complete
+            TopologyUpdater.acquireWriteLockForServices();
+            try {
+                TopologySnapshotManager.enabled = true;
+            } finally {
+                TopologyUpdater.releaseWriteLockForServices();
+            }
+        } else {
+            synchronized (snapshotLock) {
+                TopologySnapshotManager.enabled = false;
+                snapshot = null;
+            }
+        }
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Topology snapshots %s", enabled ? "enabled" : "disabled"));
+        }
+    }
+
+    /**
+     * Return the latest immutable snapshot of the topology.
+     *
+     * @return topology snapshot
+     * @throws IllegalStateException if topology snapshots are not enabled
+     */
+    public static Topology getSnapshot() {
+        Topology topology = snapshot;
+        if (topology == null) {
+            throw new IllegalStateException("Topology snapshots are not enabled");
+        }
+        return topology;
+    }
+
+    /**
+     * Publish a snapshot including the current state of a member. Invoked by the topology
+     * updater while holding the write lock of the cluster of the member. Only the member is
+     * copied, the other members and the state of the cluster are shared with the previous snapshot.
+     *
+     * @param serviceName service name of the member
+     * @param clusterId   cluster id of the member
+     * @param memberId    member id
+     */
+    public static void memberUpdated(String serviceName, String clusterId, String memberId) {
+        if (!enabled || (snapshot == null)) {
+            return;
+        }
+        Service service = TopologyManager.getTopology().getService(serviceName);
+        Cluster cluster = (service == null) ? null : service.getCluster(clusterId);
+        Member member = (cluster == null) ? null : cluster.getMember(memberId);
+        Member memberCopy = (member == null) ? null : new Member(member);
+
+        synchronized (snapshotLock) {
+            Topology previous = snapshot;
+            if (previous == null) {
+                return;
+            }
+            Service previousService = previous.getService(serviceName);
+            Cluster previousCluster = (previousService == null) ? null : previousService.getCluster(clusterId);
+            if ((previousCluster == null) || (cluster == null)) {
+                // Cluster is added or removed by a cluster update
+                return;
+            }
+            Cluster clusterCopy = new Cluster(previousCluster);
+            Map<String, Member> memberMap = new HashMap<String, Member>(previousCluster.getMemberMap());
+            if (memberCopy != null) {
+                memberMap.put(memberId, memberCopy);
+            } else {
+                memberMap.remove(memberId);
+            }
+            clusterCopy.setMemberMap(memberMap);
+            snapshot = replaceCluster(previous, previousService, clusterId, clusterCopy);
+        }
+    }
+
+    /**
+     * Publish a snapshot including the current state of a cluster. Invoked by the topology
+     * updater while holding the write lock of the cluster.
+     *
+     * @param serviceName service name of the cluster
+     * @param clusterId   cluster id
+     */
+    public static void clusterUpdated(String serviceName, String clusterId) {
+        if (!enabled || (snapshot == null)) {
+            return;
+        }
+        Service service = TopologyManager.getTopology().getService(serviceName);
+        Cluster cluster = (service == null) ? null : service.getCluster(clusterId);
+        Cluster clusterCopy = (cluster == null) ? null : copyCluster(cluster);
+
+        synchronized (snapshotLock) {
+            Topology previous = snapshot;
+            if (previous == null) {
+                return;
+            }
+            Service previousService = previous.getService(serviceName);
+            if (previousService == null) {
+                // Service is added by a service update
+                return;
+            }
+            snapshot = replaceCluster(previous, previousService, clusterId, clusterCopy);
+        }
+    }
+
+    /**
+     * Publish a snapshot including the current state of a service. Invoked by the topology
+     * updater while holding the write lock of the service.
+     *
+     * @param serviceName service name
+     */
+    public static void serviceUpdated(String serviceName) {
+        if (!enabled || (snapshot == null)) {
+            return;
+        }
+        Service service = TopologyManager.getTopology().getService(serviceName);
+        Service serviceCopy = (service == null) ? null : copyService(service);
+
+        synchronized (snapshotLock) {
+            Topology previous = snapshot;
+            if (previous != null) {
+                snapshot = replaceService(previous, serviceName, serviceCopy);
+            }
+        }
+    }
+
+    /**
+     * Publish a snapshot of the complete topology. Invoked by the topology updater while
+     * holding the write lock of all services.
+     */
+    public static void topologyUpdated() {
+        if (!enabled) {
+            return;
+        }
+        Topology topologyCopy = new Topology();
+        for (Service service : TopologyManager.getTopology().getServices()) {
+            Service serviceCopy = copyService(service);
+            topologyCopy.addService(serviceCopy);
+            for (Cluster cluster : serviceCopy.getClusters()) {
+                topologyCopy.addToCluterMap(cluster);
+            }
+        }
+        synchronized (snapshotLock) {
+            if (enabled) {
+                snapshot = topologyCopy;
+            }
+        }
+    }
+
+    /**
+     * Create a topology sharing all the services and clusters of the given topology except
+     * the given cluster, only the service of the cluster is copied.
+     */
+    private static Topology replaceCluster(Topology previous, Service previousService, String clusterId,
+                                           Cluster cluster) {
+        Service serviceCopy = new Service(previousService.getServiceName(), previousService.getServiceType());
+        serviceCopy.addPorts(previousService.getPorts());
+        serviceCopy.setProperties(previousService.getProperties());
+        for (Cluster previousCluster : previousService.getClusters()) {
+            if (!previousCluster.getClusterId().equals(clusterId)) {
+                serviceCopy.addCluster(previousCluster);
+            }
+        }
+        Topology topology = new Topology(previous);
+        if (cluster != null) {
+            serviceCopy.addCluster(cluster);
+            topology.addToCluterMap(cluster);
+        } else {
+            topology.removeFromClusterMap(clusterId);
+        }
+        topology.addService(serviceCopy);
+        return topology;
+    }
+
+    /**
+     * Create a topology sharing all the services and clusters of the given topology except the given service.
+     */
+    private static Topology replaceService(Topology previous, String serviceName, Service service) {
+        Service previousService = previous.getService(serviceName);
+        if ((service == null) && (previousService != null)) {
+            // Services are only removed from the topology together with their locks, hence the
+            // topology is rebuilt without the service
+            Topology topology = new Topology();
+            for (Service topologyService : previous.getServices()) {
+                if (topologyService != previousService) {
+                    topology.addService(topologyService);
+                    for (Cluster cluster : topologyService.getClusters()) {
+                        topology.addToCluterMap(cluster);
+                    }
+                }
+            }
+            return topology;
+        }
+
+        Topology topology = new Topology(previous);
+        if (previousService != null) {
+            for (Cluster cluster : previousService.getClusters()) {
+                topology.removeFromClusterMap(cluster.getClusterId());
+            }
+        }
+        if (service != null) {
+            topology.addService(service);
+            for (Cluster cluster : service.getClusters()) {
+                topology.addToCluterMap(cluster);
+            }
+        }
+        return topology;
+    }
+
+    /**
+     * Create a copy of a service of the topology, which does not share any mutable state with it.
+     */
+    private static Service copyService(Service service) {
+        Service serviceCopy = new Service(service.getServiceName(), service.getServiceType());
+        for (Port port : service.getPorts()) {
+            serviceCopy.addPort(new Port(port.getProtocol(), port.getValue(), port.getProxy()));
+        }
+        serviceCopy.setProperties(copyProperties(service.getProperties()));
+        for (Cluster cluster : service.getClusters()) {
+            serviceCopy.addCluster(copyCluster(cluster));
+        }
+        return serviceCopy;
+    }
+
+    /**
+     * Create a copy of a cluster of the topology, which does not share any mutable state with it.
+     * Kubernetes services are shared, since they are not updated once the cluster is created.
+     */
+    private static Cluster copyCluster(Cluster cluster) {
+        Cluster clusterCopy = new Cluster(cluster);
+        clusterCopy.setHostNames(copyList(cluster.getHostNames()));
+        clusterCopy.setProperties(copyProperties(cluster.getProperties()));
+        Map<String, Member> memberMap = new HashMap<String, Member>();
+        for (Member member : cluster.getMembers()) {
+            memberMap.put(member.getMemberId(), new Member(member));
+        }
+        clusterCopy.setMemberMap(memberMap);
+        if (cluster.getInstanceIdToInstanceContextMap() != null) {
+            Map<String, ClusterInstance> instanceMap = new HashMap<String, ClusterInstance>();
+            for (Map.Entry<String, ClusterInstance> entry : cluster.getInstanceIdToInstanceContextMap().entrySet()) {
+                instanceMap.put(entry.getKey(), new ClusterInstance(entry.getValue()));
+            }
+            clusterCopy.setInstanceIdToInstanceContextMap(instanceMap);
+        }
+        if (cluster.getAccessUrls() != null) {
+            Map<String, List<String>> accessUrls = new HashMap<String, List<String>>();
+            for (Map.Entry<String, List<String>> entry : cluster.getAccessUrls().entrySet()) {
+                accessUrls.put(entry.getKey(), copyList(entry.getValue()));
+            }
+            clusterCopy.setAccessUrls(accessUrls);
+        }
+        clusterCopy.setKubernetesServices(copyList(cluster.getKubernetesServices()));
+        clusterCopy.setLoadBalancerIps(copyList(cluster.getLoadBalancerIps()));
+        return clusterCopy;
+    }
+
+    private static <T> List<T> copyList(List<T> list) {
+        return (list == null) ? null : new ArrayList<T>(list);
+    }
+
+    private static Properties copyProperties(Properties properties) {
+        if (properties == null) {
+            return null;
+        }
+        Properties propertiesCopy = new Properties();
+        propertiesCopy.putAll(properties);
+        return propertiesCopy;
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.receiver.topology;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.event.topology.TopologyEvent;
+import org.apache.stratos.messaging.util.MessagingUtil;
+
+import java.util.TreeSet;
+
+/**
+ * Tracks the topology version of the local topology and detects missing topology events.
+ * <p/>
+ * The publisher assigns consecutive versions to topology events. The tracker keeps the highest
+ * version up to which all events have been received, skips events already reflected in the topology
+ * and allows events to arrive out of order for a while, since events of different types are
+ * delivered through different topics. If a missing version is not received within the gap timeout,
+ * a catch-up is requested from the publisher, which either republishes the missing events or
+ * publishes the complete topology to be applied as a snapshot. Gaps are checked whenever an event
+ * is received and by a timer calling {@link #checkGap()}, so that missing events at the end of
+ * the event stream are also requested.
+ */
+public class TopologyVersionTracker {
+
+    private static final Log log = LogFactory.getLog(TopologyVersionTracker.class);
+
+    public static final String GAP_TIMEOUT_PROPERTY = "stratos.messaging.topology.version.gap.timeout";
+    public static final String MAX_PENDING_VERSIONS_PROPERTY = "stratos.messaging.topology.version.max.pending";
+
+    /**
+     * Requests missing topology events from the publisher.
+     */
+    public interface CatchUpRequestHandler {
+
+        /**
+         * Request the topology events published after the given version.
+         *
+         * @param topologyVersion topology version of the local topology, zero to request the complete topology
+         */
+        void requestCatchUp(long topologyVersion);
+    }
+
+    private final long gapTimeout;
+    private final int maxPendingVersions;
+    private final TreeSet<Long> pendingVersions = new TreeSet<Long>();
+    private CatchUpRequestHandler catchUpRequestHandler;
+    private boolean enabled = true;
+    private long version;
+    private long gapDetectedTime;
+    private long catchUpRequestedTime;
+    private boolean restored;
+
+    public TopologyVersionTracker() {
+        this(MessagingUtil.getNumericSystemProperty(10000, GAP_TIMEOUT_PROPERTY),
+                MessagingUtil.getNumericSystemProperty(10000, MAX_PENDING_VERSIONS_PROPERTY));
+    }
+
+    public TopologyVersionTracker(long gapTimeout, int maxPendingVersions) {
+        this.gapTimeout = gapTimeout;
+        this.maxPendingVersions = maxPendingVersions;
+    }
+
+    public synchronized void setCatchUpRequestHandler(CatchUpRequestHandler catchUpRequestHandler) {
+        this.catchUpRequestHandler = catchUpRequestHandler;
+    }
+
+    /**
+     * Enable or disable version tracking. Versions cannot be tracked if only a subset of the
+     * topology events is received, all events are then applied without detecting missing events.
+     *
+     * @param enabled whether to track topology versions
+     */
+    public synchronized void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            version = 0;
+            pendingVersions.clear();
+            gapDetectedTime = 0;
+            catchUpRequestedTime = 0;
+        }
+    }
+
+    /**
+     * Return the highest topology version up to which all the topology events have been received.
+     *
+     * @return topology version, zero if not known
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Return the time after which a missing version is requested from the publisher.
+     *
+     * @return gap timeout in milliseconds
+     */
+    public long getGapTimeout() {
+        return gapTimeout;
+    }
+
+    /**
+     * Record a topology event received and return whether it needs to be applied to the topology.
+     *
+     * @param event topology event
+     * @return false if the event is already reflected in the topology
+     */
+    public boolean accept(TopologyEvent event) {
+        return accept(event.getClass().getName(), event.getTopologyVersion());
+    }
+
+    /**
+     * Record a topology event received and return whether it needs to be applied to the topology.
+     *
+     * @param eventType    class name of the event
+     * @param eventVersion topology version of the event
+     * @return false if the event is already reflected in the topology
+     */
+    public synchronized boolean accept(String eventType, long eventVersion) {
+        if (!enabled || (eventVersion <= 0) || (version <= 0)) {
+            // Event without a version or topology without a version
+            return true;
+        }
+        if ((eventVersion <= version) || pendingVersions.contains(eventVersion)) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Skipping topology event already applied: [event] %s [event-version] %d " +
+                        "[topology-version] %d", eventType, eventVersion, version));
+            }
+            return false;
+        }
+
+        pendingVersions.add(eventVersion);
+        advanceVersion();
+        checkGap();
+        return true;
+    }
+
+    /**
+     * Return whether a complete topology event of the given version needs to be applied
+     * to a topology that is already initialized, since events have been missed.
+     *
+     * @param snapshotVersion topology version of the complete topology event
+     * @return true if the snapshot needs to be applied
+     */
+    public synchronized boolean isSnapshotRequired(long snapshotVersion) {
+        if (restored) {
+            // First complete topology received since the topology was restored from the local journal
+            restored = false;
+            return !enabled || (snapshotVersion <= 0) || (snapshotVersion > version);
+        }
+        if (!enabled || (snapshotVersion <= 0) || (snapshotVersion <= version)) {
+            return false;
+        }
+        // Apply snapshot if a catch-up has been requested or the gap has timed out
+        return (catchUpRequestedTime > 0) || ((gapDetectedTime > 0) &&
+                (System.currentTimeMillis() - gapDetectedTime > gapTimeout));
+    }
+
+    /**
+     * Return whether isSnapshotRequired() may return true for a complete topology event received
+     * later, since the topology has been restored from the local journal or events have been missed.
+     *
+     * @return true if a complete topology event may need to be applied
+     */
+    public synchronized boolean isSnapshotPending() {
+        return restored || (enabled && ((catchUpRequestedTime > 0) || (gapDetectedTime > 0)));
+    }
+
+    /**
+     * Record that a complete topology event of the given version has been applied. The snapshot
+     * replaces the topology, hence events newer than the snapshot which were already applied are
+     * lost and are requested again from the publisher.
+     *
+     * @param snapshotVersion topology version of the complete topology event
+     */
+    public synchronized void snapshotApplied(long snapshotVersion) {
+        if (!enabled || (snapshotVersion <= 0)) {
+            return;
+        }
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Topology snapshot applied: [topology-version] %d [previous-version] %d",
+                    snapshotVersion, version));
+        }
+        long lastAppliedVersion = pendingVersions.isEmpty() ? version : pendingVersions.last();
+        version = snapshotVersion;
+        pendingVersions.clear();
+        catchUpRequestedTime = 0;
+        gapDetectedTime = 0;
+
+        if (lastAppliedVersion > snapshotVersion) {
+            if (log.isWarnEnabled()) {
+                log.warn(String.format("Topology events newer than the snapshot were replaced, requesting " +
+                        "catch-up: [topology-version] %d [last-applied-version] %d", snapshotVersion,
+                        lastAppliedVersion));
+            }
+            catchUpRequestedTime = System.currentTimeMillis();
+            if (catchUpRequestHandler != null) {
+                catchUpRequestHandler.requestCatchUp(snapshotVersion);
+            }
+        }
+    }
+
+    /**
+     * Record that the topology has been restored from the local journal. The next complete topology
+     * event is applied unless the restored topology is at least as recent, since without versions
+     * there is no other way to tell whether events have been missed while the subscriber was down.
+     */
+    public synchronized void topologyRestored() {
+        restored = true;
+    }
+
+    private void advanceVersion() {
+        while (!pendingVersions.isEmpty() && (pendingVersions.first() == version + 1)) {
+            version = pendingVersions.pollFirst();
+        }
+        if (pendingVersions.isEmpty()) {
+            gapDetectedTime = 0;
+            catchUpRequestedTime = 0;
+        } else if (gapDetectedTime == 0) {
+            gapDetectedTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Request a catch-up from the publisher if a missing version has not been received within
+     * the gap timeout, or if too many events are pending.
+     */
+    public synchronized void checkGap() {
+        if (gapDetectedTime == 0) {
+            return;
+        }
+        long currentTime = System.currentTimeMillis();
+        boolean tooManyPending = pendingVersions.size() > maxPendingVersions;
+        if ((currentTime - catchUpRequestedTime <= gapTimeout) ||
+                (!tooManyPending && (currentTime - gapDetectedTime <= gapTimeout))) {
+            return;
+        }
+
+        // Request the complete topology if too many events are pending
+        long requestVersion = tooManyPending ? 0 : version;
+        if (log.isWarnEnabled()) {
+            log.warn(String.format("Topology events missing, requesting catch-up: [topology-version] %d " +
+                            "[next-received-version] %d [pending-events] %d", version, pendingVersions.first(),
+                    pendingVersions.size()));
+        }
+        catchUpRequestedTime = currentTime;
+        if (catchUpRequestHandler != null) {
+            catchUpRequestHandler.requestCatchUp(requestVersion);
+        }
+    }
+}
@@ -31,6 +31,7 @@ public class MessagingConstants {
     public static final String MESSAGING_TRANSPORT = "messaging.transport";
     public static final String AMQP = "amqp";
     public static final String MQTT = "mqtt";
+    public static final String LOCAL = "local";
     public static final String MQTT_URL_DEFAULT = "defaultValue";
 
     /**
@@ -19,18 +19,24 @@
 package org.apache.stratos.messaging.util;
 
 import com.google.gson.Gson;
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.math.NumberUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.messaging.event.Event;
-import org.apache.stratos.messaging.message.JsonMessage;
+import org.apache.stratos.messaging.event.topology.TopologyEvent;
+import org.apache.stratos.messaging.message.codec.MessageCodecFactory;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 /**
  * Messaging module utility class
@@ -44,6 +50,9 @@ public class MessagingUtil {
     private static final String DOT = ".";
     private static final String HASH = "#";
     private static final String GREATER_THAN = ">";
+    private static final String PLUS = "+";
+    private static final String ASTERISK = "*";
+    private static final String COMMA = ",";
     private static final String ORG_APACHE_STRATOS_MESSAGING_EVENT_PACKAGE = "org.apache.stratos.messaging.event.";
     private static final String HYPHEN_MINUS = "-";
     private static final String EMPTY_SPACE = "";
@@ -52,11 +61,25 @@ public class MessagingUtil {
     private static final String FAILOVER_PING_INTERVAL_PROPERTY = "stratos.messaging.failoverPingInterval";
     private static final int DEFAULT_AVERAGE_PING_INTERVAL = 1000;
     private static final int DEFAULT_FAILOVER_PING_INTERVAL = 30000;
+    private static final String TOPOLOGY_TOPIC_PREFIX = "topology";
+    // Characters with a special meaning in AMQP and MQTT topic names
+    private static final Pattern TOPIC_SEGMENT_RESERVED_CHARACTERS = Pattern.compile("[./#+*>,\\s]");
+    private static final String TOPIC_SEGMENT_REPLACEMENT = "_";
+
+    /**
+     * Set this system property to true to publish topology events specific to a service or a cluster to
+     * topics of the service or the cluster, see {@link #getMessageTopicName(Event)}. Hierarchical topics
+     * are disabled by default, since publishers and subscribers need to agree on the topic names: the
+     * property needs to be set on every component publishing or receiving topology events.
+     */
+    public static final String HIERARCHICAL_TOPOLOGY_TOPICS_PROPERTY = "stratos.messaging.topology.hierarchical.topics";
 
     // Time interval between each ping message sent to topic.
     private static int averagePingInterval;
     // Time interval between each ping message after an error had occurred.
     private static int failoverPingInterval;
+    private static volatile boolean hierarchicalTopologyTopics = Boolean.getBoolean(
+            HIERARCHICAL_TOPOLOGY_TOPICS_PROPERTY);
 
     /**
      * Enum for Messaging topics
@@ -155,14 +178,15 @@ public class MessagingUtil {
 
 
     /**
-     * Transform json into an object of given type.
+     * Transform a message into an object of given type. Messages are JSON strings unless
+     * published with a different message codec, which is identified by the message header.
      *
      * @param json json string
      * @param type type of the class
      * @return Object of the json String
      */
     public static Object jsonToObject(String json, Class type) {
-        return (new JsonMessage(json, type)).getObject();
+        return MessageCodecFactory.decode(json, type);
     }
 
     /**
@@ -211,16 +235,34 @@ public class MessagingUtil {
     }
 
     /**
-     * Get the Message topic name for event
+     * Get the Message topic name for event. Topology events specific to a service or a cluster are
+     * published to hierarchical topics such as topology/[service-name]/[cluster-id]/[event-name],
+     * allowing subscribers to only subscribe to the services and clusters they are interested in.
      *
      * @param event event name
      * @return String topic name of the event
      */
     public static String getMessageTopicName(Event event) {
-
-        String topicName = event.getClass().getName().substring(ORG_APACHE_STRATOS_MESSAGING_EVENT_PACKAGE.length());
-        if (getMessagingProtocol().equals(MessagingConstants.MQTT)) {
-            topicName = topicName.replace(DOT, SLASH);
+        String topicName;
+        if (hierarchicalTopologyTopics && (event instanceof TopologyEvent)) {
+            TopologyEvent topologyEvent = (TopologyEvent) event;
+            StringBuilder topicNameBuilder = new StringBuilder(TOPOLOGY_TOPIC_PREFIX).append(SLASH);
+            if (StringUtils.isNotBlank(topologyEvent.getServiceName())) {
+                topicNameBuilder.append(getTopicSegment(topologyEvent.getServiceName())).append(SLASH);
+                if (StringUtils.isNotBlank(topologyEvent.getClusterId())) {
+                    topicNameBuilder.append(getTopicSegment(topologyEvent.getClusterId())).append(SLASH);
+                }
+            }
+            topicName = topicNameBuilder.append(event.getClass().getSimpleName()).toString();
+            if (getMessagingProtocol().equals(MessagingConstants.AMQP)) {
+                topicName = topicName.replace(SLASH, DOT);
+            }
+        } else {
+            topicName = event.getClass().getName().substring(ORG_APACHE_STRATOS_MESSAGING_EVENT_PACKAGE.length());
+            // Local transport uses the same topic names as MQTT
+            if (!getMessagingProtocol().equals(MessagingConstants.AMQP)) {
+                topicName = topicName.replace(DOT, SLASH);
+            }
         }
         return topicName;
     }
@@ -232,11 +274,112 @@ public class MessagingUtil {
      * @return String Event name for topic
      */
     public static String getEventClassNameForTopic(String topic) {
-        String eventClassName = ORG_APACHE_STRATOS_MESSAGING_EVENT_PACKAGE.concat(topic);
-        if (getMessagingProtocol().equals(MessagingConstants.MQTT)) {
-            eventClassName = eventClassName.replace(SLASH, DOT);
+        String eventName = topic;
+        if (!getMessagingProtocol().equals(MessagingConstants.AMQP)) {
+            eventName = eventName.replace(SLASH, DOT);
+        }
+        if (eventName.startsWith(TOPOLOGY_TOPIC_PREFIX + DOT)) {
+            // Skip service name and cluster id of hierarchical topology topics
+            int index = eventName.lastIndexOf(DOT);
+            if (index > TOPOLOGY_TOPIC_PREFIX.length()) {
+                eventName = TOPOLOGY_TOPIC_PREFIX + eventName.substring(index);
+            }
+        }
+        return ORG_APACHE_STRATOS_MESSAGING_EVENT_PACKAGE.concat(eventName);
+    }
+
+    /**
+     * Get the topic names to subscribe to for receiving topology events of the given services and clusters.
+     * Events which are not specific to a service or a cluster are received in addition. All topology events
+     * are received if no services or clusters are given or hierarchical topology topics are disabled.
+     *
+     * @param serviceNames service names, empty to receive events of all services
+     * @param clusterIds   cluster ids, empty to receive events of all clusters
+     * @return topic names
+     */
+    public static List<String> getTopologyTopicNames(Collection<String> serviceNames, Collection<String> clusterIds) {
+        List<String> topicNames = new ArrayList<String>();
+        if (!hierarchicalTopologyTopics || (serviceNames.isEmpty() && clusterIds.isEmpty())) {
+            topicNames.add(Topics.TOPOLOGY_TOPIC.getTopicName());
+            return topicNames;
+        }
+
+        // Events not specific to a service
+        topicNames.add(TOPOLOGY_TOPIC_PREFIX + SLASH + PLUS);
+        if (clusterIds.isEmpty()) {
+            for (String serviceName : serviceNames) {
+                topicNames.add(TOPOLOGY_TOPIC_PREFIX + SLASH + getTopicSegment(serviceName) + SLASH + HASH);
+            }
+        } else {
+            // Service events are required for adding clusters to the topology
+            List<String> serviceSegments = new ArrayList<String>();
+            if (serviceNames.isEmpty()) {
+                serviceSegments.add(PLUS);
+            } else {
+                for (String serviceName : serviceNames) {
+                    serviceSegments.add(getTopicSegment(serviceName));
+                }
+            }
+            for (String serviceSegment : serviceSegments) {
+                topicNames.add(TOPOLOGY_TOPIC_PREFIX + SLASH + serviceSegment + SLASH + PLUS);
+                for (String clusterId : clusterIds) {
+                    topicNames.add(TOPOLOGY_TOPIC_PREFIX + SLASH + serviceSegment + SLASH +
+                            getTopicSegment(clusterId) + SLASH + PLUS);
+                }
+            }
         }
-        return eventClassName;
+
+        if (getMessagingProtocol().equals(MessagingConstants.AMQP)) {
+            for (int i = 0; i < topicNames.size(); i++) {
+                topicNames.set(i, topicNames.get(i).replace(SLASH, DOT).replace(HASH, GREATER_THAN)
+                        .replace(PLUS, ASTERISK));
+            }
+        }
+        return topicNames;
+    }
+
+    public static boolean isHierarchicalTopologyTopics() {
+        return hierarchicalTopologyTopics;
+    }
+
+    /**
+     * Enable or disable hierarchical topology topics, overriding the system property. This needs to be
+     * invoked before topology events are published or topology event receivers are created.
+     *
+     * @param hierarchicalTopologyTopics whether to use hierarchical topology topics
+     */
+    public static void setHierarchicalTopologyTopics(boolean hierarchicalTopologyTopics) {
+        MessagingUtil.hierarchicalTopologyTopics = hierarchicalTopologyTopics;
+    }
+
+    /**
+     * Get a topic name for subscribing to all the given topics with a single subscriber. AMQP subscribers
+     * subscribe to it as an ActiveMQ composite destination, MQTT and local subscribers subscribe to each
+     * of the topics.
+     *
+     * @param topicNames topic names or topic filters
+     * @return comma separated topic names
+     */
+    public static String getCompositeTopicName(List<String> topicNames) {
+        return StringUtils.join(topicNames, COMMA);
+    }
+
+    /**
+     * Split a topic name created by {@link #getCompositeTopicName(List)} into the topic names.
+     *
+     * @param topicName topic name or composite topic name
+     * @return topic names
+     */
+    public static String[] splitCompositeTopicName(String topicName) {
+        return StringUtils.split(topicName, COMMA);
+    }
+
+    /**
+     * Replace characters that separate topic levels or denote wildcards in the given topic segment.
+     * Distinct values may map to the same segment, hence subscribers still need to filter events.
+     */
+    private static String getTopicSegment(String value) {
+        return TOPIC_SEGMENT_RESERVED_CHARACTERS.matcher(value.trim()).replaceAll(TOPIC_SEGMENT_REPLACEMENT);
     }
 
     /**
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.receiver.health.stat;
+
+import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.event.health.stat.AverageLoadAverageEvent;
+import org.apache.stratos.messaging.event.health.stat.MemberAverageLoadAverageEvent;
+import org.apache.stratos.messaging.event.health.stat.MemberFaultEvent;
+import org.apache.stratos.messaging.util.MessagingUtil;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Health stat event message queue tests.
+ */
+public class HealthStatEventMessageQueueTest {
+
+    @Test
+    public void testLatestValueWins() throws InterruptedException {
+        HealthStatEventMessageQueue messageQueue = new HealthStatEventMessageQueue(true);
+        for (int i = 0; i < 100; i++) {
+            messageQueue.add(createMessage(MemberAverageLoadAverageEvent.class.getName(),
+                    new MemberAverageLoadAverageEvent("cluster-instance1", "member1", i)));
+            messageQueue.add(createMessage(MemberAverageLoadAverageEvent.class.getName(),
+                    new MemberAverageLoadAverageEvent("cluster-instance1", "member2", i)));
+            messageQueue.add(createMessage(AverageLoadAverageEvent.class.getName(),
+                    new AverageLoadAverageEvent("network-partition1", "cluster1", "cluster-instance1", i)));
+        }
+        // Fault events are not coalesced
+        messageQueue.add(createMessage(MemberFaultEvent.class.getName(), new MemberFaultEvent("cluster1",
+                "cluster-instance1", "member1", "partition1", "network-partition1", 0)));
+        messageQueue.add(createMessage(MemberFaultEvent.class.getName(), new MemberFaultEvent("cluster1",
+                "cluster-instance1", "member1", "partition1", "network-partition1", 0)));
+
+        assertEquals(5, messageQueue.size());
+        assertEquals(297, messageQueue.getCoalescedCount());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(messageQueue.take().getText().contains("\"value\":99.0"));
+        }
+        assertTrue(messageQueue.take().getText().contains(MemberFaultEvent.class.getName()));
+        assertTrue(messageQueue.take().getText().contains(MemberFaultEvent.class.getName()));
+
+        // Messages added after being taken are queued again
+        messageQueue.add(createMessage(MemberAverageLoadAverageEvent.class.getName(),
+                new MemberAverageLoadAverageEvent("cluster-instance1", "member1", 100)));
+        assertEquals(1, messageQueue.size());
+        assertTrue(messageQueue.take().getText().contains("\"value\":100.0"));
+    }
+
+    @Test
+    public void testCoalescingDisabled() {
+        HealthStatEventMessageQueue messageQueue = new HealthStatEventMessageQueue(false);
+        for (int i = 0; i < 10; i++) {
+            messageQueue.add(createMessage(MemberAverageLoadAverageEvent.class.getName(),
+                    new MemberAverageLoadAverageEvent("cluster-instance1", "member1", i)));
+        }
+        assertEquals(10, messageQueue.size());
+    }
+
+    /**
+     * Create a message in the format published by the complex event processor.
+     */
+    private Message createMessage(String eventType, Object event) {
+        String text = String.format("{\"%s\":{\"message\":%s}}", eventType, MessagingUtil.ObjectToJson(event));
+        return new Message("summarized-health-stats", text);
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.test;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.broker.BrokerService;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.broker.connect.amqp.AmqpTopicPublisher;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import javax.jms.TopicConnection;
+import javax.jms.TopicSession;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies pooled publishing of the AMQP topic publisher against an embedded message broker
+ * and buffering of messages while the publisher reconnects.
+ */
+public class AmqpTopicPublisherTest {
+
+    private static final Log log = LogFactory.getLog(AmqpTopicPublisherTest.class);
+    private static final String BROKER_URL = "tcp://localhost:61619";
+    private static final int MESSAGE_COUNT = 500;
+    private static final int THREAD_COUNT = 4;
+
+    private static String dataDirectory;
+    private static BrokerService broker;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        // Use a dedicated jndi.properties file pointing to the broker started by this test
+        String path = StringUtils.removeEnd(AmqpTopicPublisherTest.class.getResource("/").getPath(),
+                File.separator);
+        System.setProperty("jndi.properties.dir", path + File.separator + "amqp-publisher");
+        dataDirectory = path + File.separator + ".." + File.separator + "activemq-data";
+        broker = startBroker();
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        if (broker != null) {
+            broker.stop();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testConcurrentPublishing() throws Exception {
+        String topicName = "amqp-publisher-concurrent";
+        final CountDownLatch receivedLatch = new CountDownLatch(MESSAGE_COUNT * THREAD_COUNT);
+        TopicConnection connection = subscribe(topicName, new MessageListener() {
+            @Override
+            public void onMessage(Message message) {
+                receivedLatch.countDown();
+            }
+        });
+
+        final AmqpTopicPublisher topicPublisher = new AmqpTopicPublisher(topicName);
+        topicPublisher.connect();
+        Thread[] threads = new Thread[THREAD_COUNT];
+        long startTime = System.nanoTime();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < MESSAGE_COUNT; j++) {
+                        topicPublisher.publish("message" + j, true);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsedTime = System.nanoTime() - startTime;
+        log.info(String.format("AMQP topic publisher throughput: [threads] %d %.1f msg/s", THREAD_COUNT,
+                (MESSAGE_COUNT * THREAD_COUNT) / (elapsedTime / 1e9)));
+
+        assertTrue("Topic subscriber has not received all messages", receivedLatch.await(30, TimeUnit.SECONDS));
+        topicPublisher.disconnect();
+        connection.close();
+    }
+
+    @Test(timeout = 60000)
+    public void testPublishWhileReconnecting() throws Exception {
+        String topicName = "amqp-publisher-reconnect";
+        AmqpTopicPublisher topicPublisher = new AmqpTopicPublisher(topicName);
+        topicPublisher.connect();
+        topicPublisher.publish("message0", true);
+
+        broker.stop();
+        broker.waitUntilStopped();
+        List<String> messagesSent = new ArrayList<String>();
+        long startTime = System.nanoTime();
+        for (int i = 1; i <= 10; i++) {
+            String message = "message" + i;
+            messagesSent.add(message);
+            topicPublisher.publish(message, true);
+        }
+        long elapsedTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        assertTrue("Publishing has blocked while reconnecting: " + elapsedTime + " ms", elapsedTime < 1000);
+        assertTrue("Publisher is not reconnecting", topicPublisher.isConnected());
+
+        broker = startBroker();
+        final List<String> messagesReceived = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch receivedLatch = new CountDownLatch(messagesSent.size());
+        TopicConnection connection = subscribe(topicName, new MessageListener() {
+            @Override
+            public void onMessage(Message message) {
+                try {
+                    messagesReceived.add(((TextMessage) message).getText());
+                } catch (JMSException e) {
+                    log.error("Could not read message", e);
+                }
+                receivedLatch.countDown();
+            }
+        });
+
+        assertTrue("Buffered messages have not been published", receivedLatch.await(40, TimeUnit.SECONDS));
+        assertEquals("Buffered messages were not published in order", messagesSent, messagesReceived);
+        topicPublisher.disconnect();
+        connection.close();
+    }
+
+    private static BrokerService startBroker() throws Exception {
+        BrokerService brokerService = new BrokerService();
+        brokerService.setDataDirectory(dataDirectory);
+        brokerService.setBrokerName("amqpTopicPublisherTestBroker");
+        brokerService.setPersistent(false);
+        brokerService.setUseJmx(false);
+        brokerService.addConnector(BROKER_URL);
+        brokerService.start();
+        brokerService.waitUntilStarted();
+        return brokerService;
+    }
+
+    private static TopicConnection subscribe(String topicName, MessageListener messageListener) throws JMSException {
+        TopicConnection connection = new ActiveMQConnectionFactory(BROKER_URL).createTopicConnection();
+        TopicSession session = connection.createTopicSession(false, Session.AUTO_ACKNOWLEDGE);
+        session.createSubscriber(session.createTopic(topicName)).setMessageListener(messageListener);
+        connection.start();
+        return connection;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.test;
+
+import org.apache.stratos.messaging.event.Event;
+import org.apache.stratos.messaging.event.EventObservable;
+import org.apache.stratos.messaging.event.instance.notifier.InstanceCleanupClusterEvent;
+import org.apache.stratos.messaging.event.topology.MemberInitializedEvent;
+import org.apache.stratos.messaging.listener.EventListener;
+import org.apache.stratos.messaging.listener.EventListenerRegistry;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Event listener registry tests.
+ */
+public class EventListenerRegistryTest {
+
+    @Test
+    public void testListenersAreNotifiedByKey() {
+        EventListenerRegistry registry = new EventListenerRegistry();
+        EventObservable observable = createObservable(registry);
+        List<String> notifications = new ArrayList<String>();
+        for (int i = 0; i < 1000; i++) {
+            registry.addEventListener(MemberInitializedEvent.class, EventListenerRegistry.KeyType.MemberId,
+                    "member" + i, createListener(notifications, "member" + i));
+        }
+        registry.addEventListener(InstanceCleanupClusterEvent.class, EventListenerRegistry.KeyType.ClusterId,
+                "cluster1", createListener(notifications, "cluster1"));
+
+        observable.notifyEventListeners(createMemberInitializedEvent("member10"));
+        observable.notifyEventListeners(createMemberInitializedEvent("member2000"));
+        observable.notifyEventListeners(new InstanceCleanupClusterEvent("cluster1", "cluster-instance1"));
+        observable.notifyEventListeners(new InstanceCleanupClusterEvent("cluster2", "cluster-instance1"));
+        assertEquals(2, notifications.size());
+        assertEquals("member10", notifications.get(0));
+        assertEquals("cluster1", notifications.get(1));
+    }
+
+    @Test
+    public void testListenersOfKeyAreRemoved() {
+        EventListenerRegistry registry = new EventListenerRegistry();
+        EventObservable observable = createObservable(registry);
+        List<String> notifications = new ArrayList<String>();
+        EventListener clusterListener = createListener(notifications, "cluster1");
+        registry.addEventListener(MemberInitializedEvent.class, EventListenerRegistry.KeyType.MemberId,
+                "member1", createListener(notifications, "member1"));
+        registry.addEventListener(MemberInitializedEvent.class, EventListenerRegistry.KeyType.ClusterId,
+                "cluster1", clusterListener);
+
+        registry.removeEventListeners(EventListenerRegistry.KeyType.MemberId, "member1");
+        observable.notifyEventListeners(createMemberInitializedEvent("member1"));
+        assertEquals(1, notifications.size());
+        assertEquals("cluster1", notifications.get(0));
+
+        registry.removeEventListener(MemberInitializedEvent.class, EventListenerRegistry.KeyType.ClusterId,
+                "cluster1", clusterListener);
+        assertTrue(registry.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUndefinedKeysAreRejected() {
+        new EventListenerRegistry().addEventListener(InstanceCleanupClusterEvent.class,
+                EventListenerRegistry.KeyType.MemberId, "member1", createListener(new ArrayList<String>(), ""));
+    }
+
+    private EventObservable createObservable(EventListenerRegistry registry) {
+        EventObservable observable = new EventObservable() {
+        };
+        observable.setEventListenerRegistry(registry);
+        return observable;
+    }
+
+    private EventListener createListener(final List<String> notifications, final String name) {
+        return new EventListener() {
+            @Override
+            protected void onEvent(Event event) {
+                notifications.add(name);
+            }
+        };
+    }
+
+    private MemberInitializedEvent createMemberInitializedEvent(String memberId) {
+        return new MemberInitializedEvent("service1", "cluster1", "cluster-instance1", memberId,
+                "network-partition1", "partition1", "instance1");
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.test;
+
+import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.domain.topology.Topology;
+import org.apache.stratos.messaging.event.Event;
+import org.apache.stratos.messaging.event.topology.CompleteTopologyEvent;
+import org.apache.stratos.messaging.event.topology.MemberActivatedEvent;
+import org.apache.stratos.messaging.event.topology.MemberTerminatedEvent;
+import org.apache.stratos.messaging.message.codec.MessageCodecFactory;
+import org.apache.stratos.messaging.message.receiver.EventMessageQueue;
+import org.apache.stratos.messaging.util.MessagingUtil;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Event message queue overflow policy, priority lane and metrics tests.
+ */
+public class EventMessageQueueTest {
+
+    @Test
+    public void testDropOldest() throws InterruptedException {
+        EventMessageQueue messageQueue = new EventMessageQueue("test.drop.oldest", 10,
+                EventMessageQueue.OverflowPolicy.DropOldest);
+        for (int i = 0; i < 25; i++) {
+            messageQueue.add(createMessage("member" + i));
+        }
+        assertEquals(10, messageQueue.size());
+        assertEquals(15, messageQueue.getDroppedCount());
+        assertTrue(messageQueue.take().getText().contains("member15"));
+    }
+
+    @Test
+    public void testDropOldestKeepsControlAndBulkEvents() throws InterruptedException {
+        EventMessageQueue messageQueue = new EventMessageQueue("test.drop.oldest.lanes", 3,
+                EventMessageQueue.OverflowPolicy.DropOldest);
+        messageQueue.add(createMessage(new CompleteTopologyEvent(new Topology())));
+        messageQueue.add(createMessage(new MemberTerminatedEvent("service1", "cluster2", "member1",
+                "cluster-instance1", "network-partition1", "partition1")));
+        messageQueue.add(createMessage("member2"));
+        messageQueue.add(createMessage("member3"));
+        assertEquals(3, messageQueue.size());
+        assertEquals(1, messageQueue.getDroppedCount());
+        assertEquals(1, messageQueue.getBulkDepth());
+        assertEquals(1, messageQueue.getControlDepth());
+
+        assertEquals(CompleteTopologyEvent.class.getName(), messageQueue.take().getEventClassName());
+        assertEquals(MemberTerminatedEvent.class.getName(), messageQueue.take().getEventClassName());
+        assertTrue(messageQueue.take().getText().contains("member3"));
+    }
+
+    @Test
+    public void testSpillToDisk() throws InterruptedException {
+        EventMessageQueue messageQueue = new EventMessageQueue("test.spill", 10,
+                EventMessageQueue.OverflowPolicy.SpillToDisk);
+        for (int i = 0; i < 25; i++) {
+            messageQueue.add(createMessage("member" + i));
+        }
+        assertEquals(25, messageQueue.getDepth());
+        assertEquals(15, messageQueue.getSpilledDepth());
+
+        // Messages are taken in the order added, including messages added while spilled messages remain
+        for (int i = 0; i < 5; i++) {
+            assertTrue(messageQueue.take().getText().contains("\"member" + i + "\""));
+        }
+        messageQueue.add(createMessage("member25"));
+        for (int i = 5; i < 26; i++) {
+            assertTrue(messageQueue.take().getText().contains("\"member" + i + "\""));
+        }
+        assertEquals(0, messageQueue.getDepth());
+        assertEquals(16, messageQueue.getSpilledCount());
+    }
+
+    @Test
+    public void testBlock() throws Exception {
+        final EventMessageQueue messageQueue = new EventMessageQueue("test.block", 1,
+                EventMessageQueue.OverflowPolicy.Block);
+        messageQueue.add(createMessage("member1"));
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                messageQueue.add(createMessage("member2"));
+            }
+        });
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive());
+
+        assertTrue(messageQueue.take().getText().contains("member1"));
+        producer.join(5000);
+        assertEquals(1, messageQueue.size());
+        assertEquals(1, messageQueue.getBlockedCount());
+    }
+
+    @Test
+    public void testCoalesce() throws InterruptedException {
+        EventMessageQueue messageQueue = new EventMessageQueue("test.coalesce", 10,
+                EventMessageQueue.OverflowPolicy.Coalesce);
+        for (int i = 0; i < 5; i++) {
+            messageQueue.add(createMessage("member1", "partition" + i));
+            messageQueue.add(createMessage("member2", "partition" + i));
+        }
+        assertEquals(2, messageQueue.size());
+        assertEquals(8, messageQueue.getCoalescedCount());
+        assertTrue(messageQueue.take().getText().contains("partition4"));
+    }
+
+    @Test
+    public void testControlEventsTakenFirst() throws InterruptedException {
+        EventMessageQueue messageQueue = new EventMessageQueue("test.lanes.control", 10,
+                EventMessageQueue.OverflowPolicy.Block);
+        messageQueue.add(createMessage(new MemberActivatedEvent("service1", "cluster2", "cluster-instance1",
+                "member1", "network-partition1", "partition1")));
+        messageQueue.add(createMessage(new MemberTerminatedEvent("service1", "cluster1", "member2",
+                "cluster-instance1", "network-partition1", "partition1")));
+        messageQueue.add(createMessage("member3"));
+        // Member terminated event of a cluster with a queued event is kept in order
+        messageQueue.add(createMessage(new MemberTerminatedEvent("service1", "cluster1", "member3",
+                "cluster-instance1", "network-partition1", "partition1")));
+        assertEquals(1, messageQueue.getControlDepth());
+
+        assertTrue(messageQueue.take().getText().contains("member2"));
+        assertTrue(messageQueue.take().getText().contains("member1"));
+        assertEquals(MemberActivatedEvent.class.getName(), messageQueue.take().getEventClassName());
+        assertEquals(MemberTerminatedEvent.class.getName(), messageQueue.take().getEventClassName());
+        assertEquals(0, messageQueue.size());
+
+        // Control event is taken first again once the normal events of its cluster have been taken
+        messageQueue.add(createMessage("member4"));
+        messageQueue.add(createMessage(new MemberTerminatedEvent("service1", "cluster2", "member5",
+                "cluster-instance1", "network-partition1", "partition1")));
+        assertEquals(1, messageQueue.getControlDepth());
+    }
+
+    @Test
+    public void testBulkEventIsBarrier() throws InterruptedException {
+        EventMessageQueue messageQueue = new EventMessageQueue("test.lanes.barrier", 10,
+                EventMessageQueue.OverflowPolicy.Block);
+        messageQueue.add(createMessage("member1"));
+        messageQueue.add(createMessage(new CompleteTopologyEvent(new Topology())));
+        messageQueue.add(createMessage(new MemberTerminatedEvent("service1", "cluster2", "member2",
+                "cluster-instance1", "network-partition1", "partition1")));
+        assertEquals(1, messageQueue.getBulkDepth());
+
+        assertEquals(MemberActivatedEvent.class.getName(), messageQueue.take().getEventClassName());
+        assertEquals(CompleteTopologyEvent.class.getName(), messageQueue.take().getEventClassName());
+        assertEquals(MemberTerminatedEvent.class.getName(), messageQueue.take().getEventClassName());
+    }
+
+    @Test
+    public void testBulkEventStaysBarrierUntilTaken() throws InterruptedException {
+        final boolean[] overtakingAllowed = new boolean[1];
+        EventMessageQueue messageQueue = new EventMessageQueue("test.lanes.barrier.kept", 10,
+                EventMessageQueue.OverflowPolicy.Block) {
+            @Override
+            protected boolean isBulkOvertakingAllowed() {
+                return overtakingAllowed[0];
+            }
+        };
+        messageQueue.add(createMessage(new CompleteTopologyEvent(new Topology())));
+        // Overtaking is allowed again, for an example once a pending snapshot is no longer required
+        overtakingAllowed[0] = true;
+        messageQueue.add(createMessage(new MemberTerminatedEvent("service1", "cluster2", "member1",
+                "cluster-instance1", "network-partition1", "partition1")));
+
+        assertEquals(CompleteTopologyEvent.class.getName(), messageQueue.take().getEventClassName());
+        assertEquals(MemberTerminatedEvent.class.getName(), messageQueue.take().getEventClassName());
+    }
+
+    @Test
+    public void testBulkEventOvertaken() throws InterruptedException {
+        EventMessageQueue messageQueue = new EventMessageQueue("test.lanes.overtaking", 10,
+                EventMessageQueue.OverflowPolicy.Block) {
+            @Override
+            protected boolean isBulkOvertakingAllowed() {
+                return true;
+            }
+        };
+        messageQueue.add(createMessage(new CompleteTopologyEvent(new Topology())));
+        messageQueue.add(createMessage("member1"));
+        messageQueue.add(createMessage(new MemberTerminatedEvent("service1", "cluster2", "member2",
+                "cluster-instance1", "network-partition1", "partition1")));
+
+        assertEquals(MemberTerminatedEvent.class.getName(), messageQueue.take().getEventClassName());
+        assertEquals(MemberActivatedEvent.class.getName(), messageQueue.take().getEventClassName());
+        // Complete topology event is taken once decoded in the background, the decoded event is
+        // carried by the message to the thread processing it
+        final Message message = messageQueue.take();
+        assertEquals(CompleteTopologyEvent.class.getName(), message.getEventClassName());
+        assertTrue(message.getDecodedObject() instanceof CompleteTopologyEvent);
+        final Object[] decodedEvent = new Object[1];
+        Thread processingThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                MessageCodecFactory.setPreDecoded(message);
+                try {
+                    decodedEvent[0] = MessageCodecFactory.decode(message.getText(), CompleteTopologyEvent.class);
+                } finally {
+                    MessageCodecFactory.clearPreDecoded();
+                }
+            }
+        });
+        processingThread.start();
+        processingThread.join();
+        assertSame(message.getDecodedObject(), decodedEvent[0]);
+    }
+
+    @Test
+    public void testMetricsAreExposedUsingJmx() throws Exception {
+        EventMessageQueue messageQueue = new EventMessageQueue("test.jmx", 10,
+                EventMessageQueue.OverflowPolicy.Block);
+        messageQueue.add(createMessage("member1"));
+        messageQueue.add(createMessage("member2"));
+        messageQueue.take();
+
+        ObjectName objectName = new ObjectName("org.apache.stratos.messaging:type=EventMessageQueue,name=" +
+                ObjectName.quote("test.jmx"));
+        assertEquals(1, ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "Depth"));
+        assertEquals(2L, ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "EnqueuedCount"));
+        assertTrue((Double) ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "DequeueRate") > 0);
+    }
+
+    private Message createMessage(String memberId) {
+        return createMessage(memberId, "partition1");
+    }
+
+    private Message createMessage(String memberId, String partitionId) {
+        MemberActivatedEvent event = new MemberActivatedEvent("service1", "cluster1", "cluster-instance1",
+                memberId, "network-partition1", partitionId);
+        return createMessage(event);
+    }
+
+    private Message createMessage(Event event) {
+        return new Message(MessagingUtil.getMessageTopicName(event), MessagingUtil.ObjectToJson(event));
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.test;
+
+import com.google.gson.Gson;
+import org.apache.activemq.broker.BrokerService;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.broker.publish.EventPublishFuture;
+import org.apache.stratos.messaging.broker.publish.EventPublisher;
+import org.apache.stratos.messaging.broker.publish.EventPublisherPool;
+import org.apache.stratos.messaging.broker.subscribe.EventSubscriber;
+import org.apache.stratos.messaging.broker.subscribe.MessageListener;
+import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.event.Event;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the throughput of the event publisher with and without a persistent broker connection
+ * and verifies asynchronous publishing.
+ */
+public class EventPublisherThroughputTest {
+
+    private static final Log log = LogFactory.getLog(EventPublisherThroughputTest.class);
+    private static final int MESSAGE_COUNT = 200;
+    private static final int TOPIC_COUNT = 4;
+
+    private static BrokerService broker;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        // Use a dedicated jndi.properties file pointing to the broker started by this test
+        String path = StringUtils.removeEnd(EventPublisherThroughputTest.class.getResource("/").getPath(),
+                File.separator);
+        System.setProperty("jndi.properties.dir", path + File.separator + "publisher");
+
+        broker = new BrokerService();
+        broker.setDataDirectory(path + File.separator + ".." + File.separator + "activemq-data");
+        broker.setBrokerName("publisherThroughputTestBroker");
+        broker.setPersistent(false);
+        broker.addConnector("tcp://localhost:61618");
+        broker.start();
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        System.clearProperty(EventPublisher.PERSISTENT_CONNECTION_PROPERTY);
+        if (broker != null) {
+            broker.stop();
+        }
+    }
+
+    @Test(timeout = 120000)
+    public void testPublisherThroughput() throws Exception {
+        System.clearProperty(EventPublisher.PERSISTENT_CONNECTION_PROPERTY);
+        double defaultRate = publishConcurrently("throughput-default");
+
+        System.setProperty(EventPublisher.PERSISTENT_CONNECTION_PROPERTY, "true");
+        double persistentRate = publishConcurrently("throughput-persistent");
+
+        log.info(String.format("Event publisher throughput: [default] %.1f msg/s [persistent-connection] %.1f msg/s",
+                defaultRate, persistentRate));
+    }
+
+    @Test(timeout = 60000)
+    public void testAsyncPublishingPreservesOrder() throws Exception {
+        final String topicName = "throughput-async";
+        final Gson gson = new Gson();
+        final List<String> messagesReceived = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch receivedLatch = new CountDownLatch(MESSAGE_COUNT);
+        EventSubscriber eventSubscriber = new EventSubscriber(topicName, new MessageListener() {
+            @Override
+            public void messageReceived(Message message) {
+                messagesReceived.add(gson.fromJson(message.getText(), TextMessageEvent.class).getMessage());
+                receivedLatch.countDown();
+            }
+        });
+        new Thread(eventSubscriber).start();
+        while (!eventSubscriber.isSubscribed()) {
+            Thread.sleep(100);
+        }
+
+        System.setProperty(EventPublisher.PERSISTENT_CONNECTION_PROPERTY, "true");
+        EventPublisher eventPublisher = EventPublisherPool.getPublisher(topicName);
+        List<String> messagesSent = new ArrayList<String>();
+        List<EventPublishFuture> futures = new ArrayList<EventPublishFuture>();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            String message = "message" + i;
+            messagesSent.add(message);
+            futures.add(eventPublisher.publishAsync(new TextMessageEvent(message)));
+        }
+        long submitTime = System.nanoTime() - startTime;
+        for (EventPublishFuture future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        long elapsedTime = System.nanoTime() - startTime;
+        log.info(String.format("Asynchronous event publisher: [submitted in] %d ms [published in] %d ms",
+                submitTime / 1000000, elapsedTime / 1000000));
+
+        assertTrue("Topic subscriber has not received all messages", receivedLatch.await(30, TimeUnit.SECONDS));
+        assertEquals("Messages were not received in publishing order", messagesSent, messagesReceived);
+        eventSubscriber.terminate();
+        EventPublisherPool.close(topicName);
+    }
+
+    @Test(timeout = 60000)
+    public void testPersistentPublisherReconnects() throws Exception {
+        System.setProperty(EventPublisher.PERSISTENT_CONNECTION_PROPERTY, "true");
+        EventPublisher eventPublisher = EventPublisherPool.getPublisher("persistent-reconnect");
+        assertTrue("Persistent connection mode has not been enabled", eventPublisher.isPersistentConnection());
+
+        eventPublisher.publish(new TextMessageEvent("message1"), false);
+        eventPublisher.close();
+        eventPublisher.publish(new TextMessageEvent("message2"), false);
+        EventPublisherPool.close("persistent-reconnect");
+    }
+
+    /**
+     * Publish messages to a set of topics, one thread per topic, and return the number of
+     * messages published per second.
+     */
+    private double publishConcurrently(String topicPrefix) throws Exception {
+        final CountDownLatch receivedLatch = new CountDownLatch(MESSAGE_COUNT * TOPIC_COUNT);
+        EventSubscriber[] subscribers = new EventSubscriber[TOPIC_COUNT];
+        final EventPublisher[] publishers = new EventPublisher[TOPIC_COUNT];
+        for (int i = 0; i < TOPIC_COUNT; i++) {
+            String topicName = topicPrefix + "-" + i;
+            subscribers[i] = new EventSubscriber(topicName, new MessageListener() {
+                @Override
+                public void messageReceived(Message message) {
+                    receivedLatch.countDown();
+                }
+            });
+            new Thread(subscribers[i]).start();
+            publishers[i] = EventPublisherPool.getPublisher(topicName);
+        }
+        for (EventSubscriber subscriber : subscribers) {
+            while (!subscriber.isSubscribed()) {
+                Thread.sleep(100);
+            }
+        }
+
+        Thread[] threads = new Thread[TOPIC_COUNT];
+        long startTime = System.nanoTime();
+        for (int i = 0; i < TOPIC_COUNT; i++) {
+            final EventPublisher eventPublisher = publishers[i];
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < MESSAGE_COUNT; j++) {
+                        eventPublisher.publish(new TextMessageEvent("message" + j), false);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsedTime = System.nanoTime() - startTime;
+
+        assertTrue("Topic subscribers have not received all messages", receivedLatch.await(30, TimeUnit.SECONDS));
+        for (int i = 0; i < TOPIC_COUNT; i++) {
+            subscribers[i].terminate();
+            EventPublisherPool.close(topicPrefix + "-" + i);
+        }
+        assertFalse("Publisher is still connected after closing it", publishers[0].isConnected());
+        return (MESSAGE_COUNT * TOPIC_COUNT) / (elapsedTime / 1e9);
+    }
+
+    private static class TextMessageEvent extends Event {
+
+        private String message;
+
+        public TextMessageEvent(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
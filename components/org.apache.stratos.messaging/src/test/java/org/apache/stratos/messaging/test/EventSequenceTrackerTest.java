@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.test;
+
+import org.apache.stratos.messaging.event.Event;
+import org.apache.stratos.messaging.listener.EventListener;
+import org.apache.stratos.messaging.message.codec.BinaryMessageCodec;
+import org.apache.stratos.messaging.message.codec.JsonMessageCodec;
+import org.apache.stratos.messaging.message.codec.MessageCodecFactory;
+import org.apache.stratos.messaging.message.processor.EventSequenceTracker;
+import org.apache.stratos.messaging.message.processor.MessageProcessor;
+import org.apache.stratos.messaging.message.processor.MessageProcessorChain;
+import org.apache.stratos.messaging.util.MessagingUtil;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Event sequence tracker tests, verifying that redelivered and stale events are skipped
+ * while events received out of order within the window are processed.
+ */
+public class EventSequenceTrackerTest {
+
+    private static final String TYPE = TestEvent.class.getName();
+
+    @Test
+    public void testDuplicateEventsSkipped() {
+        EventSequenceTracker tracker = new EventSequenceTracker("test", true, 64);
+        assertTrue(tracker.accept(TYPE, createMessage("source1", 1)));
+        assertTrue(tracker.accept(TYPE, createMessage("source1", 2)));
+        assertFalse(tracker.accept(TYPE, createMessage("source1", 1)));
+        assertFalse(tracker.accept(TYPE, createMessage("source1", 2)));
+        // Sequence numbers of different sources are independent
+        assertTrue(tracker.accept(TYPE, createMessage("source2", 1)));
+        assertEquals(2, tracker.getDuplicateCount());
+    }
+
+    @Test
+    public void testOutOfOrderEventsAccepted() {
+        EventSequenceTracker tracker = new EventSequenceTracker("test", true, 64);
+        assertTrue(tracker.accept(TYPE, "source1", 5));
+        assertTrue(tracker.accept(TYPE, "source1", 3));
+        assertTrue(tracker.accept(TYPE, "source1", 4));
+        assertFalse(tracker.accept(TYPE, "source1", 3));
+        assertTrue(tracker.accept(TYPE, "source1", 70));
+        assertTrue(tracker.accept(TYPE, "source1", 7));
+        // Older than the window
+        assertFalse(tracker.accept(TYPE, "source1", 6));
+        assertEquals(1, tracker.getDuplicateCount());
+        assertEquals(1, tracker.getStaleCount());
+    }
+
+    @Test
+    public void testUnsequencedEventsAccepted() {
+        EventSequenceTracker tracker = new EventSequenceTracker("test", true, 64);
+        String message = MessagingUtil.ObjectToJson(new TestEvent());
+        assertTrue(tracker.accept(TYPE, message));
+        assertTrue(tracker.accept(TYPE, message));
+
+        EventSequenceTracker disabledTracker = new EventSequenceTracker("test", false, 64);
+        assertTrue(disabledTracker.accept(TYPE, createMessage("source1", 1)));
+        assertTrue(disabledTracker.accept(TYPE, createMessage("source1", 1)));
+    }
+
+    @Test
+    public void testBinaryEncodedEventsSkipped() {
+        EventSequenceTracker tracker = new EventSequenceTracker("test", true, 64);
+        TestEvent event = new TestEvent();
+        event.setSourceId("source1");
+        event.setSequenceNumber(1);
+        String message = MessageCodecFactory.encode(new BinaryMessageCodec(), event);
+        assertTrue(tracker.accept(TYPE, message));
+        assertFalse(tracker.accept(TYPE, message));
+    }
+
+    @Test
+    public void testSequenceHeaderWrittenFirst() {
+        String message = createMessage("source1", 7);
+        assertTrue(message.startsWith("{\"sourceId\":\"source1\",\"sequenceNumber\":7,"));
+        TestEvent decodedEvent = (TestEvent) MessageCodecFactory.decode(message, TestEvent.class);
+        assertEquals("source1", decodedEvent.getSourceId());
+        assertEquals(7, decodedEvent.getSequenceNumber());
+        assertEquals("cluster1", decodedEvent.clusterId);
+
+        assertEquals("source1:7", EventSequenceTracker.readEventId(message));
+        // Header fields are only looked for before the other fields of the event
+        assertNull(EventSequenceTracker.readEventId(MessagingUtil.ObjectToJson(new TestEvent())));
+        assertNull(EventSequenceTracker.readEventId("{\"clusterId\":\"cluster1\",\"sourceId\":\"source1\"}"));
+    }
+
+    @Test
+    public void testProcessorChainSkipsDuplicates() {
+        final int[] processed = new int[1];
+        MessageProcessorChain chain = new MessageProcessorChain() {
+            @Override
+            protected void initialize() {
+                add(TestEvent.class, new MessageProcessor() {
+                    @Override
+                    public void setNext(MessageProcessor nextProcessor) {
+                    }
+
+                    @Override
+                    public boolean process(String type, String message, Object object) {
+                        processed[0]++;
+                        return true;
+                    }
+                });
+            }
+
+            @Override
+            public void addEventListener(EventListener eventListener) {
+            }
+
+            @Override
+            public void removeEventListener(EventListener eventListener) {
+            }
+        };
+
+        String message = createMessage("source1", 1);
+        assertTrue(chain.process(TYPE, message, null));
+        assertFalse(chain.process(TYPE, message, null));
+        assertTrue(chain.process(TYPE, createMessage("source1", 2), null));
+        assertEquals(2, processed[0]);
+        assertEquals(1, chain.getSequenceTracker().getSkippedCount());
+    }
+
+    private static String createMessage(String sourceId, long sequenceNumber) {
+        TestEvent event = new TestEvent();
+        event.setSourceId(sourceId);
+        event.setSequenceNumber(sequenceNumber);
+        return MessageCodecFactory.encode(MessageCodecFactory.getCodec(JsonMessageCodec.NAME), event);
+    }
+
+    private static class TestEvent extends Event {
+        private String clusterId = "cluster1";
+    }
+}
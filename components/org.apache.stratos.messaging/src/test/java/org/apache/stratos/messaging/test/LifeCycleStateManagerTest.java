@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import org.apache.stratos.messaging.domain.topology.MemberStatus;
+import org.apache.stratos.messaging.domain.topology.lifecycle.LifeCycleStateManager;
+import org.apache.stratos.messaging.util.MessagingUtil;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Lifecycle state manager tests, verifying that the state history is bounded.
+ */
+public class LifeCycleStateManagerTest {
+
+    private static final int HISTORY_DEPTH = 10;
+
+    @Test
+    public void testHistoryBoundedWhileFlapping() throws Exception {
+        LifeCycleStateManager<MemberStatus> stateManager =
+                new LifeCycleStateManager<MemberStatus>(MemberStatus.Created, "member1");
+        stateManager.changeState(MemberStatus.Initialized);
+        stateManager.changeState(MemberStatus.Starting);
+        for (int i = 0; i < 1000; i++) {
+            stateManager.changeState(MemberStatus.Active);
+            stateManager.changeState(MemberStatus.Suspended);
+        }
+        stateManager.changeState(MemberStatus.Active);
+        assertFalse(stateManager.changeState(MemberStatus.Active));
+
+        assertEquals(HISTORY_DEPTH, stateManager.getStateStack().size());
+        assertEquals(MemberStatus.Active, stateManager.getCurrentState());
+        assertEquals(MemberStatus.Suspended, stateManager.getPreviousState());
+
+        // Serialized forms carry the bounded history, the current state being the last one
+        JsonArray stateStack = new JsonParser().parse(MessagingUtil.ObjectToJson(stateManager))
+                .getAsJsonObject().getAsJsonArray("stateStack");
+        assertEquals(HISTORY_DEPTH, stateStack.size());
+        assertEquals(MemberStatus.Active.name(), stateStack.get(HISTORY_DEPTH - 1).getAsString());
+
+        LifeCycleStateManager<MemberStatus> copy = deserialize(serialize(stateManager));
+        assertEquals(HISTORY_DEPTH, copy.getStateStack().size());
+        assertEquals(MemberStatus.Active, copy.getCurrentState());
+        assertEquals(MemberStatus.Suspended, copy.getPreviousState());
+    }
+
+    private static byte[] serialize(Object object) throws Exception {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        ObjectOutputStream outputStream = new ObjectOutputStream(byteStream);
+        outputStream.writeObject(object);
+        outputStream.close();
+        return byteStream.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T deserialize(byte[] bytes) throws Exception {
+        ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(bytes));
+        return (T) inputStream.readObject();
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.test;
+
+import org.apache.stratos.messaging.broker.connect.TopicPublisher;
+import org.apache.stratos.messaging.broker.connect.TopicSubscriber;
+import org.apache.stratos.messaging.broker.connect.local.LocalTopicPublisher;
+import org.apache.stratos.messaging.broker.connect.local.LocalTopicSubscriber;
+import org.apache.stratos.messaging.broker.subscribe.MessageListener;
+import org.apache.stratos.messaging.domain.Message;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * In-JVM message delivery tests.
+ */
+public class LocalTopicBrokerTest {
+
+    @Test
+    public void testLocalDelivery() {
+        List<Message> topologyMessages = Collections.synchronizedList(new ArrayList<Message>());
+        List<Message> clusterMessages = Collections.synchronizedList(new ArrayList<Message>());
+        LocalTopicSubscriber topologySubscriber = subscribe("topology/#", topologyMessages, null);
+        LocalTopicSubscriber clusterSubscriber = subscribe("topology/php/+/+", clusterMessages, null);
+        // Single subscriber of several topics
+        List<Message> compositeMessages = Collections.synchronizedList(new ArrayList<Message>());
+        LocalTopicSubscriber compositeSubscriber = subscribe("topology/+,topology/php/cluster1/+,tenant/#",
+                compositeMessages, null);
+        try {
+            new LocalTopicPublisher("topology/php/cluster1/MemberActivatedEvent", null).publish("message1", true);
+            new LocalTopicPublisher("topology/ServiceCreatedEvent", null).publish("message2", true);
+            new LocalTopicPublisher("application/ApplicationCreatedEvent", null).publish("message3", true);
+
+            waitForMessages(topologyMessages, 2);
+            waitForMessages(clusterMessages, 1);
+            waitForMessages(compositeMessages, 2);
+            assertEquals(2, topologyMessages.size());
+            assertEquals("message1", topologyMessages.get(0).getText());
+            assertEquals("topology/php/cluster1/MemberActivatedEvent", topologyMessages.get(0).getTopicName());
+            assertEquals(1, clusterMessages.size());
+            assertEquals(2, compositeMessages.size());
+        } finally {
+            topologySubscriber.disconnect();
+            clusterSubscriber.disconnect();
+            compositeSubscriber.disconnect();
+        }
+    }
+
+    @Test
+    public void testBridgedMessagesAreReceivedOnce() {
+        final List<MessageListener> brokerListeners = new ArrayList<MessageListener>();
+        List<Message> messages = Collections.synchronizedList(new ArrayList<Message>());
+        LocalTopicSubscriber subscriber = subscribe("cluster/status/#", messages, brokerListeners);
+        try {
+            // Broker delivers published messages back to the subscribers of this JVM
+            TopicPublisher brokerTopicPublisher = new TestTopicPublisher() {
+                @Override
+                public void publish(String message, boolean retry) {
+                    for (MessageListener brokerListener : brokerListeners) {
+                        brokerListener.messageReceived(new Message("cluster/status/ClusterStatusClusterCreatedEvent",
+                                message));
+                    }
+                }
+            };
+            new LocalTopicPublisher("cluster/status/ClusterStatusClusterCreatedEvent", brokerTopicPublisher)
+                    .publish("local", true);
+            brokerListeners.get(0).messageReceived(new Message("cluster/status/ClusterStatusClusterCreatedEvent",
+                    "remote"));
+
+            waitForMessages(messages, 2);
+            assertEquals(2, messages.size());
+            List<String> texts = new ArrayList<String>();
+            for (Message message : messages) {
+                texts.add(message.getText());
+            }
+            assertTrue(texts.contains("local"));
+            assertTrue(texts.contains("remote"));
+        } finally {
+            subscriber.disconnect();
+        }
+    }
+
+    @Test
+    public void testSlowSubscriberDoesNotBlockPublisher() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final List<Message> messages = Collections.synchronizedList(new ArrayList<Message>());
+        LocalTopicSubscriber subscriber = new LocalTopicSubscriber(new MessageListener() {
+            @Override
+            public void messageReceived(Message message) {
+                try {
+                    latch.await();
+                } catch (InterruptedException ignore) {
+                }
+                messages.add(message);
+            }
+        }, "instance/status/#");
+        subscriber.subscribe();
+        try {
+            LocalTopicPublisher publisher = new LocalTopicPublisher("instance/status/InstanceStartedEvent", null);
+            for (int i = 0; i < 10; i++) {
+                publisher.publish("message" + i, true);
+            }
+            assertEquals(0, messages.size());
+
+            latch.countDown();
+            waitForMessages(messages, 10);
+            for (int i = 0; i < 10; i++) {
+                assertEquals("message" + i, messages.get(i).getText());
+            }
+        } finally {
+            subscriber.disconnect();
+        }
+    }
+
+    private static void waitForMessages(List<Message> messages, int count) {
+        long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while ((messages.size() < count) && (System.currentTimeMillis() < timeout)) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException ignore) {
+            }
+        }
+        // Messages delivered beyond the expected ones would arrive shortly after
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException ignore) {
+        }
+    }
+
+    private LocalTopicSubscriber subscribe(String topicName, final List<Message> messages,
+                                           List<MessageListener> brokerListeners) {
+        LocalTopicSubscriber subscriber = new LocalTopicSubscriber(new MessageListener() {
+            @Override
+            public void messageReceived(Message message) {
+                messages.add(message);
+            }
+        }, topicName);
+        if (brokerListeners != null) {
+            brokerListeners.add(subscriber.getBrokerMessageListener());
+            subscriber.setBrokerTopicSubscriber(new TestTopicSubscriber());
+        }
+        subscriber.subscribe();
+        return subscriber;
+    }
+
+    private static class TestTopicPublisher extends TestTopicSubscriber implements TopicPublisher {
+
+        @Override
+        public void publish(String message, boolean retry) {
+        }
+    }
+
+    private static class TestTopicSubscriber implements TopicSubscriber {
+
+        @Override
+        public void subscribe() {
+        }
+
+        @Override
+        public void create() {
+        }
+
+        @Override
+        public String getServerURI() {
+            return "test";
+        }
+
+        @Override
+        public void connect() {
+        }
+
+        @Override
+        public void disconnect() {
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+    }
+}
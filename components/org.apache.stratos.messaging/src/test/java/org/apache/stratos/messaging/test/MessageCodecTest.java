@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.test;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.domain.LoadBalancingIPType;
+import org.apache.stratos.messaging.domain.topology.Cluster;
+import org.apache.stratos.messaging.domain.topology.Member;
+import org.apache.stratos.messaging.domain.topology.MemberStatus;
+import org.apache.stratos.messaging.domain.topology.Port;
+import org.apache.stratos.messaging.domain.topology.Service;
+import org.apache.stratos.messaging.domain.topology.ServiceType;
+import org.apache.stratos.messaging.domain.topology.Topology;
+import org.apache.stratos.messaging.event.topology.CompleteTopologyEvent;
+import org.apache.stratos.messaging.event.topology.MemberActivatedEvent;
+import org.apache.stratos.messaging.message.codec.BinaryMessageCodec;
+import org.apache.stratos.messaging.message.codec.JsonMessageCodec;
+import org.apache.stratos.messaging.message.codec.MessageCodec;
+import org.apache.stratos.messaging.message.codec.MessageCodecFactory;
+import org.apache.stratos.messaging.util.MessagingUtil;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Message codec tests, including a size and time comparison of the codecs
+ * for a complete topology event of a large topology.
+ */
+public class MessageCodecTest {
+
+    private static final Log log = LogFactory.getLog(MessageCodecTest.class);
+    private static final int ITERATIONS = 10;
+
+    private final Gson gson = new Gson();
+
+    @Test
+    public void testBinaryCodecRoundTrip() {
+        MemberActivatedEvent event = new MemberActivatedEvent("service1", "cluster1", "cluster-instance1",
+                "member1", "network-partition1", "partition1");
+        event.setDefaultPrivateIP("10.0.0.1");
+        event.addPort(new Port("http", 8080, 80));
+        event.setMemberPrivateIPs(Arrays.asList("10.0.0.1", "10.0.0.2"));
+        // Strings requiring escaping in JSON
+        event.setApplicationId("application \"1\"\t\\ \u00e9");
+
+        String message = MessageCodecFactory.encode(MessageCodecFactory.getCodec(BinaryMessageCodec.NAME), event);
+        assertTrue("Binary message header not found", message.startsWith("~binary~"));
+
+        MemberActivatedEvent decodedEvent = (MemberActivatedEvent) MessagingUtil.jsonToObject(message,
+                MemberActivatedEvent.class);
+        assertEquals(gson.toJson(event), gson.toJson(decodedEvent));
+    }
+
+    @Test
+    public void testJsonMessagesHaveNoHeader() {
+        MessageCodec jsonCodec = MessageCodecFactory.getCodec(JsonMessageCodec.NAME);
+        Port port = new Port("http", 8080, 80);
+        String message = MessageCodecFactory.encode(jsonCodec, port);
+        assertEquals(gson.toJson(port), message);
+
+        Port decodedPort = (Port) MessagingUtil.jsonToObject(message, Port.class);
+        assertEquals(8080, decodedPort.getValue());
+    }
+
+    @Test
+    public void testCompleteTopologyEventCodecs() {
+        CompleteTopologyEvent event = new CompleteTopologyEvent(createTopology(20, 10, 10));
+        String expectedJson = gson.toJson(event);
+
+        for (String codecName : new String[]{JsonMessageCodec.NAME, BinaryMessageCodec.NAME}) {
+            MessageCodec messageCodec = MessageCodecFactory.getCodec(codecName);
+            String message = null;
+            Object decodedEvent = null;
+
+            long encodeTime = 0, decodeTime = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                long startTime = System.nanoTime();
+                message = MessageCodecFactory.encode(messageCodec, event);
+                encodeTime += System.nanoTime() - startTime;
+
+                startTime = System.nanoTime();
+                decodedEvent = MessageCodecFactory.decode(message, CompleteTopologyEvent.class);
+                decodeTime += System.nanoTime() - startTime;
+            }
+
+            assertEquals("Decoded event does not match the original event: [codec] " + codecName,
+                    expectedJson, gson.toJson(decodedEvent));
+            log.info(String.format("Complete topology event with 2000 members: [codec] %s [size] %d bytes " +
+                            "[encode] %.2f ms [decode] %.2f ms", codecName, message.length(),
+                    encodeTime / (ITERATIONS * 1e6), decodeTime / (ITERATIONS * 1e6)));
+        }
+    }
+
+    @Test
+    public void testBinaryReaderMatchesJsonReader() throws IOException {
+        MemberActivatedEvent memberEvent = new MemberActivatedEvent("service1", "cluster1", "cluster-instance1",
+                "member1", "network-partition1", "partition1");
+        memberEvent.addPort(new Port("http", 8080, 80));
+        memberEvent.setMemberPrivateIPs(Arrays.asList("10.0.0.1", "10.0.0.2"));
+        CompleteTopologyEvent topologyEvent = new CompleteTopologyEvent(createTopology(2, 2, 3));
+        MessageCodec binaryCodec = MessageCodecFactory.getCodec(BinaryMessageCodec.NAME);
+
+        for (Object event : new Object[]{memberEvent, topologyEvent}) {
+            String expectedTokens = readTokens(MessageCodecFactory.createReader(gson.toJson(event)));
+            String tokens = readTokens(MessageCodecFactory.createReader(
+                    MessageCodecFactory.encode(binaryCodec, event)));
+            assertEquals(expectedTokens, tokens);
+        }
+    }
+
+    @Test
+    public void testBinaryReaderSkipsValues() throws IOException {
+        CompleteTopologyEvent event = new CompleteTopologyEvent(createTopology(2, 2, 3));
+        event.setTopologyVersion(42);
+        String message = MessageCodecFactory.encode(MessageCodecFactory.getCodec(BinaryMessageCodec.NAME), event);
+
+        // The topology is skipped, strings referred after it are still resolved
+        JsonReader reader = MessageCodecFactory.createReader(message);
+        long topologyVersion = -1;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("topologyVersion".equals(reader.nextName())) {
+                topologyVersion = reader.nextLong();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        assertEquals(42, topologyVersion);
+        assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+    }
+
+    private static String readTokens(JsonReader reader) throws IOException {
+        StringBuilder tokens = new StringBuilder();
+        JsonToken token;
+        while ((token = reader.peek()) != JsonToken.END_DOCUMENT) {
+            tokens.append(token);
+            switch (token) {
+                case BEGIN_ARRAY:
+                    reader.beginArray();
+                    break;
+                case END_ARRAY:
+                    reader.endArray();
+                    break;
+                case BEGIN_OBJECT:
+                    reader.beginObject();
+                    break;
+                case END_OBJECT:
+                    reader.endObject();
+                    break;
+                case NAME:
+                    tokens.append(' ').append(reader.nextName());
+                    break;
+                case BOOLEAN:
+                    tokens.append(' ').append(reader.nextBoolean());
+                    break;
+                case NULL:
+                    reader.nextNull();
+                    break;
+                default:
+                    tokens.append(' ').append(reader.nextString());
+            }
+            tokens.append('\n');
+        }
+        return tokens.toString();
+    }
+
+    private Topology createTopology(int serviceCount, int clusterCount, int memberCount) {
+        Topology topology = new Topology();
+        for (int s = 0; s < serviceCount; s++) {
+            String serviceName = "service-" + s;
+            Service service = new Service(serviceName, ServiceType.SingleTenant);
+            service.addPort(new Port("http", 8280, 80));
+            for (int c = 0; c < clusterCount; c++) {
+                String clusterId = "application-" + c + "." + serviceName + ".domain";
+                Cluster cluster = new Cluster(serviceName, clusterId, "deployment-policy-1",
+                        "autoscaling-policy-1", "application-" + c);
+                cluster.addHostName(serviceName + ".application-" + c + ".stratos.org");
+                cluster.setTenantRange("*");
+                for (int m = 0; m < memberCount; m++) {
+                    String memberId = clusterId + "-member-" + m;
+                    Member member = new Member(serviceName, clusterId, memberId, clusterId + "-1",
+                            "network-partition-1", "partition-1", LoadBalancingIPType.Private,
+                            System.currentTimeMillis());
+                    member.setDefaultPrivateIP("10.0." + c + "." + m);
+                    member.setMemberPrivateIPs(Arrays.asList("10.0." + c + "." + m));
+                    member.addPort(new Port("http", 8280, 80));
+                    Properties properties = new Properties();
+                    properties.setProperty("PRIMARY", "false");
+                    member.setProperties(properties);
+                    member.setStatus(MemberStatus.Initialized);
+                    member.setStatus(MemberStatus.Active);
+                    cluster.addMember(member);
+                }
+                service.addCluster(cluster);
+            }
+            topology.addService(service);
+        }
+        return topology;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.test;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.event.Event;
+import org.apache.stratos.messaging.event.topology.*;
+import org.apache.stratos.messaging.listener.EventListener;
+import org.apache.stratos.messaging.message.processor.MessageProcessor;
+import org.apache.stratos.messaging.message.processor.MessageProcessorChain;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Message processor chain dispatch tests, including a per-message dispatch cost
+ * comparison of the linked chain traversal and the type indexed lookup.
+ */
+public class MessageProcessorChainDispatchTest {
+
+    private static final Log log = LogFactory.getLog(MessageProcessorChainDispatchTest.class);
+    private static final int MESSAGES = 2000000;
+
+    private static final List<Class<? extends Event>> EVENT_CLASSES = Arrays.<Class<? extends Event>>asList(
+            CompleteTopologyEvent.class, ServiceCreatedEvent.class, ServiceRemovedEvent.class,
+            ApplicationClustersCreatedEvent.class, ApplicationClustersRemovedEvent.class,
+            ClusterCreatedEvent.class, ClusterInstanceActivatedEvent.class,
+            ClusterInstanceInactivateEvent.class, ClusterRemovedEvent.class, ClusterResetEvent.class,
+            ClusterInstanceCreatedEvent.class, ClusterInstanceTerminatedEvent.class,
+            ClusterInstanceTerminatingEvent.class, MemberCreatedEvent.class, MemberInitializedEvent.class,
+            MemberStartedEvent.class, MemberActivatedEvent.class, MemberReadyToShutdownEvent.class,
+            MemberSuspendedEvent.class, MemberMaintenanceModeEvent.class, MemberTerminatedEvent.class);
+
+    @Test
+    public void testIndexedDispatchReachesProcessor() {
+        TestMessageProcessorChain chain = new TestMessageProcessorChain(true);
+        for (Class<? extends Event> eventClass : EVENT_CLASSES) {
+            chain.process(eventClass.getName(), "{}", null);
+        }
+        for (TestMessageProcessor processor : chain.processors) {
+            assertEquals(1, processor.count);
+        }
+        // Types without an indexed processor still walk the chain
+        chain.add(new TestMessageProcessor(UnindexedEvent.class.getName()));
+        chain.process(UnindexedEvent.class.getName(), "{}", null);
+        assertEquals(1, chain.processors.get(chain.processors.size() - 1).count);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testUnknownTypeFails() {
+        new TestMessageProcessorChain(true).process("unknown", "{}", null);
+    }
+
+    @Test
+    public void testDispatchCost() {
+        String firstType = EVENT_CLASSES.get(0).getName();
+        String lastType = EVENT_CLASSES.get(EVENT_CLASSES.size() - 1).getName();
+        TestMessageProcessorChain linkedChain = new TestMessageProcessorChain(false);
+        TestMessageProcessorChain indexedChain = new TestMessageProcessorChain(true);
+
+        // Warm up
+        dispatch(linkedChain, lastType);
+        dispatch(indexedChain, lastType);
+
+        log.info(String.format("Dispatch cost of %d processors: [linked-first] %.1f ns [linked-last] %.1f ns " +
+                        "[indexed-first] %.1f ns [indexed-last] %.1f ns", EVENT_CLASSES.size(),
+                dispatch(linkedChain, firstType), dispatch(linkedChain, lastType),
+                dispatch(indexedChain, firstType), dispatch(indexedChain, lastType)));
+        assertTrue(indexedChain.processors.get(EVENT_CLASSES.size() - 1).count > 0);
+    }
+
+    /**
+     * Dispatch messages of the given type and return the mean cost per message in nanoseconds.
+     */
+    private double dispatch(MessageProcessorChain chain, String type) {
+        long startTime = System.nanoTime();
+        for (int i = 0; i < MESSAGES; i++) {
+            chain.process(type, "{}", null);
+        }
+        return (double) (System.nanoTime() - startTime) / MESSAGES;
+    }
+
+    private static class UnindexedEvent extends Event {
+    }
+
+    private static class TestMessageProcessorChain extends MessageProcessorChain {
+
+        private List<TestMessageProcessor> processors;
+
+        private TestMessageProcessorChain(boolean indexed) {
+            super();
+            for (Class<? extends Event> eventClass : EVENT_CLASSES) {
+                TestMessageProcessor processor = new TestMessageProcessor(eventClass.getName());
+                if (indexed) {
+                    add(eventClass, processor);
+                } else {
+                    add(processor);
+                }
+            }
+        }
+
+        @Override
+        protected void initialize() {
+            processors = new ArrayList<TestMessageProcessor>();
+        }
+
+        @Override
+        public void add(MessageProcessor messageProcessor) {
+            super.add(messageProcessor);
+            processors.add((TestMessageProcessor) messageProcessor);
+        }
+
+        @Override
+        public void addEventListener(EventListener eventListener) {
+        }
+
+        @Override
+        public void removeEventListener(EventListener eventListener) {
+        }
+    }
+
+    /**
+     * Processor matching a message type the same way as the event message processors do.
+     */
+    private static class TestMessageProcessor extends MessageProcessor {
+
+        private final String eventClassName;
+        private MessageProcessor nextProcessor;
+        private int count;
+
+        private TestMessageProcessor(String eventClassName) {
+            this.eventClassName = eventClassName;
+        }
+
+        @Override
+        public void setNext(MessageProcessor nextProcessor) {
+            this.nextProcessor = nextProcessor;
+        }
+
+        @Override
+        public boolean process(String type, String message, Object object) {
+            if (eventClassName.equals(type)) {
+                count++;
+                return true;
+            } else {
+                if (nextProcessor != null) {
+                    return nextProcessor.process(type, message, object);
+                } else {
+                    throw new RuntimeException(String.format("Failed to process message using available " +
+                            "message processors: [type] %s [body] %s", type, message));
+                }
+            }
+        }
+    }
+}
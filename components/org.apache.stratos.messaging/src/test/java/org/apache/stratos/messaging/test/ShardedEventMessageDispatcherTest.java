@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.test;
+
+import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.domain.topology.Cluster;
+import org.apache.stratos.messaging.domain.topology.Topology;
+import org.apache.stratos.messaging.event.Event;
+import org.apache.stratos.messaging.event.topology.ClusterCreatedEvent;
+import org.apache.stratos.messaging.event.topology.CompleteTopologyEvent;
+import org.apache.stratos.messaging.event.topology.MemberTerminatedEvent;
+import org.apache.stratos.messaging.event.topology.ServiceRemovedEvent;
+import org.apache.stratos.messaging.message.codec.BinaryMessageCodec;
+import org.apache.stratos.messaging.message.codec.MessageCodecFactory;
+import org.apache.stratos.messaging.message.receiver.JsonFieldShardKeyResolver;
+import org.apache.stratos.messaging.message.receiver.ShardedEventMessageDispatcher;
+import org.apache.stratos.messaging.util.MessagingUtil;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Sharded event message dispatcher tests.
+ */
+public class ShardedEventMessageDispatcherTest {
+
+    private static final int CLUSTERS = 8;
+    private static final int MESSAGES_PER_CLUSTER = 50;
+
+    private final JsonFieldShardKeyResolver topologyShardKeyResolver =
+            new JsonFieldShardKeyResolver("clusterId", "cluster.clusterId");
+
+    @Test
+    public void testTopologyShardKeys() {
+        MemberTerminatedEvent memberTerminatedEvent = new MemberTerminatedEvent("service1", "cluster1",
+                "member1", "cluster-instance1", "network-partition1", "partition1");
+        assertEquals("cluster1", topologyShardKeyResolver.getShardKey(createMessage(memberTerminatedEvent)));
+
+        Cluster cluster = new Cluster("service1", "cluster2", "deployment-policy1", "autoscale-policy1", "app1");
+        assertEquals("cluster2", topologyShardKeyResolver.getShardKey(
+                createMessage(new ClusterCreatedEvent(cluster))));
+
+        // Service level and complete topology events are barriers
+        assertNull(topologyShardKeyResolver.getShardKey(createMessage(new ServiceRemovedEvent("service1"))));
+        assertNull(topologyShardKeyResolver.getShardKey(createMessage(new CompleteTopologyEvent(new Topology()))));
+
+        // Messages encoded by other codecs
+        String binaryMessage = MessageCodecFactory.encode(MessageCodecFactory.getCodec(BinaryMessageCodec.NAME),
+                memberTerminatedEvent);
+        assertEquals("cluster1", topologyShardKeyResolver.getShardKey(
+                new Message(MessagingUtil.getMessageTopicName(memberTerminatedEvent), binaryMessage)));
+    }
+
+    @Test
+    public void testPerClusterOrderingAndBarriers() throws Exception {
+        final Map<String, List<Integer>> processedMap = new ConcurrentHashMap<String, List<Integer>>();
+        final AtomicInteger inProgress = new AtomicInteger();
+        final AtomicInteger maxInProgress = new AtomicInteger();
+        final List<Integer> processedCountAtBarrier = new ArrayList<Integer>();
+        final AtomicInteger processedCount = new AtomicInteger();
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        ShardedEventMessageDispatcher dispatcher = new ShardedEventMessageDispatcher("test", 4,
+                topologyShardKeyResolver, new ShardedEventMessageDispatcher.MessageHandler() {
+            @Override
+            public void handleMessage(Message message) {
+                String type = message.getEventClassName();
+                if (CompleteTopologyEvent.class.getName().equals(type)) {
+                    processedCountAtBarrier.add(processedCount.get());
+                    if (processedCount.get() == 2 * CLUSTERS * MESSAGES_PER_CLUSTER) {
+                        completed.countDown();
+                    }
+                    return;
+                }
+                int running = inProgress.incrementAndGet();
+                maxInProgress.set(Math.max(maxInProgress.get(), running));
+                MemberTerminatedEvent event = (MemberTerminatedEvent) MessagingUtil.jsonToObject(
+                        message.getText(), MemberTerminatedEvent.class);
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException ignore) {
+                }
+                processedMap.get(event.getClusterId()).add(Integer.valueOf(event.getMemberId()));
+                processedCount.incrementAndGet();
+                inProgress.decrementAndGet();
+            }
+        });
+        try {
+            for (int i = 0; i < CLUSTERS; i++) {
+                processedMap.put("cluster" + i, new ArrayList<Integer>());
+            }
+            int sequence = 0;
+            for (int round = 0; round < 2; round++) {
+                for (int j = 0; j < MESSAGES_PER_CLUSTER; j++) {
+                    for (int i = 0; i < CLUSTERS; i++) {
+                        dispatcher.dispatch(createMessage(new MemberTerminatedEvent("service1", "cluster" + i,
+                                String.valueOf(sequence++), "cluster-instance1", "network-partition1", "partition1")));
+                    }
+                }
+                dispatcher.dispatch(createMessage(new CompleteTopologyEvent(new Topology())));
+            }
+            assertTrue("Messages were not processed", completed.await(30, TimeUnit.SECONDS));
+        } finally {
+            dispatcher.terminate();
+        }
+
+        // Barriers are processed after all previous messages
+        assertEquals(CLUSTERS * MESSAGES_PER_CLUSTER, processedCountAtBarrier.get(0).intValue());
+        assertEquals(2 * CLUSTERS * MESSAGES_PER_CLUSTER, processedCountAtBarrier.get(1).intValue());
+        // Messages of a cluster are processed in order
+        for (List<Integer> processed : processedMap.values()) {
+            assertEquals(2 * MESSAGES_PER_CLUSTER, processed.size());
+            for (int i = 1; i < processed.size(); i++) {
+                assertTrue(processed.get(i - 1) < processed.get(i));
+            }
+        }
+        assertTrue("Messages were not processed in parallel", maxInProgress.get() > 1);
+    }
+
+    @Test
+    public void testFullLaneBlocksDispatching() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger processedCount = new AtomicInteger();
+        final ShardedEventMessageDispatcher dispatcher = new ShardedEventMessageDispatcher("test-blocking", 1, 2,
+                topologyShardKeyResolver, new ShardedEventMessageDispatcher.MessageHandler() {
+            @Override
+            public void handleMessage(Message message) {
+                try {
+                    release.await();
+                } catch (InterruptedException ignore) {
+                }
+                processedCount.incrementAndGet();
+            }
+        });
+        final AtomicInteger dispatchedCount = new AtomicInteger();
+        Thread delegator = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < 5; i++) {
+                        dispatcher.dispatch(createMessage(new MemberTerminatedEvent("service1", "cluster1",
+                                "member" + i, "cluster-instance1", "network-partition1", "partition1")));
+                        dispatchedCount.incrementAndGet();
+                    }
+                    // Barrier waits for the lane
+                    dispatcher.dispatch(createMessage(new CompleteTopologyEvent(new Topology())));
+                } catch (InterruptedException ignore) {
+                }
+            }
+        });
+        try {
+            delegator.start();
+            // One message is being processed and two are waiting in the lane queue
+            Thread.sleep(500);
+            assertEquals(3, dispatchedCount.get());
+            assertTrue("Delegator is not blocked", delegator.isAlive());
+
+            release.countDown();
+            delegator.join(10000);
+            assertEquals(5, dispatchedCount.get());
+            assertEquals(6, processedCount.get());
+        } finally {
+            dispatcher.terminate();
+        }
+    }
+
+    private Message createMessage(Event event) {
+        return new Message(MessagingUtil.getMessageTopicName(event), MessageCodecFactory.encode(event));
+    }
+}
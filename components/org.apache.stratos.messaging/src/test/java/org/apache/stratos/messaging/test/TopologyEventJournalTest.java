@@ -0,0 +1,166 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.test;
+
+import org.apache.stratos.common.domain.LoadBalancingIPType;
+import org.apache.stratos.messaging.domain.topology.Cluster;
+import org.apache.stratos.messaging.domain.topology.Member;
+import org.apache.stratos.messaging.domain.topology.Service;
+import org.apache.stratos.messaging.domain.topology.ServiceType;
+import org.apache.stratos.messaging.domain.topology.Topology;
+import org.apache.stratos.messaging.event.topology.MemberCreatedEvent;
+import org.apache.stratos.messaging.message.processor.topology.TopologyMessageProcessorChain;
+import org.apache.stratos.messaging.message.processor.topology.updater.TopologyUpdater;
+import org.apache.stratos.messaging.message.receiver.topology.TopologyEventJournal;
+import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
+import org.apache.stratos.messaging.util.MessagingUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Topology event journal tests, restoring the topology from a snapshot and journal entries.
+ */
+public class TopologyEventJournalTest {
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("topology-journal").toFile();
+        resetTopology();
+    }
+
+    @After
+    public void tearDown() {
+        resetTopology();
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testTopologyRestoredFromSnapshotAndJournal() throws IOException {
+        TopologyEventJournal journal = new TopologyEventJournal(directory, 100);
+        createSnapshot(journal);
+
+        MemberCreatedEvent event = new MemberCreatedEvent("service1", "cluster1", "cluster-instance1", "member2",
+                "np1", "partition1", LoadBalancingIPType.Private, System.currentTimeMillis());
+        event.setTopologyVersion(6);
+        journal.append(MemberCreatedEvent.class.getName(), MessagingUtil.ObjectToJson(event));
+        assertFalse(journal.isCompactionRequired());
+        journal.close();
+
+        // Simulate an entry partially written before a crash
+        File journalFile = new File(directory, "topology-journal.dat");
+        long journalLength = journalFile.length();
+        FileOutputStream outputStream = new FileOutputStream(journalFile, true);
+        outputStream.write(new byte[]{0, 40, 'o', 'r', 'g'});
+        outputStream.close();
+
+        // Restart with an empty topology
+        resetTopology();
+        int replayed = new TopologyEventJournal(directory, 100).replay(new TopologyMessageProcessorChain());
+
+        assertEquals(1, replayed);
+        assertEquals(journalLength, journalFile.length());
+        assertTrue(TopologyManager.isInitialized());
+        assertEquals(6, TopologyManager.getVersionTracker().getVersion());
+        Cluster cluster = TopologyManager.getTopology().getService("service1").getCluster("cluster1");
+        assertNotNull(cluster.getMember("member1"));
+        assertNotNull(cluster.getMember("member2"));
+    }
+
+    @Test
+    public void testJournalTruncatedAtInvalidEntryLength() throws IOException {
+        TopologyEventJournal journal = new TopologyEventJournal(directory, 100);
+        createSnapshot(journal);
+        journal.close();
+
+        // Entry with a corrupt length followed by more data
+        File journalFile = new File(directory, "topology-journal.dat");
+        DataOutputStream outputStream = new DataOutputStream(new FileOutputStream(journalFile, true));
+        outputStream.writeUTF(MemberCreatedEvent.class.getName());
+        outputStream.writeInt(Integer.MAX_VALUE);
+        outputStream.write(new byte[100]);
+        outputStream.close();
+
+        resetTopology();
+        int replayed = new TopologyEventJournal(directory, 100).replay(new TopologyMessageProcessorChain());
+
+        assertEquals(0, replayed);
+        assertEquals(0, journalFile.length());
+        assertEquals(5, TopologyManager.getVersionTracker().getVersion());
+    }
+
+    @Test
+    public void testNothingReplayedWithoutSnapshot() {
+        TopologyEventJournal journal = new TopologyEventJournal(directory, 100);
+        assertEquals(-1, journal.replay(new TopologyMessageProcessorChain()));
+        assertFalse(TopologyManager.isInitialized());
+
+        // Entries cannot be applied without a snapshot, a snapshot is required instead
+        journal.append(MemberCreatedEvent.class.getName(), "{}");
+        assertTrue(journal.isCompactionRequired());
+    }
+
+    private void createSnapshot(TopologyEventJournal journal) {
+        TopologyUpdater.acquireWriteLock();
+        try {
+            Service service = new Service("service1", ServiceType.SingleTenant);
+            Cluster cluster = new Cluster("service1", "cluster1", "deployment-policy1", "autoscale-policy1",
+                    "application-1");
+            cluster.addMember(new Member("service1", "cluster1", "member1", "cluster-instance1", "np1",
+                    "partition1", LoadBalancingIPType.Private, System.currentTimeMillis()));
+            service.addCluster(cluster);
+            TopologyManager.getTopology().addService(service);
+            TopologyManager.getTopology().addToCluterMap(cluster);
+        } finally {
+            TopologyUpdater.releaseWriteLock();
+        }
+        TopologyManager.setInitialized(true);
+        TopologyManager.getVersionTracker().snapshotApplied(5);
+        journal.compact();
+    }
+
+    private void resetTopology() {
+        TopologyUpdater.acquireWriteLock();
+        try {
+            TopologyManager.getTopology().clear();
+        } finally {
+            TopologyUpdater.releaseWriteLock();
+        }
+        TopologyManager.setInitialized(false);
+        TopologyManager.getVersionTracker().setEnabled(false);
+        TopologyManager.getVersionTracker().setEnabled(true);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.test;
+
+import org.apache.stratos.common.constants.StratosConstants;
+import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.domain.topology.Cluster;
+import org.apache.stratos.messaging.domain.topology.Topology;
+import org.apache.stratos.messaging.event.Event;
+import org.apache.stratos.messaging.event.topology.ClusterCreatedEvent;
+import org.apache.stratos.messaging.event.topology.CompleteTopologyEvent;
+import org.apache.stratos.messaging.event.topology.MemberTerminatedEvent;
+import org.apache.stratos.messaging.message.codec.BinaryMessageCodec;
+import org.apache.stratos.messaging.message.codec.MessageCodecFactory;
+import org.apache.stratos.messaging.message.filter.topology.TopologyApplicationFilter;
+import org.apache.stratos.messaging.message.filter.topology.TopologyClusterFilter;
+import org.apache.stratos.messaging.message.filter.topology.TopologyEventPreFilter;
+import org.apache.stratos.messaging.message.filter.topology.TopologyServiceFilter;
+import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
+import org.apache.stratos.messaging.util.MessagingUtil;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Topology event pre-filter tests.
+ */
+public class TopologyEventPreFilterTest {
+
+    @BeforeClass
+    public static void setUp() {
+        System.setProperty(StratosConstants.TOPOLOGY_APPLICATION_FILTER,
+                TopologyApplicationFilter.TOPOLOGY_APPLICATION_FILTER_APPLICATION_ID + "=application-1,application-2");
+        System.setProperty(StratosConstants.TOPOLOGY_SERVICE_FILTER,
+                TopologyServiceFilter.TOPOLOGY_SERVICE_FILTER_SERVICE_NAME + "=service1,service2");
+        System.setProperty(StratosConstants.TOPOLOGY_CLUSTER_FILTER,
+                TopologyClusterFilter.TOPOLOGY_CLUSTER_FILTER_CLUSTER_ID + "=cluster1,cluster2");
+    }
+
+    @Test
+    public void testExcludedEventsAreDiscarded() {
+        TopologyEventPreFilter preFilter = TopologyEventPreFilter.getInstance();
+        long discardedCount = preFilter.getDiscardedCount();
+        long passedCount = preFilter.getPassedCount();
+
+        assertFalse(preFilter.discard(createMessage(createMemberTerminatedEvent("service1", "cluster1"))));
+        assertTrue(preFilter.discard(createMessage(createMemberTerminatedEvent("service1", "cluster3"))));
+        assertTrue(preFilter.discard(createMessage(createMemberTerminatedEvent("service3", "cluster1"))));
+
+        // Fields of nested cluster objects
+        assertFalse(preFilter.discard(createMessage(new ClusterCreatedEvent(new Cluster("service2", "cluster2",
+                "deployment-policy1", "autoscale-policy1", "application-1")))));
+        assertTrue(preFilter.discard(createMessage(new ClusterCreatedEvent(new Cluster("service2", "cluster4",
+                "deployment-policy1", "autoscale-policy1", "application-1")))));
+
+        // Messages encoded by other codecs
+        String binaryMessage = MessageCodecFactory.encode(MessageCodecFactory.getCodec(BinaryMessageCodec.NAME),
+                createMemberTerminatedEvent("service1", "cluster3"));
+        assertTrue(preFilter.discard(new Message(MessagingUtil.getMessageTopicName(
+                createMemberTerminatedEvent("service1", "cluster3")), binaryMessage)));
+
+        // Events filtered by the message processors are passed
+        assertFalse(preFilter.discard(createMessage(new CompleteTopologyEvent(new Topology()))));
+
+        assertEquals(discardedCount + 4, preFilter.getDiscardedCount());
+        assertEquals(passedCount + 2, preFilter.getPassedCount());
+        assertTrue(preFilter.getDiscardRate() > 0);
+    }
+
+    @Test
+    public void testCountersAreExposedUsingJmx() throws Exception {
+        TopologyEventPreFilter preFilter = TopologyEventPreFilter.getInstance();
+        preFilter.discard(createMessage(createMemberTerminatedEvent("service1", "cluster3")));
+
+        ObjectName objectName = new ObjectName("org.apache.stratos.messaging:type=TopologyEventPreFilter");
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        assertEquals(preFilter.getDiscardedCount(), mBeanServer.getAttribute(objectName, "DiscardedCount"));
+        assertEquals(preFilter.getPassedCount(), mBeanServer.getAttribute(objectName, "PassedCount"));
+    }
+
+    @Test
+    public void testVersionsOfDiscardedEventsAreTracked() {
+        TopologyManager.setInitialized(true);
+        try {
+            TopologyManager.getVersionTracker().snapshotApplied(10);
+            MemberTerminatedEvent event = createMemberTerminatedEvent("service1", "cluster3");
+            event.setTopologyVersion(11);
+            assertTrue(TopologyEventPreFilter.getInstance().discard(createMessage(event)));
+            assertEquals(11, TopologyManager.getVersionTracker().getVersion());
+        } finally {
+            TopologyManager.setInitialized(false);
+        }
+    }
+
+    private MemberTerminatedEvent createMemberTerminatedEvent(String serviceName, String clusterId) {
+        return new MemberTerminatedEvent(serviceName, clusterId, "member1", "cluster-instance1",
+                "network-partition1", "partition1");
+    }
+
+    private Message createMessage(Event event) {
+        return new Message(MessagingUtil.getMessageTopicName(event), MessageCodecFactory.encode(event));
+    }
+}
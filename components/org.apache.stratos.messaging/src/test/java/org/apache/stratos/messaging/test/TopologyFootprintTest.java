@@ -0,0 +1,151 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.test;
+
+import com.google.gson.Gson;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.domain.LoadBalancingIPType;
+import org.apache.stratos.messaging.domain.topology.Cluster;
+import org.apache.stratos.messaging.domain.topology.Member;
+import org.apache.stratos.messaging.domain.topology.Port;
+import org.apache.stratos.messaging.domain.topology.Service;
+import org.apache.stratos.messaging.domain.topology.ServiceType;
+import org.apache.stratos.messaging.domain.topology.Topology;
+import org.apache.stratos.messaging.message.codec.JsonMessageCodec;
+import org.apache.stratos.messaging.util.MessagingUtil;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the heap footprint of a topology deserialized with and without compaction
+ * at 10k and 100k members.
+ */
+public class TopologyFootprintTest {
+
+    private static final Log log = LogFactory.getLog(TopologyFootprintTest.class);
+    private static final int MEMBERS_PER_CLUSTER = 100;
+
+    @Test(timeout = 300000)
+    public void testFootprint10kMembers() {
+        measureFootprint(10000);
+    }
+
+    @Test(timeout = 300000)
+    public void testFootprint100kMembers() {
+        measureFootprint(100000);
+    }
+
+    @Test
+    public void testIdentifiersInterned() {
+        String json = MessagingUtil.ObjectToJson(createTopology(200));
+        Topology topology = (Topology) new JsonMessageCodec().decode(json, Topology.class);
+        Cluster cluster = topology.getService("service1").getCluster("cluster0");
+        Member member = cluster.getMembers().iterator().next();
+        assertSame(cluster.getClusterId(), member.getClusterId());
+        for (Member otherMember : cluster.getMembers()) {
+            assertSame(member.getClusterInstanceId(), otherMember.getClusterInstanceId());
+            if (member.getNetworkPartitionId().equals(otherMember.getNetworkPartitionId())) {
+                assertSame(member.getNetworkPartitionId(), otherMember.getNetworkPartitionId());
+            }
+        }
+        assertEquals(2, member.getPorts().size());
+        assertEquals(8280, member.getPort(8280).getProxy());
+        assertEquals("value1", member.getProperties().getProperty("property1"));
+        assertSame(member, cluster.getMember(member.getMemberId()));
+    }
+
+    @Test
+    public void testPropertiesCopied() {
+        Properties properties = new Properties();
+        properties.setProperty("property1", "value1");
+        Member member = new Member("service1", "cluster1", "member1", "cluster1-1", "network-partition-1",
+                "partition-1", LoadBalancingIPType.Private, System.currentTimeMillis());
+        member.setProperties(properties);
+        properties.setProperty("property2", "value2");
+
+        assertEquals(1, member.getProperties().size());
+        assertEquals("value1", member.getProperties().getProperty("property1"));
+        assertNotSame(properties, member.getProperties());
+    }
+
+    private void measureFootprint(int memberCount) {
+        String json = MessagingUtil.ObjectToJson(createTopology(memberCount));
+
+        long baseline = usedMemory();
+        Topology topology = new Gson().fromJson(json, Topology.class);
+        long plainFootprint = usedMemory() - baseline;
+        assertEquals(memberCount / MEMBERS_PER_CLUSTER, topology.getService("service1").getClusters().size());
+        topology = null;
+
+        baseline = usedMemory();
+        topology = (Topology) new JsonMessageCodec().decode(json, Topology.class);
+        long compactFootprint = usedMemory() - baseline;
+        assertEquals(memberCount / MEMBERS_PER_CLUSTER, topology.getService("service1").getClusters().size());
+
+        log.info(String.format("Topology heap footprint: [members] %d [plain] %d KB (%d bytes/member) " +
+                        "[compact] %d KB (%d bytes/member)", memberCount, plainFootprint / 1024,
+                plainFootprint / memberCount, compactFootprint / 1024, compactFootprint / memberCount));
+        assertTrue("Compact topology is not smaller than the plain topology", compactFootprint < plainFootprint);
+    }
+
+    private Topology createTopology(int memberCount) {
+        Topology topology = new Topology();
+        Service service = new Service("service1", ServiceType.SingleTenant);
+        for (int i = 0; i < memberCount / MEMBERS_PER_CLUSTER; i++) {
+            Cluster cluster = new Cluster("service1", "cluster" + i, "deployment-policy1", "autoscale-policy1",
+                    "application-1");
+            for (int j = 0; j < MEMBERS_PER_CLUSTER; j++) {
+                Member member = new Member("service1", cluster.getClusterId(),
+                        cluster.getClusterId() + "-" + UUID.randomUUID().toString(), cluster.getClusterId() + "-1",
+                        "network-partition-" + (j % 2), "partition-" + (j % 4), LoadBalancingIPType.Private,
+                        System.currentTimeMillis());
+                member.addPort(new Port("http", 9763, 8280));
+                member.addPort(new Port("https", 9443, 8243));
+                member.setDefaultPrivateIP("10.0." + (i % 256) + "." + j);
+                member.setMemberPrivateIPs(Arrays.asList(member.getDefaultPrivateIP()));
+                Properties properties = new Properties();
+                properties.setProperty("property1", "value1");
+                properties.setProperty("property2", "value2");
+                member.setProperties(properties);
+                cluster.addMember(member);
+            }
+            service.addCluster(cluster);
+        }
+        topology.addService(service);
+        return topology;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
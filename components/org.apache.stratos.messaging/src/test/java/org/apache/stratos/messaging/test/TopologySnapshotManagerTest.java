@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.test;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.domain.LoadBalancingIPType;
+import org.apache.stratos.messaging.domain.topology.Cluster;
+import org.apache.stratos.messaging.domain.topology.Member;
+import org.apache.stratos.messaging.domain.topology.MemberStatus;
+import org.apache.stratos.messaging.domain.topology.Service;
+import org.apache.stratos.messaging.domain.topology.ServiceType;
+import org.apache.stratos.messaging.domain.topology.Topology;
+import org.apache.stratos.messaging.message.processor.topology.updater.TopologyUpdater;
+import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
+import org.apache.stratos.messaging.message.receiver.topology.TopologySnapshotManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Topology snapshot tests, comparing the read throughput of locked topology reads
+ * and snapshot reads while the topology is being updated.
+ */
+public class TopologySnapshotManagerTest {
+
+    private static final Log log = LogFactory.getLog(TopologySnapshotManagerTest.class);
+    private static final int SERVICES = 4;
+    private static final int CLUSTERS_PER_SERVICE = 5;
+    private static final int MEMBERS_PER_CLUSTER = 10;
+    private static final int READER_THREADS = 4;
+    private static final long MEASUREMENT_TIME = 500;
+
+    @Before
+    public void setUp() {
+        TopologyUpdater.acquireWriteLock();
+        try {
+            Topology topology = TopologyManager.getTopology();
+            for (int i = 0; i < SERVICES; i++) {
+                Service service = new Service("service" + i, ServiceType.SingleTenant);
+                for (int j = 0; j < CLUSTERS_PER_SERVICE; j++) {
+                    Cluster cluster = new Cluster(service.getServiceName(), "cluster" + i + "-" + j,
+                            "deployment-policy1", "autoscale-policy1", "app1");
+                    for (int k = 0; k < MEMBERS_PER_CLUSTER; k++) {
+                        cluster.addMember(createMember(cluster, "member" + k));
+                    }
+                    service.addCluster(cluster);
+                    topology.addToCluterMap(cluster);
+                }
+                topology.addService(service);
+            }
+        } finally {
+            TopologyUpdater.releaseWriteLock();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        TopologySnapshotManager.setEnabled(false);
+        TopologyUpdater.acquireWriteLock();
+        try {
+            for (int i = 0; i < SERVICES; i++) {
+                TopologyManager.getTopology().removeService("service" + i);
+            }
+        } finally {
+            TopologyUpdater.releaseWriteLock();
+        }
+    }
+
+    @Test
+    public void testSnapshotsShareUnchangedServices() {
+        TopologySnapshotManager.setEnabled(true);
+        Topology snapshot = TopologyManager.getTopologySnapshot();
+        assertNotSame(TopologyManager.getTopology(), snapshot);
+        assertEquals(SERVICES, snapshot.getServices().size());
+        assertEquals(MEMBERS_PER_CLUSTER, snapshot.getService("service0").getCluster("cluster0-0").getMembers().size());
+
+        // Update a cluster
+        TopologyUpdater.acquireWriteLockForCluster("service0", "cluster0-0");
+        try {
+            Cluster cluster = TopologyManager.getTopology().getService("service0").getCluster("cluster0-0");
+            cluster.addMember(createMember(cluster, "new-member"));
+        } finally {
+            TopologyUpdater.releaseWriteLockForCluster("service0", "cluster0-0");
+        }
+
+        Topology updatedSnapshot = TopologyManager.getTopologySnapshot();
+        // Previous snapshot is not modified
+        assertNull(snapshot.getService("service0").getCluster("cluster0-0").getMember("new-member"));
+        assertNotNull(updatedSnapshot.getService("service0").getCluster("cluster0-0").getMember("new-member"));
+        assertNotNull(updatedSnapshot.getCluster("cluster0-0").getMember("new-member"));
+        // Unchanged services and clusters are shared
+        assertSame(snapshot.getService("service1"), updatedSnapshot.getService("service1"));
+        assertSame(snapshot.getService("service0").getCluster("cluster0-1"),
+                updatedSnapshot.getService("service0").getCluster("cluster0-1"));
+
+        // Update a member, only the member is copied
+        TopologyUpdater.acquireWriteLockForCluster("service0", "cluster0-1");
+        try {
+            Cluster cluster = TopologyManager.getTopology().getService("service0").getCluster("cluster0-1");
+            cluster.getMember("member0").setStatus(MemberStatus.Initialized);
+        } finally {
+            TopologyUpdater.releaseWriteLockForCluster("service0", "cluster0-1", "member0");
+        }
+        Topology memberSnapshot = TopologyManager.getTopologySnapshot();
+        Cluster snapshotCluster = memberSnapshot.getService("service0").getCluster("cluster0-1");
+        assertEquals(MemberStatus.Initialized, snapshotCluster.getMember("member0").getStatus());
+        assertEquals(MemberStatus.Created, updatedSnapshot.getService("service0").getCluster("cluster0-1")
+                .getMember("member0").getStatus());
+        assertSame(snapshotCluster, memberSnapshot.getCluster("cluster0-1"));
+        assertSame(updatedSnapshot.getService("service0").getCluster("cluster0-1").getMember("member1"),
+                snapshotCluster.getMember("member1"));
+        assertSame(updatedSnapshot.getService("service0").getCluster("cluster0-0"),
+                memberSnapshot.getService("service0").getCluster("cluster0-0"));
+        assertSame(updatedSnapshot.getService("service1"), memberSnapshot.getService("service1"));
+
+        // Remove a service
+        TopologyUpdater.acquireWriteLockForServices();
+        try {
+            TopologyManager.getTopology().removeService("service1");
+        } finally {
+            TopologyUpdater.releaseWriteLockForServices();
+        }
+        assertNull(TopologyManager.getTopologySnapshot().getService("service1"));
+        assertNotNull(updatedSnapshot.getService("service1"));
+    }
+
+    @Test
+    public void testReadThroughputUnderUpdates() throws Exception {
+        long lockedReads = measureReadThroughput(false);
+        TopologySnapshotManager.setEnabled(true);
+        long snapshotReads = measureReadThroughput(true);
+
+        log.info(String.format("Topology reads in %d ms with concurrent updates: [locked] %d [snapshot] %d",
+                MEASUREMENT_TIME, lockedReads, snapshotReads));
+        assertTrue(lockedReads > 0);
+        assertTrue(snapshotReads > 0);
+    }
+
+    private long measureReadThroughput(final boolean snapshot) throws InterruptedException {
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong reads = new AtomicLong();
+
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                int count = 0;
+                while (running.get()) {
+                    String serviceName = "service" + (count % SERVICES);
+                    String clusterId = "cluster" + (count % SERVICES) + "-" + (count % CLUSTERS_PER_SERVICE);
+                    TopologyUpdater.acquireWriteLockForCluster(serviceName, clusterId);
+                    try {
+                        Cluster cluster = TopologyManager.getTopology().getService(serviceName).getCluster(clusterId);
+                        Member member = cluster.getMember("member0");
+                        cluster.removeMember(member);
+                        cluster.addMember(member);
+                    } finally {
+                        TopologyUpdater.releaseWriteLockForCluster(serviceName, clusterId);
+                    }
+                    count++;
+                }
+            }
+        });
+        Thread[] readers = new Thread[READER_THREADS];
+        for (int i = 0; i < READER_THREADS; i++) {
+            readers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long count = 0;
+                    int members = 0;
+                    while (running.get()) {
+                        String serviceName = "service" + (count % SERVICES);
+                        String clusterId = "cluster" + (count % SERVICES) + "-" + (count % CLUSTERS_PER_SERVICE);
+                        if (snapshot) {
+                            members += TopologyManager.getTopologySnapshot().getService(serviceName)
+                                    .getCluster(clusterId).getMembers().size();
+                        } else {
+                            TopologyManager.acquireReadLockForCluster(serviceName, clusterId);
+                            try {
+                                members += TopologyManager.getTopology().getService(serviceName)
+                                        .getCluster(clusterId).getMembers().size();
+                            } finally {
+                                TopologyManager.releaseReadLockForCluster(serviceName, clusterId);
+                            }
+                        }
+                        count++;
+                    }
+                    assertTrue(members > 0);
+                    reads.addAndGet(count);
+                }
+            });
+        }
+
+        writer.start();
+        for (Thread reader : readers) {
+            reader.start();
+        }
+        TimeUnit.MILLISECONDS.sleep(MEASUREMENT_TIME);
+        running.set(false);
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        return reads.get();
+    }
+
+    private Member createMember(Cluster cluster, String memberId) {
+        return new Member(cluster.getServiceName(), cluster.getClusterId(), memberId, "cluster-instance1",
+                "network-partition1", "partition1", LoadBalancingIPType.Private, System.currentTimeMillis());
+    }
+}
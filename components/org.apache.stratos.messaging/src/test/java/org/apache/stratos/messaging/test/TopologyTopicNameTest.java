@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.test;
+
+import org.apache.activemq.command.ActiveMQTopic;
+import org.apache.activemq.filter.DestinationFilter;
+import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.domain.topology.Cluster;
+import org.apache.stratos.messaging.domain.topology.ServiceType;
+import org.apache.stratos.messaging.domain.topology.Topology;
+import org.apache.stratos.messaging.event.Event;
+import org.apache.stratos.messaging.event.health.stat.MemberFaultEvent;
+import org.apache.stratos.messaging.event.topology.ClusterCreatedEvent;
+import org.apache.stratos.messaging.event.topology.CompleteTopologyEvent;
+import org.apache.stratos.messaging.event.topology.MemberActivatedEvent;
+import org.apache.stratos.messaging.event.topology.ServiceCreatedEvent;
+import org.apache.stratos.messaging.util.MessagingUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Hierarchical topology topic name tests.
+ */
+public class TopologyTopicNameTest {
+
+    private final List<String> noValues = Collections.emptyList();
+
+    @Before
+    public void setUp() {
+        MessagingUtil.setHierarchicalTopologyTopics(true);
+    }
+
+    @After
+    public void tearDown() {
+        MessagingUtil.setHierarchicalTopologyTopics(false);
+    }
+
+    @Test
+    public void testHierarchicalTopicsDisabled() {
+        MessagingUtil.setHierarchicalTopologyTopics(false);
+        assertEquals("topology.MemberActivatedEvent",
+                MessagingUtil.getMessageTopicName(createMemberActivatedEvent("php", "app1.php.domain")));
+        assertEquals(Arrays.asList(MessagingUtil.Topics.TOPOLOGY_TOPIC.getTopicName()),
+                MessagingUtil.getTopologyTopicNames(Arrays.asList("php"), noValues));
+    }
+
+    @Test
+    public void testTopicNames() {
+        MemberActivatedEvent memberActivatedEvent = createMemberActivatedEvent("php", "app1.php.domain");
+        assertEquals("topology.php.app1_php_domain.MemberActivatedEvent",
+                MessagingUtil.getMessageTopicName(memberActivatedEvent));
+        assertEquals("topology.php.ServiceCreatedEvent",
+                MessagingUtil.getMessageTopicName(new ServiceCreatedEvent("php", ServiceType.SingleTenant)));
+        assertEquals("topology.CompleteTopologyEvent",
+                MessagingUtil.getMessageTopicName(new CompleteTopologyEvent(new Topology())));
+
+        // Event class names are resolved from hierarchical and flat topic names
+        assertEventClassName(memberActivatedEvent);
+        assertEventClassName(new ClusterCreatedEvent(new Cluster("php", "app1.php.domain", "deployment-policy1",
+                "autoscale-policy1", "app1")));
+        assertEventClassName(new CompleteTopologyEvent(new Topology()));
+        assertEventClassName(new MemberFaultEvent("cluster1", "cluster-instance1", "member1", "partition1",
+                "network-partition1", 0));
+    }
+
+    @Test
+    public void testSubscriptionsOfFilteredClusters() {
+        List<String> topicNames = MessagingUtil.getTopologyTopicNames(noValues,
+                Arrays.asList("app1.php.domain", "app2.php.domain"));
+
+        assertTrue(matches(topicNames, createMemberActivatedEvent("php", "app1.php.domain")));
+        assertTrue(matches(topicNames, createMemberActivatedEvent("php", "app2.php.domain")));
+        assertFalse(matches(topicNames, createMemberActivatedEvent("php", "app3.php.domain")));
+        assertTrue(matches(topicNames, new ServiceCreatedEvent("tomcat", ServiceType.SingleTenant)));
+        assertTrue(matches(topicNames, new CompleteTopologyEvent(new Topology())));
+    }
+
+    @Test
+    public void testSubscriptionsOfFilteredServices() {
+        List<String> topicNames = MessagingUtil.getTopologyTopicNames(Arrays.asList("php"), noValues);
+
+        assertTrue(matches(topicNames, createMemberActivatedEvent("php", "app1.php.domain")));
+        assertFalse(matches(topicNames, createMemberActivatedEvent("tomcat", "app1.tomcat.domain")));
+        assertTrue(matches(topicNames, new ServiceCreatedEvent("php", ServiceType.SingleTenant)));
+        assertFalse(matches(topicNames, new ServiceCreatedEvent("tomcat", ServiceType.SingleTenant)));
+        assertTrue(matches(topicNames, new CompleteTopologyEvent(new Topology())));
+
+        // All events are received without filters
+        assertEquals(Arrays.asList(MessagingUtil.Topics.TOPOLOGY_TOPIC.getTopicName()),
+                MessagingUtil.getTopologyTopicNames(noValues, noValues));
+    }
+
+    private void assertEventClassName(Event event) {
+        Message message = new Message(MessagingUtil.getMessageTopicName(event), "");
+        assertEquals(event.getClass().getName(), message.getEventClassName());
+    }
+
+    private boolean matches(List<String> topicNames, Event event) {
+        // Topics are subscribed to by a single subscriber of a composite destination
+        ActiveMQTopic compositeTopic = new ActiveMQTopic(MessagingUtil.getCompositeTopicName(topicNames));
+        ActiveMQTopic topic = new ActiveMQTopic(MessagingUtil.getMessageTopicName(event));
+        return DestinationFilter.parseFilter(compositeTopic).matches(topic);
+    }
+
+    private MemberActivatedEvent createMemberActivatedEvent(String serviceName, String clusterId) {
+        return new MemberActivatedEvent(serviceName, clusterId, "cluster-instance1", "member1",
+                "network-partition1", "partition1");
+    }
+}
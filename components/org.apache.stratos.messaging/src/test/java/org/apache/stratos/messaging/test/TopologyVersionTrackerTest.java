@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.test;
+
+import org.apache.stratos.messaging.event.topology.MemberTerminatedEvent;
+import org.apache.stratos.messaging.event.topology.TopologyEvent;
+import org.apache.stratos.messaging.message.receiver.topology.TopologyVersionTracker;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Topology version tracker tests.
+ */
+public class TopologyVersionTrackerTest {
+
+    @Test
+    public void testEventsWithoutVersionsAreApplied() {
+        TopologyVersionTracker versionTracker = new TopologyVersionTracker(0, 100);
+        assertTrue(versionTracker.accept(createEvent(0)));
+        // Topology version is not known until a snapshot is applied
+        assertTrue(versionTracker.accept(createEvent(5)));
+        assertTrue(versionTracker.accept(createEvent(5)));
+
+        versionTracker.snapshotApplied(10);
+        assertTrue(versionTracker.accept(createEvent(0)));
+        assertEquals(10, versionTracker.getVersion());
+    }
+
+    @Test
+    public void testOutOfOrderAndDuplicateEvents() {
+        TopologyVersionTracker versionTracker = new TopologyVersionTracker(60000, 100);
+        versionTracker.snapshotApplied(10);
+
+        assertFalse("Event included in the snapshot applied", versionTracker.accept(createEvent(9)));
+        assertTrue(versionTracker.accept(createEvent(12)));
+        assertTrue(versionTracker.accept(createEvent(11)));
+        assertEquals(12, versionTracker.getVersion());
+        assertFalse("Duplicate event applied", versionTracker.accept(createEvent(11)));
+
+        assertTrue(versionTracker.accept(createEvent(14)));
+        assertFalse("Duplicate event applied", versionTracker.accept(createEvent(14)));
+        assertEquals(12, versionTracker.getVersion());
+        assertFalse("Snapshot required within the gap timeout", versionTracker.isSnapshotRequired(14));
+    }
+
+    @Test
+    public void testGapRequestsCatchUp() throws InterruptedException {
+        final List<Long> requestedVersions = new ArrayList<Long>();
+        TopologyVersionTracker versionTracker = new TopologyVersionTracker(10, 100);
+        versionTracker.setCatchUpRequestHandler(new TopologyVersionTracker.CatchUpRequestHandler() {
+            @Override
+            public void requestCatchUp(long topologyVersion) {
+                requestedVersions.add(topologyVersion);
+            }
+        });
+        versionTracker.snapshotApplied(10);
+        assertFalse(versionTracker.isSnapshotPending());
+
+        assertTrue(versionTracker.accept(createEvent(12)));
+        // Complete topology events need to be kept in order with the events once a gap is detected
+        assertTrue(versionTracker.isSnapshotPending());
+        Thread.sleep(20);
+        assertTrue(versionTracker.accept(createEvent(13)));
+        assertEquals(1, requestedVersions.size());
+        assertEquals(10, requestedVersions.get(0).longValue());
+
+        // Requests are not repeated within the gap timeout
+        assertTrue(versionTracker.accept(createEvent(14)));
+        assertEquals(1, requestedVersions.size());
+
+        // Catch-up answered with a snapshot, event 14 applied earlier is replaced by the snapshot
+        // and requested again
+        assertFalse(versionTracker.isSnapshotRequired(10));
+        assertTrue(versionTracker.isSnapshotRequired(13));
+        versionTracker.snapshotApplied(13);
+        assertEquals(13, versionTracker.getVersion());
+        assertEquals(2, requestedVersions.size());
+        assertEquals(13, requestedVersions.get(1).longValue());
+        assertTrue("Event replaced by the snapshot not applied", versionTracker.accept(createEvent(14)));
+        assertEquals(14, versionTracker.getVersion());
+        assertFalse(versionTracker.isSnapshotRequired(15));
+
+        // Catch-up answered with the missing events
+        assertTrue(versionTracker.accept(createEvent(16)));
+        assertTrue(versionTracker.accept(createEvent(15)));
+        assertEquals(16, versionTracker.getVersion());
+        assertFalse(versionTracker.isSnapshotPending());
+    }
+
+    @Test
+    public void testGapCheckWithoutFurtherEvents() throws InterruptedException {
+        final List<Long> requestedVersions = new ArrayList<Long>();
+        TopologyVersionTracker versionTracker = new TopologyVersionTracker(10, 100);
+        versionTracker.setCatchUpRequestHandler(new TopologyVersionTracker.CatchUpRequestHandler() {
+            @Override
+            public void requestCatchUp(long topologyVersion) {
+                requestedVersions.add(topologyVersion);
+            }
+        });
+        versionTracker.snapshotApplied(10);
+        assertTrue(versionTracker.accept(createEvent(12)));
+
+        // Last event received, the gap is detected by the periodic check
+        versionTracker.checkGap();
+        assertEquals(0, requestedVersions.size());
+        Thread.sleep(20);
+        versionTracker.checkGap();
+        assertEquals(1, requestedVersions.size());
+        assertEquals(10, requestedVersions.get(0).longValue());
+    }
+
+    @Test
+    public void testTooManyPendingEventsRequestsSnapshot() {
+        final List<Long> requestedVersions = new ArrayList<Long>();
+        TopologyVersionTracker versionTracker = new TopologyVersionTracker(60000, 3);
+        versionTracker.setCatchUpRequestHandler(new TopologyVersionTracker.CatchUpRequestHandler() {
+            @Override
+            public void requestCatchUp(long topologyVersion) {
+                requestedVersions.add(topologyVersion);
+            }
+        });
+        versionTracker.snapshotApplied(10);
+        for (int version = 12; version < 20; version++) {
+            versionTracker.accept(createEvent(version));
+        }
+        assertEquals(1, requestedVersions.size());
+        assertEquals(0, requestedVersions.get(0).longValue());
+    }
+
+    private TopologyEvent createEvent(long topologyVersion) {
+        TopologyEvent event = new MemberTerminatedEvent("service1", "cluster1", "member1", "cluster-instance1",
+                "network-partition1", "partition1");
+        event.setTopologyVersion(topologyVersion);
+        return event;
+    }
+}
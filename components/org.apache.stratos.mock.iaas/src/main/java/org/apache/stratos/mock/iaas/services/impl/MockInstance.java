@@ -29,6 +29,8 @@ import org.apache.stratos.messaging.event.instance.notifier.InstanceCleanupMembe
 import org.apache.stratos.messaging.event.topology.MemberInitializedEvent;
 import org.apache.stratos.messaging.event.topology.MemberMaintenanceModeEvent;
 import org.apache.stratos.messaging.event.topology.MemberStartedEvent;
+import org.apache.stratos.messaging.listener.EventListener;
+import org.apache.stratos.messaging.listener.EventListenerRegistry;
 import org.apache.stratos.messaging.listener.instance.notifier.InstanceCleanupClusterEventListener;
 import org.apache.stratos.messaging.listener.instance.notifier.InstanceCleanupMemberEventListener;
 import org.apache.stratos.messaging.listener.topology.MemberInitializedEventListener;
@@ -58,6 +60,7 @@ public class MockInstance implements Serializable {
     private transient InstanceNotifierEventReceiver instanceNotifierEventReceiver;
     private transient TopologyEventReceiver topologyEventReceiver;
     private transient MockHealthStatisticsNotifier mockHealthStatisticsNotifier;
+    private transient EventListener instanceCleanupClusterEventListener;
 
     // this is the mock iaas instance runtime status, do not persist this state
     private transient MemberStatus memberStatus = MemberStatus.Created;
@@ -109,48 +112,44 @@ public class MockInstance implements Serializable {
 
     private void startTopologyEventReceiver() {
         topologyEventReceiver = TopologyEventReceiver.getInstance();
-        topologyEventReceiver.addEventListener(new MemberInitializedEventListener() {
-            @Override
-            protected void onEvent(Event event) {
-                MemberInitializedEvent memberInitializedEvent = (MemberInitializedEvent) event;
-                if (memberInitializedEvent.getMemberId().equals(mockInstanceContext.getMemberId())) {
-                    MockMemberEventPublisher.publishInstanceStartedEvent(mockInstanceContext);
-
-                    if (log.isInfoEnabled()) {
-                        log.info(String.format("Mock member started event published for [member-id] %s",
-                                mockInstanceContext.getMemberId()));
+        // Listeners are registered by member id, so that they are only notified of the events of this member
+        String memberId = mockInstanceContext.getMemberId();
+        topologyEventReceiver.addEventListener(MemberInitializedEvent.class, EventListenerRegistry.KeyType.MemberId,
+                memberId, new MemberInitializedEventListener() {
+                    @Override
+                    protected void onEvent(Event event) {
+                        MockMemberEventPublisher.publishInstanceStartedEvent(mockInstanceContext);
+
+                        if (log.isInfoEnabled()) {
+                            log.info(String.format("Mock member started event published for [member-id] %s",
+                                    mockInstanceContext.getMemberId()));
+                        }
                     }
-                }
-            }
-        });
-        topologyEventReceiver.addEventListener(new MemberStartedEventListener() {
-            @Override
-            protected void onEvent(Event event) {
-                MemberStartedEvent memberStartedEvent = (MemberStartedEvent) event;
-                if (memberStartedEvent.getMemberId().equals(mockInstanceContext.getMemberId())) {
-                    MockMemberEventPublisher.publishInstanceActivatedEvent(mockInstanceContext);
-
-                    if (log.isInfoEnabled()) {
-                        log.info(String.format("Mock member activated event published for [member-id] %s",
-                                mockInstanceContext.getMemberId()));
+                });
+        topologyEventReceiver.addEventListener(MemberStartedEvent.class, EventListenerRegistry.KeyType.MemberId,
+                memberId, new MemberStartedEventListener() {
+                    @Override
+                    protected void onEvent(Event event) {
+                        MockMemberEventPublisher.publishInstanceActivatedEvent(mockInstanceContext);
+
+                        if (log.isInfoEnabled()) {
+                            log.info(String.format("Mock member activated event published for [member-id] %s",
+                                    mockInstanceContext.getMemberId()));
+                        }
                     }
-                }
-            }
-        });
-        topologyEventReceiver.addEventListener(new MemberMaintenanceListener() {
-            @Override
-            protected void onEvent(Event event) {
-                MemberMaintenanceModeEvent memberMaintenanceModeEvent = (MemberMaintenanceModeEvent) event;
-                if (memberMaintenanceModeEvent.getMemberId().equals(mockInstanceContext.getMemberId())) {
-                    MockMemberEventPublisher.publishInstanceReadyToShutdownEvent(mockInstanceContext);
-                    hasGracefullyShutdown.set(true);
-                    if (log.isInfoEnabled()) {
-                        log.info(String.format("Mock member ready to shutdown event published for [member-id] %s",
-                                mockInstanceContext.getMemberId()));
+                });
+        topologyEventReceiver.addEventListener(MemberMaintenanceModeEvent.class,
+                EventListenerRegistry.KeyType.MemberId, memberId, new MemberMaintenanceListener() {
+                    @Override
+                    protected void onEvent(Event event) {
+                        MockMemberEventPublisher.publishInstanceReadyToShutdownEvent(mockInstanceContext);
+                        hasGracefullyShutdown.set(true);
+                        if (log.isInfoEnabled()) {
+                            log.info(String.format("Mock member ready to shutdown event published for [member-id] %s",
+                                    mockInstanceContext.getMemberId()));
+                        }
                     }
-                }
-            }
-        });
+                });
 //        topologyEventReceiver.setExecutorService(eventListenerExecutorService);
 //        topologyEventReceiver.execute();
         if (log.isDebugEnabled()) {
@@ -162,27 +161,28 @@ public class MockInstance implements Serializable {
 
     private void startInstanceNotifierEventReceiver() {
         instanceNotifierEventReceiver = InstanceNotifierEventReceiver.getInstance();
-        instanceNotifierEventReceiver.addEventListener(new InstanceCleanupClusterEventListener() {
+        instanceCleanupClusterEventListener = new InstanceCleanupClusterEventListener() {
             @Override
             protected void onEvent(Event event) {
                 InstanceCleanupClusterEvent instanceCleanupClusterEvent = (InstanceCleanupClusterEvent) event;
-                if (mockInstanceContext.getClusterId().equals(instanceCleanupClusterEvent.getClusterId())
-                        && mockInstanceContext.getClusterInstanceId()
+                if (mockInstanceContext.getClusterInstanceId()
                         .equals(instanceCleanupClusterEvent.getClusterInstanceId())) {
                     handleMemberTermination();
                 }
             }
-        });
-
-        instanceNotifierEventReceiver.addEventListener(new InstanceCleanupMemberEventListener() {
-            @Override
-            protected void onEvent(Event event) {
-                InstanceCleanupMemberEvent instanceCleanupMemberEvent = (InstanceCleanupMemberEvent) event;
-                if (mockInstanceContext.getMemberId().equals(instanceCleanupMemberEvent.getMemberId())) {
-                    handleMemberTermination();
-                }
-            }
-        });
+        };
+        instanceNotifierEventReceiver.addEventListener(InstanceCleanupClusterEvent.class,
+                EventListenerRegistry.KeyType.ClusterId, mockInstanceContext.getClusterId(),
+                instanceCleanupClusterEventListener);
+
+        instanceNotifierEventReceiver.addEventListener(InstanceCleanupMemberEvent.class,
+                EventListenerRegistry.KeyType.MemberId, mockInstanceContext.getMemberId(),
+                new InstanceCleanupMemberEventListener() {
+                    @Override
+                    protected void onEvent(Event event) {
+                        handleMemberTermination();
+                    }
+                });
         // TODO: Fix InstanceNotifierEventReceiver to use executor service
         // do not remove this since execute() is a blocking call
 //        eventListenerExecutorService.submit(new Runnable() {
@@ -213,6 +213,15 @@ public class MockInstance implements Serializable {
         healthStatNotifierScheduledFuture.cancel(true);
     }
 
+    private void removeEventListeners() {
+        String memberId = mockInstanceContext.getMemberId();
+        topologyEventReceiver.removeEventListeners(EventListenerRegistry.KeyType.MemberId, memberId);
+        instanceNotifierEventReceiver.removeEventListeners(EventListenerRegistry.KeyType.MemberId, memberId);
+        instanceNotifierEventReceiver.removeEventListener(InstanceCleanupClusterEvent.class,
+                EventListenerRegistry.KeyType.ClusterId, mockInstanceContext.getClusterId(),
+                instanceCleanupClusterEventListener);
+    }
+
 //    private void stopInstanceNotifierReceiver() {
 //        instanceNotifierEventReceiver.terminate();
 //    }
@@ -225,6 +234,7 @@ public class MockInstance implements Serializable {
         if (MemberStatus.Initialized.equals(memberStatus)) {
             //stopInstanceNotifierReceiver();
             stopHealthStatisticsPublisher();
+            removeEventListeners();
             memberStatus = MemberStatus.Terminated;
             if (log.isInfoEnabled()) {
                 log.info(String.format("Mock instance stopped: [member-id] %s", mockInstanceContext.getMemberId()));
@@ -238,6 +238,8 @@ public class SingleClusterScalingTestCase extends StratosIntegrationTest {
             }
         }
         assertEquals(true, clusterScaleup, String.format("Cluster did not get scaled up: [cluster-id] %s", clusterId));
+        log.info(String.format("Cluster scaled up: [cluster-id] %s [active-instances] %d [duration] %s ms",
+                clusterId, activeInstancesAfterScaleup, System.currentTimeMillis() - startTime));
     }
 
     /**